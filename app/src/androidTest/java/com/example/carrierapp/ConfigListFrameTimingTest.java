@@ -0,0 +1,197 @@
+package com.example.carrierapp;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.PersistableBundle;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.FrameMetrics;
+import android.view.Window;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Frame times of the config list on a device: a fast scroll through 5,000
+ * rows, and the first frames after the list is emptied and refilled as on a
+ * SIM switch. Durations come from {@link FrameMetrics}; the summary is logged
+ * under {@value #TAG} for comparing runs.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ConfigListFrameTimingTest {
+
+    private static final String TAG = "ConfigListFrames";
+    private static final int KEYS = 5_000;
+    private static final int SCROLL_FRAMES = 240;
+    private static final int REFILL_FRAMES = 30;
+
+    private ActivityScenario<MainActivity> scenario;
+    private HandlerThread metricsThread;
+    private RecyclerView list;
+    private long frameBudgetNs;
+
+    private final List<Long> frames = Collections.synchronizedList(new ArrayList<>());
+    private volatile boolean collecting;
+    private final Window.OnFrameMetricsAvailableListener listener = (window, metrics, dropped) -> {
+        if (collecting) frames.add(metrics.getMetric(FrameMetrics.TOTAL_DURATION));
+    };
+
+    @Before
+    public void setUp() {
+        metricsThread = new HandlerThread(TAG);
+        metricsThread.start();
+        scenario = ActivityScenario.launch(MainActivity.class);
+        AtomicReference<RecyclerView> found = new AtomicReference<>();
+        scenario.onActivity(activity -> {
+            float hz = activity.getWindowManager().getDefaultDisplay().getRefreshRate();
+            frameBudgetNs = (long) (1e9 / (hz > 0 ? hz : 60));
+            activity.getWindow().addOnFrameMetricsAvailableListener(listener,
+                    new Handler(metricsThread.getLooper()));
+            RecyclerView rv = activity.findViewById(R.id.recycler_view);
+            rv.swapAdapter(adapter(7), false);
+            found.set(rv);
+        });
+        list = found.get();
+    }
+
+    @After
+    public void tearDown() {
+        scenario.onActivity(activity -> activity.getWindow().removeOnFrameMetricsAvailableListener(listener));
+        scenario.close();
+        metricsThread.quitSafely();
+    }
+
+    @Test
+    public void fastScrollStaysWithinTheFrameBudget() throws InterruptedException {
+        List<Long> scroll = runFrames(SCROLL_FRAMES, frame -> list.scrollBy(0, list.getHeight() / 3));
+        report("scroll", scroll);
+        // Emulators and CI devices are noisy; a list that rebinds without
+        // precomputed text or a shared pool misses far more than this.
+        assertTrue("jank " + jankPercent(scroll) + "%", jankPercent(scroll) < 10);
+        assertTrue("p90 " + percentile(scroll, 90) / 1e6 + " ms",
+                percentile(scroll, 90) < frameBudgetNs * 3 / 2);
+    }
+
+    @Test
+    public void refillAfterClearingReusesPooledRows() throws InterruptedException {
+        runFrames(REFILL_FRAMES, frame -> list.scrollBy(0, list.getHeight() / 3));
+        AtomicReference<Integer> pooled = new AtomicReference<>();
+        scenario.onActivity(activity -> {
+            MainActivity.clearRows(list);
+            RecyclerView.RecycledViewPool pool = list.getRecycledViewPool();
+            pooled.set(pool.getRecycledViewCount(CarrierConfigAdapter.VIEW_TYPE_BOOLEAN)
+                    + pool.getRecycledViewCount(CarrierConfigAdapter.VIEW_TYPE_SCALAR)
+                    + pool.getRecycledViewCount(CarrierConfigAdapter.VIEW_TYPE_ARRAY));
+            assertEquals(0, list.getChildCount());
+        });
+        assertTrue("pooled rows " + pooled.get(), pooled.get() > 0);
+
+        List<Long> refill = runFrames(REFILL_FRAMES, frame -> {
+            if (frame == 0) list.swapAdapter(adapter(11), false);
+        });
+        report("refill", refill);
+        assertTrue("jank " + jankPercent(refill) + "%", jankPercent(refill) < 10);
+    }
+
+    private interface FrameAction {
+        void run(int frame);
+    }
+
+    /** Runs {@code action} on each of {@code count} vsyncs and returns the frame durations seen meanwhile. */
+    private List<Long> runFrames(int count, FrameAction action) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        frames.clear();
+        scenario.onActivity(activity -> {
+            collecting = true;
+            Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                int frame;
+
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    if (frame == count) {
+                        done.countDown();
+                        return;
+                    }
+                    action.run(frame++);
+                    Choreographer.getInstance().postFrameCallback(this);
+                }
+            });
+        });
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        // Metrics for the last frames arrive after they are presented.
+        Thread.sleep(200);
+        collecting = false;
+        synchronized (frames) {
+            return new ArrayList<>(frames);
+        }
+    }
+
+    private void report(String what, List<Long> durations) {
+        Log.i(TAG, String.format(Locale.ROOT,
+                "%s: %d frames, budget %.2f ms, p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, jank %d%%",
+                what, durations.size(), frameBudgetNs / 1e6, percentile(durations, 50) / 1e6,
+                percentile(durations, 90) / 1e6, percentile(durations, 99) / 1e6, jankPercent(durations)));
+    }
+
+    private long jankPercent(List<Long> durations) {
+        if (durations.isEmpty()) return 0;
+        long janky = 0;
+        for (long d : durations) if (d > frameBudgetNs) janky++;
+        return janky * 100 / durations.size();
+    }
+
+    private static long percentile(List<Long> durations, int p) {
+        if (durations.isEmpty()) return 0;
+        List<Long> sorted = new ArrayList<>(durations);
+        Collections.sort(sorted);
+        int rank = (int) Math.ceil(p / 100.0 * sorted.size());
+        return sorted.get(Math.max(rank, 1) - 1);
+    }
+
+    private static CarrierConfigAdapter adapter(long seed) {
+        return new CarrierConfigAdapter(ConfigSnapshot.build(1, syntheticConfig(KEYS, seed)), (key, value) -> { });
+    }
+
+    /** Key shapes and value mix of a device config, as in bench/SyntheticConfig. */
+    private static PersistableBundle syntheticConfig(int size, long seed) {
+        String[] prefixes = {"carrier_", "ims_", "volte_", "mms_", "wfc_", "nr_", "sms_", "data_"};
+        String[] words = {"enable", "supported", "timer", "threshold", "rsrp", "plmn", "allow", "mode",
+                "prefer", "wifi", "lte", "voice", "video", "display", "signal"};
+        Random random = new Random(seed);
+        PersistableBundle config = new PersistableBundle();
+        while (config.size() < size) {
+            StringBuilder key = new StringBuilder(prefixes[random.nextInt(prefixes.length)]);
+            for (int w = 2 + random.nextInt(4); w > 0; w--) {
+                key.append(words[random.nextInt(words.length)]).append('_');
+            }
+            key.append(config.size());
+            int roll = random.nextInt(100);
+            String k = key.toString();
+            if (roll < 45) config.putBoolean(k, random.nextBoolean());
+            else if (roll < 65) config.putInt(k, random.nextInt(100_000) - 1_000);
+            else if (roll < 72) config.putLong(k, random.nextLong());
+            else if (roll < 87) config.putString(k, "value_" + Integer.toHexString(random.nextInt()));
+            else if (roll < 94) config.putIntArray(k, new int[]{-140, -110, -90, -44});
+            else config.putStringArray(k, new String[]{"310260", "310410", "311480"});
+        }
+        return config;
+    }
+}
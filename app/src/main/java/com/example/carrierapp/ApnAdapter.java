@@ -5,42 +5,131 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
-public class ApnAdapter extends RecyclerView.Adapter<ApnAdapter.ViewHolder> {
+public class ApnAdapter extends ListAdapter<ApnEditorActivity.ApnData, ApnAdapter.ViewHolder> {
+
+    static final DiffUtil.ItemCallback<ApnEditorActivity.ApnData> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<ApnEditorActivity.ApnData>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull ApnEditorActivity.ApnData oldItem,
+                                               @NonNull ApnEditorActivity.ApnData newItem) {
+                    return oldItem.id.equals(newItem.id);
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull ApnEditorActivity.ApnData oldItem,
+                                                  @NonNull ApnEditorActivity.ApnData newItem) {
+                    return oldItem.contentEquals(newItem);
+                }
+            };
 
-    private final List<ApnEditorActivity.ApnData> list;
     private final OnItemClickListener listener;
+    private final OnSelectionChangedListener selectionListener;
+    private final Set<String> selectedIds = new HashSet<>();
 
     public interface OnItemClickListener {
         void onItemClick(ApnEditorActivity.ApnData item);
     }
 
-    public ApnAdapter(List<ApnEditorActivity.ApnData> list, OnItemClickListener listener) {
-        this.list = list;
+    public interface OnSelectionChangedListener {
+        void onSelectionChanged(int selectedCount);
+    }
+
+    public ApnAdapter(OnItemClickListener listener, OnSelectionChangedListener selectionListener) {
+        super(DIFF_CALLBACK);
         this.listener = listener;
+        this.selectionListener = selectionListener;
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).stableId;
+    }
+
+    @Override
+    public void submitList(List<ApnEditorActivity.ApnData> list) {
+        submitList(list, null);
+    }
+
+    /** Drops selected ids the new list no longer has once it is committed, so actions never target gone rows. */
+    @Override
+    public void submitList(List<ApnEditorActivity.ApnData> list, Runnable commitCallback) {
+        super.submitList(list, () -> {
+            if (retainSelected(selectedIds, getCurrentList())) {
+                selectionListener.onSelectionChanged(selectedIds.size());
+            }
+            if (commitCallback != null) commitCallback.run();
+        });
+    }
+
+    /** Removes from {@code selected} every id not in {@code list}; true if any was removed. */
+    static boolean retainSelected(Set<String> selected, List<ApnEditorActivity.ApnData> list) {
+        if (selected.isEmpty()) return false;
+        Set<String> present = new HashSet<>(list.size() * 2);
+        for (ApnEditorActivity.ApnData item : list) present.add(item.id);
+        return selected.retainAll(present);
+    }
+
+    public List<String> getSelectedIds() {
+        return new ArrayList<>(selectedIds);
+    }
+
+    public void selectAll() {
+        for (ApnEditorActivity.ApnData item : getCurrentList()) selectedIds.add(item.id);
+        notifyItemRangeChanged(0, getItemCount());
+        selectionListener.onSelectionChanged(selectedIds.size());
+    }
+
+    public void clearSelection() {
+        selectedIds.clear();
+        notifyItemRangeChanged(0, getItemCount());
+        selectionListener.onSelectionChanged(0);
+    }
+
+    private void onRowClick(int position) {
+        if (position == RecyclerView.NO_POSITION) return;
+        // Once anything is selected, taps extend the selection instead of editing.
+        if (selectedIds.isEmpty()) listener.onItemClick(getItem(position));
+        else toggleSelection(position);
+    }
+
+    private void toggleSelection(int position) {
+        if (position == RecyclerView.NO_POSITION) return;
+        String id = getItem(position).id;
+        if (!selectedIds.remove(id)) selectedIds.add(id);
+        notifyItemChanged(position);
+        selectionListener.onSelectionChanged(selectedIds.size());
     }
 
     @NonNull
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View v = LayoutInflater.from(parent.getContext())
-                .inflate(android.R.layout.simple_list_item_2, parent, false);
-        return new ViewHolder(v);
+                .inflate(android.R.layout.simple_list_item_activated_2, parent, false);
+        ViewHolder holder = new ViewHolder(v);
+        // Listeners live as long as the holder; binding only swaps text.
+        v.setOnClickListener(view -> onRowClick(holder.getBindingAdapterPosition()));
+        v.setOnLongClickListener(view -> {
+            toggleSelection(holder.getBindingAdapterPosition());
+            return true;
+        });
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        ApnEditorActivity.ApnData item = list.get(position);
+        ApnEditorActivity.ApnData item = getItem(position);
         holder.text1.setText(item.name);
-        holder.text2.setText(item.apn + " (" + item.type + ")");
-        holder.itemView.setOnClickListener(v -> listener.onItemClick(item));
-    }
-
-    @Override
-    public int getItemCount() {
-        return list.size();
+        holder.text2.setText(item.summary);
+        holder.itemView.setActivated(selectedIds.contains(item.id));
     }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
@@ -0,0 +1,102 @@
+package com.example.carrierapp;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.OperationApplicationException;
+import android.net.Uri;
+import android.os.RemoteException;
+import android.provider.Telephony;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Accumulates APN inserts and updates and commits them as one applyBatch call,
+ * so a bulk edit or import costs a single provider round trip.
+ */
+public class ApnBatch {
+
+    public static final String AUTHORITY = "telephony";
+
+    public interface BatchTarget {
+        ContentProviderResult[] applyBatch(String authority, ArrayList<ContentProviderOperation> operations)
+                throws RemoteException, OperationApplicationException;
+    }
+
+    private final Uri uri;
+    private final ArrayList<ContentProviderOperation> operations = new ArrayList<>();
+
+    public ApnBatch(Uri uri) {
+        this.uri = uri;
+    }
+
+    /** The carriers table restricted to one subscription. */
+    public static Uri carriersUri(int subId) {
+        return Uri.withAppendedPath(Telephony.Carriers.CONTENT_URI, "subId/" + subId);
+    }
+
+    public static BatchTarget target(ContentResolver resolver) {
+        return resolver::applyBatch;
+    }
+
+    public ApnBatch update(String id, ContentValues values) {
+        operations.add(ContentProviderOperation.newUpdate(uri)
+                .withSelection(Telephony.Carriers._ID + " = ?", new String[]{id})
+                .withValues(values)
+                .build());
+        return this;
+    }
+
+    public ApnBatch insert(ContentValues values) {
+        operations.add(ContentProviderOperation.newInsert(uri)
+                .withValues(values)
+                .build());
+        return this;
+    }
+
+    public int size() {
+        return operations.size();
+    }
+
+    public ContentProviderResult[] commit(BatchTarget target)
+            throws RemoteException, OperationApplicationException {
+        if (operations.isEmpty()) return new ContentProviderResult[0];
+        return target.applyBatch(AUTHORITY, operations);
+    }
+
+    /**
+     * Parses an import file: a JSON array of objects whose keys are carriers
+     * table columns, e.g. {@code [{"name":"Test","apn":"ims","type":"ims"}]}.
+     */
+    public static List<ContentValues> parseJson(String json) throws JSONException {
+        JSONArray array = new JSONArray(json);
+        List<ContentValues> result = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject obj = array.getJSONObject(i);
+            ContentValues values = new ContentValues();
+            Iterator<String> keys = obj.keys();
+            while (keys.hasNext()) {
+                String column = keys.next();
+                if (Telephony.Carriers._ID.equals(column)) continue;
+                Object value = obj.get(column);
+                if (value instanceof Integer) values.put(column, (Integer) value);
+                else if (value instanceof Long) values.put(column, (Long) value);
+                else if (value instanceof Boolean) values.put(column, (Boolean) value ? 1 : 0);
+                else if (value == JSONObject.NULL) values.putNull(column);
+                else values.put(column, String.valueOf(value));
+            }
+            if (!values.containsKey(Telephony.Carriers.APN)) {
+                throw new JSONException("Entry " + i + " has no \"" + Telephony.Carriers.APN + "\"");
+            }
+            result.add(values);
+        }
+        return result;
+    }
+}
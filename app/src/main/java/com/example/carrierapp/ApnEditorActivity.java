@@ -2,31 +2,70 @@ package com.example.carrierapp;
 
 import android.content.ContentResolver;
 import android.content.ContentValues;
-import android.database.Cursor;
+import android.content.OperationApplicationException;
+import android.database.ContentObserver;
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.RemoteException;
 import android.provider.Telephony;
 import android.telephony.SubscriptionManager;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.widget.EditText;
 import android.widget.LinearLayout;
 import android.widget.ScrollView;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.appbar.MaterialToolbar;
 
+import org.json.JSONException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class ApnEditorActivity extends AppCompatActivity {
 
+    private static final long RELOAD_DELAY_MS = 200;
+
     private RecyclerView recyclerView;
     private ApnAdapter adapter;
     private int subId;
+    private int selectedCount;
+    private boolean apnsShown;
+    /** Set while stopped: the carriers observer is off, so the table may have changed unseen. */
+    private boolean stale;
+    private ApnRepository apnRepository;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable reloadTask = this::loadApns;
+    private final ContentObserver carriersObserver = new ContentObserver(mainHandler) {
+        @Override
+        public void onChange(boolean selfChange) {
+            scheduleReload();
+        }
+    };
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final ActivityResultLauncher<String[]> importLauncher =
+            registerForActivityResult(new ActivityResultContracts.OpenDocument(), this::importApns);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -39,51 +78,108 @@ public class ApnEditorActivity extends AppCompatActivity {
 
         recyclerView = findViewById(R.id.recycler_view);
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        adapter = new ApnAdapter(this::showEditDialog, count -> {
+            selectedCount = count;
+            invalidateOptionsMenu();
+        });
+        recyclerView.setAdapter(adapter);
 
         subId = getIntent().getIntExtra("sub_id", SubscriptionManager.getDefaultDataSubscriptionId());
+        apnRepository = new ApnRepository(getContentResolver(), ContextCompat.getMainExecutor(this));
         loadApns();
     }
 
     private void loadApns() {
-        List<ApnData> apnList = new ArrayList<>();
-        Uri apnUri = Uri.parse("content://telephony/carriers");
-        Uri subSpecificUri = Uri.withAppendedPath(apnUri, "subId/" + subId);
-
-        try (Cursor cursor = getContentResolver().query(subSpecificUri, null, null, null, null)) {
-            if (cursor != null && cursor.moveToFirst()) {
-                do {
-                    String id = cursor.getString(cursor.getColumnIndexOrThrow(Telephony.Carriers._ID));
-                    String name = cursor.getString(cursor.getColumnIndexOrThrow(Telephony.Carriers.NAME));
-                    String apn = cursor.getString(cursor.getColumnIndexOrThrow(Telephony.Carriers.APN));
-                    String type = cursor.getString(cursor.getColumnIndexOrThrow(Telephony.Carriers.TYPE));
-                    
-                    ApnData data = new ApnData(id, name, apn, type);
-                    
-                    // Optional fields
-                    int proxyIndex = cursor.getColumnIndex(Telephony.Carriers.PROXY);
-                    if (proxyIndex != -1) data.proxy = cursor.getString(proxyIndex);
-                    
-                    int portIndex = cursor.getColumnIndex(Telephony.Carriers.PORT);
-                    if (portIndex != -1) data.port = cursor.getString(portIndex);
-
-                    apnList.add(data);
-                } while (cursor.moveToNext());
-            } else {
-                 Toast.makeText(this, "No APNs found.", Toast.LENGTH_SHORT).show();
+        mainHandler.removeCallbacks(reloadTask);
+        final PageAccumulator pages = new PageAccumulator(!apnsShown);
+        apnRepository.load(carriersUri(), new ApnRepository.Callback() {
+            @Override
+            public void onPage(List<ApnData> page, boolean last) {
+                List<ApnData> list = pages.add(page, last);
+                if (list != null) adapter.submitList(list);
+                if (!last) return;
+                apnsShown = true;
+                if (list.isEmpty()) {
+                    Toast.makeText(ApnEditorActivity.this, "No APNs found.", Toast.LENGTH_SHORT).show();
+                }
             }
-        } catch (SecurityException e) {
-             new AlertDialog.Builder(this)
-                .setTitle("Access Denied")
-                .setMessage("Cannot read APN settings.\n\nCarrier Privileges missing.\nVerify your SIM certificate hash.")
-                .setPositiveButton("OK", (dialog, which) -> finish())
-                .show();
-            return;
-        } catch (Exception e) {
-            Toast.makeText(this, "Error: " + e.getMessage(), Toast.LENGTH_LONG).show();
+
+            @Override
+            public void onError(Exception e) {
+                if (e instanceof SecurityException) {
+                    new AlertDialog.Builder(ApnEditorActivity.this)
+                        .setTitle("Access Denied")
+                        .setMessage("Cannot read APN settings.\n\nCarrier Privileges missing.\nVerify your SIM certificate hash.")
+                        .setPositiveButton("OK", (dialog, which) -> finish())
+                        .show();
+                } else {
+                    Toast.makeText(ApnEditorActivity.this, "Error: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                }
+            }
+        });
+    }
+
+    /** Coalesces provider change notifications and our own writes into one re-query. */
+    private void scheduleReload() {
+        mainHandler.removeCallbacks(reloadTask);
+        mainHandler.postDelayed(reloadTask, RELOAD_DELAY_MS);
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        getContentResolver().registerContentObserver(
+                Telephony.Carriers.CONTENT_URI, true, carriersObserver);
+        // onCreate already loaded for the first start.
+        if (stale) {
+            stale = false;
+            loadApns();
         }
+    }
 
-        adapter = new ApnAdapter(apnList, this::showEditDialog);
-        recyclerView.setAdapter(adapter);
+    @Override
+    protected void onStop() {
+        getContentResolver().unregisterContentObserver(carriersObserver);
+        mainHandler.removeCallbacks(reloadTask);
+        stale = true;
+        super.onStop();
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.menu_apn, menu);
+        MenuItem editSelected = menu.findItem(R.id.action_edit_selected);
+        editSelected.setVisible(selectedCount > 0);
+        editSelected.setTitle("Edit " + selectedCount + " Selected");
+        menu.findItem(R.id.action_clear_selection).setVisible(selectedCount > 0);
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(@NonNull MenuItem item) {
+        int id = item.getItemId();
+        if (id == R.id.action_edit_selected) {
+            if (adapter != null) showBulkEditDialog(adapter.getSelectedIds());
+            return true;
+        } else if (id == R.id.action_select_all) {
+            if (adapter != null) adapter.selectAll();
+            return true;
+        } else if (id == R.id.action_clear_selection) {
+            if (adapter != null) adapter.clearSelection();
+            return true;
+        } else if (id == R.id.action_import_apns) {
+            importLauncher.launch(new String[]{"application/json", "text/*"});
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    @Override
+    protected void onDestroy() {
+        executor.shutdown();
+        mainHandler.removeCallbacks(reloadTask);
+        apnRepository.shutdown();
+        super.onDestroy();
     }
 
     private void showEditDialog(ApnData apnData) {
@@ -127,6 +223,104 @@ public class ApnEditorActivity extends AppCompatActivity {
         return et;
     }
 
+    private void showBulkEditDialog(List<String> ids) {
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle("Edit " + ids.size() + " APNs");
+
+        ScrollView scrollView = new ScrollView(this);
+        LinearLayout layout = new LinearLayout(this);
+        layout.setOrientation(LinearLayout.VERTICAL);
+        layout.setPadding(50, 20, 50, 20);
+
+        android.widget.TextView hint = new android.widget.TextView(this);
+        hint.setText("Leave a field blank to keep each APN's current value.");
+        layout.addView(hint);
+
+        final EditText inputApn = addField(layout, "APN", null);
+        final EditText inputProxy = addField(layout, "Proxy", null);
+        final EditText inputPort = addField(layout, "Port", null);
+        final EditText inputType = addField(layout, "Type", null);
+
+        scrollView.addView(layout);
+        builder.setView(scrollView);
+
+        builder.setPositiveButton("Save", (dialog, which) -> {
+            ContentValues values = new ContentValues();
+            putIfSet(values, Telephony.Carriers.APN, inputApn);
+            putIfSet(values, Telephony.Carriers.PROXY, inputProxy);
+            putIfSet(values, Telephony.Carriers.PORT, inputPort);
+            putIfSet(values, Telephony.Carriers.TYPE, inputType);
+            if (values.size() == 0) return;
+
+            ApnBatch batch = new ApnBatch(carriersUri());
+            for (String id : ids) batch.update(id, values);
+            commitBatch(batch, "Updated " + ids.size() + " APNs");
+        });
+        builder.setNegativeButton("Cancel", null);
+        builder.show();
+    }
+
+    private static void putIfSet(ContentValues values, String column, EditText input) {
+        String text = input.getText().toString();
+        if (!text.isEmpty()) values.put(column, text);
+    }
+
+    private void importApns(Uri source) {
+        if (source == null) return;
+        executor.execute(() -> {
+            ApnBatch batch = new ApnBatch(carriersUri());
+            try {
+                for (ContentValues values : ApnBatch.parseJson(readText(source))) batch.insert(values);
+            } catch (IOException | JSONException e) {
+                runOnUiThread(() -> Toast.makeText(this, "Import failed: " + e.getMessage(),
+                        Toast.LENGTH_LONG).show());
+                return;
+            }
+            runOnUiThread(() -> commitBatch(batch, "Imported " + batch.size() + " APNs"));
+        });
+    }
+
+    private String readText(Uri source) throws IOException {
+        try (InputStream in = getContentResolver().openInputStream(source)) {
+            if (in == null) throw new IOException("Cannot open " + source);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            char[] buf = new char[8192];
+            int n;
+            while ((n = reader.read(buf)) != -1) sb.append(buf, 0, n);
+            return sb.toString();
+        }
+    }
+
+    private void commitBatch(ApnBatch batch, String successMessage) {
+        ApnBatch.BatchTarget target = ApnBatch.target(getContentResolver());
+        executor.execute(() -> {
+            String message;
+            boolean reload = false;
+            try {
+                batch.commit(target);
+                message = successMessage;
+                reload = true;
+            } catch (SecurityException e) {
+                message = "Security Error: Carrier Privileges Missing";
+            } catch (RemoteException | OperationApplicationException e) {
+                message = "Batch failed: " + e.getMessage();
+            }
+            showWriteResult(message, Toast.LENGTH_LONG, reload);
+        });
+    }
+
+    private void showWriteResult(String message, int duration, boolean reload) {
+        runOnUiThread(() -> {
+            Toast.makeText(this, message, duration).show();
+            if (reload) scheduleReload();
+        });
+    }
+
+    private Uri carriersUri() {
+        return ApnBatch.carriersUri(subId);
+    }
+
     private void updateApn(String id, String name, String apn, String proxy, String port, String type) {
         ContentValues values = new ContentValues();
         values.put(Telephony.Carriers.NAME, name);
@@ -135,27 +329,70 @@ public class ApnEditorActivity extends AppCompatActivity {
         values.put(Telephony.Carriers.PORT, port);
         values.put(Telephony.Carriers.TYPE, type);
         
-        Uri uri = Uri.withAppendedPath(Uri.parse("content://telephony/carriers"), "subId/" + subId);
+        Uri uri = carriersUri();
         String where = Telephony.Carriers._ID + " = ?";
         String[] args = new String[]{id};
 
-        try {
-            int rows = getContentResolver().update(uri, values, where, args);
-            if (rows > 0) {
-                Toast.makeText(this, "Success: APN Updated", Toast.LENGTH_SHORT).show();
-                loadApns();
-            } else {
-                Toast.makeText(this, "Failed: No rows changed", Toast.LENGTH_SHORT).show();
+        ContentResolver resolver = getContentResolver();
+        // A provider write is a binder call; keep it off the UI thread like the batches.
+        executor.execute(() -> {
+            try {
+                int rows = resolver.update(uri, values, where, args);
+                if (rows > 0) {
+                    showWriteResult("Success: APN Updated", Toast.LENGTH_SHORT, true);
+                } else {
+                    showWriteResult("Failed: No rows changed", Toast.LENGTH_SHORT, false);
+                }
+            } catch (SecurityException e) {
+                showWriteResult("Security Error: Carrier Privileges Missing", Toast.LENGTH_LONG, false);
             }
-        } catch (SecurityException e) {
-            Toast.makeText(this, "Security Error: Carrier Privileges Missing", Toast.LENGTH_LONG).show();
+        });
+    }
+
+    /**
+     * Collects repository pages into the list to submit. The first load shows
+     * each page as it arrives. A reload submits once, after the last page: a
+     * partial list would diff as every later row removed and then re-inserted,
+     * where the whole table diffs as just the rows that changed.
+     */
+    static final class PageAccumulator {
+        private final List<ApnData> loaded = new ArrayList<>();
+        private final boolean progressive;
+
+        PageAccumulator(boolean progressive) {
+            this.progressive = progressive;
+        }
+
+        /** The list to submit after {@code page}, or null to wait for more pages. */
+        List<ApnData> add(List<ApnData> page, boolean last) {
+            loaded.addAll(page);
+            return progressive || last ? new ArrayList<>(loaded) : null;
         }
     }
 
     public static class ApnData {
         String id, name, apn, type, proxy, port;
+        Map<String, String> extras;
+        final long stableId;
+        final String summary;
         public ApnData(String id, String name, String apn, String type) {
             this.id = id; this.name = name; this.apn = apn; this.type = type;
+            this.stableId = parseId(id);
+            this.summary = apn + " (" + type + ")";
+        }
+
+        boolean contentEquals(ApnData other) {
+            return Objects.equals(name, other.name) && Objects.equals(apn, other.apn)
+                    && Objects.equals(type, other.type) && Objects.equals(proxy, other.proxy)
+                    && Objects.equals(port, other.port) && Objects.equals(extras, other.extras);
+        }
+
+        private static long parseId(String id) {
+            try {
+                return Long.parseLong(id);
+            } catch (NumberFormatException e) {
+                return id != null ? id.hashCode() : RecyclerView.NO_ID;
+            }
         }
     }
 }
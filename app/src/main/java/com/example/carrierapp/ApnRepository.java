@@ -0,0 +1,150 @@
+package com.example.carrierapp;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.Telephony;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reads APN rows off the main thread. Only the columns the UI shows are
+ * requested (plus any configured extras), column indices are resolved once per
+ * cursor, and rows are handed over in pages so large tables render progressively.
+ */
+public class ApnRepository {
+
+    public static final String[] BASE_PROJECTION = {
+            Telephony.Carriers._ID,
+            Telephony.Carriers.NAME,
+            Telephony.Carriers.APN,
+            Telephony.Carriers.TYPE,
+            Telephony.Carriers.PROXY,
+            Telephony.Carriers.PORT,
+    };
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    public interface CursorSource {
+        Cursor query(Uri uri, String[] projection);
+    }
+
+    public interface Callback {
+        void onPage(List<ApnEditorActivity.ApnData> page, boolean last);
+
+        void onError(Exception e);
+    }
+
+    private final CursorSource source;
+    private final ExecutorService worker;
+    private final Executor resultExecutor;
+    private final String[] extraColumns;
+    private final String[] projection;
+    private final int pageSize;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ApnRepository(ContentResolver resolver, Executor resultExecutor, String... extraColumns) {
+        this((uri, projection) -> resolver.query(uri, projection, null, null, null),
+                Executors.newSingleThreadExecutor(), resultExecutor, DEFAULT_PAGE_SIZE, extraColumns);
+    }
+
+    public ApnRepository(CursorSource source, ExecutorService worker, Executor resultExecutor,
+                         int pageSize, String... extraColumns) {
+        this.source = source;
+        this.worker = worker;
+        this.resultExecutor = resultExecutor;
+        this.pageSize = pageSize;
+        this.extraColumns = extraColumns;
+        this.projection = Arrays.copyOf(BASE_PROJECTION, BASE_PROJECTION.length + extraColumns.length);
+        System.arraycopy(extraColumns, 0, projection, BASE_PROJECTION.length, extraColumns.length);
+    }
+
+    /** Starts a load, superseding any earlier one still in progress. */
+    public void load(Uri uri, Callback callback) {
+        final long gen = generation.incrementAndGet();
+        worker.execute(() -> {
+            long start = Metrics.start();
+            try (Cursor cursor = source.query(uri, projection)) {
+                if (cursor == null) {
+                    post(gen, callback, new ArrayList<>(), true);
+                    return;
+                }
+                Columns columns = new Columns(cursor, extraColumns);
+                List<ApnEditorActivity.ApnData> page = new ArrayList<>(pageSize);
+                int rows = 0;
+                while (cursor.moveToNext()) {
+                    if (gen != generation.get()) return;
+                    page.add(columns.read(cursor));
+                    rows++;
+                    if (page.size() == pageSize && !cursor.isLast()) {
+                        post(gen, callback, page, false);
+                        page = new ArrayList<>(pageSize);
+                    }
+                }
+                // Covers the query and reading every row, since cursors fill lazily.
+                Metrics.APN_QUERY.stop(start);
+                Metrics.APN_ROWS.add(rows);
+                post(gen, callback, page, true);
+            } catch (Exception e) {
+                resultExecutor.execute(() -> {
+                    if (gen == generation.get()) callback.onError(e);
+                });
+            }
+        });
+    }
+
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    public void shutdown() {
+        cancel();
+        worker.shutdownNow();
+    }
+
+    private void post(long gen, Callback callback, List<ApnEditorActivity.ApnData> page, boolean last) {
+        resultExecutor.execute(() -> {
+            if (gen == generation.get()) callback.onPage(page, last);
+        });
+    }
+
+    private static final class Columns {
+        final int id, name, apn, type, proxy, port;
+        final String[] extraNames;
+        final int[] extra;
+
+        Columns(Cursor cursor, String[] extraNames) {
+            id = cursor.getColumnIndexOrThrow(Telephony.Carriers._ID);
+            name = cursor.getColumnIndexOrThrow(Telephony.Carriers.NAME);
+            apn = cursor.getColumnIndexOrThrow(Telephony.Carriers.APN);
+            type = cursor.getColumnIndexOrThrow(Telephony.Carriers.TYPE);
+            proxy = cursor.getColumnIndex(Telephony.Carriers.PROXY);
+            port = cursor.getColumnIndex(Telephony.Carriers.PORT);
+            this.extraNames = extraNames;
+            extra = new int[extraNames.length];
+            for (int i = 0; i < extraNames.length; i++) extra[i] = cursor.getColumnIndex(extraNames[i]);
+        }
+
+        ApnEditorActivity.ApnData read(Cursor cursor) {
+            ApnEditorActivity.ApnData data = new ApnEditorActivity.ApnData(
+                    cursor.getString(id), cursor.getString(name),
+                    cursor.getString(apn), cursor.getString(type));
+            if (proxy != -1) data.proxy = cursor.getString(proxy);
+            if (port != -1) data.port = cursor.getString(port);
+            if (extra.length > 0) {
+                data.extras = new HashMap<>(extra.length * 2);
+                for (int i = 0; i < extra.length; i++) {
+                    if (extra[i] != -1) data.extras.put(extraNames[i], cursor.getString(extra[i]));
+                }
+            }
+            return data;
+        }
+    }
+}
@@ -1,95 +1,247 @@
 package com.example.carrierapp;
 
-import android.os.PersistableBundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.CompoundButton;
 import androidx.annotation.NonNull;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.materialswitch.MaterialSwitch;
 import com.google.android.material.textview.MaterialTextView;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
 
-public class CarrierConfigAdapter extends RecyclerView.Adapter<CarrierConfigAdapter.ViewHolder> {
+/**
+ * Rows are indices into the snapshot's parallel arrays rather than keys, so
+ * binding a row reads those arrays directly instead of searching for the key.
+ */
+public class CarrierConfigAdapter extends ListAdapter<Integer, CarrierConfigAdapter.ViewHolder> {
 
-    private final PersistableBundle configBundle;
-    private final List<String> originalKeys;
-    private final List<String> filteredKeys;
+    // Indices are unique and the snapshot is fixed for the lifetime of the adapter,
+    // so a row only ever needs rebinding when it enters or leaves the result set.
+    private static final DiffUtil.ItemCallback<Integer> DIFF_CALLBACK = new DiffUtil.ItemCallback<Integer>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Integer oldIndex, @NonNull Integer newIndex) {
+            return oldIndex.equals(newIndex);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Integer oldIndex, @NonNull Integer newIndex) {
+            return true;
+        }
+    };
+
+    public static final int VIEW_TYPE_BOOLEAN = 0;
+    public static final int VIEW_TYPE_SCALAR = 1;
+    public static final int VIEW_TYPE_ARRAY = 2;
+
+    private static final int FUZZY_MIN_LENGTH = 3;
+
+    private final ConfigSnapshot snapshot;
+    // rows[i] == i, boxed once so result lists hand out shared Integers.
+    private final Integer[] rows;
+    private volatile Subset subset;
     private final OnConfigChangeListener listener;
 
     public interface OnConfigChangeListener {
         void onConfigChanged(String key, Object newValue);
     }
 
-    public CarrierConfigAdapter(PersistableBundle configBundle, OnConfigChangeListener listener) {
-        this.configBundle = configBundle;
+    public CarrierConfigAdapter(ConfigSnapshot snapshot, OnConfigChangeListener listener) {
+        super(DIFF_CALLBACK);
+        this.snapshot = snapshot;
         this.listener = listener;
-        this.originalKeys = new ArrayList<>(configBundle.keySet());
-        Collections.sort(this.originalKeys);
-        this.filteredKeys = new ArrayList<>(this.originalKeys);
+        rows = new Integer[snapshot.size()];
+        for (int i = 0; i < rows.length; i++) rows[i] = i;
+        submitList(rowList(snapshot.searchIndex.searchIndices("")));
     }
 
     public void filter(String text) {
-        filteredKeys.clear();
-        if (text == null || text.isEmpty()) {
-            filteredKeys.addAll(originalKeys);
+        submitList(search(text));
+    }
+
+    public ConfigSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /** Restricts the list (and search) to {@code sortedKeys}; null shows every key again. */
+    public void setVisibleKeys(List<String> sortedKeys) {
+        subset = sortedKeys != null ? new Subset(snapshot, sortedKeys) : null;
+    }
+
+    /** Safe to call from a worker thread; hand the result to {@link #submitList}. */
+    public List<Integer> search(String text) {
+        long start = Metrics.start();
+        Subset visible = subset;
+        int[] hits;
+        if (ConfigQuery.isStructured(text)) {
+            hits = runQuery(text, visible);
         } else {
-            String query = text.toLowerCase();
-            for (String key : originalKeys) {
-                if (key.toLowerCase().contains(query)) {
-                    filteredKeys.add(key);
-                }
+            hits = visible != null ? visible.search(text) : snapshot.searchIndex.searchIndices(text);
+            if (hits.length == 0 && text != null && text.trim().length() >= FUZZY_MIN_LENGTH) {
+                // Nothing contains the text verbatim; fall back to typo-tolerant ranking.
+                hits = runQuery(text, visible);
             }
         }
-        notifyDataSetChanged();
+        Metrics.FILTER.stop(start);
+        return rowList(hits);
+    }
+
+    private int[] runQuery(String text, Subset visible) {
+        int[] ranked = ConfigQuery.parse(text).runIndices(snapshot.queryIndex());
+        if (visible == null) return ranked;
+        int[] result = new int[ranked.length];
+        int count = 0;
+        for (int index : ranked) {
+            if (visible.contains(index)) result[count++] = index;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private List<Integer> rowList(int[] indices) {
+        return new RowList(rows, indices);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return viewTypeFor(snapshot.typeAt(getItem(position)));
+    }
+
+    static int viewTypeFor(byte type) {
+        if (type == ConfigValues.TYPE_BOOLEAN) return VIEW_TYPE_BOOLEAN;
+        if (ConfigValues.isArray(type) || type == ConfigValues.TYPE_BUNDLE) return VIEW_TYPE_ARRAY;
+        return VIEW_TYPE_SCALAR;
+    }
+
+    /** Row layout per view type; the key TextView is styled the same in all of them. */
+    static int layoutFor(int viewType) {
+        switch (viewType) {
+            case VIEW_TYPE_BOOLEAN: return R.layout.item_config_boolean;
+            case VIEW_TYPE_ARRAY: return R.layout.item_config_array;
+            default: return R.layout.item_config_scalar;
+        }
     }
 
     @NonNull
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_carrier_config, parent, false);
-        return new ViewHolder(view);
+                .inflate(layoutFor(viewType), parent, false);
+        ViewHolder holder = new ViewHolder(view);
+        if (viewType == VIEW_TYPE_BOOLEAN) {
+            holder.switchListener = (buttonView, isChecked) -> {
+                int pos = holder.getBindingAdapterPosition();
+                if (pos != RecyclerView.NO_POSITION) listener.onConfigChanged(keyAt(pos), isChecked);
+            };
+        } else {
+            view.setOnClickListener(v -> {
+                int pos = holder.getBindingAdapterPosition();
+                if (pos != RecyclerView.NO_POSITION) listener.onConfigChanged(keyAt(pos), "EDIT_REQUEST");
+            });
+        }
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        String key = filteredKeys.get(position);
-        Object value = configBundle.get(key);
-
-        holder.keyText.setText(key);
-        holder.valueSwitch.setOnCheckedChangeListener(null);
-        holder.itemView.setOnClickListener(null);
-
-        if (value instanceof Boolean) {
-            holder.valueSwitch.setVisibility(View.VISIBLE);
-            holder.valueText.setVisibility(View.GONE);
-            holder.valueSwitch.setChecked((Boolean) value);
-            holder.valueSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
-                listener.onConfigChanged(key, isChecked);
-            });
+        long start = Metrics.start();
+        int index = getItem(position);
+
+        setText(holder.keyText, snapshot.keyTextAt(index));
+        if (holder.valueSwitch != null) {
+            holder.valueSwitch.setOnCheckedChangeListener(null);
+            holder.valueSwitch.setChecked(snapshot.booleanAt(index));
+            holder.valueSwitch.setOnCheckedChangeListener(holder.switchListener);
         } else {
-            holder.valueSwitch.setVisibility(View.GONE);
-            holder.valueText.setVisibility(View.VISIBLE);
-            holder.valueText.setText(String.valueOf(value));
-            holder.itemView.setOnClickListener(v -> {
-                listener.onConfigChanged(key, "EDIT_REQUEST");
-            });
+            setText(holder.valueText, snapshot.valueTextAt(index));
         }
+        Metrics.BIND.stop(start);
     }
 
-    @Override
-    public int getItemCount() {
-        return filteredKeys.size();
+    private String keyAt(int position) {
+        return snapshot.keys.get(getItem(position));
+    }
+
+    private static void setText(MaterialTextView view, CharSequence text) {
+        if (text instanceof PrecomputedTextCompat) {
+            try {
+                TextViewCompat.setPrecomputedText(view, (PrecomputedTextCompat) text);
+                return;
+            } catch (IllegalArgumentException e) {
+                // Measured with other params (e.g. font scale changed since); lay it out here.
+            }
+        }
+        view.setText(text.toString());
+    }
+
+    /** The keys a changed-only view shows, with their own search index. */
+    private static final class Subset {
+        final ConfigSearchIndex index;
+        // Subset position -> snapshot index, and snapshot index -> membership.
+        final int[] snapshotIndices;
+        final boolean[] member;
+
+        Subset(ConfigSnapshot snapshot, List<String> sortedKeys) {
+            index = new ConfigSearchIndex(sortedKeys);
+            snapshotIndices = new int[sortedKeys.size()];
+            member = new boolean[snapshot.size()];
+            for (int i = 0; i < snapshotIndices.length; i++) {
+                int at = snapshot.indexOf(sortedKeys.get(i));
+                snapshotIndices[i] = at;
+                if (at >= 0) member[at] = true;
+            }
+        }
+
+        int[] search(String text) {
+            int[] hits = index.searchIndices(text);
+            int[] out = new int[hits.length];
+            int count = 0;
+            for (int hit : hits) {
+                int at = snapshotIndices[hit];
+                if (at >= 0) out[count++] = at;
+            }
+            return count == out.length ? out : Arrays.copyOf(out, count);
+        }
+
+        boolean contains(int snapshotIndex) {
+            return member[snapshotIndex];
+        }
+    }
+
+    /** Search hits as a list of the shared boxed row indices. */
+    private static final class RowList extends AbstractList<Integer> implements RandomAccess {
+        private final Integer[] rows;
+        private final int[] indices;
+
+        RowList(Integer[] rows, int[] indices) {
+            this.rows = rows;
+            this.indices = indices;
+        }
+
+        @Override
+        public Integer get(int position) {
+            return rows[indices[position]];
+        }
+
+        @Override
+        public int size() {
+            return indices.length;
+        }
     }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
-        MaterialTextView keyText;
-        MaterialTextView valueText;
-        MaterialSwitch valueSwitch;
+        final MaterialTextView keyText;
+        // Only one of these exists, depending on the view type.
+        final MaterialTextView valueText;
+        final MaterialSwitch valueSwitch;
+        CompoundButton.OnCheckedChangeListener switchListener;
 
         ViewHolder(View view) {
             super(view);
@@ -0,0 +1,129 @@
+package com.example.carrierapp;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.os.PersistableBundle;
+import android.os.SystemClock;
+import android.telephony.CarrierConfigManager;
+import android.telephony.SubscriptionInfo;
+import android.telephony.SubscriptionManager;
+import android.telephony.TelephonyManager;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class CarrierConfigReceiver extends BroadcastReceiver {
+
+    private static final String TAG = "CarrierConfigReceiver";
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor();
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        String action = intent.getAction();
+        Context app = context.getApplicationContext();
+        ConfigCache cache = ConfigCache.get(app);
+        DiagnosticsActivity.restoreMetricsState(app);
+
+        if (Intent.ACTION_BOOT_COMPLETED.equals(action)) {
+            PendingResult result = goAsync();
+            EXECUTOR.execute(() -> {
+                long start = SystemClock.elapsedRealtime();
+                try {
+                    // An OTA or SIM swap may have happened while we were down.
+                    cache.clear();
+                    new OverrideProfileStore(app).clearReapplyLog();
+                    reapplyActiveProfile(app, activeSubIds(app));
+                } finally {
+                    Log.d(TAG, "Boot handling took " + (SystemClock.elapsedRealtime() - start) + " ms");
+                    result.finish();
+                }
+            });
+        } else if (CarrierConfigManager.ACTION_CARRIER_CONFIG_CHANGED.equals(action)) {
+            int subId = intent.getIntExtra(CarrierConfigManager.EXTRA_SUBSCRIPTION_INDEX,
+                    SubscriptionManager.INVALID_SUBSCRIPTION_ID);
+            if (!SubscriptionManager.isValidSubscriptionId(subId)) return;
+
+            PendingResult result = goAsync();
+            EXECUTOR.execute(() -> {
+                long start = SystemClock.elapsedRealtime();
+                try {
+                    cache.invalidate(subId);
+                    // Re-applying triggers another CARRIER_CONFIG_CHANGED; that one
+                    // finds the live config matching, or the re-apply just recorded,
+                    // and stops here.
+                    if (!reapplyActiveProfile(app, new int[]{subId})) prewarm(app, cache, subId);
+                } finally {
+                    Log.d(TAG, "Config change handling took " + (SystemClock.elapsedRealtime() - start) + " ms");
+                    result.finish();
+                }
+            });
+        }
+    }
+
+    private static int[] activeSubIds(Context context) {
+        try {
+            List<SubscriptionInfo> subs = context.getSystemService(SubscriptionManager.class)
+                    .getActiveSubscriptionInfoList();
+            if (subs == null) return new int[0];
+            int[] ids = new int[subs.size()];
+            for (int i = 0; i < ids.length; i++) ids[i] = subs.get(i).getSubscriptionId();
+            return ids;
+        } catch (SecurityException e) {
+            Log.w(TAG, "Cannot list subscriptions", e);
+            return new int[0];
+        }
+    }
+
+    /** Returns true if an override was sent for any of {@code subIds}. */
+    private static boolean reapplyActiveProfile(Context context, int[] subIds) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) return false;
+        OverrideProfileStore store = new OverrideProfileStore(context);
+        PersistableBundle profile;
+        try {
+            profile = store.loadActive();
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot read active override profile", e);
+            return false;
+        }
+        if (profile == null) return false;
+
+        CarrierConfigManager ccm = context.getSystemService(CarrierConfigManager.class);
+        TelephonyManager telephonyManager = context.getSystemService(TelephonyManager.class);
+        boolean applied = false;
+        for (int subId : subIds) {
+            try {
+                if (!telephonyManager.createForSubscriptionId(subId).hasCarrierPrivileges()) continue;
+                if (store.reapplyIfNeeded(ccm::getConfigForSubId, ccm::overrideConfig,
+                        subId, profile, SystemClock.elapsedRealtime())) {
+                    Log.i(TAG, "Re-applied " + profile.size() + " overrides to sub " + subId);
+                    applied = true;
+                }
+            } catch (SecurityException e) {
+                Log.w(TAG, "Cannot re-apply overrides to sub " + subId, e);
+            }
+        }
+        return applied;
+    }
+
+    private static void prewarm(Context context, ConfigCache cache, int subId) {
+        try {
+            TelephonyManager tm = context.getSystemService(TelephonyManager.class)
+                    .createForSubscriptionId(subId);
+            if (!tm.hasCarrierPrivileges()) return;
+            CarrierConfigManager ccm = context.getSystemService(CarrierConfigManager.class);
+            PersistableBundle bundle = ccm.getConfigForSubId(subId);
+            if (bundle == null) return;
+            cache.put(subId, tm.getSimCarrierId(), bundle);
+            ConfigHistory.get(context).record(subId, System.currentTimeMillis(), bundle);
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot record config history for sub " + subId, e);
+        } catch (SecurityException e) {
+            Log.w(TAG, "Cannot pre-warm config for sub " + subId, e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.carrierapp;
+
+import android.content.Context;
+import android.os.PersistableBundle;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * In-memory plus on-disk cache of carrier config bundles, keyed by subscription
+ * ID and carrier ID. Cleared per subscription by {@link CarrierConfigReceiver}
+ * when the platform reports a config change. Disk access must stay off the main
+ * thread; entries are stored in {@link SnapshotCodec} format.
+ */
+public final class ConfigCache {
+
+    private static final String TAG = "ConfigCache";
+    private static final String DIR_NAME = "config_cache";
+    /** Returned by {@link #readFromDisk} when an interrupt cut the read short; neither a hit nor a miss. */
+    private static final PersistableBundle INTERRUPTED = new PersistableBundle();
+
+    private static ConfigCache instance;
+
+    private final File dir;
+    private final Map<String, PersistableBundle> memory = new HashMap<>();
+    private int hits;
+    private int misses;
+
+    ConfigCache(File dir) {
+        this.dir = dir;
+    }
+
+    public static synchronized ConfigCache get(Context context) {
+        if (instance == null) {
+            instance = new ConfigCache(new File(context.getApplicationContext().getCacheDir(), DIR_NAME));
+        }
+        return instance;
+    }
+
+    static String key(int subId, int carrierId) {
+        return subId + "_" + carrierId;
+    }
+
+    public PersistableBundle get(int subId, int carrierId) {
+        String key = key(subId, carrierId);
+        synchronized (this) {
+            PersistableBundle cached = memory.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+        }
+
+        PersistableBundle fromDisk = readFromDisk(key);
+        if (fromDisk == INTERRUPTED) return null;
+        synchronized (this) {
+            if (fromDisk != null) {
+                memory.put(key, fromDisk);
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+        return fromDisk;
+    }
+
+    public void put(int subId, int carrierId, PersistableBundle bundle) {
+        String key = key(subId, carrierId);
+        synchronized (this) {
+            memory.put(key, bundle);
+        }
+        writeToDisk(key, bundle);
+    }
+
+    public void invalidate(int subId) {
+        String prefix = subId + "_";
+        synchronized (this) {
+            Iterator<String> it = memory.keySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().startsWith(prefix)) it.remove();
+            }
+        }
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        for (File f : files) {
+            if (f.getName().startsWith(prefix)) f.delete();
+        }
+    }
+
+    public void clear() {
+        synchronized (this) {
+            memory.clear();
+        }
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        for (File f : files) f.delete();
+    }
+
+    public synchronized int getHitCount() {
+        return hits;
+    }
+
+    public synchronized int getMissCount() {
+        return misses;
+    }
+
+    private PersistableBundle readFromDisk(String key) {
+        File file = new File(dir, key);
+        if (!file.isFile()) return null;
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            return SnapshotCodec.read(channel);
+        } catch (ClosedByInterruptException e) {
+            // The loader cancels superseded fetches with cancel(true); the entry
+            // is fine, only this read was cut short. Keep the interrupt for the caller.
+            Thread.currentThread().interrupt();
+            return INTERRUPTED;
+        } catch (IOException e) {
+            Log.w(TAG, "Dropping unreadable cache entry " + key, e);
+            file.delete();
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, PersistableBundle bundle) {
+        if (!dir.isDirectory() && !dir.mkdirs()) return;
+        File tmp = new File(dir, key + ".tmp");
+        try (FileChannel channel = new FileOutputStream(tmp).getChannel()) {
+            SnapshotCodec.write(bundle, channel);
+        } catch (ClosedByInterruptException e) {
+            Thread.currentThread().interrupt();
+            tmp.delete();
+            return;
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to cache " + key, e);
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(new File(dir, key))) tmp.delete();
+    }
+}
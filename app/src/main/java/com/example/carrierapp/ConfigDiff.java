@@ -0,0 +1,210 @@
+package com.example.carrierapp;
+
+import android.os.PersistableBundle;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Added, removed and changed keys between two snapshots, found in one merge
+ * pass over their sorted key lists. Changed arrays and nested bundles carry
+ * element-level detail.
+ */
+public final class ConfigDiff {
+
+    public static final int ADDED = 1;
+    public static final int REMOVED = 2;
+    public static final int CHANGED = 3;
+
+    public static final class Entry {
+        public final String key;
+        public final int kind;
+        public final String oldValue;
+        public final String newValue;
+        public final List<String> details;
+
+        Entry(String key, int kind, String oldValue, String newValue, List<String> details) {
+            this.key = key;
+            this.kind = kind;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+            this.details = details;
+        }
+    }
+
+    public final List<Entry> entries;
+
+    private ConfigDiff(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    public static ConfigDiff compute(ConfigSnapshot before, ConfigSnapshot after) {
+        List<String> a = before.keys;
+        List<String> b = after.keys;
+        List<Entry> out = new ArrayList<>();
+        int i = 0, j = 0;
+        while (i < a.size() || j < b.size()) {
+            int cmp = i == a.size() ? 1 : j == b.size() ? -1 : a.get(i).compareTo(b.get(j));
+            if (cmp < 0) {
+                out.add(new Entry(a.get(i), REMOVED, before.displayAt(i), null, Collections.emptyList()));
+                i++;
+            } else if (cmp > 0) {
+                out.add(new Entry(b.get(j), ADDED, null, after.displayAt(j), Collections.emptyList()));
+                j++;
+            } else {
+                Entry changed = compareAt(before, i, after, j);
+                if (changed != null) out.add(changed);
+                i++;
+                j++;
+            }
+        }
+        return new ConfigDiff(Collections.unmodifiableList(out));
+    }
+
+    /**
+     * Diff restricted to {@code keys} (sorted), reading values straight from the
+     * bundles. Used by {@link ConfigHistory}, which already knows which keys moved.
+     */
+    public static ConfigDiff ofKeys(List<String> keys, PersistableBundle before, PersistableBundle after) {
+        List<Entry> out = new ArrayList<>();
+        for (String key : keys) {
+            boolean had = before.containsKey(key);
+            boolean has = after.containsKey(key);
+            Object oldValue = before.get(key);
+            Object newValue = after.get(key);
+            if (had && !has) {
+                out.add(new Entry(key, REMOVED, ConfigValues.summarize(oldValue), null, Collections.emptyList()));
+            } else if (!had && has) {
+                out.add(new Entry(key, ADDED, null, ConfigValues.summarize(newValue), Collections.emptyList()));
+            } else if (had && !ConfigSnapshot.valuesEqual(oldValue, newValue)) {
+                List<String> details = new ArrayList<>();
+                diffValues("", oldValue, newValue, details);
+                out.add(new Entry(key, CHANGED, ConfigValues.summarize(oldValue),
+                        ConfigValues.summarize(newValue), details));
+            }
+        }
+        return new ConfigDiff(Collections.unmodifiableList(out));
+    }
+
+    private static Entry compareAt(ConfigSnapshot before, int i, ConfigSnapshot after, int j) {
+        byte type = before.typeAt(i);
+        String key = before.keys.get(i);
+        if (type != after.typeAt(j)) {
+            return new Entry(key, CHANGED, before.displayAt(i), after.displayAt(j),
+                    Collections.singletonList("type " + ConfigValues.typeName(type)
+                            + " -> " + ConfigValues.typeName(after.typeAt(j))));
+        }
+        switch (type) {
+            case ConfigValues.TYPE_NULL:
+                return null;
+            case ConfigValues.TYPE_BOOLEAN:
+            case ConfigValues.TYPE_INT:
+            case ConfigValues.TYPE_LONG:
+            case ConfigValues.TYPE_DOUBLE:
+                // Scalars are fully described by their packed bits; no bundle lookup needed.
+                if (before.longAt(i) == after.longAt(j)) return null;
+                return new Entry(key, CHANGED, before.displayAt(i), after.displayAt(j),
+                        Collections.emptyList());
+            default:
+                Object oldValue = before.valueAt(i);
+                Object newValue = after.valueAt(j);
+                if (ConfigSnapshot.valuesEqual(oldValue, newValue)) return null;
+                List<String> details = new ArrayList<>();
+                diffValues("", oldValue, newValue, details);
+                return new Entry(key, CHANGED, before.displayAt(i), after.displayAt(j), details);
+        }
+    }
+
+    private static void diffValues(String path, Object oldValue, Object newValue, List<String> out) {
+        if (oldValue instanceof PersistableBundle && newValue instanceof PersistableBundle) {
+            diffBundles(path, (PersistableBundle) oldValue, (PersistableBundle) newValue, out);
+        } else if (ConfigValues.isArray(ConfigValues.typeOf(oldValue))
+                && ConfigValues.typeOf(oldValue) == ConfigValues.typeOf(newValue)) {
+            diffArrays(path, oldValue, newValue, out);
+        } else if (!path.isEmpty()) {
+            out.add(path + ": " + ConfigValues.render(oldValue) + " -> " + ConfigValues.render(newValue));
+        }
+    }
+
+    private static void diffArrays(String path, Object oldArray, Object newArray, List<String> out) {
+        int oldLen = Array.getLength(oldArray);
+        int newLen = Array.getLength(newArray);
+        int common = Math.min(oldLen, newLen);
+        for (int k = 0; k < common; k++) {
+            Object o = Array.get(oldArray, k);
+            Object n = Array.get(newArray, k);
+            if (!ConfigSnapshot.valuesEqual(o, n)) {
+                out.add(path + "[" + k + "]: " + o + " -> " + n);
+            }
+        }
+        for (int k = common; k < oldLen; k++) {
+            out.add("-" + path + "[" + k + "]: " + Array.get(oldArray, k));
+        }
+        for (int k = common; k < newLen; k++) {
+            out.add("+" + path + "[" + k + "]: " + Array.get(newArray, k));
+        }
+    }
+
+    private static void diffBundles(String path, PersistableBundle oldBundle, PersistableBundle newBundle,
+                                    List<String> out) {
+        List<String> a = new ArrayList<>(oldBundle.keySet());
+        List<String> b = new ArrayList<>(newBundle.keySet());
+        Collections.sort(a);
+        Collections.sort(b);
+        String prefix = path.isEmpty() ? "" : path + ".";
+        int i = 0, j = 0;
+        while (i < a.size() || j < b.size()) {
+            int cmp = i == a.size() ? 1 : j == b.size() ? -1 : a.get(i).compareTo(b.get(j));
+            if (cmp < 0) {
+                out.add("-" + prefix + a.get(i) + ": " + ConfigValues.render(oldBundle.get(a.get(i))));
+                i++;
+            } else if (cmp > 0) {
+                out.add("+" + prefix + b.get(j) + ": " + ConfigValues.render(newBundle.get(b.get(j))));
+                j++;
+            } else {
+                Object o = oldBundle.get(a.get(i));
+                Object n = newBundle.get(b.get(j));
+                if (!ConfigSnapshot.valuesEqual(o, n)) diffValues(prefix + a.get(i), o, n, out);
+                i++;
+                j++;
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /** Keys present in the newer snapshot that were added or changed, in sorted order. */
+    public List<String> changedKeysInAfter() {
+        List<String> keys = new ArrayList<>(entries.size());
+        for (Entry e : entries) {
+            if (e.kind != REMOVED) keys.add(e.key);
+        }
+        return keys;
+    }
+
+    public String toReport() {
+        if (entries.isEmpty()) return "No changes.";
+        StringBuilder sb = new StringBuilder();
+        for (Entry e : entries) {
+            switch (e.kind) {
+                case ADDED:
+                    sb.append("+ ").append(e.key).append(" = ").append(e.newValue);
+                    break;
+                case REMOVED:
+                    sb.append("- ").append(e.key).append(" = ").append(e.oldValue);
+                    break;
+                default:
+                    sb.append("~ ").append(e.key).append(": ").append(e.oldValue)
+                            .append(" -> ").append(e.newValue);
+                    break;
+            }
+            sb.append('\n');
+            for (String detail : e.details) sb.append("    ").append(detail).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.carrierapp;
+
+import android.os.PersistableBundle;
+import android.util.Log;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Opt-in debug dump of a config snapshot. Values are streamed straight into the
+ * sink element by element; nothing is built per key unless the dumper is enabled.
+ */
+public final class ConfigDumper {
+
+    public static final int LEVEL_OFF = 0;
+    public static final int LEVEL_KEYS = 1;
+    public static final int LEVEL_VALUES = 2;
+
+    public static final ConfigDumper DISABLED = new ConfigDumper(LEVEL_OFF, 0, null);
+
+    private static final String TAG = "CarrierConfig";
+
+    /**
+     * Opens the sink for one subscription's dump. Subscriptions load in
+     * parallel, so dumps for different subIds may be open at the same time.
+     */
+    public interface SinkFactory {
+        Writer open(int subId) throws IOException;
+    }
+
+    private final int level;
+    private final long byteBudget;
+    private final SinkFactory sinkFactory;
+
+    public ConfigDumper(int level, long byteBudget, SinkFactory sinkFactory) {
+        this.level = level;
+        this.byteBudget = byteBudget;
+        this.sinkFactory = sinkFactory;
+    }
+
+    public static SinkFactory logcatSink() {
+        return subId -> new LogcatWriter(TAG);
+    }
+
+    /** One file per subscription in {@code dir}, so parallel dumps never share a file. */
+    public static SinkFactory fileSink(File dir) {
+        return subId -> new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(dumpFile(dir, subId)), StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    static File dumpFile(File dir, int subId) {
+        return new File(dir, "carrier_config_dump_" + subId + ".txt");
+    }
+
+    public boolean isEnabled() {
+        return level > LEVEL_OFF;
+    }
+
+    public void dump(ConfigSnapshot snapshot) throws IOException {
+        if (level == LEVEL_OFF) return;
+
+        char[] scratch = new char[20];
+        try (BudgetWriter out = new BudgetWriter(sinkFactory.open(snapshot.subId), byteBudget)) {
+            out.write("--- STARTING DUMP subId=");
+            writeLong(out, snapshot.subId, scratch);
+            out.write(" keys=");
+            writeLong(out, snapshot.size(), scratch);
+            out.write(" ---\n");
+
+            for (String key : snapshot.keys) {
+                out.write(key);
+                if (level >= LEVEL_VALUES) {
+                    out.write(" = ");
+                    writeValue(out, snapshot.bundle.get(key), scratch);
+                }
+                out.write('\n');
+                if (out.isExhausted()) break;
+            }
+
+            if (out.isExhausted()) {
+                out.forceWrite("--- TRUNCATED (byte budget reached) ---\n");
+            } else {
+                out.write("--- END DUMP ---\n");
+            }
+        }
+    }
+
+    static void writeValue(Writer out, Object value, char[] scratch) throws IOException {
+        if (value == null) {
+            out.write("null");
+        } else if (value instanceof String) {
+            out.write((String) value);
+        } else if (value instanceof Boolean) {
+            out.write((Boolean) value ? "true" : "false");
+        } else if (value instanceof Integer) {
+            writeLong(out, (Integer) value, scratch);
+        } else if (value instanceof Long) {
+            writeLong(out, (Long) value, scratch);
+        } else if (value instanceof int[]) {
+            int[] arr = (int[]) value;
+            out.write('[');
+            for (int i = 0; i < arr.length; i++) {
+                if (i > 0) out.write(", ");
+                writeLong(out, arr[i], scratch);
+            }
+            out.write(']');
+        } else if (value instanceof long[]) {
+            long[] arr = (long[]) value;
+            out.write('[');
+            for (int i = 0; i < arr.length; i++) {
+                if (i > 0) out.write(", ");
+                writeLong(out, arr[i], scratch);
+            }
+            out.write(']');
+        } else if (value instanceof boolean[]) {
+            boolean[] arr = (boolean[]) value;
+            out.write('[');
+            for (int i = 0; i < arr.length; i++) {
+                if (i > 0) out.write(", ");
+                out.write(arr[i] ? "true" : "false");
+            }
+            out.write(']');
+        } else if (value instanceof double[]) {
+            double[] arr = (double[]) value;
+            out.write('[');
+            for (int i = 0; i < arr.length; i++) {
+                if (i > 0) out.write(", ");
+                out.write(Double.toString(arr[i]));
+            }
+            out.write(']');
+        } else if (value instanceof String[]) {
+            String[] arr = (String[]) value;
+            out.write('[');
+            for (int i = 0; i < arr.length; i++) {
+                if (i > 0) out.write(", ");
+                out.write(String.valueOf(arr[i]));
+            }
+            out.write(']');
+        } else if (value instanceof PersistableBundle) {
+            PersistableBundle nested = (PersistableBundle) value;
+            out.write('{');
+            boolean first = true;
+            for (String key : nested.keySet()) {
+                if (!first) out.write(", ");
+                first = false;
+                out.write(key);
+                out.write('=');
+                writeValue(out, nested.get(key), scratch);
+            }
+            out.write('}');
+        } else {
+            out.write(String.valueOf(value));
+        }
+    }
+
+    static void writeLong(Writer out, long v, char[] scratch) throws IOException {
+        if (v == Long.MIN_VALUE) {
+            out.write("-9223372036854775808");
+            return;
+        }
+        boolean negative = v < 0;
+        if (negative) v = -v;
+        int pos = scratch.length;
+        do {
+            scratch[--pos] = (char) ('0' + (v % 10));
+            v /= 10;
+        } while (v != 0);
+        if (negative) scratch[--pos] = '-';
+        out.write(scratch, pos, scratch.length - pos);
+    }
+
+    /**
+     * Stops forwarding once the budget is spent. The budget is in UTF-8 bytes,
+     * the size the dump has on disk, counted per char without encoding anything.
+     */
+    private static final class BudgetWriter extends Writer {
+        private final Writer delegate;
+        private long remaining;
+
+        BudgetWriter(Writer delegate, long budget) {
+            this.delegate = delegate;
+            this.remaining = budget > 0 ? budget : Long.MAX_VALUE;
+        }
+
+        boolean isExhausted() {
+            return remaining <= 0;
+        }
+
+        void forceWrite(String s) throws IOException {
+            delegate.write(s);
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            int bytes = utf8Length((char) c);
+            if (bytes > remaining) {
+                remaining = 0;
+                return;
+            }
+            delegate.write(c);
+            remaining -= bytes;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            if (remaining <= 0) return;
+            long bytes = 0;
+            int n = 0;
+            while (n < len) {
+                int b = utf8Length(cbuf[off + n]);
+                if (bytes + b > remaining) break;
+                bytes += b;
+                n++;
+            }
+            delegate.write(cbuf, off, n);
+            // A char that did not fit ends the dump, so a later short one cannot sneak in.
+            remaining = n < len ? 0 : remaining - bytes;
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            if (remaining <= 0) return;
+            long bytes = 0;
+            int n = 0;
+            while (n < len) {
+                int b = utf8Length(str.charAt(off + n));
+                if (bytes + b > remaining) break;
+                bytes += b;
+                n++;
+            }
+            delegate.write(str, off, n);
+            remaining = n < len ? 0 : remaining - bytes;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+    /** Encoded size of {@code c} in UTF-8; a surrogate pair counts 4 on its high half. */
+    static int utf8Length(char c) {
+        if (c < 0x80) return 1;
+        if (c < 0x800) return 2;
+        if (Character.isHighSurrogate(c)) return 4;
+        if (Character.isLowSurrogate(c)) return 0;
+        return 3;
+    }
+
+    /** Batches output into logcat-sized chunks, split on line boundaries where possible. */
+    private static final class LogcatWriter extends Writer {
+        private static final int CHUNK = 3500;
+
+        private final String tag;
+        private final StringBuilder buffer = new StringBuilder(CHUNK + 256);
+
+        LogcatWriter(String tag) {
+            this.tag = tag;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            buffer.append(cbuf, off, len);
+            drain(false);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            buffer.append(str, off, off + len);
+            drain(false);
+        }
+
+        @Override
+        public void flush() {
+            drain(true);
+        }
+
+        @Override
+        public void close() {
+            drain(true);
+        }
+
+        private void drain(boolean all) {
+            while (buffer.length() >= CHUNK || (all && buffer.length() > 0)) {
+                int end = Math.min(buffer.length(), CHUNK);
+                int newline = buffer.lastIndexOf("\n", end - 1);
+                if (newline > 0) end = newline + 1;
+                Log.d(tag, buffer.substring(0, end));
+                buffer.delete(0, end);
+            }
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.example.carrierapp;
+
+import android.content.Context;
+import android.os.PersistableBundle;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timestamped config history per subscription: one full base snapshot plus a
+ * file per change holding only the keys that were set or removed. Reading a
+ * past state replays the deltas up to that time onto the base; old deltas are
+ * folded into the base once there are too many, they pass the retention age,
+ * or the subscription's files exceed the size cap.
+ *
+ * <pre>
+ * config_history/&lt;subId&gt;/base_&lt;time&gt;.ccsn   full bundle as of &lt;time&gt;
+ * config_history/&lt;subId&gt;/&lt;time&gt;.ccsn        {set: bundle, removed: string[]}
+ * </pre>
+ *
+ * All files are in {@link SnapshotCodec} format. Disk access must stay off the
+ * main thread.
+ */
+public final class ConfigHistory {
+
+    private static final String TAG = "ConfigHistory";
+    private static final String DIR_NAME = "config_history";
+    private static final String BASE_PREFIX = "base_";
+    private static final String EXTENSION = ".ccsn";
+    private static final String KEY_SET = "set";
+    private static final String KEY_REMOVED = "removed";
+
+    static final int MAX_DELTAS = 512;
+    static final long RETENTION_MS = TimeUnit.DAYS.toMillis(180);
+    static final long DEFAULT_MAX_BYTES = 2L << 20;
+
+    private static ConfigHistory instance;
+
+    private final File root;
+    private final long maxBytesPerSub;
+    // Latest state per sub, so recording a change does not replay the whole history.
+    private final Map<Integer, PersistableBundle> heads = new HashMap<>();
+
+    ConfigHistory(File root, long maxBytesPerSub) {
+        this.root = root;
+        this.maxBytesPerSub = maxBytesPerSub;
+    }
+
+    public static synchronized ConfigHistory get(Context context) {
+        if (instance == null) {
+            instance = new ConfigHistory(new File(context.getApplicationContext().getFilesDir(), DIR_NAME),
+                    DEFAULT_MAX_BYTES);
+        }
+        return instance;
+    }
+
+    /**
+     * Records {@code config} as the state at {@code timestamp}. Returns false if
+     * nothing changed since the last record. Timestamps that do not move forward
+     * are nudged to keep the log ordered.
+     */
+    public synchronized boolean record(int subId, long timestamp, PersistableBundle config) throws IOException {
+        Index index = index(subId);
+        if (index.baseFile == null) {
+            write(new File(index.dir, BASE_PREFIX + name(timestamp)), config);
+            heads.put(subId, new PersistableBundle(config));
+            return true;
+        }
+
+        PersistableBundle head = heads.get(subId);
+        if (head == null) head = replay(index, Long.MAX_VALUE);
+        PersistableBundle delta = delta(head, config);
+        if (delta == null) {
+            heads.put(subId, head);
+            return false;
+        }
+
+        long last = index.deltas.length > 0 ? index.deltas[index.deltas.length - 1] : index.baseTime;
+        long time = Math.max(timestamp, last + 1);
+        write(new File(index.dir, name(time)), delta);
+        heads.put(subId, new PersistableBundle(config));
+        enforceLimits(subId, time);
+        return true;
+    }
+
+    /** Base time followed by every delta time, oldest first. */
+    public synchronized long[] timestamps(int subId) {
+        Index index = index(subId);
+        if (index.baseFile == null) return new long[0];
+        long[] out = new long[index.deltas.length + 1];
+        out[0] = index.baseTime;
+        System.arraycopy(index.deltas, 0, out, 1, index.deltas.length);
+        return out;
+    }
+
+    /** The config as it was at {@code timestamp}, or null if that predates the history. */
+    public synchronized PersistableBundle at(int subId, long timestamp) throws IOException {
+        Index index = index(subId);
+        if (index.baseFile == null || timestamp < index.baseTime) return null;
+        return replay(index, timestamp);
+    }
+
+    /**
+     * Keys that changed after {@code from} up to and including {@code to}.
+     * Reads the deltas in that window, then the before-value of just the keys
+     * they touched: earlier deltas are scanned newest first until each key is
+     * found, and the base is read only for keys none of them set or removed.
+     */
+    public synchronized ConfigDiff changesBetween(int subId, long from, long to) throws IOException {
+        Index index = index(subId);
+        PersistableBundle before = new PersistableBundle();
+        PersistableBundle after = new PersistableBundle();
+        TreeSet<String> touched = new TreeSet<>();
+        if (index.baseFile == null) return ConfigDiff.ofKeys(Collections.emptyList(), before, after);
+
+        boolean fromBase = from < index.baseTime;
+        if (fromBase && to >= index.baseTime) {
+            after = readBundle(index.baseFile);
+            touched.addAll(after.keySet());
+        }
+        List<PersistableBundle> window = new ArrayList<>();
+        int first = 0;
+        while (first < index.deltas.length && index.deltas[first] <= from) first++;
+        for (int i = first; i < index.deltas.length && index.deltas[i] <= to; i++) {
+            PersistableBundle delta = readBundle(deltaFile(index, index.deltas[i]));
+            window.add(delta);
+            String[] removed = delta.getStringArray(KEY_REMOVED);
+            PersistableBundle set = delta.getPersistableBundle(KEY_SET);
+            if (removed != null) touched.addAll(Arrays.asList(removed));
+            if (set != null) touched.addAll(set.keySet());
+        }
+        if (!fromBase) resolve(index, first, touched, before);
+
+        for (String key : touched) {
+            if (before.containsKey(key)) OverrideBatch.putValue(after, key, before.get(key));
+        }
+        for (PersistableBundle delta : window) apply(delta, after, null);
+        return ConfigDiff.ofKeys(new ArrayList<>(touched), before, after);
+    }
+
+    /**
+     * Puts into {@code out} the value each of {@code keys} had after the
+     * deltas before index {@code end}; keys absent then are left out.
+     */
+    private static void resolve(Index index, int end, TreeSet<String> keys, PersistableBundle out)
+            throws IOException {
+        TreeSet<String> pending = new TreeSet<>(keys);
+        for (int i = end - 1; i >= 0 && !pending.isEmpty(); i--) {
+            PersistableBundle delta = readBundle(deltaFile(index, index.deltas[i]));
+            String[] removed = delta.getStringArray(KEY_REMOVED);
+            PersistableBundle set = delta.getPersistableBundle(KEY_SET);
+            if (removed != null) pending.removeAll(Arrays.asList(removed));
+            if (set == null) continue;
+            for (String key : set.keySet()) {
+                if (pending.remove(key)) OverrideBatch.putValue(out, key, set.get(key));
+            }
+        }
+        if (pending.isEmpty()) return;
+        PersistableBundle base = readBundle(index.baseFile);
+        for (String key : pending) {
+            if (base.containsKey(key)) OverrideBatch.putValue(out, key, base.get(key));
+        }
+    }
+
+    /** Folds every delta older than {@code olderThan} into the base. */
+    public synchronized void compact(int subId, long olderThan) throws IOException {
+        Index index = index(subId);
+        int fold = 0;
+        while (fold < index.deltas.length && index.deltas[fold] < olderThan) fold++;
+        if (fold == 0) return;
+
+        long newBaseTime = index.deltas[fold - 1];
+        PersistableBundle base = replay(index, newBaseTime);
+        // New base first: if we die before the deletes, index() drops the stale files.
+        write(new File(index.dir, BASE_PREFIX + name(newBaseTime)), base);
+        index.baseFile.delete();
+        for (int i = 0; i < fold; i++) deltaFile(index, index.deltas[i]).delete();
+    }
+
+    public synchronized void clear(int subId) {
+        heads.remove(subId);
+        File[] files = new File(root, Integer.toString(subId)).listFiles();
+        if (files == null) return;
+        for (File f : files) f.delete();
+    }
+
+    private void enforceLimits(int subId, long now) throws IOException {
+        compact(subId, now - RETENTION_MS);
+        Index index = index(subId);
+        if (index.deltas.length > MAX_DELTAS) {
+            compact(subId, index.deltas[index.deltas.length / 2]);
+            index = index(subId);
+        }
+        while (index.deltas.length > 0 && index.totalBytes > maxBytesPerSub) {
+            // Evict the oldest half of what is left; the base absorbs it.
+            compact(subId, index.deltas[Math.max(1, index.deltas.length / 2) - 1] + 1);
+            index = index(subId);
+        }
+    }
+
+    /** Base plus every delta up to and including {@code until}. */
+    private PersistableBundle replay(Index index, long until) throws IOException {
+        PersistableBundle state = readBundle(index.baseFile);
+        for (long t : index.deltas) {
+            if (t > until) break;
+            apply(readBundle(deltaFile(index, t)), state, null);
+        }
+        return state;
+    }
+
+    private static void apply(PersistableBundle delta, PersistableBundle state, TreeSet<String> touched) {
+        String[] removed = delta.getStringArray(KEY_REMOVED);
+        PersistableBundle set = delta.getPersistableBundle(KEY_SET);
+        if (removed != null) {
+            for (String key : removed) state.remove(key);
+            if (touched != null) touched.addAll(Arrays.asList(removed));
+        }
+        if (set != null) {
+            state.putAll(set);
+            if (touched != null) touched.addAll(set.keySet());
+        }
+    }
+
+    /** Keys set or removed going from {@code head} to {@code config}, or null if none. */
+    static PersistableBundle delta(PersistableBundle head, PersistableBundle config) {
+        PersistableBundle set = new PersistableBundle();
+        List<String> removed = new ArrayList<>();
+        for (String key : config.keySet()) {
+            Object value = config.get(key);
+            if (head.containsKey(key) && ConfigSnapshot.valuesEqual(head.get(key), value)) continue;
+            OverrideBatch.putValue(set, key, value);
+        }
+        for (String key : head.keySet()) {
+            if (!config.containsKey(key)) removed.add(key);
+        }
+        if (set.isEmpty() && removed.isEmpty()) return null;
+        PersistableBundle delta = new PersistableBundle();
+        delta.putPersistableBundle(KEY_SET, set);
+        delta.putStringArray(KEY_REMOVED, removed.toArray(new String[0]));
+        return delta;
+    }
+
+    private Index index(int subId) {
+        Index index = new Index(new File(root, Integer.toString(subId)));
+        File[] files = index.dir.listFiles();
+        if (files == null) return index;
+
+        long[] times = new long[files.length];
+        int count = 0;
+        for (File f : files) {
+            String name = f.getName();
+            if (!name.endsWith(EXTENSION)) continue;
+            index.totalBytes += f.length();
+            String stem = name.substring(0, name.length() - EXTENSION.length());
+            try {
+                if (stem.startsWith(BASE_PREFIX)) {
+                    long t = Long.parseLong(stem.substring(BASE_PREFIX.length()));
+                    if (index.baseFile == null || t > index.baseTime) {
+                        if (index.baseFile != null) index.baseFile.delete();
+                        index.baseFile = f;
+                        index.baseTime = t;
+                    } else {
+                        f.delete();
+                    }
+                } else {
+                    times[count++] = Long.parseLong(stem);
+                }
+            } catch (NumberFormatException e) {
+                Log.w(TAG, "Ignoring stray history file " + f);
+            }
+        }
+        Arrays.sort(times, 0, count);
+        int first = 0;
+        // Deltas at or before the base were folded in by an interrupted compaction.
+        while (first < count && index.baseFile != null && times[first] <= index.baseTime) {
+            new File(index.dir, name(times[first++])).delete();
+        }
+        index.deltas = Arrays.copyOfRange(times, first, count);
+        return index;
+    }
+
+    private static File deltaFile(Index index, long time) {
+        return new File(index.dir, name(time));
+    }
+
+    /** Zero-padded so file names sort in time order. */
+    private static String name(long time) {
+        return String.format(Locale.ROOT, "%019d", time) + EXTENSION;
+    }
+
+    private static PersistableBundle readBundle(File file) throws IOException {
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            return SnapshotCodec.read(channel);
+        }
+    }
+
+    private static void write(File target, PersistableBundle bundle) throws IOException {
+        File dir = target.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+        File tmp = new File(dir, target.getName() + ".tmp");
+        try (FileChannel channel = new FileOutputStream(tmp).getChannel()) {
+            SnapshotCodec.write(bundle, channel);
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+        if (!tmp.renameTo(target)) {
+            tmp.delete();
+            throw new IOException("Cannot write " + target);
+        }
+    }
+
+    private static final class Index {
+        final File dir;
+        File baseFile;
+        long baseTime;
+        long[] deltas = new long[0];
+        long totalBytes;
+
+        Index(File dir) {
+            this.dir = dir;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.carrierapp;
+
+import android.os.PersistableBundle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fetches, sorts and snapshots carrier config on background threads, one task
+ * per subscription so a multi-SIM load takes as long as the slowest SIM rather
+ * than the sum. A cached snapshot from {@link ConfigCache} is served first when
+ * there is one. Starting a new load cancels the one in flight; results from a
+ * superseded load are never delivered.
+ */
+public class ConfigLoader {
+
+    public static final int MAX_PARALLEL_LOADS = 4;
+
+    public interface ConfigSource {
+        PersistableBundle getConfigForSubId(int subId);
+
+        default boolean hasCarrierPrivileges(int subId) {
+            return true;
+        }
+
+        default int getCarrierId(int subId) {
+            return -1;
+        }
+    }
+
+    public interface Callback {
+        /** Called on the worker thread once the snapshot is built, before delivery. */
+        default void onSnapshotBuilt(ConfigSnapshot snapshot) {}
+
+        /** Called on the worker thread for every snapshot about to be delivered, cached or fresh. */
+        default void onSnapshotPrepare(ConfigSnapshot snapshot) {}
+
+        void onLoaded(ConfigSnapshot snapshot);
+
+        default void onNoPrivileges(int subId) {}
+
+        void onError(int subId, Exception e);
+    }
+
+    private final ConfigSource source;
+    private final ConfigCache cache;
+    private final ExecutorService worker;
+    private final Executor resultExecutor;
+    private final AtomicLong generation = new AtomicLong();
+    private final List<Future<?>> inFlight = new ArrayList<>();
+
+    public ConfigLoader(ConfigSource source, ConfigCache cache, Executor resultExecutor) {
+        this(source, cache, newBoundedPool(), resultExecutor);
+    }
+
+    public ConfigLoader(ConfigSource source, ConfigCache cache, ExecutorService worker,
+                        Executor resultExecutor) {
+        this.source = source;
+        this.cache = cache;
+        this.worker = worker;
+        this.resultExecutor = resultExecutor;
+    }
+
+    private static ExecutorService newBoundedPool() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(MAX_PARALLEL_LOADS, MAX_PARALLEL_LOADS,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    public void load(int subId, Callback callback) {
+        load(Collections.singletonList(subId), callback);
+    }
+
+    /**
+     * Loads every subscription in parallel. For each one, delivers the cached
+     * snapshot first if there is one, then the fresh snapshot only if it differs.
+     */
+    public synchronized void load(List<Integer> subIds, Callback callback) {
+        final long gen = generation.incrementAndGet();
+        cancelInFlight();
+        for (int subId : subIds) {
+            inFlight.add(worker.submit(() -> loadOne(gen, subId, callback)));
+        }
+    }
+
+    private void loadOne(long gen, int subId, Callback callback) {
+        ConfigSnapshot cached = null;
+        ConfigSnapshot snapshot;
+        try {
+            if (!source.hasCarrierPrivileges(subId)) {
+                resultExecutor.execute(() -> {
+                    if (!isStale(gen)) callback.onNoPrivileges(subId);
+                });
+                return;
+            }
+            int carrierId = source.getCarrierId(subId);
+
+            if (cache != null) {
+                PersistableBundle hit = cache.get(subId, carrierId);
+                if (hit != null) {
+                    cached = ConfigSnapshot.build(subId, hit, true);
+                    deliver(gen, callback, cached);
+                }
+            }
+            if (isStale(gen)) return;
+
+            long start = Metrics.start();
+            PersistableBundle fetched = source.getConfigForSubId(subId);
+            Metrics.CONFIG_FETCH.stop(start);
+            if (isStale(gen)) return;
+            snapshot = ConfigSnapshot.build(subId, fetched);
+            if (isStale(gen)) return;
+            // An unchanged config would only rewrite the same bytes to disk.
+            if (cache != null && !snapshot.contentEquals(cached)) cache.put(subId, carrierId, snapshot.bundle);
+            callback.onSnapshotBuilt(snapshot);
+        } catch (Exception e) {
+            if (!isStale(gen)) {
+                resultExecutor.execute(() -> {
+                    if (!isStale(gen)) callback.onError(subId, e);
+                });
+            }
+            return;
+        }
+        if (snapshot.contentEquals(cached)) return;
+        deliver(gen, callback, snapshot);
+    }
+
+    private void deliver(long gen, Callback callback, ConfigSnapshot snapshot) {
+        if (isStale(gen)) return;
+        callback.onSnapshotPrepare(snapshot);
+        resultExecutor.execute(() -> {
+            if (!isStale(gen)) callback.onLoaded(snapshot);
+        });
+    }
+
+    public synchronized void cancel() {
+        generation.incrementAndGet();
+        cancelInFlight();
+    }
+
+    public void shutdown() {
+        cancel();
+        worker.shutdownNow();
+    }
+
+    private void cancelInFlight() {
+        for (Future<?> f : inFlight) f.cancel(true);
+        inFlight.clear();
+    }
+
+    private boolean isStale(long gen) {
+        return gen != generation.get() || Thread.currentThread().isInterrupted();
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.carrierapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Small query language for config search.
+ *
+ * <pre>
+ * type:bool value:false ims      boolean keys fuzzily matching "ims" that are false
+ * key:volte -type:string         "volte" in the key name, any type but string
+ * value:>=3000 type:int          numeric comparison (>, >=, <, <=, =)
+ * </pre>
+ *
+ * Bare words are fuzzy key terms scored by {@link FuzzyMatcher}: substring hits
+ * score highest, then in-order subsequences, then words within one or two typos
+ * of a key segment. Results are ranked by score, then by key. The grammar is
+ * {@link QuerySyntax}'s.
+ */
+public final class ConfigQuery {
+
+    private interface Predicate {
+        boolean test(Index index, int i);
+    }
+
+    private final List<Predicate> predicates;
+    private final List<String> terms;
+
+    private ConfigQuery(List<Predicate> predicates, List<String> terms) {
+        this.predicates = predicates;
+        this.terms = terms;
+    }
+
+    /** Whether {@code text} needs the query engine rather than a plain substring search. */
+    public static boolean isStructured(String text) {
+        if (text == null) return false;
+        String t = text.trim();
+        return t.indexOf(':') >= 0 || t.indexOf(' ') >= 0 || t.startsWith("-");
+    }
+
+    public static ConfigQuery parse(String text) {
+        List<Predicate> predicates = new ArrayList<>();
+        List<String> terms = new ArrayList<>();
+        for (QuerySyntax.Clause clause : QuerySyntax.parse(text)) {
+            if (clause.field == null) {
+                terms.add(clause.arg);
+                continue;
+            }
+            Predicate p = fieldPredicate(clause.field, clause.arg);
+            if (clause.negate) {
+                Predicate inner = p;
+                p = (index, i) -> !inner.test(index, i);
+            }
+            predicates.add(p);
+        }
+        return new ConfigQuery(predicates, terms);
+    }
+
+    private static Predicate fieldPredicate(String field, String arg) {
+        switch (field) {
+            case QuerySyntax.FIELD_KEY:
+                return (index, i) -> index.lowerKeys[i].contains(arg);
+            case QuerySyntax.FIELD_TYPE:
+                return typePredicate(QuerySyntax.typeName(arg));
+            default:
+                return valuePredicate(arg);
+        }
+    }
+
+    private static Predicate typePredicate(String type) {
+        switch (type) {
+            case "array":
+                return (index, i) -> ConfigValues.isArray(index.snapshot.typeAt(i));
+            case "number":
+                return (index, i) -> isNumeric(index.snapshot.typeAt(i));
+            default:
+                return (index, i) -> ConfigValues.typeName(index.snapshot.typeAt(i)).equals(type);
+        }
+    }
+
+    private static Predicate valuePredicate(String arg) {
+        QuerySyntax.Comparison comparison = QuerySyntax.comparison(arg);
+        if (comparison != null) {
+            if (!comparison.numeric) {
+                String exact = comparison.operand;
+                return (index, i) -> index.lowerDisplay(i).equals(exact);
+            }
+            return (index, i) -> {
+                byte type = index.snapshot.typeAt(i);
+                if (!isNumeric(type)) return false;
+                return comparison.test(type == ConfigValues.TYPE_DOUBLE
+                        ? index.snapshot.doubleAt(i) : index.snapshot.longAt(i));
+            };
+        }
+        if (arg.equals("true") || arg.equals("false")) {
+            boolean wanted = arg.equals("true");
+            return (index, i) -> index.snapshot.typeAt(i) == ConfigValues.TYPE_BOOLEAN
+                    && index.snapshot.booleanAt(i) == wanted;
+        }
+        return (index, i) -> index.lowerDisplay(i).contains(arg);
+    }
+
+    private static boolean isNumeric(byte type) {
+        return type == ConfigValues.TYPE_INT || type == ConfigValues.TYPE_LONG || type == ConfigValues.TYPE_DOUBLE;
+    }
+
+    /** Matching keys, best first. */
+    public List<String> run(Index index) {
+        int[] ranked = runIndices(index);
+        List<String> result = new ArrayList<>(ranked.length);
+        for (int i : ranked) result.add(index.snapshot.keys.get(i));
+        return result;
+    }
+
+    /** Snapshot indices of the matching keys, best first. */
+    public int[] runIndices(Index index) {
+        int n = index.lowerKeys.length;
+        int[] matched = new int[n];
+        int[] scores = new int[n];
+        int count = 0;
+        int[][] scratch = new int[2][64];
+
+        outer:
+        for (int i = 0; i < n; i++) {
+            for (Predicate p : predicates) {
+                if (!p.test(index, i)) continue outer;
+            }
+            int score = 0;
+            for (String term : terms) {
+                int s = FuzzyMatcher.score(index.lowerKeys[i], index.segments[i], term, scratch);
+                if (s == 0) continue outer;
+                score += s;
+            }
+            matched[count] = i;
+            scores[count] = score;
+            count++;
+        }
+
+        // Sort by score descending; ties keep key order since indices are already sorted.
+        Integer[] order = new Integer[count];
+        for (int k = 0; k < count; k++) order[k] = k;
+        final int[] finalScores = scores;
+        Arrays.sort(order, (a, b) -> finalScores[b] - finalScores[a]);
+
+        int[] result = new int[count];
+        for (int k = 0; k < count; k++) result[k] = matched[order[k]];
+        return result;
+    }
+
+    /** Per-snapshot data the query engine reads; built once and reused for every query. */
+    public static final class Index {
+        final ConfigSnapshot snapshot;
+        final String[] lowerKeys;
+        final String[][] segments;
+        private final String[] lowerDisplay;
+
+        public Index(ConfigSnapshot snapshot) {
+            this.snapshot = snapshot;
+            int n = snapshot.size();
+            lowerKeys = new String[n];
+            segments = new String[n][];
+            lowerDisplay = new String[n];
+            for (int i = 0; i < n; i++) {
+                lowerKeys[i] = snapshot.keys.get(i).toLowerCase(Locale.ROOT);
+                segments[i] = FuzzyMatcher.segments(lowerKeys[i]);
+            }
+        }
+
+        String lowerDisplay(int i) {
+            String s = lowerDisplay[i];
+            if (s == null) {
+                // Row text is only a summary for arrays and bundles; match on the full value.
+                byte type = snapshot.typeAt(i);
+                String text = ConfigValues.isArray(type) || type == ConfigValues.TYPE_BUNDLE
+                        ? ConfigValues.render(snapshot.valueAt(i)) : snapshot.displayAt(i);
+                s = text.toLowerCase(Locale.ROOT);
+                lowerDisplay[i] = s;
+            }
+            return s;
+        }
+    }
+}
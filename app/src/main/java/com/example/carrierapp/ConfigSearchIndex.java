@@ -0,0 +1,145 @@
+package com.example.carrierapp;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Case-insensitive substring index over a sorted key list. Lowercased keys and
+ * a trigram posting index are built once per snapshot; typing more characters
+ * narrows the previous result instead of rescanning every key.
+ */
+public final class ConfigSearchIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final List<String> keys;
+    private final String[] lowerKeys;
+    private final Map<Long, int[]> postings;
+    private final int[] all;
+
+    private String lastQuery = "";
+    private int[] lastResult;
+
+    public ConfigSearchIndex(List<String> sortedKeys) {
+        this.keys = sortedKeys;
+        int n = sortedKeys.size();
+        this.lowerKeys = new String[n];
+        this.all = new int[n];
+
+        Map<Long, IntList> building = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            String lower = sortedKeys.get(i).toLowerCase(Locale.ROOT);
+            lowerKeys[i] = lower;
+            all[i] = i;
+            for (int j = 0; j + 3 <= lower.length(); j++) {
+                Long gram = trigram(lower, j);
+                IntList list = building.get(gram);
+                if (list == null) {
+                    list = new IntList();
+                    building.put(gram, list);
+                }
+                list.addUnique(i);
+            }
+        }
+
+        this.postings = new HashMap<>(building.size() * 2);
+        for (Map.Entry<Long, IntList> e : building.entrySet()) {
+            postings.put(e.getKey(), e.getValue().toArray());
+        }
+        this.lastResult = all;
+    }
+
+    public int size() {
+        return lowerKeys.length;
+    }
+
+    /** Returns the keys matching {@code text}, as a view over the sorted key list. */
+    public List<String> search(String text) {
+        return new KeyView(keys, searchIndices(text));
+    }
+
+    public synchronized int[] searchIndices(String text) {
+        if (text == null || text.isEmpty()) {
+            lastQuery = "";
+            lastResult = all;
+            return all;
+        }
+        String query = text.toLowerCase(Locale.ROOT);
+        if (query.equals(lastQuery)) return lastResult;
+
+        int[] candidates;
+        if (!lastQuery.isEmpty() && query.startsWith(lastQuery)) {
+            // Still typing: every match must already be in the previous result.
+            candidates = lastResult;
+        } else if (query.length() >= 3) {
+            candidates = trigramCandidates(query);
+        } else {
+            candidates = all;
+        }
+
+        int[] out = new int[candidates.length];
+        int count = 0;
+        for (int idx : candidates) {
+            if (lowerKeys[idx].contains(query)) out[count++] = idx;
+        }
+
+        lastQuery = query;
+        lastResult = count == out.length ? out : Arrays.copyOf(out, count);
+        return lastResult;
+    }
+
+    private int[] trigramCandidates(String query) {
+        // The rarest trigram in the query bounds the candidate set; contains() verifies.
+        int[] best = null;
+        for (int j = 0; j + 3 <= query.length(); j++) {
+            int[] list = postings.get(trigram(query, j));
+            if (list == null) return EMPTY;
+            if (best == null || list.length < best.length) best = list;
+        }
+        return best;
+    }
+
+    private static Long trigram(String s, int start) {
+        return ((long) s.charAt(start) << 32) | ((long) s.charAt(start + 1) << 16) | s.charAt(start + 2);
+    }
+
+    private static final class IntList {
+        int[] data = new int[4];
+        int size;
+
+        void addUnique(int v) {
+            if (size > 0 && data[size - 1] == v) return;
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = v;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+
+    private static final class KeyView extends AbstractList<String> implements RandomAccess {
+        private final List<String> keys;
+        private final int[] indices;
+
+        KeyView(List<String> keys, int[] indices) {
+            this.keys = keys;
+            this.indices = indices;
+        }
+
+        @Override
+        public String get(int index) {
+            return keys.get(indices[index]);
+        }
+
+        @Override
+        public int size() {
+            return indices.length;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.carrierapp;
+
+import android.os.PersistableBundle;
+
+import androidx.core.text.PrecomputedTextCompat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+public final class ConfigSnapshot {
+
+    public final int subId;
+    public final PersistableBundle bundle;
+    public final List<String> keys;
+    public final ConfigSearchIndex searchIndex;
+    public final boolean fromCache;
+
+    // Parallel to keys: one entry per key, filled once so binding never touches the bundle.
+    private final byte[] types;
+    private final long[] primitives;
+    private final String[] display;
+
+    private ConfigQuery.Index queryIndex;
+
+    // Measured row text, filled on the loader thread by precomputeText; null until then.
+    private volatile CharSequence[] keyText;
+    private volatile CharSequence[] valueText;
+
+    private ConfigSnapshot(int subId, PersistableBundle bundle, List<String> keys, boolean fromCache) {
+        this.subId = subId;
+        this.bundle = bundle;
+        this.keys = keys;
+        this.searchIndex = new ConfigSearchIndex(keys);
+        this.fromCache = fromCache;
+
+        int n = keys.size();
+        types = new byte[n];
+        primitives = new long[n];
+        display = new String[n];
+        for (int i = 0; i < n; i++) {
+            Object value = bundle.get(keys.get(i));
+            types[i] = ConfigValues.typeOf(value);
+            primitives[i] = ConfigValues.primitiveBits(value);
+            display[i] = ConfigValues.summarize(value);
+        }
+    }
+
+    public static ConfigSnapshot build(int subId, PersistableBundle fetched) {
+        return build(subId, fetched, false);
+    }
+
+    public static ConfigSnapshot build(int subId, PersistableBundle fetched, boolean fromCache) {
+        // Private copy so nothing outside the loader can mutate what the UI is showing.
+        PersistableBundle copy = fetched != null ? new PersistableBundle(fetched) : new PersistableBundle();
+        List<String> sorted = new ArrayList<>(copy.keySet());
+        Collections.sort(sorted);
+        return new ConfigSnapshot(subId, copy, Collections.unmodifiableList(sorted), fromCache);
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    /** Built on first structured search, off the main thread, then kept for the snapshot's lifetime. */
+    public synchronized ConfigQuery.Index queryIndex() {
+        if (queryIndex == null) queryIndex = new ConfigQuery.Index(this);
+        return queryIndex;
+    }
+
+    /** Index of {@code key} in {@link #keys}, or a negative value if absent. */
+    public int indexOf(String key) {
+        return Collections.binarySearch(keys, key);
+    }
+
+    public byte typeAt(int index) {
+        return types[index];
+    }
+
+    public boolean booleanAt(int index) {
+        return primitives[index] != 0;
+    }
+
+    public long longAt(int index) {
+        return primitives[index];
+    }
+
+    public double doubleAt(int index) {
+        return Double.longBitsToDouble(primitives[index]);
+    }
+
+    public String displayAt(int index) {
+        return display[index];
+    }
+
+    /**
+     * Measures every key and value row text off the main thread, so binding only
+     * has to attach finished layouts. {@code params} must come from the row
+     * TextViews the text will be shown in.
+     */
+    public void precomputeText(PrecomputedTextCompat.Params keyParams, PrecomputedTextCompat.Params valueParams) {
+        int n = keys.size();
+        CharSequence[] k = new CharSequence[n];
+        CharSequence[] v = new CharSequence[n];
+        for (int i = 0; i < n; i++) {
+            k[i] = PrecomputedTextCompat.create(keys.get(i), keyParams);
+            // Boolean rows show a switch, not text.
+            if (types[i] != ConfigValues.TYPE_BOOLEAN) v[i] = PrecomputedTextCompat.create(display[i], valueParams);
+        }
+        keyText = k;
+        valueText = v;
+    }
+
+    /** Precomputed key text if available, else the plain key. */
+    public CharSequence keyTextAt(int index) {
+        CharSequence[] k = keyText;
+        return k != null ? k[index] : keys.get(index);
+    }
+
+    /** Precomputed value text if available, else {@link #displayAt}. */
+    public CharSequence valueTextAt(int index) {
+        CharSequence[] v = valueText;
+        return v != null && v[index] != null ? v[index] : display[index];
+    }
+
+    /** The raw value, for editing. Not for the bind path. */
+    public Object valueAt(int index) {
+        return bundle.get(keys.get(index));
+    }
+
+    public boolean contentEquals(ConfigSnapshot other) {
+        if (other == null || !keys.equals(other.keys)) return false;
+        for (String key : keys) {
+            if (!valuesEqual(bundle.get(key), other.bundle.get(key))) return false;
+        }
+        return true;
+    }
+
+    static boolean valuesEqual(Object a, Object b) {
+        if (a == b) return true;
+        if (a == null || b == null) return false;
+        if (a instanceof int[] && b instanceof int[]) return Arrays.equals((int[]) a, (int[]) b);
+        if (a instanceof long[] && b instanceof long[]) return Arrays.equals((long[]) a, (long[]) b);
+        if (a instanceof double[] && b instanceof double[]) return Arrays.equals((double[]) a, (double[]) b);
+        if (a instanceof boolean[] && b instanceof boolean[]) return Arrays.equals((boolean[]) a, (boolean[]) b);
+        if (a instanceof String[] && b instanceof String[]) return Arrays.equals((String[]) a, (String[]) b);
+        if (a instanceof PersistableBundle && b instanceof PersistableBundle) {
+            PersistableBundle pa = (PersistableBundle) a;
+            PersistableBundle pb = (PersistableBundle) b;
+            if (!pa.keySet().equals(pb.keySet())) return false;
+            for (String key : pa.keySet()) {
+                if (!valuesEqual(pa.get(key), pb.get(key))) return false;
+            }
+            return true;
+        }
+        return Objects.equals(a, b);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.carrierapp;
+
+import android.os.PersistableBundle;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/** Type tags and display rendering for values held in a carrier config bundle. */
+public final class ConfigValues {
+
+    public static final byte TYPE_NULL = 0;
+    public static final byte TYPE_BOOLEAN = 1;
+    public static final byte TYPE_INT = 2;
+    public static final byte TYPE_LONG = 3;
+    public static final byte TYPE_DOUBLE = 4;
+    public static final byte TYPE_STRING = 5;
+    public static final byte TYPE_BOOLEAN_ARRAY = 6;
+    public static final byte TYPE_INT_ARRAY = 7;
+    public static final byte TYPE_LONG_ARRAY = 8;
+    public static final byte TYPE_DOUBLE_ARRAY = 9;
+    public static final byte TYPE_STRING_ARRAY = 10;
+    public static final byte TYPE_BUNDLE = 11;
+    public static final byte TYPE_OTHER = 12;
+
+    /** Elements shown inline for a collapsed array or bundle row. */
+    public static final int SUMMARY_ITEMS = 3;
+
+    private ConfigValues() {}
+
+    public static byte typeOf(Object value) {
+        if (value == null) return TYPE_NULL;
+        if (value instanceof Boolean) return TYPE_BOOLEAN;
+        if (value instanceof Integer) return TYPE_INT;
+        if (value instanceof Long) return TYPE_LONG;
+        if (value instanceof Double) return TYPE_DOUBLE;
+        if (value instanceof String) return TYPE_STRING;
+        if (value instanceof boolean[]) return TYPE_BOOLEAN_ARRAY;
+        if (value instanceof int[]) return TYPE_INT_ARRAY;
+        if (value instanceof long[]) return TYPE_LONG_ARRAY;
+        if (value instanceof double[]) return TYPE_DOUBLE_ARRAY;
+        if (value instanceof String[]) return TYPE_STRING_ARRAY;
+        if (value instanceof PersistableBundle) return TYPE_BUNDLE;
+        return TYPE_OTHER;
+    }
+
+    /** Packs scalar values into a long so they can live in a primitive array. */
+    public static long primitiveBits(Object value) {
+        if (value instanceof Boolean) return (Boolean) value ? 1 : 0;
+        if (value instanceof Integer) return (Integer) value;
+        if (value instanceof Long) return (Long) value;
+        if (value instanceof Double) return Double.doubleToRawLongBits((Double) value);
+        return 0;
+    }
+
+    public static boolean isArray(byte type) {
+        return type >= TYPE_BOOLEAN_ARRAY && type <= TYPE_STRING_ARRAY;
+    }
+
+    public static String typeName(byte type) {
+        switch (type) {
+            case TYPE_NULL: return "null";
+            case TYPE_BOOLEAN: return "bool";
+            case TYPE_INT: return "int";
+            case TYPE_LONG: return "long";
+            case TYPE_DOUBLE: return "double";
+            case TYPE_STRING: return "string";
+            case TYPE_BOOLEAN_ARRAY: return "bool[]";
+            case TYPE_INT_ARRAY: return "int[]";
+            case TYPE_LONG_ARRAY: return "long[]";
+            case TYPE_DOUBLE_ARRAY: return "double[]";
+            case TYPE_STRING_ARRAY: return "string[]";
+            case TYPE_BUNDLE: return "bundle";
+            default: return "other";
+        }
+    }
+
+    /** Number of elements in an array, or keys in a bundle; -1 for anything else. */
+    public static int elementCount(Object value) {
+        if (value instanceof boolean[]) return ((boolean[]) value).length;
+        if (value instanceof int[]) return ((int[]) value).length;
+        if (value instanceof long[]) return ((long[]) value).length;
+        if (value instanceof double[]) return ((double[]) value).length;
+        if (value instanceof String[]) return ((String[]) value).length;
+        if (value instanceof PersistableBundle) return ((PersistableBundle) value).size();
+        return -1;
+    }
+
+    /** One array element as text, or null for a null string element. */
+    public static String elementAt(Object array, int index) {
+        return ValueParsers.formatElement(array, index);
+    }
+
+    /**
+     * Short form for list rows: element count plus the first {@link #SUMMARY_ITEMS}
+     * elements (or keys, for a bundle), so row cost does not grow with the value.
+     */
+    public static String summarize(Object value) {
+        int count = elementCount(value);
+        if (count < 0) return render(value);
+        StringBuilder sb = new StringBuilder();
+        boolean bundle = value instanceof PersistableBundle;
+        sb.append(count).append(bundle ? (count == 1 ? " key" : " keys") : (count == 1 ? " item" : " items"));
+        if (count == 0) return sb.toString();
+        sb.append(": ").append(bundle ? '{' : '[');
+        int shown = Math.min(count, SUMMARY_ITEMS);
+        if (bundle) {
+            // Any few keys will do; sorting the whole key set would defeat the point.
+            int i = 0;
+            for (String key : ((PersistableBundle) value).keySet()) {
+                if (i == shown) break;
+                if (i++ > 0) sb.append(", ");
+                sb.append(key);
+            }
+        } else {
+            for (int i = 0; i < shown; i++) {
+                if (i > 0) sb.append(", ");
+                sb.append(elementAt(value, i));
+            }
+        }
+        if (count > shown) sb.append(", …");
+        return sb.append(bundle ? '}' : ']').toString();
+    }
+
+    /** Renders arrays and nested bundles by content, in the same format as the debug dump. */
+    public static String render(Object value) {
+        if (value == null) return "null";
+        if (value instanceof String) return (String) value;
+        StringWriter out = new StringWriter();
+        try {
+            ConfigDumper.writeValue(out, value, new char[20]);
+        } catch (IOException e) {
+            // StringWriter does not throw.
+        }
+        return out.toString();
+    }
+}
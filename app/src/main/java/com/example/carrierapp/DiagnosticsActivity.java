@@ -0,0 +1,121 @@
+package com.example.carrierapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.os.Bundle;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.widget.Toast;
+
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.google.android.material.appbar.MaterialToolbar;
+import com.google.android.material.materialswitch.MaterialSwitch;
+import com.google.android.material.textview.MaterialTextView;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/** Shows {@link Metrics} and lets them be switched on, reset or exported as text. */
+public class DiagnosticsActivity extends AppCompatActivity {
+
+    private static final String PREFS = "diagnostics";
+    private static final String KEY_ENABLED = "metrics_enabled";
+
+    private MaterialTextView metricsText;
+    private final ActivityResultLauncher<String> exportLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("text/plain"), this::exportMetrics);
+
+    /** Restores the saved on/off state; call once early in each process entry point. */
+    public static void restoreMetricsState(Context context) {
+        SharedPreferences prefs = context.getApplicationContext().getSharedPreferences(PREFS, MODE_PRIVATE);
+        Metrics.setEnabled(prefs.getBoolean(KEY_ENABLED, false));
+    }
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_diagnostics);
+
+        MaterialToolbar toolbar = findViewById(R.id.topAppBar);
+        setSupportActionBar(toolbar);
+        toolbar.setNavigationOnClickListener(v -> finish());
+
+        metricsText = findViewById(R.id.metrics_text);
+        MaterialSwitch metricsSwitch = findViewById(R.id.metrics_switch);
+        metricsSwitch.setChecked(Metrics.isEnabled());
+        metricsSwitch.setOnCheckedChangeListener((button, checked) -> {
+            Metrics.setEnabled(checked);
+            getSharedPreferences(PREFS, MODE_PRIVATE).edit().putBoolean(KEY_ENABLED, checked).apply();
+            refresh();
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        refresh();
+    }
+
+    private void refresh() {
+        StringWriter out = new StringWriter();
+        try {
+            writeReport(out);
+        } catch (IOException e) {
+            // StringWriter does not throw.
+        }
+        metricsText.setText(out.toString());
+    }
+
+    private void writeReport(Writer out) throws IOException {
+        out.write(Metrics.isEnabled() ? "Recording\n\n" : "Not recording\n\n");
+        Metrics.dump(out);
+        ConfigCache cache = ConfigCache.get(this);
+        out.write("config cache hits    " + cache.getHitCount() + "\n");
+        out.write("config cache misses  " + cache.getMissCount() + "\n");
+    }
+
+    private void exportMetrics(Uri target) {
+        if (target == null) return;
+        try (OutputStream stream = getContentResolver().openOutputStream(target, "wt")) {
+            if (stream == null) throw new IOException("Cannot open " + target);
+            Writer out = new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+            writeReport(out);
+            out.flush();
+            Toast.makeText(this, "Metrics exported", Toast.LENGTH_SHORT).show();
+        } catch (IOException e) {
+            Toast.makeText(this, "Export failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
+        }
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.menu_diagnostics, menu);
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(@NonNull MenuItem item) {
+        int id = item.getItemId();
+        if (id == R.id.action_refresh_metrics) {
+            refresh();
+            return true;
+        } else if (id == R.id.action_reset_metrics) {
+            Metrics.reset();
+            refresh();
+            return true;
+        } else if (id == R.id.action_export_metrics) {
+            exportLauncher.launch("carrierapp_metrics.txt");
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.carrierapp;
+
+/**
+ * Ranks a lowercased key against one lowercased search term, for
+ * {@link ConfigQuery}. Substring hits score 91 to 120, in-order subsequences
+ * 11 to 47, and terms within one typo (two for terms over five letters) of an
+ * underscore-separated key segment 20, or 10 for two typos. Zero means no
+ * match. Free of {@code android.*}, so it is tested and benchmarked on a
+ * plain JVM.
+ */
+public final class FuzzyMatcher {
+
+    private FuzzyMatcher() {}
+
+    /** The key's underscore-separated segments, which typo matching compares against. */
+    public static String[] segments(String lowerKey) {
+        return lowerKey.split("_");
+    }
+
+    /**
+     * Score of {@code term} against {@code key}; {@code scratch} is two reusable
+     * rows for the edit distance, grown as needed.
+     */
+    public static int score(String key, String[] segments, String term, int[][] scratch) {
+        int at = key.indexOf(term);
+        if (at >= 0) {
+            int score = 100;
+            if (at == 0) score += 20;
+            else if (key.charAt(at - 1) == '_') score += 10;
+            return score - Math.min(key.length() / 10, 9);
+        }
+
+        int gaps = subsequenceGaps(key, term);
+        if (gaps >= 0) return Math.max(50 - 3 * gaps, 11);
+
+        int maxEdits = term.length() <= 5 ? 1 : 2;
+        int best = Integer.MAX_VALUE;
+        for (String segment : segments) {
+            if (Math.abs(segment.length() - term.length()) > maxEdits) continue;
+            best = Math.min(best, boundedDistance(segment, term, maxEdits, scratch));
+            if (best == 0) break;
+        }
+        return best <= maxEdits ? 30 - 10 * best : 0;
+    }
+
+    /** Number of breaks in an in-order match of {@code term} within {@code key}, or -1. */
+    static int subsequenceGaps(String key, String term) {
+        int k = 0;
+        int gaps = 0;
+        int last = -2;
+        for (int t = 0; t < term.length(); t++) {
+            char c = term.charAt(t);
+            while (k < key.length() && key.charAt(k) != c) k++;
+            if (k == key.length()) return -1;
+            if (k != last + 1) gaps++;
+            last = k++;
+        }
+        return gaps;
+    }
+
+    /** Levenshtein distance, or {@code max + 1} once it is certain to exceed {@code max}. */
+    static int boundedDistance(String a, String b, int max, int[][] scratch) {
+        int m = b.length();
+        if (scratch[0].length < m + 1) {
+            scratch[0] = new int[m + 1];
+            scratch[1] = new int[m + 1];
+        }
+        int[] prev = scratch[0];
+        int[] cur = scratch[1];
+        for (int j = 0; j <= m; j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                rowMin = Math.min(rowMin, cur[j]);
+            }
+            if (rowMin > max) return max + 1;
+            int[] tmp = prev;
+            prev = cur;
+            cur = tmp;
+        }
+        return prev[m];
+    }
+}
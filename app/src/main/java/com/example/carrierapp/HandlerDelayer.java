@@ -0,0 +1,23 @@
+package com.example.carrierapp;
+
+import android.os.Handler;
+
+/** {@link SearchScheduler.Delayer} that posts to a {@link Handler}, normally the main thread's. */
+public final class HandlerDelayer implements SearchScheduler.Delayer {
+
+    private final Handler handler;
+
+    public HandlerDelayer(Handler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public void postDelayed(Runnable task, long delayMs) {
+        handler.postDelayed(task, delayMs);
+    }
+
+    @Override
+    public void cancel(Runnable task) {
+        handler.removeCallbacks(task);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.carrierapp;
+
+import android.app.Activity;
+import android.app.Instrumentation;
+import android.content.ContentValues;
+import android.content.Context;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.PersistableBundle;
+import android.telephony.CarrierConfigManager;
+import android.telephony.SubscriptionManager;
+import android.telephony.TelephonyManager;
+
+import org.json.JSONException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Applies a profile without the UI, for scripted device-lab runs:
+ *
+ * <pre>
+ * adb push lab.ccsn lab_apns.json /sdcard/Android/data/com.example.carrierapp/files/
+ * adb shell am instrument -r -w \
+ *     -e profile lab.ccsn -e apns lab_apns.json [-e sub_id 2] [-e dry_run true] \
+ *     com.example.carrierapp/.HeadlessRunner
+ * </pre>
+ *
+ * {@code profile} is a {@link SnapshotCodec} file, e.g. one exported from the
+ * app. {@code profile_name} names a saved {@link OverrideProfileStore} profile
+ * instead, and {@code activate true} also makes that profile the one the
+ * receiver re-applies. {@code apns} is a JSON file in the format of
+ * {@link ApnBatch#parseJson}. Relative paths resolve against the app's external
+ * files directory. Progress and per-step timings stream back as instrumentation
+ * status lines. Only the shell or root can run instrumentation, so the runner
+ * has no caller check of its own.
+ */
+public class HeadlessRunner extends Instrumentation {
+
+    static final int STATUS_PROGRESS = 1;
+
+    private Bundle arguments;
+
+    @Override
+    public void onCreate(Bundle arguments) {
+        super.onCreate(arguments);
+        this.arguments = arguments != null ? arguments : new Bundle();
+        start();
+    }
+
+    @Override
+    public void onStart() {
+        super.onStart();
+        Bundle results = new Bundle();
+        long start = System.nanoTime();
+        try {
+            ProfileApplier.Result result = run();
+            results.putInt("keys_applied", result.keysApplied);
+            results.putInt("keys_verified", result.keysVerified);
+            results.putInt("keys_rejected", result.rejected.size());
+            results.putInt("apns_written", result.apnsWritten);
+            StringBuilder summary = new StringBuilder();
+            for (String r : result.rejected) summary.append("rejected: ").append(r).append('\n');
+            summary.append(String.format(Locale.ROOT,
+                    "applied %d keys (%d verified), rejected %d, wrote %d APNs in %.1f ms%n",
+                    result.keysApplied, result.keysVerified, result.rejected.size(), result.apnsWritten,
+                    (System.nanoTime() - start) / 1e6));
+            results.putString(REPORT_KEY_STREAMRESULT, summary.toString());
+            finish(Activity.RESULT_OK, results);
+        } catch (Exception e) {
+            results.putString("error", String.valueOf(e));
+            results.putString(REPORT_KEY_STREAMRESULT, "failed: " + e + "\n");
+            finish(Activity.RESULT_CANCELED, results);
+        }
+    }
+
+    private ProfileApplier.Result run() throws Exception {
+        Context context = getTargetContext();
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+            throw new IllegalStateException("Override requires Android 10+");
+        }
+        int subId = Integer.parseInt(arguments.getString("sub_id",
+                Integer.toString(SubscriptionManager.getDefaultDataSubscriptionId())));
+        if (!SubscriptionManager.isValidSubscriptionId(subId)) {
+            throw new IllegalArgumentException("No valid subscription; pass -e sub_id");
+        }
+        boolean dryRun = Boolean.parseBoolean(arguments.getString("dry_run", "false"));
+
+        OverrideProfileStore store = new OverrideProfileStore(context);
+        String profileName = arguments.getString("profile_name");
+        String profilePath = arguments.getString("profile");
+        PersistableBundle overrides;
+        if (profileName != null) {
+            overrides = store.load(profileName);
+        } else if (profilePath != null) {
+            overrides = readProfile(resolve(context, profilePath));
+        } else {
+            overrides = new PersistableBundle();
+        }
+        String apnPath = arguments.getString("apns");
+        List<ContentValues> apns = apnPath != null ? readApns(resolve(context, apnPath)) : null;
+
+        CarrierConfigManager ccm = context.getSystemService(CarrierConfigManager.class);
+        TelephonyManager tm = context.getSystemService(TelephonyManager.class);
+        ConfigLoader.ConfigSource source = new ConfigLoader.ConfigSource() {
+            @Override
+            public PersistableBundle getConfigForSubId(int id) {
+                return ccm.getConfigForSubId(id);
+            }
+
+            @Override
+            public boolean hasCarrierPrivileges(int id) {
+                return tm.createForSubscriptionId(id).hasCarrierPrivileges();
+            }
+        };
+        ProfileApplier applier = new ProfileApplier(source, ccm::overrideConfig,
+                ApnBatch.target(context.getContentResolver()), statusListener());
+        ProfileApplier.Result result = applier.apply(subId, overrides, apns, dryRun);
+
+        if (!dryRun && profileName != null && Boolean.parseBoolean(arguments.getString("activate", "false"))) {
+            store.setActive(profileName);
+        }
+        return result;
+    }
+
+    private ProfileApplier.Listener statusListener() {
+        return new ProfileApplier.Listener() {
+            @Override
+            public void onProgress(String step, int done, int total) {
+                Bundle status = new Bundle();
+                status.putString("step", step);
+                status.putInt("done", done);
+                status.putInt("total", total);
+                status.putString(REPORT_KEY_STREAMRESULT, step + " " + done + "/" + total + "\n");
+                sendStatus(STATUS_PROGRESS, status);
+            }
+
+            @Override
+            public void onTiming(String operation, long elapsedNanos) {
+                Bundle status = new Bundle();
+                status.putString("operation", operation);
+                status.putLong("elapsed_us", elapsedNanos / 1000);
+                status.putString(REPORT_KEY_STREAMRESULT,
+                        String.format(Locale.ROOT, "%s took %.2f ms%n", operation, elapsedNanos / 1e6));
+                sendStatus(STATUS_PROGRESS, status);
+            }
+        };
+    }
+
+    private static File resolve(Context context, String path) {
+        File file = new File(path);
+        return file.isAbsolute() ? file : new File(context.getExternalFilesDir(null), path);
+    }
+
+    private static PersistableBundle readProfile(File file) throws IOException {
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            return SnapshotCodec.read(channel);
+        }
+    }
+
+    private static List<ContentValues> readApns(File file) throws IOException, JSONException {
+        try (InputStreamReader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            StringBuilder sb = new StringBuilder();
+            char[] buf = new char[8192];
+            int n;
+            while ((n = reader.read(buf)) != -1) sb.append(buf, 0, n);
+            return ApnBatch.parseJson(sb.toString());
+        }
+    }
+}
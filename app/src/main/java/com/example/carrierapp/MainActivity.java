@@ -1,61 +1,226 @@
 package com.example.carrierapp;
 
 import android.content.Intent;
+import android.graphics.Typeface;
+import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.ParcelFileDescriptor;
 import android.os.PersistableBundle;
 import android.telephony.CarrierConfigManager;
 import android.telephony.SubscriptionInfo;
 import android.telephony.SubscriptionManager;
 import android.telephony.TelephonyManager;
+import android.text.InputType;
+import android.text.TextUtils;
+import android.text.format.DateUtils;
 import android.view.Menu;
 import android.view.MenuItem;
+import android.view.View;
 import android.widget.EditText;
+import android.widget.ScrollView;
+import android.widget.TextView;
 import android.widget.Toast;
 import android.util.Log;
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.SearchView;
+import androidx.core.content.ContextCompat;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
-import java.util.Arrays;
-import java.util.List;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class MainActivity extends AppCompatActivity {
 
+    private static final long SEARCH_DEBOUNCE_MS = 150;
+    private static final int ROW_POOL_SIZE = 24;
+    private static final String PREF_DUMP_MODE = "dump_mode";
+    private static final String PREF_DUMP_KEYS_ONLY = "dump_keys_only";
+    private static final int DUMP_OFF = 0;
+    private static final int DUMP_LOGCAT = 1;
+    private static final int DUMP_FILE = 2;
+    private static final long DUMP_BYTE_BUDGET = 1024 * 1024;
+    private static final String PREF_AUTO_APPLY = "auto_apply";
+    private static final long AUTO_APPLY_QUIET_MS = 2000;
+    private static final String STATE_PENDING = "pending_overrides";
+
     private RecyclerView recyclerView;
+    private final RecyclerView.RecycledViewPool configRowPool = new RecyclerView.RecycledViewPool();
+    private volatile PrecomputedTextCompat.Params keyTextParams;
+    private volatile PrecomputedTextCompat.Params valueTextParams;
     private CarrierConfigManager carrierConfigManager;
     private SubscriptionManager subscriptionManager;
+    private ConfigLoader configLoader;
+    private SearchScheduler<List<Integer>> searchScheduler;
+    private ExecutorService searchExecutor;
+    private String currentQuery = "";
+    private volatile ConfigDumper configDumper = ConfigDumper.DISABLED;
+    private OverrideBatch overrideBatch;
+    private int pendingOverrideCount;
     private int activeSubId = SubscriptionManager.INVALID_SUBSCRIPTION_ID;
+    private List<SubscriptionInfo> activeSubs = new ArrayList<>();
+    private final SparseArray<ConfigSnapshot> snapshots = new SparseArray<>();
+    private final SparseBooleanArray unprivilegedSubs = new SparseBooleanArray();
+    private final SparseArray<ConfigSnapshot> baselines = new SparseArray<>();
+    private boolean changedOnly;
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+    private PersistableBundle pendingExport;
+    private OverrideProfileStore profileStore;
+    private final ActivityResultLauncher<String> exportLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("application/octet-stream"), uri -> {
+                if (pendingExport != null) exportBundle(pendingExport, uri);
+                pendingExport = null;
+            });
+    private final ActivityResultLauncher<String[]> importLauncher = registerForActivityResult(
+            new ActivityResultContracts.OpenDocument(), this::importOverrides);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_config);
+        DiagnosticsActivity.restoreMetricsState(this);
 
         MaterialToolbar toolbar = findViewById(R.id.topAppBar);
         setSupportActionBar(toolbar);
 
         recyclerView = findViewById(R.id.recycler_view);
-        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        layoutManager.setItemPrefetchEnabled(true);
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.setHasFixedSize(true);
+        // One pool for every snapshot's adapter, so switching SIM or refreshing reuses rows.
+        configRowPool.setMaxRecycledViews(CarrierConfigAdapter.VIEW_TYPE_BOOLEAN, ROW_POOL_SIZE);
+        configRowPool.setMaxRecycledViews(CarrierConfigAdapter.VIEW_TYPE_SCALAR, ROW_POOL_SIZE);
+        configRowPool.setMaxRecycledViews(CarrierConfigAdapter.VIEW_TYPE_ARRAY, ROW_POOL_SIZE);
+        recyclerView.setRecycledViewPool(configRowPool);
+        captureTextParams();
 
         FloatingActionButton fabReset = findViewById(R.id.fab_reset);
         fabReset.setOnClickListener(v -> resetConfig());
 
         carrierConfigManager = getSystemService(CarrierConfigManager.class);
         subscriptionManager = getSystemService(SubscriptionManager.class);
+        profileStore = new OverrideProfileStore(this);
+        configLoader = new ConfigLoader(configSource(),
+                ConfigCache.get(this), ContextCompat.getMainExecutor(this));
+        configDumper = createDumper(getPreferences(MODE_PRIVATE).getInt(PREF_DUMP_MODE, DUMP_OFF),
+                getPreferences(MODE_PRIVATE).getBoolean(PREF_DUMP_KEYS_ONLY, false));
+        SearchScheduler.Delayer mainDelayer = new HandlerDelayer(new Handler(Looper.getMainLooper()));
+        searchExecutor = Executors.newSingleThreadExecutor();
+        searchScheduler = new SearchScheduler<>(mainDelayer,
+                searchExecutor, ContextCompat.getMainExecutor(this), SEARCH_DEBOUNCE_MS);
+        overrideBatch = new OverrideBatch(carrierConfigManager::overrideConfig, mainDelayer, overrideListener());
+        overrideBatch.setQuietPeriodMs(getPreferences(MODE_PRIVATE).getBoolean(PREF_AUTO_APPLY, false)
+                ? AUTO_APPLY_QUIET_MS : 0);
+        if (savedInstanceState != null) {
+            restorePendingOverrides(savedInstanceState.getParcelable(STATE_PENDING));
+        } else {
+            restoreKeptOverrides();
+        }
 
         loadCarrierConfig();
     }
 
+    @Override
+    protected void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putParcelable(STATE_PENDING, pendingOverrides());
+    }
+
+    /** Every staged edit, one bundle per subscription id. */
+    private PersistableBundle pendingOverrides() {
+        PersistableBundle pending = new PersistableBundle();
+        for (int subId : overrideBatch.pendingSubIds()) {
+            pending.putPersistableBundle(Integer.toString(subId), overrideBatch.pendingCopy(subId));
+        }
+        return pending;
+    }
+
+    /** Stages {@code pending} again; returns how many edits that was. */
+    private int restorePendingOverrides(PersistableBundle pending) {
+        if (pending == null) return 0;
+        int restored = 0;
+        for (String subId : pending.keySet()) {
+            PersistableBundle edits = pending.getPersistableBundle(subId);
+            if (edits == null) continue;
+            overrideBatch.stageAll(Integer.parseInt(subId), edits);
+            restored += edits.size();
+        }
+        return restored;
+    }
+
+    /** Picks up edits left staged when the activity last finished with auto-apply off. */
+    private void restoreKeptOverrides() {
+        ioExecutor.execute(() -> {
+            PersistableBundle kept;
+            try {
+                kept = profileStore.takePending();
+            } catch (IOException e) {
+                Log.w("CarrierConfig", "Dropping kept overrides", e);
+                return;
+            }
+            if (kept == null) return;
+            runOnUiThread(() -> {
+                if (isDestroyed()) return;
+                int restored = restorePendingOverrides(kept);
+                if (restored > 0) {
+                    Toast.makeText(this, "Restored " + restored + " staged change(s)", Toast.LENGTH_SHORT).show();
+                }
+            });
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        configLoader.shutdown();
+        searchScheduler.cancel();
+        // A recreated activity gets the staged edits back from the saved state.
+        if (!isChangingConfigurations() && getPreferences(MODE_PRIVATE).getBoolean(PREF_AUTO_APPLY, false)) {
+            try {
+                overrideBatch.flush();
+            } catch (RuntimeException e) {
+                Log.w("CarrierConfig", "Dropping pending overrides", e);
+            }
+        } else if (!isChangingConfigurations() && pendingOverrideCount > 0) {
+            // Without auto-apply the edits wait for Apply; keep them for the next launch.
+            PersistableBundle pending = pendingOverrides();
+            ioExecutor.execute(() -> {
+                try {
+                    profileStore.savePending(pending);
+                } catch (IOException e) {
+                    Log.w("CarrierConfig", "Dropping pending overrides", e);
+                }
+            });
+        }
+        overrideBatch.setQuietPeriodMs(0);
+        searchExecutor.shutdownNow();
+        ioExecutor.shutdown();
+        super.onDestroy();
+    }
+
     private void loadCarrierConfig() {
         if (checkSelfPermission(android.Manifest.permission.READ_PHONE_STATE)
                 != android.content.pm.PackageManager.PERMISSION_GRANTED) {
@@ -63,122 +228,594 @@ public class MainActivity extends AppCompatActivity {
             return;
         }
 
-        List<SubscriptionInfo> activeSubs = subscriptionManager.getActiveSubscriptionInfoList();
-        if (activeSubs == null || activeSubs.isEmpty()) {
+        List<SubscriptionInfo> subs = subscriptionManager.getActiveSubscriptionInfoList();
+        if (subs == null || subs.isEmpty()) {
             showError("No active SIM card found.");
             return;
         }
 
-        SubscriptionInfo subInfo = activeSubs.get(0);
-        activeSubId = subInfo.getSubscriptionId();
+        activeSubs = subs;
+        unprivilegedSubs.clear();
+        List<Integer> subIds = new ArrayList<>(subs.size());
+        for (SubscriptionInfo info : subs) subIds.add(info.getSubscriptionId());
+        if (!subIds.contains(activeSubId)) activeSubId = subIds.get(0);
+        updateSubtitle();
 
-        TelephonyManager tm = getSystemService(TelephonyManager.class)
-                .createForSubscriptionId(activeSubId);
+        configLoader.load(subIds, new ConfigLoader.Callback() {
+            @Override
+            public void onSnapshotPrepare(ConfigSnapshot snapshot) {
+                snapshot.precomputeText(keyTextParams, valueTextParams);
+            }
 
-        if (!tm.hasCarrierPrivileges()) {
-            showError("No Carrier Privileges on SIM Slot " + subInfo.getSimSlotIndex() +
-                    ".\nCheck your certificate hash!");
-            return;
+            @Override
+            public void onSnapshotBuilt(ConfigSnapshot snapshot) {
+                dumpConfig(snapshot);
+                try {
+                    ConfigHistory.get(MainActivity.this)
+                            .record(snapshot.subId, System.currentTimeMillis(), snapshot.bundle);
+                } catch (IOException e) {
+                    Log.w("CarrierConfig", "Cannot record config history", e);
+                }
+            }
+
+            @Override
+            public void onLoaded(ConfigSnapshot snapshot) {
+                ConfigSnapshot previous = snapshots.get(snapshot.subId);
+                // A cached snapshot just replays what we had; only a fresh one moves the baseline.
+                if (previous != null && !snapshot.fromCache) baselines.put(snapshot.subId, previous);
+                snapshots.put(snapshot.subId, snapshot);
+                if (snapshot.subId == activeSubId) showSnapshot(snapshot);
+            }
+
+            @Override
+            public void onNoPrivileges(int subId) {
+                unprivilegedSubs.put(subId, true);
+                if (subId == activeSubId) showNoPrivileges(subId);
+            }
+
+            @Override
+            public void onError(int subId, Exception e) {
+                if (subId == activeSubId) showError("Failed to load config: " + e.getMessage());
+            }
+        });
+    }
+
+    private ConfigLoader.ConfigSource configSource() {
+        TelephonyManager telephonyManager = getSystemService(TelephonyManager.class);
+        return new ConfigLoader.ConfigSource() {
+            @Override
+            public PersistableBundle getConfigForSubId(int subId) {
+                return carrierConfigManager.getConfigForSubId(subId);
+            }
+
+            @Override
+            public boolean hasCarrierPrivileges(int subId) {
+                return telephonyManager.createForSubscriptionId(subId).hasCarrierPrivileges();
+            }
+
+            @Override
+            public int getCarrierId(int subId) {
+                return telephonyManager.createForSubscriptionId(subId).getSimCarrierId();
+            }
+        };
+    }
+
+    private SubscriptionInfo findSub(int subId) {
+        for (SubscriptionInfo info : activeSubs) {
+            if (info.getSubscriptionId() == subId) return info;
+        }
+        return null;
+    }
+
+    private void updateSubtitle() {
+        SubscriptionInfo info = findSub(activeSubId);
+        if (info != null && getSupportActionBar() != null) {
+            getSupportActionBar().setSubtitle("Carrier: " + info.getCarrierName()
+                    + " (Slot " + info.getSimSlotIndex() + ")");
         }
+    }
 
-        if (getSupportActionBar() != null) {
-            getSupportActionBar().setSubtitle("Carrier: " + subInfo.getCarrierName());
+    private void showNoPrivileges(int subId) {
+        SubscriptionInfo info = findSub(subId);
+        int slot = info != null ? info.getSimSlotIndex() : -1;
+        clearRows(recyclerView);
+        showError("No Carrier Privileges on SIM Slot " + slot +
+                ".\nCheck your certificate hash!");
+    }
+
+    private void switchSubscription(int subId) {
+        activeSubId = subId;
+        updateSubtitle();
+        ConfigSnapshot snapshot = snapshots.get(subId);
+        if (snapshot != null) {
+            showSnapshot(snapshot);
+        } else if (unprivilegedSubs.get(subId)) {
+            showNoPrivileges(subId);
+        } else {
+            // Still loading; onLoaded will show it.
+            clearRows(recyclerView);
         }
+    }
 
-        PersistableBundle fetchedBundle = carrierConfigManager.getConfigForSubId(activeSubId);
-        if (fetchedBundle == null) fetchedBundle = new PersistableBundle();
+    private void showSimPicker() {
+        if (activeSubs.isEmpty()) {
+            showError("No active SIM card found.");
+            return;
+        }
+        CharSequence[] labels = new CharSequence[activeSubs.size()];
+        int checked = 0;
+        for (int i = 0; i < activeSubs.size(); i++) {
+            SubscriptionInfo info = activeSubs.get(i);
+            labels[i] = "Slot " + info.getSimSlotIndex() + ": " + info.getCarrierName();
+            if (info.getSubscriptionId() == activeSubId) checked = i;
+        }
+        new AlertDialog.Builder(this)
+                .setTitle("Select SIM")
+                .setSingleChoiceItems(labels, checked, (dialog, which) -> {
+                    switchSubscription(activeSubs.get(which).getSubscriptionId());
+                    dialog.dismiss();
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
 
-        // --- SMART DEBUG DUMP ---
-        Log.d("CarrierConfig", "--- STARTING DUMP ---");
-        List<String> sortedKeys = new ArrayList<>(fetchedBundle.keySet());
-        Collections.sort(sortedKeys);
+    private void dumpConfig(ConfigSnapshot snapshot) {
+        ConfigDumper dumper = configDumper;
+        if (!dumper.isEnabled()) return;
+        try {
+            dumper.dump(snapshot);
+        } catch (IOException e) {
+            Log.w("CarrierConfig", "Config dump failed", e);
+        }
+    }
 
-        for (String key : sortedKeys) {
-            Object value = fetchedBundle.get(key);
-            String printValue;
-            if (value instanceof String[]) printValue = Arrays.toString((String[]) value);
-            else if (value instanceof int[]) printValue = Arrays.toString((int[]) value);
-            else if (value instanceof long[]) printValue = Arrays.toString((long[]) value);
-            else if (value instanceof boolean[]) printValue = Arrays.toString((boolean[]) value);
-            else printValue = String.valueOf(value);
-            Log.d("CarrierConfig", key + " = " + printValue);
+    private ConfigDumper createDumper(int mode, boolean keysOnly) {
+        int level = keysOnly ? ConfigDumper.LEVEL_KEYS : ConfigDumper.LEVEL_VALUES;
+        switch (mode) {
+            case DUMP_LOGCAT:
+                return new ConfigDumper(level, DUMP_BYTE_BUDGET, ConfigDumper.logcatSink());
+            case DUMP_FILE:
+                File dir = getExternalFilesDir(null);
+                if (dir == null) dir = getFilesDir();
+                return new ConfigDumper(level, DUMP_BYTE_BUDGET, ConfigDumper.fileSink(dir));
+            default:
+                return ConfigDumper.DISABLED;
         }
-        Log.d("CarrierConfig", "--- END DUMP ---");
-        // ------------------------
+    }
 
-        final PersistableBundle finalBundle = fetchedBundle;
+    private void setDumpMode(int mode) {
+        getPreferences(MODE_PRIVATE).edit().putInt(PREF_DUMP_MODE, mode).apply();
+        configDumper = createDumper(mode, getPreferences(MODE_PRIVATE).getBoolean(PREF_DUMP_KEYS_ONLY, false));
+    }
 
-        CarrierConfigAdapter adapter = new CarrierConfigAdapter(finalBundle, new CarrierConfigAdapter.OnConfigChangeListener() {
+    private void setDumpKeysOnly(boolean keysOnly) {
+        getPreferences(MODE_PRIVATE).edit().putBoolean(PREF_DUMP_KEYS_ONLY, keysOnly).apply();
+        configDumper = createDumper(getPreferences(MODE_PRIVATE).getInt(PREF_DUMP_MODE, DUMP_OFF), keysOnly);
+    }
+
+    private void showSnapshot(ConfigSnapshot snapshot) {
+        CarrierConfigAdapter adapter = new CarrierConfigAdapter(snapshot, new CarrierConfigAdapter.OnConfigChangeListener() {
             @Override
             public void onConfigChanged(String key, Object newValue) {
                 if ("EDIT_REQUEST".equals(newValue)) {
-                    showEditDialog(key, finalBundle);
+                    showEditDialog(key, snapshot.bundle);
                 } else {
                     applyOverride(key, newValue);
                 }
             }
         });
 
-        recyclerView.setAdapter(adapter);
+        // swapAdapter keeps the shared pool; setAdapter would clear it.
+        recyclerView.swapAdapter(adapter, false);
+        if (changedOnly) applyChangedOnly(adapter);
+        else if (!currentQuery.isEmpty()) scheduleSearch(currentQuery);
+    }
+
+    /**
+     * Empties the list without dropping the shared row pool: setAdapter(null)
+     * would clear it, and swapping without recycling would leave the old rows
+     * on screen, since a RecyclerView with no adapter skips layout.
+     */
+    static void clearRows(RecyclerView list) {
+        list.swapAdapter(null, true);
+    }
+
+    /** Text measuring params of the config rows, read once from an unattached row. */
+    private void captureTextParams() {
+        View row = getLayoutInflater().inflate(R.layout.item_config_scalar, recyclerView, false);
+        keyTextParams = TextViewCompat.getTextMetricsParams(row.findViewById(R.id.config_key));
+        valueTextParams = TextViewCompat.getTextMetricsParams(row.findViewById(R.id.value_text));
+    }
+
+    private ConfigDiff currentDiff(ConfigSnapshot snapshot) {
+        ConfigSnapshot baseline = baselines.get(snapshot.subId);
+        return baseline != null ? ConfigDiff.compute(baseline, snapshot) : null;
+    }
+
+    private void applyChangedOnly(CarrierConfigAdapter adapter) {
+        if (changedOnly) {
+            ConfigDiff diff = currentDiff(adapter.getSnapshot());
+            adapter.setVisibleKeys(diff != null ? diff.changedKeysInAfter() : Collections.emptyList());
+        } else {
+            adapter.setVisibleKeys(null);
+        }
+        scheduleSearch(currentQuery);
+    }
+
+    private void showChanges() {
+        ConfigSnapshot snapshot = snapshots.get(activeSubId);
+        ConfigDiff diff = snapshot != null ? currentDiff(snapshot) : null;
+        if (diff == null) {
+            showError("No earlier snapshot to compare with. Refresh or apply a change first.");
+            return;
+        }
+        showReport(diff.entries.size() + " change(s)", diff.toReport());
+    }
+
+    private void showReport(String title, String report) {
+        TextView text = new TextView(this);
+        text.setText(report);
+        text.setTextIsSelectable(true);
+        text.setTypeface(Typeface.MONOSPACE);
+        text.setPadding(40, 20, 40, 20);
+        ScrollView scroll = new ScrollView(this);
+        scroll.addView(text);
+        new AlertDialog.Builder(this)
+                .setTitle(title)
+                .setView(scroll)
+                .setPositiveButton("OK", null)
+                .show();
+    }
+
+    private void showHistory() {
+        final int subId = activeSubId;
+        ioExecutor.execute(() -> {
+            long[] times = ConfigHistory.get(this).timestamps(subId);
+            runOnUiThread(() -> {
+                if (times.length == 0) {
+                    showError("No history recorded for this SIM yet.");
+                    return;
+                }
+                // Newest first; the oldest entry is the base snapshot.
+                String[] labels = new String[times.length];
+                for (int i = 0; i < times.length; i++) {
+                    long t = times[times.length - 1 - i];
+                    labels[i] = DateUtils.formatDateTime(this, t, DateUtils.FORMAT_SHOW_DATE
+                            | DateUtils.FORMAT_SHOW_TIME | DateUtils.FORMAT_SHOW_YEAR)
+                            + (i == times.length - 1 ? " (oldest)" : "");
+                }
+                new AlertDialog.Builder(this)
+                        .setTitle("Config History")
+                        .setItems(labels, (dialog, which) -> {
+                            int index = times.length - 1 - which;
+                            long from = index > 0 ? times[index - 1] : Long.MIN_VALUE;
+                            showHistoryEntry(subId, from, times[index], labels[which]);
+                        })
+                        .setNegativeButton("Cancel", null)
+                        .show();
+            });
+        });
+    }
+
+    private void showHistoryEntry(int subId, long from, long to, String label) {
+        ioExecutor.execute(() -> {
+            try {
+                ConfigDiff diff = ConfigHistory.get(this).changesBetween(subId, from, to);
+                runOnUiThread(() -> showReport(label + ": " + diff.entries.size() + " change(s)",
+                        diff.toReport()));
+            } catch (IOException e) {
+                runOnUiThread(() -> showError("Cannot read history: " + e.getMessage()));
+            }
+        });
+    }
+
+    private void scheduleSearch(String query) {
+        currentQuery = query != null ? query : "";
+        if (!(recyclerView.getAdapter() instanceof CarrierConfigAdapter)) return;
+        CarrierConfigAdapter adapter = (CarrierConfigAdapter) recyclerView.getAdapter();
+        searchScheduler.submit(currentQuery, adapter::search, (q, results) -> {
+            if (recyclerView.getAdapter() == adapter) adapter.submitList(results);
+        });
     }
 
     private void showEditDialog(String key, PersistableBundle bundle) {
         Object currentValue = bundle.get(key);
+        if (ConfigValues.elementCount(currentValue) >= 0) {
+            ValueListDialog.show(this, key, currentValue, this::applyOverride);
+            return;
+        }
+        // A null value has no type to keep; edit it as a string.
+        byte type = currentValue != null ? ConfigValues.typeOf(currentValue) : ConfigValues.TYPE_STRING;
+        ValueCodecs.Codec codec = ValueCodecs.forType(type);
+        if (codec == null) {
+            showError(key + " holds a value type that cannot be edited.");
+            return;
+        }
         EditText input = new EditText(this);
-        input.setText(String.valueOf(currentValue));
+        input.setInputType(inputTypeFor(type));
+        if (currentValue != null) input.setText(codec.format(currentValue));
 
         new AlertDialog.Builder(this)
                 .setTitle("Edit Config")
-                .setMessage(key)
+                .setMessage(key + " (" + ConfigValues.typeName(type) + ")")
                 .setView(input)
                 .setPositiveButton("Save", (dialog, which) -> {
-                    String text = input.getText().toString();
-                    Object finalValue = text;
-                    if (currentValue instanceof Integer) {
-                        try { finalValue = Integer.parseInt(text); } catch (Exception e) {}
-                    } else if (currentValue instanceof Long) {
-                        try { finalValue = Long.parseLong(text); } catch (Exception e) {}
+                    Object parsed;
+                    try {
+                        parsed = codec.parse(input.getText().toString());
+                    } catch (IllegalArgumentException e) {
+                        showError("Not a valid " + ConfigValues.typeName(type) + ": " + e.getMessage());
+                        return;
                     }
-                    applyOverride(key, finalValue);
+                    applyOverride(key, parsed);
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
     }
 
+    private static int inputTypeFor(byte type) {
+        switch (type) {
+            case ConfigValues.TYPE_INT:
+            case ConfigValues.TYPE_LONG:
+                return InputType.TYPE_CLASS_NUMBER | InputType.TYPE_NUMBER_FLAG_SIGNED;
+            case ConfigValues.TYPE_DOUBLE:
+                return InputType.TYPE_CLASS_NUMBER | InputType.TYPE_NUMBER_FLAG_SIGNED
+                        | InputType.TYPE_NUMBER_FLAG_DECIMAL;
+            default:
+                return InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_FLAG_MULTI_LINE;
+        }
+    }
+
+    /** Null if {@code value} may replace {@code key}; otherwise why not. */
+    private String typeMismatch(int subId, String key, Object value) {
+        ConfigSnapshot snapshot = snapshots.get(subId);
+        int index = snapshot != null ? snapshot.indexOf(key) : -1;
+        return index < 0 ? null : ValueCodecs.typeMismatch(key, snapshot.typeAt(index), value);
+    }
+
     private void applyOverride(String key, Object value) {
         if (activeSubId == SubscriptionManager.INVALID_SUBSCRIPTION_ID) return;
         if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
             Toast.makeText(this, "Override requires Android 10+", Toast.LENGTH_SHORT).show();
             return;
         }
+        String mismatch = typeMismatch(activeSubId, key, value);
+        if (mismatch != null) {
+            // Staging it would only get a wrong override sent and need a reset.
+            showError(mismatch);
+            return;
+        }
 
-        PersistableBundle overrideBundle = new PersistableBundle();
-        if (value instanceof Boolean) overrideBundle.putBoolean(key, (Boolean) value);
-        else if (value instanceof Integer) overrideBundle.putInt(key, (Integer) value);
-        else if (value instanceof Long) overrideBundle.putLong(key, (Long) value);
-        else overrideBundle.putString(key, String.valueOf(value));
+        overrideBatch.stage(activeSubId, key, value);
+        Toast.makeText(this, "Staged: " + key, Toast.LENGTH_SHORT).show();
+    }
 
+    private void applyPendingOverrides() {
         try {
-            carrierConfigManager.overrideConfig(activeSubId, overrideBundle);
-            Toast.makeText(this, "Applied: " + key, Toast.LENGTH_SHORT).show();
+            if (overrideBatch.flush() == 0) {
+                Toast.makeText(this, "No pending changes", Toast.LENGTH_SHORT).show();
+            }
         } catch (SecurityException e) {
             showError("Security Exception: You do not have Carrier Privileges.");
         }
     }
 
+    private OverrideBatch.Listener overrideListener() {
+        return new OverrideBatch.Listener() {
+            @Override
+            public void onPendingChanged(int pendingCount) {
+                pendingOverrideCount = pendingCount;
+                invalidateOptionsMenu();
+            }
+
+            @Override
+            public void onFlushed(int subId, PersistableBundle applied) {
+                Toast.makeText(MainActivity.this, "Applied " + applied.size() + " change(s)",
+                        Toast.LENGTH_SHORT).show();
+                String active = profileStore.getActive();
+                if (active != null) {
+                    // Keep the active profile in step so the receiver re-applies these too.
+                    ioExecutor.execute(() -> {
+                        try {
+                            profileStore.merge(active, applied);
+                        } catch (IOException e) {
+                            Log.w("CarrierConfig", "Cannot update profile " + active, e);
+                        }
+                    });
+                }
+                // Flushed from onDestroy: the loader is already shut down.
+                if (subId == activeSubId && !isFinishing() && !isDestroyed()) loadCarrierConfig();
+            }
+
+            @Override
+            public void onFlushFailed(RuntimeException e) {
+                if (e instanceof SecurityException) {
+                    showError("Security Exception: You do not have Carrier Privileges.");
+                } else {
+                    showError("Failed to apply changes: " + e.getMessage());
+                }
+            }
+        };
+    }
+
     private void resetConfig() {
         if (activeSubId == SubscriptionManager.INVALID_SUBSCRIPTION_ID) return;
         if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) return;
 
+        overrideBatch.discard(activeSubId);
         try {
             carrierConfigManager.overrideConfig(activeSubId, null);
-            Toast.makeText(this, "Reset to Defaults", Toast.LENGTH_LONG).show();
+            String active = profileStore.getActive();
+            if (active != null) {
+                // Otherwise the receiver would put the overrides straight back.
+                profileStore.setActive(null);
+                Toast.makeText(this, "Reset to Defaults; profile \"" + active + "\" deactivated",
+                        Toast.LENGTH_LONG).show();
+            } else {
+                Toast.makeText(this, "Reset to Defaults", Toast.LENGTH_LONG).show();
+            }
             loadCarrierConfig();
         } catch (SecurityException e) {
             showError("Failed to reset config.");
         }
     }
 
+    private void exportBundle(PersistableBundle bundle, Uri target) {
+        if (target == null) return;
+        ioExecutor.execute(() -> {
+            String message;
+            try (ParcelFileDescriptor pfd = openDocument(target, "w");
+                 FileChannel channel = new FileOutputStream(pfd.getFileDescriptor()).getChannel()) {
+                channel.truncate(0);
+                SnapshotCodec.write(bundle, channel);
+                message = "Exported " + bundle.size() + " keys";
+            } catch (IOException e) {
+                message = "Export failed: " + e.getMessage();
+            }
+            final String toast = message;
+            runOnUiThread(() -> Toast.makeText(this, toast, Toast.LENGTH_LONG).show());
+        });
+    }
+
+    private ParcelFileDescriptor openDocument(Uri uri, String mode) throws IOException {
+        ParcelFileDescriptor pfd = getContentResolver().openFileDescriptor(uri, mode);
+        if (pfd == null) throw new IOException("Cannot open " + uri);
+        return pfd;
+    }
+
+    private void importOverrides(Uri source) {
+        if (source == null) return;
+        if (activeSubId == SubscriptionManager.INVALID_SUBSCRIPTION_ID) {
+            showError("No active SIM selected.");
+            return;
+        }
+        final int subId = activeSubId;
+        ioExecutor.execute(() -> {
+            PersistableBundle imported;
+            try (ParcelFileDescriptor pfd = openDocument(source, "r");
+                 FileChannel channel = new FileInputStream(pfd.getFileDescriptor()).getChannel()) {
+                imported = SnapshotCodec.read(channel);
+            } catch (IOException e) {
+                runOnUiThread(() -> showError("Import failed: " + e.getMessage()));
+                return;
+            }
+            runOnUiThread(() -> {
+                if (subId != activeSubId) return;
+                if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+                    Toast.makeText(this, "Override requires Android 10+", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                int staged = 0;
+                List<String> rejected = new ArrayList<>();
+                for (String key : imported.keySet()) {
+                    Object value = imported.get(key);
+                    String mismatch = typeMismatch(subId, key, value);
+                    if (mismatch != null) {
+                        rejected.add(mismatch);
+                    } else {
+                        overrideBatch.stage(subId, key, value);
+                        staged++;
+                    }
+                }
+                if (rejected.isEmpty()) {
+                    Toast.makeText(this, "Staged " + staged + " imported keys", Toast.LENGTH_LONG).show();
+                } else {
+                    Collections.sort(rejected);
+                    showReport("Staged " + staged + ", rejected " + rejected.size(),
+                            TextUtils.join("\n", rejected));
+                }
+            });
+        });
+    }
+
+    private void showSaveProfileDialog() {
+        PersistableBundle pending = overrideBatch.pendingCopy(activeSubId);
+        if (pending.isEmpty()) {
+            showError("Stage some changes first; a profile is saved from the pending changes.");
+            return;
+        }
+        EditText input = new EditText(this);
+        input.setHint("Profile name");
+        new AlertDialog.Builder(this)
+                .setTitle("Save Profile")
+                .setMessage(pending.size() + " pending change(s)")
+                .setView(input)
+                .setPositiveButton("Save", (dialog, which) -> {
+                    String name = OverrideProfileStore.sanitizeName(input.getText().toString());
+                    if (name.isEmpty()) return;
+                    ioExecutor.execute(() -> {
+                        String message;
+                        try {
+                            profileStore.save(name, pending);
+                            message = "Saved profile " + name;
+                        } catch (IOException e) {
+                            message = "Save failed: " + e.getMessage();
+                        }
+                        final String toast = message;
+                        runOnUiThread(() -> Toast.makeText(this, toast, Toast.LENGTH_SHORT).show());
+                    });
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void showProfiles() {
+        List<String> names = profileStore.list();
+        if (names.isEmpty()) {
+            showError("No saved profiles.");
+            return;
+        }
+        String active = profileStore.getActive();
+        CharSequence[] labels = new CharSequence[names.size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = names.get(i).equals(active) ? names.get(i) + " (active)" : names.get(i);
+        }
+        new AlertDialog.Builder(this)
+                .setTitle("Override Profiles")
+                .setItems(labels, (dialog, which) -> showProfileActions(names.get(which)))
+                .setNegativeButton("Close", null)
+                .show();
+    }
+
+    private void showProfileActions(String name) {
+        boolean isActive = name.equals(profileStore.getActive());
+        new AlertDialog.Builder(this)
+                .setTitle(name)
+                .setPositiveButton(isActive ? "Deactivate" : "Activate & Apply", (dialog, which) -> {
+                    if (isActive) {
+                        profileStore.setActive(null);
+                    } else {
+                        activateProfile(name);
+                    }
+                })
+                .setNeutralButton("Delete", (dialog, which) -> profileStore.delete(name))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void activateProfile(String name) {
+        if (activeSubId == SubscriptionManager.INVALID_SUBSCRIPTION_ID) return;
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+            Toast.makeText(this, "Override requires Android 10+", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        final int subId = activeSubId;
+        ioExecutor.execute(() -> {
+            PersistableBundle profile;
+            try {
+                profile = profileStore.load(name);
+            } catch (IOException e) {
+                runOnUiThread(() -> showError("Cannot read profile: " + e.getMessage()));
+                return;
+            }
+            runOnUiThread(() -> {
+                profileStore.setActive(name);
+                overrideBatch.stageAll(subId, profile);
+                applyPendingOverrides();
+            });
+        });
+    }
+
     private void showError(String message) {
         new AlertDialog.Builder(this)
                 .setTitle("Error")
@@ -192,6 +829,22 @@ public class MainActivity extends AppCompatActivity {
         getMenuInflater().inflate(R.menu.menu_config, menu);
         MenuItem searchItem = menu.findItem(R.id.action_search);
         SearchView searchView = (SearchView) searchItem.getActionView();
+        searchView.setQueryHint("key, type:bool, value:false…");
+
+        int dumpMode = getPreferences(MODE_PRIVATE).getInt(PREF_DUMP_MODE, DUMP_OFF);
+        int checkedDump = dumpMode == DUMP_LOGCAT ? R.id.action_dump_logcat
+                : dumpMode == DUMP_FILE ? R.id.action_dump_file : R.id.action_dump_off;
+        menu.findItem(checkedDump).setChecked(true);
+        menu.findItem(R.id.action_dump_keys_only)
+                .setChecked(getPreferences(MODE_PRIVATE).getBoolean(PREF_DUMP_KEYS_ONLY, false));
+
+        MenuItem applyItem = menu.findItem(R.id.action_apply_pending);
+        applyItem.setTitle(pendingOverrideCount > 0 ? "Apply (" + pendingOverrideCount + ")" : "Apply");
+        applyItem.setEnabled(pendingOverrideCount > 0);
+        menu.findItem(R.id.action_discard_pending).setEnabled(pendingOverrideCount > 0);
+        menu.findItem(R.id.action_changed_only).setChecked(changedOnly);
+        menu.findItem(R.id.action_auto_apply)
+                .setChecked(getPreferences(MODE_PRIVATE).getBoolean(PREF_AUTO_APPLY, false));
 
         searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
             @Override
@@ -199,9 +852,7 @@ public class MainActivity extends AppCompatActivity {
 
             @Override
             public boolean onQueryTextChange(String newText) {
-                if (recyclerView.getAdapter() instanceof CarrierConfigAdapter) {
-                    ((CarrierConfigAdapter) recyclerView.getAdapter()).filter(newText);
-                }
+                scheduleSearch(newText);
                 return true;
             }
         });
@@ -217,6 +868,85 @@ public class MainActivity extends AppCompatActivity {
         } else if (id == R.id.action_reset) {
             resetConfig();
             return true;
+        } else if (id == R.id.action_changed_only) {
+            changedOnly = !item.isChecked();
+            item.setChecked(changedOnly);
+            if (recyclerView.getAdapter() instanceof CarrierConfigAdapter) {
+                applyChangedOnly((CarrierConfigAdapter) recyclerView.getAdapter());
+            }
+            return true;
+        } else if (id == R.id.action_show_changes) {
+            showChanges();
+            return true;
+        } else if (id == R.id.action_export_config) {
+            ConfigSnapshot snapshot = snapshots.get(activeSubId);
+            if (snapshot == null) {
+                showError("No config loaded for this SIM.");
+            } else {
+                pendingExport = snapshot.bundle;
+                exportLauncher.launch("carrier_config_" + activeSubId + ".ccsn");
+            }
+            return true;
+        } else if (id == R.id.action_export_pending) {
+            PersistableBundle pending = overrideBatch.pendingCopy(activeSubId);
+            if (pending.isEmpty()) {
+                showError("No pending changes to export for this SIM.");
+            } else {
+                pendingExport = pending;
+                exportLauncher.launch("carrier_overrides_" + activeSubId + ".ccsn");
+            }
+            return true;
+        } else if (id == R.id.action_import_overrides) {
+            importLauncher.launch(new String[]{"*/*"});
+            return true;
+        } else if (id == R.id.action_save_profile) {
+            showSaveProfileDialog();
+            return true;
+        } else if (id == R.id.action_profiles) {
+            showProfiles();
+            return true;
+        } else if (id == R.id.action_select_sim) {
+            showSimPicker();
+            return true;
+        } else if (id == R.id.action_apply_pending) {
+            applyPendingOverrides();
+            return true;
+        } else if (id == R.id.action_discard_pending) {
+            overrideBatch.discard();
+            return true;
+        } else if (id == R.id.action_auto_apply) {
+            boolean autoApply = !item.isChecked();
+            item.setChecked(autoApply);
+            getPreferences(MODE_PRIVATE).edit().putBoolean(PREF_AUTO_APPLY, autoApply).apply();
+            overrideBatch.setQuietPeriodMs(autoApply ? AUTO_APPLY_QUIET_MS : 0);
+            return true;
+        } else if (id == R.id.action_dump_off) {
+            setDumpMode(DUMP_OFF);
+            item.setChecked(true);
+            return true;
+        } else if (id == R.id.action_dump_logcat) {
+            setDumpMode(DUMP_LOGCAT);
+            item.setChecked(true);
+            return true;
+        } else if (id == R.id.action_dump_file) {
+            setDumpMode(DUMP_FILE);
+            item.setChecked(true);
+            return true;
+        } else if (id == R.id.action_dump_keys_only) {
+            boolean keysOnly = !item.isChecked();
+            item.setChecked(keysOnly);
+            setDumpKeysOnly(keysOnly);
+            return true;
+        } else if (id == R.id.action_history) {
+            if (activeSubId == SubscriptionManager.INVALID_SUBSCRIPTION_ID) {
+                showError("No active SIM selected.");
+            } else {
+                showHistory();
+            }
+            return true;
+        } else if (id == R.id.action_diagnostics) {
+            startActivity(new Intent(this, DiagnosticsActivity.class));
+            return true;
         } else if (id == R.id.action_edit_apn) {
             if (activeSubId == SubscriptionManager.INVALID_SUBSCRIPTION_ID) {
                 showError("No active SIM selected.");
@@ -0,0 +1,126 @@
+package com.example.carrierapp;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide latency histograms and counters for the platform calls and UI
+ * paths we care about. Off by default; while disabled, {@link #start()} is one
+ * volatile read and every stop or increment returns immediately.
+ *
+ * <pre>
+ * long t = Metrics.start();
+ * PersistableBundle b = ccm.getConfigForSubId(subId);
+ * Metrics.CONFIG_FETCH.stop(t);
+ * </pre>
+ *
+ * Timestamps come from a {@link Clock}, {@link System#nanoTime} unless a test
+ * swaps in its own; nothing here touches {@code android.*}.
+ */
+public final class Metrics {
+
+    /** Monotonic nanosecond time source for {@link #start()} and {@link Timer#stop}. */
+    public interface Clock {
+        long nanoTime();
+    }
+
+    private static final Clock SYSTEM_CLOCK = System::nanoTime;
+
+    private static volatile boolean enabled;
+    private static volatile Clock clock = SYSTEM_CLOCK;
+
+    public static final Timer CONFIG_FETCH = new Timer("getConfigForSubId");
+    public static final Timer CONFIG_OVERRIDE = new Timer("overrideConfig");
+    public static final Timer APN_QUERY = new Timer("carriers query");
+    public static final Timer FILTER = new Timer("filter");
+    public static final Timer BIND = new Timer("config bind");
+
+    public static final Counter OVERRIDE_KEYS = new Counter("override keys sent");
+    public static final Counter APN_ROWS = new Counter("APN rows read");
+
+    private static final Timer[] TIMERS = {CONFIG_FETCH, CONFIG_OVERRIDE, APN_QUERY, FILTER, BIND};
+    private static final Counter[] COUNTERS = {OVERRIDE_KEYS, APN_ROWS};
+
+    private Metrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /** Replaces the time source; null restores {@link System#nanoTime}. */
+    static void setClock(Clock c) {
+        clock = c != null ? c : SYSTEM_CLOCK;
+    }
+
+    /** Start timestamp for {@link Timer#stop}, or 0 when disabled. */
+    public static long start() {
+        return enabled ? clock.nanoTime() : 0;
+    }
+
+    public static void reset() {
+        for (Timer t : TIMERS) t.histogram.reset();
+        for (Counter c : COUNTERS) c.value.set(0);
+    }
+
+    /** Plain-text table of every timer and counter, for the diagnostics screen and export. */
+    public static void dump(Writer out) throws IOException {
+        out.write(String.format(Locale.ROOT, "%-20s %8s %9s %9s %9s %9s %9s%n",
+                "timer (ms)", "count", "mean", "p50", "p90", "p99", "max"));
+        for (Timer t : TIMERS) {
+            LatencyHistogram h = t.histogram;
+            out.write(String.format(Locale.ROOT, "%-20s %8d %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                    h.getName(), h.getCount(), h.getMean() / 1e6,
+                    h.getValueAtPercentile(50) / 1e6, h.getValueAtPercentile(90) / 1e6,
+                    h.getValueAtPercentile(99) / 1e6, h.getMax() / 1e6));
+        }
+        out.write('\n');
+        for (Counter c : COUNTERS) {
+            out.write(String.format(Locale.ROOT, "%-20s %8d%n", c.name, c.value.get()));
+        }
+    }
+
+    public static final class Timer {
+        final LatencyHistogram histogram;
+
+        Timer(String name) {
+            histogram = new LatencyHistogram(name);
+        }
+
+        public void stop(long start) {
+            if (start == 0 || !enabled) return;
+            histogram.record(clock.nanoTime() - start);
+        }
+
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+    }
+
+    public static final class Counter {
+        final String name;
+        final AtomicLong value = new AtomicLong();
+
+        Counter(String name) {
+            this.name = name;
+        }
+
+        public void add(long delta) {
+            if (enabled) value.addAndGet(delta);
+        }
+
+        public void increment() {
+            add(1);
+        }
+
+        public long get() {
+            return value.get();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.carrierapp;
+
+import android.os.PersistableBundle;
+import android.util.SparseArray;
+
+/**
+ * Collects config edits and sends them to the platform as a single merged
+ * override per subscription, so N edits cost one config reload instead of N.
+ * Optionally flushes on its own once no edit has arrived for a quiet period.
+ */
+public class OverrideBatch {
+
+    public interface Overrider {
+        void overrideConfig(int subId, PersistableBundle overrides);
+    }
+
+    public interface Listener {
+        void onPendingChanged(int pendingCount);
+
+        void onFlushed(int subId, PersistableBundle applied);
+
+        void onFlushFailed(RuntimeException e);
+    }
+
+    private final Overrider overrider;
+    private final SearchScheduler.Delayer delayer;
+    private final Listener listener;
+    private final Runnable autoFlush = this::autoFlush;
+
+    /** Staged edits per subscription; edits for two subscriptions never share an override. */
+    private final SparseArray<PersistableBundle> pending = new SparseArray<>();
+    private long quietPeriodMs;
+
+    public OverrideBatch(Overrider overrider, SearchScheduler.Delayer delayer, Listener listener) {
+        this.overrider = overrider;
+        this.delayer = delayer;
+        this.listener = listener;
+    }
+
+    /** 0 disables auto-flush; edits then wait for an explicit {@link #flush()}. */
+    public synchronized void setQuietPeriodMs(long quietPeriodMs) {
+        this.quietPeriodMs = quietPeriodMs;
+        delayer.cancel(autoFlush);
+        if (quietPeriodMs > 0 && pending.size() > 0) delayer.postDelayed(autoFlush, quietPeriodMs);
+    }
+
+    public void stage(int subId, String key, Object value) {
+        int count;
+        synchronized (this) {
+            putValue(pendingFor(subId), key, value);
+            count = countLocked();
+            restartQuietPeriod();
+        }
+        listener.onPendingChanged(count);
+    }
+
+    /** Stages every key of {@code edits} for {@code subId}, e.g. a profile or saved state. */
+    public void stageAll(int subId, PersistableBundle edits) {
+        if (edits.isEmpty()) return;
+        int count;
+        synchronized (this) {
+            pendingFor(subId).putAll(edits);
+            count = countLocked();
+            restartQuietPeriod();
+        }
+        listener.onPendingChanged(count);
+    }
+
+    /**
+     * Sends the pending edits in one overrideConfig call per subscription.
+     * Returns the number applied. A failed subscription keeps its edits and
+     * the first failure is rethrown once every subscription has been tried.
+     */
+    public int flush() {
+        int[] subIds;
+        synchronized (this) {
+            delayer.cancel(autoFlush);
+            subIds = pendingSubIds();
+        }
+        int applied = 0;
+        RuntimeException failure = null;
+        for (int subId : subIds) {
+            try {
+                applied += flush(subId);
+            } catch (RuntimeException e) {
+                if (failure == null) failure = e;
+            }
+        }
+        if (failure != null) throw failure;
+        return applied;
+    }
+
+    /** Sends the pending edits for {@code subId} only. Returns the number applied. */
+    public int flush(int subId) {
+        PersistableBundle batch;
+        synchronized (this) {
+            batch = pending.get(subId);
+            if (batch == null) return 0;
+            pending.remove(subId);
+            if (pending.size() == 0) delayer.cancel(autoFlush);
+        }
+
+        try {
+            long start = Metrics.start();
+            overrider.overrideConfig(subId, batch);
+            Metrics.CONFIG_OVERRIDE.stop(start);
+            Metrics.OVERRIDE_KEYS.add(batch.size());
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                // Keep the failed edits, letting newer ones for the same key win.
+                PersistableBundle newer = pending.get(subId);
+                if (newer != null) batch.putAll(newer);
+                pending.put(subId, batch);
+            }
+            throw e;
+        }
+        listener.onFlushed(subId, batch);
+        listener.onPendingChanged(pendingCount());
+        return batch.size();
+    }
+
+    public void discard() {
+        synchronized (this) {
+            delayer.cancel(autoFlush);
+            pending.clear();
+        }
+        listener.onPendingChanged(0);
+    }
+
+    public void discard(int subId) {
+        int count;
+        synchronized (this) {
+            pending.remove(subId);
+            if (pending.size() == 0) delayer.cancel(autoFlush);
+            count = countLocked();
+        }
+        listener.onPendingChanged(count);
+    }
+
+    /** Copy of the edits staged for {@code subId}, e.g. for export. */
+    public synchronized PersistableBundle pendingCopy(int subId) {
+        PersistableBundle edits = pending.get(subId);
+        return edits != null ? new PersistableBundle(edits) : new PersistableBundle();
+    }
+
+    /** Subscriptions with staged edits, in ascending order. */
+    public synchronized int[] pendingSubIds() {
+        int[] subIds = new int[pending.size()];
+        for (int i = 0; i < subIds.length; i++) subIds[i] = pending.keyAt(i);
+        return subIds;
+    }
+
+    /** Staged edits across every subscription. */
+    public synchronized int pendingCount() {
+        return countLocked();
+    }
+
+    private PersistableBundle pendingFor(int subId) {
+        PersistableBundle edits = pending.get(subId);
+        if (edits == null) {
+            edits = new PersistableBundle();
+            pending.put(subId, edits);
+        }
+        return edits;
+    }
+
+    private int countLocked() {
+        int count = 0;
+        for (int i = 0; i < pending.size(); i++) count += pending.valueAt(i).size();
+        return count;
+    }
+
+    private void restartQuietPeriod() {
+        delayer.cancel(autoFlush);
+        if (quietPeriodMs > 0) delayer.postDelayed(autoFlush, quietPeriodMs);
+    }
+
+    private void autoFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            listener.onFlushFailed(e);
+        }
+    }
+
+    static void putValue(PersistableBundle bundle, String key, Object value) {
+        if (value instanceof Boolean) bundle.putBoolean(key, (Boolean) value);
+        else if (value instanceof Integer) bundle.putInt(key, (Integer) value);
+        else if (value instanceof Long) bundle.putLong(key, (Long) value);
+        else if (value instanceof Double) bundle.putDouble(key, (Double) value);
+        else if (value instanceof int[]) bundle.putIntArray(key, (int[]) value);
+        else if (value instanceof long[]) bundle.putLongArray(key, (long[]) value);
+        else if (value instanceof double[]) bundle.putDoubleArray(key, (double[]) value);
+        else if (value instanceof boolean[]) bundle.putBooleanArray(key, (boolean[]) value);
+        else if (value instanceof String[]) bundle.putStringArray(key, (String[]) value);
+        else if (value instanceof PersistableBundle) bundle.putPersistableBundle(key, (PersistableBundle) value);
+        else if (value == null || value instanceof String) bundle.putString(key, (String) value);
+        else throw new IllegalArgumentException("Unsupported value type for " + key + ": " + value.getClass());
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.carrierapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.PersistableBundle;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Named override profiles stored on device in {@link SnapshotCodec} format,
+ * plus which one (if any) is active. The active profile is re-applied by
+ * {@link CarrierConfigReceiver} after boot or when the platform drops overrides.
+ * Each re-apply is recorded per subscription with the profile's version, so a
+ * value the platform reads back differently cannot make every change
+ * broadcast send the profile again.
+ */
+public class OverrideProfileStore {
+
+    private static final String DIR_NAME = "override_profiles";
+    private static final String EXTENSION = ".ccsn";
+    private static final String PREFS = "override_profiles";
+    private static final String KEY_ACTIVE = "active";
+    private static final String KEY_REAPPLIED_VERSION = "reapplied_version_";
+    private static final String KEY_REAPPLIED_AT = "reapplied_at_";
+    /** Outside {@link #DIR_NAME} so it is never listed as a profile. */
+    private static final String PENDING_FILE = "pending_overrides" + EXTENSION;
+
+    /**
+     * How long a re-applied profile version is not sent again to the same
+     * subscription. Its own CARRIER_CONFIG_CHANGED arrives well inside this.
+     */
+    static final long REAPPLY_BACKOFF_MS = 60_000;
+
+    private final File dir;
+    private final File pendingFile;
+    private final SharedPreferences prefs;
+
+    public OverrideProfileStore(Context context) {
+        Context app = context.getApplicationContext();
+        this.dir = new File(app.getFilesDir(), DIR_NAME);
+        this.pendingFile = new File(app.getFilesDir(), PENDING_FILE);
+        this.prefs = app.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+
+    public List<String> list() {
+        List<String> names = new ArrayList<>();
+        File[] files = dir.listFiles();
+        if (files == null) return names;
+        for (File f : files) {
+            String name = f.getName();
+            if (name.endsWith(EXTENSION)) names.add(name.substring(0, name.length() - EXTENSION.length()));
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    public PersistableBundle load(String name) throws IOException {
+        try (FileChannel channel = new FileInputStream(fileFor(name)).getChannel()) {
+            return SnapshotCodec.read(channel);
+        }
+    }
+
+    public void save(String name, PersistableBundle overrides) throws IOException {
+        write(fileFor(name), overrides);
+    }
+
+    /** Adds {@code overrides} to the named profile, creating it if needed. Later values win. */
+    public void merge(String name, PersistableBundle overrides) throws IOException {
+        PersistableBundle merged = fileFor(name).isFile() ? load(name) : new PersistableBundle();
+        merged.putAll(overrides);
+        save(name, merged);
+    }
+
+    public void delete(String name) {
+        fileFor(name).delete();
+        if (name.equals(getActive())) setActive(null);
+    }
+
+    public String getActive() {
+        return prefs.getString(KEY_ACTIVE, null);
+    }
+
+    public void setActive(String name) {
+        prefs.edit().putString(KEY_ACTIVE, name).apply();
+    }
+
+    public PersistableBundle loadActive() throws IOException {
+        String active = getActive();
+        if (active == null || !fileFor(active).isFile()) return null;
+        return load(active);
+    }
+
+    /**
+     * Sends the keys of {@code profile} whose type fits the live config as one
+     * merged override, unless the live config already has every one of them or
+     * this profile version went to {@code subId} less than
+     * {@link #REAPPLY_BACKOFF_MS} before {@code nowElapsedMs}. Returns true if
+     * an override was sent.
+     */
+    public boolean reapplyIfNeeded(ConfigLoader.ConfigSource source, OverrideBatch.Overrider overrider,
+                                   int subId, PersistableBundle profile, long nowElapsedMs) {
+        if (profile == null || profile.isEmpty()) return false;
+        PersistableBundle live = source.getConfigForSubId(subId);
+        if (live == null) live = new PersistableBundle();
+
+        PersistableBundle accepted = new PersistableBundle();
+        for (String key : profile.keySet()) {
+            Object value = profile.get(key);
+            if (ValueCodecs.typeMismatch(live, key, value) == null) OverrideBatch.putValue(accepted, key, value);
+        }
+        if (accepted.isEmpty() || matches(live, accepted)) return false;
+
+        long version = version(profile);
+        if (prefs.getLong(KEY_REAPPLIED_VERSION + subId, 0) == version) {
+            long at = prefs.getLong(KEY_REAPPLIED_AT + subId, Long.MIN_VALUE);
+            if (nowElapsedMs >= at && nowElapsedMs - at < REAPPLY_BACKOFF_MS) return false;
+        }
+        overrider.overrideConfig(subId, accepted);
+        // commit(): the receiver may be killed right after it finishes.
+        prefs.edit()
+                .putLong(KEY_REAPPLIED_VERSION + subId, version)
+                .putLong(KEY_REAPPLIED_AT + subId, nowElapsedMs)
+                .commit();
+        return true;
+    }
+
+    /** Forgets every recorded re-apply; elapsed times restart at boot. */
+    public void clearReapplyLog() {
+        SharedPreferences.Editor editor = prefs.edit();
+        for (String key : prefs.getAll().keySet()) {
+            if (key.startsWith(KEY_REAPPLIED_VERSION) || key.startsWith(KEY_REAPPLIED_AT)) editor.remove(key);
+        }
+        editor.commit();
+    }
+
+    /** CRC-32 of the profile's encoding, which is the same for equal content. Never 0. */
+    static long version(PersistableBundle profile) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            SnapshotCodec.write(profile, Channels.newChannel(bytes));
+        } catch (IOException e) {
+            // Only unsupported value types fail, and putValue keeps those out of profiles.
+            throw new IllegalArgumentException(e);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        return crc.getValue() + 1;
+    }
+
+    static boolean matches(PersistableBundle live, PersistableBundle profile) {
+        for (String key : profile.keySet()) {
+            if (!live.containsKey(key) || !ConfigSnapshot.valuesEqual(live.get(key), profile.get(key))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Keeps edits that were staged but never sent, as one bundle per
+     * subscription id keyed by its decimal string, until {@link #takePending}.
+     * An empty bundle clears what was kept.
+     */
+    public void savePending(PersistableBundle pendingBySub) throws IOException {
+        if (pendingBySub.isEmpty()) pendingFile.delete();
+        else write(pendingFile, pendingBySub);
+    }
+
+    /** What {@link #savePending} kept, removed from disk, or null if nothing was. */
+    public PersistableBundle takePending() throws IOException {
+        if (!pendingFile.isFile()) return null;
+        try (FileChannel channel = new FileInputStream(pendingFile).getChannel()) {
+            return SnapshotCodec.read(channel);
+        } finally {
+            pendingFile.delete();
+        }
+    }
+
+    /** Profile names come from user input; keep them to a safe file name. */
+    public static String sanitizeName(String name) {
+        return name.trim().replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private File fileFor(String name) {
+        return new File(dir, sanitizeName(name) + EXTENSION);
+    }
+
+    private static void write(File target, PersistableBundle bundle) throws IOException {
+        File parent = target.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) throw new IOException("Cannot create " + parent);
+        File tmp = new File(parent, target.getName() + ".tmp");
+        try (FileChannel channel = new FileOutputStream(tmp).getChannel()) {
+            SnapshotCodec.write(bundle, channel);
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+        if (!tmp.renameTo(target)) {
+            tmp.delete();
+            throw new IOException("Cannot write " + target);
+        }
+    }
+}
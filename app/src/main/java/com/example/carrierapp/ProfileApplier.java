@@ -0,0 +1,158 @@
+package com.example.carrierapp;
+
+import android.content.ContentValues;
+import android.content.OperationApplicationException;
+import android.os.PersistableBundle;
+import android.os.RemoteException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Applies a config override profile and a set of APNs to one subscription
+ * without any UI. The config goes out as one merged override and the APNs as
+ * one provider batch. Each step reports progress and how long it took. Every
+ * platform call goes through an interface so the engine can run against fakes.
+ */
+public class ProfileApplier {
+
+    /** Progress is reported every this many keys while validating. */
+    static final int PROGRESS_EVERY = 50;
+    /** overrideConfig returns before the new config is served; verify reads back until this passes. */
+    static final long VERIFY_TIMEOUT_MS = 2_000;
+    static final long VERIFY_POLL_MS = 100;
+
+    public interface Listener {
+        void onProgress(String step, int done, int total);
+
+        void onTiming(String operation, long elapsedNanos);
+    }
+
+    public static final class Result {
+        public final int keysApplied;
+        public final int keysVerified;
+        public final int apnsWritten;
+        /** Keys left out because their type differs from the live config, with the reason. */
+        public final List<String> rejected;
+
+        Result(int keysApplied, int keysVerified, int apnsWritten, List<String> rejected) {
+            this.keysApplied = keysApplied;
+            this.keysVerified = keysVerified;
+            this.apnsWritten = apnsWritten;
+            this.rejected = rejected;
+        }
+    }
+
+    private final ConfigLoader.ConfigSource source;
+    private final OverrideBatch.Overrider overrider;
+    private final ApnBatch.BatchTarget apnTarget;
+    private final Listener listener;
+    private final long verifyTimeoutMs;
+    private final long verifyPollMs;
+
+    public ProfileApplier(ConfigLoader.ConfigSource source, OverrideBatch.Overrider overrider,
+                          ApnBatch.BatchTarget apnTarget, Listener listener) {
+        this(source, overrider, apnTarget, listener, VERIFY_TIMEOUT_MS, VERIFY_POLL_MS);
+    }
+
+    ProfileApplier(ConfigLoader.ConfigSource source, OverrideBatch.Overrider overrider,
+                   ApnBatch.BatchTarget apnTarget, Listener listener, long verifyTimeoutMs, long verifyPollMs) {
+        this.source = source;
+        this.overrider = overrider;
+        this.apnTarget = apnTarget;
+        this.listener = listener;
+        this.verifyTimeoutMs = verifyTimeoutMs;
+        this.verifyPollMs = verifyPollMs;
+    }
+
+    /**
+     * Validates {@code overrides} against the live config, sends the valid keys,
+     * reads the config back until they took effect or the verify timeout passes,
+     * then writes {@code apns} into the carriers table for {@code subId}. With
+     * {@code dryRun} only the read and validation steps run.
+     */
+    public Result apply(int subId, PersistableBundle overrides, List<ContentValues> apns, boolean dryRun)
+            throws RemoteException, OperationApplicationException {
+        if (!source.hasCarrierPrivileges(subId)) {
+            throw new SecurityException("No carrier privileges for sub " + subId);
+        }
+
+        long start = System.nanoTime();
+        PersistableBundle live = source.getConfigForSubId(subId);
+        listener.onTiming("getConfigForSubId", System.nanoTime() - start);
+        if (live == null) live = new PersistableBundle();
+
+        start = System.nanoTime();
+        PersistableBundle accepted = new PersistableBundle();
+        List<String> rejected = new ArrayList<>();
+        int total = overrides.size();
+        int done = 0;
+        for (String key : overrides.keySet()) {
+            Object value = overrides.get(key);
+            String mismatch = ValueCodecs.typeMismatch(live, key, value);
+            if (mismatch != null) rejected.add(mismatch);
+            else OverrideBatch.putValue(accepted, key, value);
+            if (++done % PROGRESS_EVERY == 0 || done == total) listener.onProgress("validate", done, total);
+        }
+        Collections.sort(rejected);
+        listener.onTiming("validate", System.nanoTime() - start);
+
+        if (dryRun) return new Result(0, 0, 0, rejected);
+
+        int verified = 0;
+        if (!accepted.isEmpty()) {
+            start = System.nanoTime();
+            overrider.overrideConfig(subId, accepted);
+            listener.onTiming("overrideConfig", System.nanoTime() - start);
+            listener.onProgress("override", accepted.size(), accepted.size());
+
+            start = System.nanoTime();
+            verified = verify(subId, accepted);
+            listener.onTiming("verify", System.nanoTime() - start);
+            listener.onProgress("verify", verified, accepted.size());
+        }
+
+        int written = 0;
+        if (apns != null && !apns.isEmpty()) {
+            ApnBatch batch = new ApnBatch(ApnBatch.carriersUri(subId));
+            for (ContentValues values : apns) batch.insert(values);
+            start = System.nanoTime();
+            written = batch.commit(apnTarget).length;
+            listener.onTiming("apn applyBatch", System.nanoTime() - start);
+            listener.onProgress("apn", written, apns.size());
+        }
+        return new Result(accepted.size(), verified, written, rejected);
+    }
+
+    /**
+     * Reads the config back until every key of {@code accepted} matches or
+     * {@code verifyTimeoutMs} passes, and returns how many matched on the last
+     * read. Keys the platform rewrites, such as a clamped value, hold out until
+     * the timeout.
+     */
+    private int verify(int subId, PersistableBundle accepted) {
+        long deadline = System.nanoTime() + verifyTimeoutMs * 1_000_000L;
+        while (true) {
+            int verified = countMatching(source.getConfigForSubId(subId), accepted);
+            if (verified == accepted.size() || System.nanoTime() >= deadline) return verified;
+            try {
+                Thread.sleep(verifyPollMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return verified;
+            }
+        }
+    }
+
+    private static int countMatching(PersistableBundle config, PersistableBundle expected) {
+        if (config == null) return 0;
+        int matching = 0;
+        for (String key : expected.keySet()) {
+            if (config.containsKey(key) && ConfigSnapshot.valuesEqual(config.get(key), expected.get(key))) {
+                matching++;
+            }
+        }
+        return matching;
+    }
+}
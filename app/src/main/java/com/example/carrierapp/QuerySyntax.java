@@ -0,0 +1,156 @@
+package com.example.carrierapp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The text side of {@link ConfigQuery}: splitting a query into tokens and
+ * tokens into clauses, with field and type aliases resolved. Free of
+ * {@code android.*}, so the grammar is tested on a plain JVM.
+ */
+public final class QuerySyntax {
+
+    public static final String FIELD_KEY = "key";
+    public static final String FIELD_TYPE = "type";
+    public static final String FIELD_VALUE = "value";
+
+    private QuerySyntax() {}
+
+    /** One token of a query. Arguments are lowercased. */
+    public static final class Clause {
+        public final boolean negate;
+        /** {@link #FIELD_KEY}, {@link #FIELD_TYPE}, {@link #FIELD_VALUE}, or null for a fuzzy key term. */
+        public final String field;
+        public final String arg;
+
+        Clause(boolean negate, String field, String arg) {
+            this.negate = negate;
+            this.field = field;
+            this.arg = arg;
+        }
+
+        @Override
+        public String toString() {
+            return (negate ? "-" : "") + (field != null ? field + ":" : "") + arg;
+        }
+    }
+
+    /** A {@code value:} argument that starts with {@code >, >=, <, <=} or {@code =}. */
+    public static final class Comparison {
+        public final String op;
+        /** The argument after the operator. */
+        public final String operand;
+        /** False when the operand is not a number; it is then matched as exact text. */
+        public final boolean numeric;
+        public final double target;
+
+        Comparison(String op, String operand, boolean numeric, double target) {
+            this.op = op;
+            this.operand = operand;
+            this.numeric = numeric;
+            this.target = target;
+        }
+
+        public boolean test(double v) {
+            switch (op) {
+                case ">": return v > target;
+                case ">=": return v >= target;
+                case "<": return v < target;
+                case "<=": return v <= target;
+                default: return v == target;
+            }
+        }
+    }
+
+    /**
+     * Whitespace-separated tokens. Double quotes group words into one token
+     * and are dropped; an unclosed quote runs to the end.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (current.length() > 0) tokens.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (current.length() > 0) tokens.add(current.toString());
+        return tokens;
+    }
+
+    /**
+     * One clause per token. {@code field:arg} with an unknown field is a plain
+     * term, and a negated plain term excludes keys containing it, since
+     * "anything but fuzzily like this" is not useful.
+     */
+    public static List<Clause> parse(String text) {
+        List<Clause> clauses = new ArrayList<>();
+        for (String token : tokenize(text)) {
+            boolean negate = token.length() > 1 && token.charAt(0) == '-';
+            String body = negate ? token.substring(1) : token;
+            int colon = body.indexOf(':');
+            String field = colon > 0 ? field(body.substring(0, colon)) : null;
+            if (field != null) {
+                clauses.add(new Clause(negate, field, body.substring(colon + 1).toLowerCase(Locale.ROOT)));
+            } else {
+                clauses.add(new Clause(negate, negate ? FIELD_KEY : null, body.toLowerCase(Locale.ROOT)));
+            }
+        }
+        return clauses;
+    }
+
+    /** The field a prefix names, or null if it names none. */
+    static String field(String name) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "key":
+            case "k":
+                return FIELD_KEY;
+            case "type":
+            case "t":
+                return FIELD_TYPE;
+            case "value":
+            case "v":
+                return FIELD_VALUE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * A {@code type:} argument as a {@link ConfigValues#typeName} or one of
+     * the groups {@code array} and {@code number}.
+     */
+    public static String typeName(String arg) {
+        switch (arg) {
+            case "boolean":
+                return "bool";
+            case "str":
+                return "string";
+            case "num":
+                return "number";
+            default:
+                return arg;
+        }
+    }
+
+    /** The comparison in a {@code value:} argument, or null if it has no operator. */
+    public static Comparison comparison(String arg) {
+        int opLen = arg.startsWith(">=") || arg.startsWith("<=") ? 2
+                : arg.startsWith(">") || arg.startsWith("<") || arg.startsWith("=") ? 1 : 0;
+        if (opLen == 0) return null;
+        String operand = arg.substring(opLen);
+        try {
+            return new Comparison(arg.substring(0, opLen), operand, true, Double.parseDouble(operand));
+        } catch (NumberFormatException e) {
+            return new Comparison(arg.substring(0, opLen), operand, false, Double.NaN);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.carrierapp;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Debounces search queries, coalesces bursts so only the latest query runs,
+ * executes it on a worker and drops any result that a newer query has
+ * superseded. Time is supplied through {@link Delayer} so the debounce can be
+ * driven by a virtual clock; on device that is a {@link HandlerDelayer}.
+ */
+public class SearchScheduler<R> {
+
+    public interface Delayer {
+        void postDelayed(Runnable task, long delayMs);
+
+        void cancel(Runnable task);
+    }
+
+    public interface Search<R> {
+        R run(String query);
+    }
+
+    public interface ResultListener<R> {
+        void onResult(String query, R result);
+    }
+
+    private final Delayer delayer;
+    private final Executor worker;
+    private final Executor resultExecutor;
+    private final long debounceMs;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Runnable dispatch = this::dispatch;
+
+    private String pendingQuery;
+    private Search<R> pendingSearch;
+    private ResultListener<R> pendingListener;
+
+    public SearchScheduler(Delayer delayer, Executor worker, Executor resultExecutor, long debounceMs) {
+        this.delayer = delayer;
+        this.worker = worker;
+        this.resultExecutor = resultExecutor;
+        this.debounceMs = debounceMs;
+    }
+
+    public synchronized void submit(String query, Search<R> search, ResultListener<R> listener) {
+        pendingQuery = query;
+        pendingSearch = search;
+        pendingListener = listener;
+        // Anything still running for an older query is now stale.
+        sequence.incrementAndGet();
+        delayer.cancel(dispatch);
+        // Clearing the query should feel instant; only typing is debounced.
+        delayer.postDelayed(dispatch, query == null || query.isEmpty() ? 0 : debounceMs);
+    }
+
+    public synchronized void cancel() {
+        delayer.cancel(dispatch);
+        sequence.incrementAndGet();
+        pendingSearch = null;
+        pendingListener = null;
+    }
+
+    private void dispatch() {
+        final String query;
+        final Search<R> search;
+        final ResultListener<R> listener;
+        final long seq;
+        synchronized (this) {
+            if (pendingSearch == null) return;
+            query = pendingQuery;
+            search = pendingSearch;
+            listener = pendingListener;
+            pendingSearch = null;
+            pendingListener = null;
+            seq = sequence.incrementAndGet();
+        }
+
+        worker.execute(() -> {
+            if (seq != sequence.get()) return;
+            R result = search.run(query);
+            resultExecutor.execute(() -> {
+                if (seq == sequence.get()) listener.onResult(query, result);
+            });
+        });
+    }
+}
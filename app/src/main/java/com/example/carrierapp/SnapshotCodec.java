@@ -0,0 +1,256 @@
+package com.example.carrierapp;
+
+import android.os.PersistableBundle;
+
+import com.example.carrierapp.SnapshotStreams.In;
+import com.example.carrierapp.SnapshotStreams.Out;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact, versioned binary form of a config bundle.
+ *
+ * <pre>
+ * "CCSN" version:u8
+ * prefixCount:varint { prefix:str }            key prefixes such as "carrier_", "ims_"
+ * bundle := count:varint { prefixRef:varint suffix:str type:u8 value }
+ * </pre>
+ *
+ * Integers are zigzag varints, strings are varint length plus UTF-8, and a
+ * prefixRef of 0 means the key is stored whole. Data is streamed through a
+ * fixed buffer over an NIO channel by {@link SnapshotStreams}, which also
+ * bounds every length it reads before allocating for it.
+ */
+public final class SnapshotCodec {
+
+    private static final byte[] MAGIC = {'C', 'C', 'S', 'N'};
+    public static final int VERSION = 1;
+
+    private static final Comparator<String> KEY_ORDER = (a, b) -> {
+        int byHash = Integer.compare(a.hashCode(), b.hashCode());
+        return byHash != 0 ? byHash : a.compareTo(b);
+    };
+
+    private SnapshotCodec() {}
+
+    public static void write(PersistableBundle bundle, WritableByteChannel channel) throws IOException {
+        List<String> prefixes = collectPrefixes(bundle);
+        Map<String, Integer> prefixIds = new HashMap<>(prefixes.size() * 2);
+        for (int i = 0; i < prefixes.size(); i++) prefixIds.put(prefixes.get(i), i + 1);
+
+        Out out = new Out(channel);
+        out.bytes(MAGIC);
+        out.u8(VERSION);
+        out.varint(prefixes.size());
+        for (String prefix : prefixes) out.string(prefix);
+        writeBundle(out, bundle, prefixIds);
+        out.flush();
+    }
+
+    public static PersistableBundle read(ReadableByteChannel channel) throws IOException {
+        In in = new In(channel);
+        for (byte b : MAGIC) {
+            if (in.u8() != (b & 0xff)) throw new IOException("Not a config snapshot");
+        }
+        int version = in.u8();
+        if (version != VERSION) throw new IOException("Unsupported snapshot version " + version);
+
+        int prefixCount = in.length(1);
+        String[] prefixes = new String[prefixCount + 1];
+        prefixes[0] = "";
+        for (int i = 1; i <= prefixCount; i++) prefixes[i] = in.string();
+        return readBundle(in, prefixes);
+    }
+
+    private static List<String> collectPrefixes(PersistableBundle bundle) {
+        Map<String, Integer> counts = new HashMap<>();
+        countPrefixes(bundle, counts);
+        List<String> shared = new ArrayList<>();
+        for (Map.Entry<String, Integer> e : counts.entrySet()) {
+            // A prefix only pays for its table entry once it is reused.
+            if (e.getValue() > 1) shared.add(e.getKey());
+        }
+        Collections.sort(shared);
+        return shared;
+    }
+
+    private static void countPrefixes(PersistableBundle bundle, Map<String, Integer> counts) {
+        for (String key : bundle.keySet()) {
+            String prefix = prefixOf(key);
+            if (prefix != null) {
+                Integer c = counts.get(prefix);
+                counts.put(prefix, c == null ? 1 : c + 1);
+            }
+            Object value = bundle.get(key);
+            if (value instanceof PersistableBundle) countPrefixes((PersistableBundle) value, counts);
+        }
+    }
+
+    private static String prefixOf(String key) {
+        int underscore = key.indexOf('_');
+        return underscore > 0 && underscore < key.length() - 1 ? key.substring(0, underscore + 1) : null;
+    }
+
+    private static void writeBundle(Out out, PersistableBundle bundle, Map<String, Integer> prefixIds)
+            throws IOException {
+        List<String> keys = new ArrayList<>(bundle.keySet());
+        // Hash order, as the bundle's ArrayMap keeps them: the reader's puts
+        // then append instead of shifting the arrays on every insert. Ties
+        // break by key so equal bundles always encode to the same bytes.
+        Collections.sort(keys, KEY_ORDER);
+        out.varint(keys.size());
+        for (String key : keys) {
+            String prefix = prefixOf(key);
+            Integer id = prefix != null ? prefixIds.get(prefix) : null;
+            if (id != null) {
+                out.varint(id);
+                out.string(key.substring(prefix.length()));
+            } else {
+                out.varint(0);
+                out.string(key);
+            }
+            writeValue(out, bundle.get(key), prefixIds);
+        }
+    }
+
+    private static void writeValue(Out out, Object value, Map<String, Integer> prefixIds) throws IOException {
+        byte type = ConfigValues.typeOf(value);
+        if (type == ConfigValues.TYPE_OTHER) {
+            throw new IOException("Unsupported value type " + value.getClass().getName());
+        }
+        out.u8(type);
+        switch (type) {
+            case ConfigValues.TYPE_NULL:
+                break;
+            case ConfigValues.TYPE_BOOLEAN:
+                out.u8((Boolean) value ? 1 : 0);
+                break;
+            case ConfigValues.TYPE_INT:
+                out.zigzag((Integer) value);
+                break;
+            case ConfigValues.TYPE_LONG:
+                out.zigzag((Long) value);
+                break;
+            case ConfigValues.TYPE_DOUBLE:
+                out.fixed64(Double.doubleToRawLongBits((Double) value));
+                break;
+            case ConfigValues.TYPE_STRING:
+                out.string((String) value);
+                break;
+            case ConfigValues.TYPE_BOOLEAN_ARRAY: {
+                boolean[] arr = (boolean[]) value;
+                out.varint(arr.length);
+                for (boolean v : arr) out.u8(v ? 1 : 0);
+                break;
+            }
+            case ConfigValues.TYPE_INT_ARRAY: {
+                int[] arr = (int[]) value;
+                out.varint(arr.length);
+                for (int v : arr) out.zigzag(v);
+                break;
+            }
+            case ConfigValues.TYPE_LONG_ARRAY: {
+                long[] arr = (long[]) value;
+                out.varint(arr.length);
+                for (long v : arr) out.zigzag(v);
+                break;
+            }
+            case ConfigValues.TYPE_DOUBLE_ARRAY: {
+                double[] arr = (double[]) value;
+                out.varint(arr.length);
+                for (double v : arr) out.fixed64(Double.doubleToRawLongBits(v));
+                break;
+            }
+            case ConfigValues.TYPE_STRING_ARRAY: {
+                String[] arr = (String[]) value;
+                out.varint(arr.length);
+                for (String v : arr) out.nullableString(v);
+                break;
+            }
+            case ConfigValues.TYPE_BUNDLE:
+                writeBundle(out, (PersistableBundle) value, prefixIds);
+                break;
+        }
+    }
+
+    private static PersistableBundle readBundle(In in, String[] prefixes) throws IOException {
+        // Each entry is at least a prefix ref, a suffix length and a type byte.
+        int count = in.length(3);
+        PersistableBundle bundle = new PersistableBundle();
+        for (int i = 0; i < count; i++) {
+            int ref = in.index();
+            if (ref >= prefixes.length) throw new IOException("Bad prefix reference " + ref);
+            String key = prefixes[ref] + in.string();
+            readValue(in, bundle, key, prefixes);
+        }
+        return bundle;
+    }
+
+    private static void readValue(In in, PersistableBundle bundle, String key, String[] prefixes)
+            throws IOException {
+        int type = in.u8();
+        switch (type) {
+            case ConfigValues.TYPE_NULL:
+                bundle.putString(key, null);
+                break;
+            case ConfigValues.TYPE_BOOLEAN:
+                bundle.putBoolean(key, in.u8() != 0);
+                break;
+            case ConfigValues.TYPE_INT:
+                bundle.putInt(key, (int) in.zigzag());
+                break;
+            case ConfigValues.TYPE_LONG:
+                bundle.putLong(key, in.zigzag());
+                break;
+            case ConfigValues.TYPE_DOUBLE:
+                bundle.putDouble(key, Double.longBitsToDouble(in.fixed64()));
+                break;
+            case ConfigValues.TYPE_STRING:
+                bundle.putString(key, in.string());
+                break;
+            case ConfigValues.TYPE_BOOLEAN_ARRAY: {
+                boolean[] arr = new boolean[in.length(1)];
+                for (int i = 0; i < arr.length; i++) arr[i] = in.u8() != 0;
+                bundle.putBooleanArray(key, arr);
+                break;
+            }
+            case ConfigValues.TYPE_INT_ARRAY: {
+                int[] arr = new int[in.length(1)];
+                for (int i = 0; i < arr.length; i++) arr[i] = (int) in.zigzag();
+                bundle.putIntArray(key, arr);
+                break;
+            }
+            case ConfigValues.TYPE_LONG_ARRAY: {
+                long[] arr = new long[in.length(1)];
+                for (int i = 0; i < arr.length; i++) arr[i] = in.zigzag();
+                bundle.putLongArray(key, arr);
+                break;
+            }
+            case ConfigValues.TYPE_DOUBLE_ARRAY: {
+                double[] arr = new double[in.length(8)];
+                for (int i = 0; i < arr.length; i++) arr[i] = Double.longBitsToDouble(in.fixed64());
+                bundle.putDoubleArray(key, arr);
+                break;
+            }
+            case ConfigValues.TYPE_STRING_ARRAY: {
+                String[] arr = new String[in.length(1)];
+                for (int i = 0; i < arr.length; i++) arr[i] = in.nullableString();
+                bundle.putStringArray(key, arr);
+                break;
+            }
+            case ConfigValues.TYPE_BUNDLE:
+                bundle.putPersistableBundle(key, readBundle(in, prefixes));
+                break;
+            default:
+                throw new IOException("Unknown value type " + type);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.carrierapp;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The primitive layer under {@link SnapshotCodec}: varints, zigzag integers,
+ * fixed 64-bit words and length-prefixed UTF-8, streamed through a fixed
+ * buffer over an NIO channel. Kept free of {@code android.*} so the encoding
+ * can be tested and benchmarked on a plain JVM.
+ */
+public final class SnapshotStreams {
+
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Upper bound on any length read, and the only one when the stream's size is unknown. */
+    public static final int MAX_LENGTH = 1 << 24;
+
+    private SnapshotStreams() {}
+
+    public static long zigzagEncode(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    public static long zigzagDecode(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    public static final class Out {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        public Out(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        private void ensure(int n) throws IOException {
+            if (buffer.remaining() < n) drain();
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+
+        public void flush() throws IOException {
+            drain();
+        }
+
+        public void u8(int v) throws IOException {
+            ensure(1);
+            buffer.put((byte) v);
+        }
+
+        public void bytes(byte[] b) throws IOException {
+            int off = 0;
+            while (off < b.length) {
+                ensure(1);
+                int n = Math.min(buffer.remaining(), b.length - off);
+                buffer.put(b, off, n);
+                off += n;
+            }
+        }
+
+        public void varint(long v) throws IOException {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                buffer.put((byte) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            buffer.put((byte) v);
+        }
+
+        public void zigzag(long v) throws IOException {
+            varint(zigzagEncode(v));
+        }
+
+        public void fixed64(long v) throws IOException {
+            ensure(8);
+            buffer.putLong(v);
+        }
+
+        public void string(String s) throws IOException {
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length);
+            bytes(utf8);
+        }
+
+        public void nullableString(String s) throws IOException {
+            // Length is shifted by one so 0 can stand for null.
+            if (s == null) {
+                varint(0);
+                return;
+            }
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length + 1L);
+            bytes(utf8);
+        }
+    }
+
+    /**
+     * Reads what {@link Out} wrote. Every length is checked before anything is
+     * allocated for it: against the bytes left in the channel when it can say
+     * (files can), and against {@link #MAX_LENGTH} always, so a corrupt or
+     * hostile file fails with an {@link IOException} instead of an
+     * {@link OutOfMemoryError}.
+     */
+    public static final class In {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        public In(ReadableByteChannel channel) {
+            this.channel = channel;
+            buffer.flip();
+        }
+
+        private void require(int n) throws IOException {
+            if (buffer.remaining() >= n) return;
+            buffer.compact();
+            while (buffer.position() < n) {
+                if (channel.read(buffer) < 0) throw new EOFException("Truncated snapshot");
+            }
+            buffer.flip();
+        }
+
+        /** Bytes left to read, or {@link Long#MAX_VALUE} if the channel cannot tell. */
+        public long available() throws IOException {
+            if (!(channel instanceof SeekableByteChannel)) return Long.MAX_VALUE;
+            SeekableByteChannel seekable = (SeekableByteChannel) channel;
+            return buffer.remaining() + Math.max(0, seekable.size() - seekable.position());
+        }
+
+        public int u8() throws IOException {
+            require(1);
+            return buffer.get() & 0xff;
+        }
+
+        public long varint() throws IOException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = u8();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return result;
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        /** A small non-negative number, such as a table index, that sizes nothing. */
+        public int index() throws IOException {
+            long v = varint();
+            if (v < 0 || v > Integer.MAX_VALUE) throw new IOException("Bad index " + v);
+            return (int) v;
+        }
+
+        /**
+         * A length of items that each take at least {@code minBytesEach} bytes
+         * on the wire.
+         */
+        public int length(int minBytesEach) throws IOException {
+            return checkLength(varint(), minBytesEach);
+        }
+
+        private int checkLength(long v, int minBytesEach) throws IOException {
+            if (v < 0 || v > MAX_LENGTH) throw new IOException("Bad length " + v);
+            if (v * minBytesEach > available()) {
+                throw new EOFException("Length " + v + " runs past the end of the snapshot");
+            }
+            return (int) v;
+        }
+
+        public long zigzag() throws IOException {
+            return zigzagDecode(varint());
+        }
+
+        public long fixed64() throws IOException {
+            require(8);
+            return buffer.getLong();
+        }
+
+        public String string() throws IOException {
+            return utf8(length(1));
+        }
+
+        public String nullableString() throws IOException {
+            long len = varint();
+            return len == 0 ? null : utf8(checkLength(len - 1, 1));
+        }
+
+        private String utf8(int len) throws IOException {
+            byte[] bytes = new byte[len];
+            int off = 0;
+            while (off < len) {
+                require(1);
+                int n = Math.min(buffer.remaining(), len - off);
+                buffer.get(bytes, off, n);
+                off += n;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.carrierapp;
+
+import android.os.PersistableBundle;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Text codecs for every value type a {@link PersistableBundle} can hold, keyed
+ * by {@link ConfigValues} type tag. {@code parse(format(v))} gives back a value
+ * equal to {@code v} with the same type. Parsing throws
+ * IllegalArgumentException rather than falling back to a string, so a bad edit
+ * is rejected before it is staged. Scalars and array elements go through
+ * {@link ValueParsers}.
+ *
+ * <pre>
+ * bool      true | false
+ * int[]     [1, 2, 3]
+ * string[]  ["a", null, "b"]            (JSON)
+ * bundle    {"k": {"type": "int", "value": "5"},
+ *            "b": {"type": "bundle", "value": {...}}}   (JSON, nested by type name)
+ * </pre>
+ *
+ * A nested bundle's value is itself an object of entries. The older form,
+ * with that object as an escaped string, is still read.
+ */
+public final class ValueCodecs {
+
+    public interface Codec {
+        String format(Object value);
+
+        Object parse(String text);
+    }
+
+    private static final Codec[] CODECS = new Codec[ConfigValues.TYPE_OTHER + 1];
+
+    static {
+        CODECS[ConfigValues.TYPE_BOOLEAN] = codec(v -> v.toString(), ValueParsers::parseBoolean);
+        CODECS[ConfigValues.TYPE_INT] = codec(v -> v.toString(), ValueParsers::parseInt);
+        CODECS[ConfigValues.TYPE_LONG] = codec(v -> v.toString(), ValueParsers::parseLong);
+        CODECS[ConfigValues.TYPE_DOUBLE] = codec(v -> v.toString(), ValueParsers::parseDouble);
+        CODECS[ConfigValues.TYPE_STRING] = codec(v -> (String) v, t -> t);
+        CODECS[ConfigValues.TYPE_BOOLEAN_ARRAY] = codec(ConfigValues::render,
+                t -> ValueParsers.parseArray(boolean.class, t));
+        CODECS[ConfigValues.TYPE_INT_ARRAY] = codec(ConfigValues::render, t -> ValueParsers.parseArray(int.class, t));
+        CODECS[ConfigValues.TYPE_LONG_ARRAY] = codec(ConfigValues::render, t -> ValueParsers.parseArray(long.class, t));
+        CODECS[ConfigValues.TYPE_DOUBLE_ARRAY] = codec(ConfigValues::render,
+                t -> ValueParsers.parseArray(double.class, t));
+        CODECS[ConfigValues.TYPE_STRING_ARRAY] = codec(ValueCodecs::formatStringArray,
+                ValueCodecs::parseStringArray);
+        CODECS[ConfigValues.TYPE_BUNDLE] = codec(ValueCodecs::formatBundle, ValueCodecs::parseBundle);
+    }
+
+    private interface Formatter {
+        String format(Object value);
+    }
+
+    private interface Parser {
+        Object parse(String text);
+    }
+
+    private ValueCodecs() {}
+
+    private static Codec codec(Formatter formatter, Parser parser) {
+        return new Codec() {
+            @Override
+            public String format(Object value) {
+                return formatter.format(value);
+            }
+
+            @Override
+            public Object parse(String text) {
+                return parser.parse(text);
+            }
+        };
+    }
+
+    /** Codec for a type tag, or null for null and unsupported values. */
+    public static Codec forType(byte type) {
+        return type >= 0 && type < CODECS.length ? CODECS[type] : null;
+    }
+
+    public static Codec forValue(Object value) {
+        return forType(ConfigValues.typeOf(value));
+    }
+
+    /** Parses {@code text} as {@code type}; throws IllegalArgumentException if it is not one. */
+    public static Object parse(byte type, String text) {
+        Codec codec = forType(type);
+        if (codec == null) throw new IllegalArgumentException("Unsupported type " + ConfigValues.typeName(type));
+        return codec.parse(text);
+    }
+
+    public static String format(Object value) {
+        Codec codec = forValue(value);
+        if (codec == null) throw new IllegalArgumentException("Unsupported value " + value);
+        return codec.format(value);
+    }
+
+    /**
+     * Null if {@code value} may replace a value of type {@code expected} under
+     * {@code key}; otherwise why not. Nulls fit anywhere, and anything may
+     * replace a null.
+     */
+    public static String typeMismatch(String key, byte expected, Object value) {
+        if (value == null || expected == ConfigValues.TYPE_NULL) return null;
+        byte actual = ConfigValues.typeOf(value);
+        if (expected == actual) return null;
+        return key + " is " + ConfigValues.typeName(expected) + ", not " + ConfigValues.typeName(actual);
+    }
+
+    /** {@link #typeMismatch(String, byte, Object)} against {@code key} in {@code live}; new keys always fit. */
+    public static String typeMismatch(PersistableBundle live, String key, Object value) {
+        if (!live.containsKey(key)) return null;
+        return typeMismatch(key, ConfigValues.typeOf(live.get(key)), value);
+    }
+
+    /** Type tag for a name from {@link ConfigValues#typeName}, or -1. */
+    public static byte typeForName(String name) {
+        for (byte type = 0; type < CODECS.length; type++) {
+            if (CODECS[type] != null && ConfigValues.typeName(type).equals(name)) return type;
+        }
+        return -1;
+    }
+
+    private static String formatStringArray(Object value) {
+        JSONArray array = new JSONArray();
+        for (String s : (String[]) value) array.put(s != null ? s : JSONObject.NULL);
+        return array.toString();
+    }
+
+    private static Object parseStringArray(String text) {
+        try {
+            JSONArray array = new JSONArray(text.trim());
+            String[] out = new String[array.length()];
+            for (int i = 0; i < out.length; i++) {
+                Object element = array.get(i);
+                if (element == JSONObject.NULL) continue;
+                if (!(element instanceof String)) {
+                    throw new IllegalArgumentException("Element " + i + " is not a string");
+                }
+                out[i] = (String) element;
+            }
+            return out;
+        } catch (JSONException e) {
+            throw new IllegalArgumentException("Expected a JSON array of strings", e);
+        }
+    }
+
+    private static String formatBundle(Object value) {
+        try {
+            return toJson((PersistableBundle) value).toString(2);
+        } catch (JSONException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static Object parseBundle(String text) {
+        try {
+            return fromJson(new JSONObject(text.trim()));
+        } catch (JSONException e) {
+            throw new IllegalArgumentException("Expected a JSON object of {type, value} entries", e);
+        }
+    }
+
+    private static JSONObject toJson(PersistableBundle bundle) throws JSONException {
+        JSONObject out = new JSONObject();
+        for (String key : bundle.keySet()) {
+            Object v = bundle.get(key);
+            JSONObject entry = new JSONObject();
+            entry.put("type", ConfigValues.typeName(ConfigValues.typeOf(v)));
+            if (v == null) entry.put("value", JSONObject.NULL);
+            else if (v instanceof PersistableBundle) entry.put("value", toJson((PersistableBundle) v));
+            else entry.put("value", format(v));
+            out.put(key, entry);
+        }
+        return out;
+    }
+
+    private static PersistableBundle fromJson(JSONObject in) throws JSONException {
+        PersistableBundle out = new PersistableBundle();
+        JSONArray names = in.names();
+        if (names == null) return out;
+        for (int i = 0; i < names.length(); i++) {
+            String key = names.getString(i);
+            JSONObject entry = in.getJSONObject(key);
+            String typeName = entry.getString("type");
+            if (typeName.equals("null")) {
+                out.putString(key, null);
+                continue;
+            }
+            byte type = typeForName(typeName);
+            if (type < 0) throw new IllegalArgumentException("Unknown type " + typeName + " for " + key);
+            Object value = entry.get("value");
+            if (type == ConfigValues.TYPE_BUNDLE && value instanceof JSONObject) {
+                out.putPersistableBundle(key, fromJson((JSONObject) value));
+            } else {
+                OverrideBatch.putValue(out, key, parse(type, entry.getString("value")));
+            }
+        }
+        return out;
+    }
+}
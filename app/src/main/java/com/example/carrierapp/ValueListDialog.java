@@ -0,0 +1,230 @@
+package com.example.carrierapp;
+
+import android.content.Context;
+import android.graphics.Typeface;
+import android.os.PersistableBundle;
+import android.text.Editable;
+import android.text.InputType;
+import android.text.TextWatcher;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.EditText;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Opens an array or bundle value as its own list. Rows are formatted only as
+ * they are bound, so a 10,000-element PLMN list costs the same to open as a
+ * short one. Array elements can be edited, added or removed; each edit stages
+ * the whole typed array through {@link Listener#onValueEdited}. Nested bundles
+ * are edited as a whole, in {@link ValueCodecs} text form.
+ */
+public final class ValueListDialog {
+
+    public interface Listener {
+        void onValueEdited(String key, Object newValue);
+    }
+
+    /** Shown in italics for a null string element, so it does not read as the text "null". */
+    private static final String NULL_TEXT = "null";
+
+    private final Context context;
+    private final String key;
+    private final Listener listener;
+    private final ElementAdapter adapter = new ElementAdapter();
+
+    private Object value;
+    private List<String> bundleKeys;
+    private AlertDialog dialog;
+
+    private ValueListDialog(Context context, String key, Object value, Listener listener) {
+        this.context = context;
+        this.key = key;
+        this.value = value;
+        this.listener = listener;
+        if (value instanceof PersistableBundle) {
+            bundleKeys = new ArrayList<>(((PersistableBundle) value).keySet());
+            Collections.sort(bundleKeys);
+        }
+    }
+
+    public static void show(Context context, String key, Object value, Listener listener) {
+        new ValueListDialog(context, key, value, listener).show();
+    }
+
+    private void show() {
+        RecyclerView list = new RecyclerView(context);
+        list.setLayoutManager(new LinearLayoutManager(context));
+        list.setAdapter(adapter);
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(context)
+                .setTitle(title())
+                .setView(list)
+                .setPositiveButton("Close", null);
+        if (isEditable()) {
+            builder.setNeutralButton("Add", null);
+        } else if (bundleKeys != null) {
+            builder.setNeutralButton("Edit", null);
+        }
+        dialog = builder.show();
+        // Set here rather than on the builder so the button does not dismiss the list.
+        if (isEditable()) {
+            dialog.getButton(AlertDialog.BUTTON_NEUTRAL).setOnClickListener(
+                    v -> editElement(ConfigValues.elementCount(value)));
+        } else if (bundleKeys != null) {
+            dialog.getButton(AlertDialog.BUTTON_NEUTRAL).setOnClickListener(v -> editBundle());
+        }
+    }
+
+    private void editBundle() {
+        EditText input = new EditText(context);
+        input.setInputType(InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_FLAG_MULTI_LINE);
+        input.setText(ValueCodecs.format(value));
+        new AlertDialog.Builder(context)
+                .setTitle(key)
+                .setView(input)
+                .setPositiveButton("Save", (d, which) -> {
+                    PersistableBundle parsed;
+                    try {
+                        parsed = (PersistableBundle) ValueCodecs.parse(ConfigValues.TYPE_BUNDLE,
+                                input.getText().toString());
+                    } catch (IllegalArgumentException e) {
+                        Toast.makeText(context, "Invalid bundle: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                        return;
+                    }
+                    bundleKeys = new ArrayList<>(parsed.keySet());
+                    Collections.sort(bundleKeys);
+                    commit(parsed);
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private boolean isEditable() {
+        return ConfigValues.isArray(ConfigValues.typeOf(value));
+    }
+
+    private String title() {
+        return key + " (" + ConfigValues.elementCount(value) + ")";
+    }
+
+    /** {@code index == elementCount} appends. */
+    private void editElement(int index) {
+        int count = ConfigValues.elementCount(value);
+        boolean append = index == count;
+        EditText input = new EditText(context);
+        input.setInputType(inputTypeFor(value));
+        String current = append ? null : ConfigValues.elementAt(value, index);
+        if (current != null) input.setText(current);
+        else if (!append) input.setHint(NULL_TEXT);
+        // A null element stays null unless the user types into it; empty text would save "".
+        boolean[] typed = {false};
+        input.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                typed[0] = true;
+            }
+        });
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(context)
+                .setTitle(append ? "Add element" : key + "[" + index + "]")
+                .setView(input)
+                .setPositiveButton("Save", (d, which) -> {
+                    if (!append && current == null && !typed[0]) return;
+                    try {
+                        commit(ValueParsers.withElement(value, index, input.getText().toString()));
+                    } catch (IllegalArgumentException e) {
+                        Toast.makeText(context, "Invalid value: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                    }
+                })
+                .setNegativeButton("Cancel", null);
+        if (!append) {
+            builder.setNeutralButton("Remove", (d, which) -> commit(ValueParsers.withoutElement(value, index)));
+        }
+        builder.show();
+    }
+
+    private void commit(Object newValue) {
+        value = newValue;
+        adapter.notifyDataSetChanged();
+        dialog.setTitle(title());
+        listener.onValueEdited(key, newValue);
+    }
+
+    private static int inputTypeFor(Object array) {
+        if (array instanceof int[] || array instanceof long[]) {
+            return InputType.TYPE_CLASS_NUMBER | InputType.TYPE_NUMBER_FLAG_SIGNED;
+        }
+        if (array instanceof double[]) {
+            return InputType.TYPE_CLASS_NUMBER | InputType.TYPE_NUMBER_FLAG_SIGNED
+                    | InputType.TYPE_NUMBER_FLAG_DECIMAL;
+        }
+        return InputType.TYPE_CLASS_TEXT;
+    }
+
+    private class ElementAdapter extends RecyclerView.Adapter<ElementAdapter.Holder> {
+
+        @Override
+        public int getItemCount() {
+            return Math.max(ConfigValues.elementCount(value), 0);
+        }
+
+        @NonNull
+        @Override
+        public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View view = LayoutInflater.from(parent.getContext())
+                    .inflate(android.R.layout.simple_list_item_2, parent, false);
+            Holder holder = new Holder(view);
+            if (isEditable()) {
+                view.setOnClickListener(v -> {
+                    int pos = holder.getBindingAdapterPosition();
+                    if (pos != RecyclerView.NO_POSITION) editElement(pos);
+                });
+            }
+            return holder;
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull Holder holder, int position) {
+            if (bundleKeys != null) {
+                String nestedKey = bundleKeys.get(position);
+                holder.title.setText(nestedKey);
+                holder.subtitle.setText(ConfigValues.summarize(((PersistableBundle) value).get(nestedKey)));
+                holder.title.setTypeface(null, Typeface.NORMAL);
+            } else {
+                String element = ConfigValues.elementAt(value, position);
+                holder.title.setText(element != null ? element : NULL_TEXT);
+                holder.title.setTypeface(null, element != null ? Typeface.NORMAL : Typeface.ITALIC);
+                holder.subtitle.setText("[" + position + "]");
+            }
+        }
+
+        class Holder extends RecyclerView.ViewHolder {
+            final TextView title;
+            final TextView subtitle;
+
+            Holder(View view) {
+                super(view);
+                title = view.findViewById(android.R.id.text1);
+                subtitle = view.findViewById(android.R.id.text2);
+                title.setMaxLines(2);
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.carrierapp;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Text parsers for scalar values and array elements, shared by the
+ * {@link ValueCodecs} array codecs and the per-element edits in
+ * {@link ValueListDialog}, so an element is accepted or rejected the same way
+ * whether it is typed alone or inside a whole array. Elements are keyed by
+ * array component type. Free of {@code android.*}, so it is tested on a plain
+ * JVM.
+ */
+public final class ValueParsers {
+
+    private ValueParsers() {}
+
+    public static boolean parseBoolean(String text) {
+        String t = text.trim().toLowerCase(Locale.ROOT);
+        if (t.equals("true")) return true;
+        if (t.equals("false")) return false;
+        throw new IllegalArgumentException("Expected true or false: " + text);
+    }
+
+    public static int parseInt(String text) {
+        return Integer.parseInt(text.trim());
+    }
+
+    public static long parseLong(String text) {
+        return Long.parseLong(text.trim());
+    }
+
+    /** Double.parseDouble also accepts "1f" and "0x1p3"; only plain decimals are wanted here. */
+    public static double parseDouble(String text) {
+        String t = text.trim();
+        if (!t.matches("[-+]?(NaN|Infinity|(\\d+\\.?\\d*|\\.\\d+)([eE][-+]?\\d+)?)")) {
+            throw new NumberFormatException("Not a number: " + text);
+        }
+        return Double.parseDouble(t);
+    }
+
+    /**
+     * One element of an array with component type {@code component}, boxed.
+     * Strings are taken verbatim.
+     */
+    public static Object parseElement(Class<?> component, String text) {
+        if (component == boolean.class) return parseBoolean(text);
+        if (component == int.class) return parseInt(text);
+        if (component == long.class) return parseLong(text);
+        if (component == double.class) return parseDouble(text);
+        if (component == String.class) return text;
+        throw new IllegalArgumentException("Unsupported element type " + component);
+    }
+
+    /**
+     * A primitive array from "[a, b, c]" (brackets optional), each element
+     * through {@link #parseElement}.
+     */
+    public static Object parseArray(Class<?> component, String text) {
+        List<String> parts = split(text);
+        Object out = Array.newInstance(component, parts.size());
+        for (int i = 0; i < parts.size(); i++) Array.set(out, i, parseElement(component, parts.get(i)));
+        return out;
+    }
+
+    /**
+     * Element {@code index} of {@code array} as text that {@link #parseElement}
+     * reads back to the same value, or null for a null string element.
+     */
+    public static String formatElement(Object array, int index) {
+        if (array instanceof boolean[]) return ((boolean[]) array)[index] ? "true" : "false";
+        if (array instanceof int[]) return Integer.toString(((int[]) array)[index]);
+        if (array instanceof long[]) return Long.toString(((long[]) array)[index]);
+        if (array instanceof double[]) return Double.toString(((double[]) array)[index]);
+        if (array instanceof String[]) return ((String[]) array)[index];
+        throw new IllegalArgumentException("Not an array: " + array);
+    }
+
+    /**
+     * Copy of {@code array} with element {@code index} set from {@code text}, or
+     * with it appended when {@code index} is the length. Throws
+     * IllegalArgumentException if the text does not parse as the element type.
+     */
+    public static Object withElement(Object array, int index, String text) {
+        if (array == null || !array.getClass().isArray()) throw new IllegalArgumentException("Not an array: " + array);
+        Object element = parseElement(array.getClass().getComponentType(), text);
+        int count = Array.getLength(array);
+        Object out = Array.newInstance(array.getClass().getComponentType(), Math.max(count, index + 1));
+        System.arraycopy(array, 0, out, 0, count);
+        Array.set(out, index, element);
+        return out;
+    }
+
+    public static Object withoutElement(Object array, int index) {
+        int count = Array.getLength(array);
+        Object out = Array.newInstance(array.getClass().getComponentType(), count - 1);
+        System.arraycopy(array, 0, out, 0, index);
+        System.arraycopy(array, index + 1, out, index, count - index - 1);
+        return out;
+    }
+
+    /** Elements of "[a, b, c]" (brackets optional), trimmed. */
+    private static List<String> split(String text) {
+        String t = text.trim();
+        if (t.startsWith("[") && t.endsWith("]")) t = t.substring(1, t.length() - 1).trim();
+        List<String> parts = new ArrayList<>();
+        if (t.isEmpty()) return parts;
+        for (String part : t.split(",", -1)) parts.add(part.trim());
+        return parts;
+    }
+}
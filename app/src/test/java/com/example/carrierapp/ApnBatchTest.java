@@ -0,0 +1,107 @@
+package com.example.carrierapp;
+
+import android.content.ContentProviderResult;
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.provider.Telephony;
+
+import org.json.JSONException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ApnBatchTest {
+
+    private FakeCarriersProvider provider;
+    private ContentResolver resolver;
+
+    @Before
+    public void setUp() {
+        provider = Robolectric.setupContentProvider(FakeCarriersProvider.class, ApnBatch.AUTHORITY);
+        resolver = RuntimeEnvironment.getApplication().getContentResolver();
+    }
+
+    @Test
+    public void importOfFiftyApnsIsOneRoundTrip() throws Exception {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 50; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"name\":\"Lab ").append(i).append("\",\"apn\":\"lab").append(i)
+                    .append("\",\"type\":\"default\",\"mcc\":310,\"carrier_enabled\":true}");
+        }
+        json.append(']');
+
+        ApnBatch batch = new ApnBatch(ApnBatch.carriersUri(3));
+        for (ContentValues values : ApnBatch.parseJson(json.toString())) batch.insert(values);
+        ContentProviderResult[] results = batch.commit(ApnBatch.target(resolver));
+
+        assertEquals(50, results.length);
+        assertEquals(1, provider.roundTrips());
+        assertEquals(1, provider.batches);
+        assertEquals(50, provider.inserts);
+        assertEquals(50, provider.rows.size());
+        ContentValues last = provider.rows.get(49);
+        assertEquals("lab49", last.getAsString(Telephony.Carriers.APN));
+        assertEquals(Integer.valueOf(1), last.getAsInteger(Telephony.Carriers.CARRIER_ENABLED));
+    }
+
+    @Test
+    public void bulkEditIsOneRoundTrip() throws Exception {
+        provider.seed(50);
+        ContentValues values = new ContentValues();
+        values.put(Telephony.Carriers.PROXY, "10.0.0.1");
+        ApnBatch batch = new ApnBatch(ApnBatch.carriersUri(3));
+        List<String> ids = new ArrayList<>();
+        for (int i = 1; i <= 50; i += 2) ids.add(Integer.toString(i));
+        for (String id : ids) batch.update(id, values);
+
+        ContentProviderResult[] results = batch.commit(ApnBatch.target(resolver));
+
+        assertEquals(ids.size(), results.length);
+        assertEquals(1, provider.roundTrips());
+        assertEquals("10.0.0.1", provider.row("49").getAsString(Telephony.Carriers.PROXY));
+        assertEquals("", provider.row("50").getAsString(Telephony.Carriers.PROXY));
+    }
+
+    @Test
+    public void emptyBatchMakesNoCall() throws Exception {
+        assertEquals(0, new ApnBatch(ApnBatch.carriersUri(3)).commit(ApnBatch.target(resolver)).length);
+        assertEquals(0, provider.roundTrips());
+    }
+
+    @Test
+    public void parseJsonDropsIdsAndMapsTypes() throws Exception {
+        List<ContentValues> parsed = ApnBatch.parseJson(
+                "[{\"_id\":7,\"apn\":\"ims\",\"mtu\":1400,\"carrier_enabled\":false,\"proxy\":null}]");
+        ContentValues values = parsed.get(0);
+        assertFalse(values.containsKey(Telephony.Carriers._ID));
+        assertEquals("ims", values.getAsString(Telephony.Carriers.APN));
+        assertEquals(Integer.valueOf(1400), values.getAsInteger(Telephony.Carriers.MTU));
+        assertEquals(Integer.valueOf(0), values.getAsInteger(Telephony.Carriers.CARRIER_ENABLED));
+        assertNull(values.get(Telephony.Carriers.PROXY));
+    }
+
+    @Test
+    public void parseJsonRejectsEntryWithoutApn() {
+        try {
+            ApnBatch.parseJson("[{\"apn\":\"a\"},{\"name\":\"no apn\"}]");
+            fail("expected JSONException");
+        } catch (JSONException expected) {
+            assertEquals("Entry 1 has no \"apn\"", expected.getMessage());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.carrierapp;
+
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ApnEditorActivityTest {
+
+    private static final int ROWS = 2000;
+    private static final int PAGE = 100;
+
+    private static final class CountingUpdates implements ListUpdateCallback {
+        int inserted, removed, moved, changed;
+
+        @Override
+        public void onInserted(int position, int count) {
+            inserted += count;
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            removed += count;
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            moved++;
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            changed += count;
+        }
+    }
+
+    private static List<ApnEditorActivity.ApnData> table(int editedRow) {
+        List<ApnEditorActivity.ApnData> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new ApnEditorActivity.ApnData(Integer.toString(i + 1), "APN " + i,
+                    i == editedRow ? "edited" : "apn" + i, "default"));
+        }
+        return rows;
+    }
+
+    /** Feeds {@code rows} through the accumulator in repository-sized pages; returns every list it submits. */
+    private static List<List<ApnEditorActivity.ApnData>> load(List<ApnEditorActivity.ApnData> rows,
+                                                               boolean progressive) {
+        ApnEditorActivity.PageAccumulator pages = new ApnEditorActivity.PageAccumulator(progressive);
+        List<List<ApnEditorActivity.ApnData>> submitted = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += PAGE) {
+            int to = Math.min(from + PAGE, rows.size());
+            List<ApnEditorActivity.ApnData> list = pages.add(rows.subList(from, to), to == rows.size());
+            if (list != null) submitted.add(list);
+        }
+        return submitted;
+    }
+
+    private static CountingUpdates diff(List<ApnEditorActivity.ApnData> before,
+                                        List<ApnEditorActivity.ApnData> after) {
+        DiffUtil.ItemCallback<ApnEditorActivity.ApnData> items = ApnAdapter.DIFF_CALLBACK;
+        DiffUtil.DiffResult result = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return before.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return after.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                return items.areItemsTheSame(before.get(oldPosition), after.get(newPosition));
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                return items.areContentsTheSame(before.get(oldPosition), after.get(newPosition));
+            }
+        });
+        CountingUpdates updates = new CountingUpdates();
+        result.dispatchUpdatesTo(updates);
+        return updates;
+    }
+
+    @Test
+    public void singleRowEditReloadsAsExactlyOneChange() {
+        List<ApnEditorActivity.ApnData> shown = table(-1);
+        List<List<ApnEditorActivity.ApnData>> submitted = load(table(1500), false);
+
+        assertEquals(1, submitted.size());
+        CountingUpdates updates = diff(shown, submitted.get(0));
+        assertEquals(1, updates.changed);
+        assertEquals(0, updates.inserted);
+        assertEquals(0, updates.removed);
+        assertEquals(0, updates.moved);
+    }
+
+    @Test
+    public void progressiveReloadWouldChurnTheList() {
+        // What a reload cost when it paged like the first load.
+        List<List<ApnEditorActivity.ApnData>> submitted = load(table(1500), true);
+        CountingUpdates first = diff(table(-1), submitted.get(0));
+        assertEquals(ROWS - PAGE, first.removed);
+    }
+
+    @Test
+    public void firstLoadShowsEveryPage() {
+        List<List<ApnEditorActivity.ApnData>> submitted = load(table(-1), true);
+
+        assertEquals(ROWS / PAGE, submitted.size());
+        for (int i = 0; i < submitted.size(); i++) assertEquals((i + 1) * PAGE, submitted.get(i).size());
+    }
+
+    @Test
+    public void reloadWaitsForLastPage() {
+        ApnEditorActivity.PageAccumulator pages = new ApnEditorActivity.PageAccumulator(false);
+        List<ApnEditorActivity.ApnData> rows = table(-1);
+        assertNull(pages.add(rows.subList(0, PAGE), false));
+        List<ApnEditorActivity.ApnData> list = pages.add(rows.subList(PAGE, 2 * PAGE), true);
+        assertNotNull(list);
+        assertEquals(2 * PAGE, list.size());
+    }
+
+    @Test
+    public void reloadDropsSelectedRowsThatAreGone() {
+        Set<String> selected = new HashSet<>(Arrays.asList("1", "5", "9"));
+        List<ApnEditorActivity.ApnData> rows = table(-1).subList(0, 6);
+
+        assertTrue(ApnAdapter.retainSelected(selected, rows));
+        assertEquals(new HashSet<>(Arrays.asList("1", "5")), selected);
+        assertFalse(ApnAdapter.retainSelected(selected, rows));
+        assertTrue(ApnAdapter.retainSelected(selected, new ArrayList<>()));
+        assertTrue(selected.isEmpty());
+    }
+
+    @Test
+    public void emptyReloadStillSubmits() {
+        List<ApnEditorActivity.ApnData> list =
+                new ApnEditorActivity.PageAccumulator(false).add(new ArrayList<>(), true);
+        assertNotNull(list);
+        assertEquals(0, list.size());
+    }
+}
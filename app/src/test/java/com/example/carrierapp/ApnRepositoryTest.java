@@ -0,0 +1,159 @@
+package com.example.carrierapp;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+import android.provider.Telephony;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ApnRepositoryTest {
+
+    /** Roughly the carriers table's width on a current device. */
+    private static final String[] ALL_COLUMNS = {
+            "_id", "name", "numeric", "mcc", "mnc", "carrier_id", "apn", "user", "server", "password",
+            "proxy", "port", "mmsproxy", "mmsport", "mmsc", "authtype", "type", "current", "protocol",
+            "roaming_protocol", "carrier_enabled", "bearer", "bearer_bitmask", "network_type_bitmask",
+            "mvno_type", "mvno_match_data", "sub_id", "profile_id", "modem_cognitive", "max_conns",
+            "wait_time", "max_conns_time", "mtu", "edited", "user_visible", "user_editable",
+            "owned_by", "apn_set_id", "skip_464xlat", "always_on",
+    };
+    private static final int ROWS = 2000;
+    private static final Uri URI = ApnBatch.carriersUri(1);
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private final List<String[]> projections = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        worker.shutdownNow();
+    }
+
+    /** A {@link MatrixCursor} of {@link #ROWS} rows holding only the requested columns, like the provider. */
+    private Cursor carriers(String[] projection) {
+        String[] columns = projection != null ? projection : ALL_COLUMNS;
+        MatrixCursor cursor = new MatrixCursor(columns, ROWS);
+        Object[] row = new Object[columns.length];
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < columns.length; c++) {
+                row[c] = columns[c].equals("_id") ? Integer.toString(r + 1) : columns[c] + "_" + r;
+            }
+            cursor.addRow(row);
+        }
+        return cursor;
+    }
+
+    private ApnRepository repository(int pageSize, String... extras) {
+        return new ApnRepository((uri, projection) -> {
+            projections.add(projection);
+            return carriers(projection);
+        }, worker, Runnable::run, pageSize, extras);
+    }
+
+    private static final class Pages implements ApnRepository.Callback {
+        final List<ApnEditorActivity.ApnData> rows = new ArrayList<>();
+        final List<Boolean> lastFlags = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        Exception error;
+
+        @Override
+        public synchronized void onPage(List<ApnEditorActivity.ApnData> page, boolean last) {
+            rows.addAll(page);
+            lastFlags.add(last);
+            if (last) done.countDown();
+        }
+
+        @Override
+        public void onError(Exception e) {
+            error = e;
+            done.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void requestsOnlyTheShownColumns() throws Exception {
+        Pages pages = new Pages();
+        repository(100, Telephony.Carriers.MTU).load(URI, pages);
+        pages.await();
+
+        String[] expected = Arrays.copyOf(ApnRepository.BASE_PROJECTION, ApnRepository.BASE_PROJECTION.length + 1);
+        expected[expected.length - 1] = Telephony.Carriers.MTU;
+        assertArrayEquals(expected, projections.get(0));
+        ApnEditorActivity.ApnData first = pages.rows.get(0);
+        assertEquals("1", first.id);
+        assertEquals("apn_0", first.apn);
+        assertEquals("port_0", first.port);
+        assertEquals("mtu_0", first.extras.get(Telephony.Carriers.MTU));
+    }
+
+    @Test
+    public void largeTableArrivesInPages() throws Exception {
+        Pages pages = new Pages();
+        repository(100).load(URI, pages);
+        pages.await();
+
+        assertNull(pages.error);
+        assertEquals(ROWS, pages.rows.size());
+        assertEquals(ROWS / 100, pages.lastFlags.size());
+        assertFalse(pages.lastFlags.subList(0, pages.lastFlags.size() - 1).contains(true));
+        assertEquals(Integer.toString(ROWS), pages.rows.get(ROWS - 1).id);
+    }
+
+    @Test
+    public void newerLoadSupersedesOlder() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ApnRepository repository = new ApnRepository((uri, projection) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return carriers(projection);
+        }, worker, Runnable::run, 100);
+        Pages stale = new Pages();
+        Pages fresh = new Pages();
+        repository.load(URI, stale);
+        repository.load(URI, fresh);
+        release.countDown();
+        fresh.await();
+
+        assertTrue(stale.rows.isEmpty());
+        assertTrue(stale.lastFlags.isEmpty());
+        assertEquals(ROWS, fresh.rows.size());
+    }
+
+    @Test
+    public void queryFailureReachesCallback() throws Exception {
+        ApnRepository repository = new ApnRepository((uri, projection) -> {
+            throw new SecurityException("no privileges");
+        }, worker, Runnable::run, 100);
+        Pages pages = new Pages();
+        repository.load(URI, pages);
+        pages.await();
+        assertTrue(pages.error instanceof SecurityException);
+    }
+}
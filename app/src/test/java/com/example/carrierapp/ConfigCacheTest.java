@@ -0,0 +1,152 @@
+package com.example.carrierapp;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Looper;
+import android.os.PersistableBundle;
+import android.telephony.CarrierConfigManager;
+import android.telephony.TelephonyManager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ConfigCacheTest {
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private final FakeConfigSource source = new FakeConfigSource();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private File dir;
+    private ConfigCache cache;
+
+    @Before
+    public void setUp() {
+        dir = new File(tmp.getRoot(), "cache");
+        cache = new ConfigCache(dir);
+    }
+
+    @After
+    public void tearDown() {
+        worker.shutdownNow();
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        assertNull(cache.get(1, 10));
+        cache.put(1, 10, FakeConfigSource.bundle("a", 1));
+        assertEquals(1, cache.get(1, 10).getInt("a"));
+        assertNull(cache.get(1, 11));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void survivesAProcessRestartThroughDisk() {
+        cache.put(1, 10, FakeConfigSource.bundle("a", new int[]{1, 2}));
+        ConfigCache reopened = new ConfigCache(dir);
+        PersistableBundle hit = reopened.get(1, 10);
+        assertNotNull(hit);
+        assertEquals(2, hit.getIntArray("a")[1]);
+        assertEquals(1, reopened.getHitCount());
+    }
+
+    @Test
+    public void interruptedDiskReadIsNeitherHitNorMiss() {
+        cache.put(1, 10, FakeConfigSource.bundle("a", 1));
+        ConfigCache reopened = new ConfigCache(dir);
+
+        Thread.currentThread().interrupt();
+        assertNull(reopened.get(1, 10));
+        assertTrue("interrupt was swallowed", Thread.interrupted());
+        assertEquals(0, reopened.getHitCount());
+        assertEquals(0, reopened.getMissCount());
+        // The entry itself was fine and is still served.
+        assertEquals(1, reopened.get(1, 10).getInt("a"));
+        assertEquals(1, reopened.getHitCount());
+    }
+
+    @Test
+    public void invalidateDropsOnlyThatSubscription() {
+        cache.put(1, 10, FakeConfigSource.bundle("a", 1));
+        cache.put(12, 10, FakeConfigSource.bundle("b", 2));
+        cache.invalidate(1);
+        assertNull(cache.get(1, 10));
+        assertNull(new ConfigCache(dir).get(1, 10));
+        // "12_" shares a prefix with "1" but not with "1_".
+        assertNotNull(cache.get(12, 10));
+    }
+
+    @Test
+    public void loaderServesTheCacheFirstAndSkipsUnchangedWrites() throws Exception {
+        source.put(1, FakeConfigSource.bundle("a", 1));
+        ConfigLoader loader = new ConfigLoader(source, cache, worker, Runnable::run);
+
+        load(loader);
+        File entry = new File(dir, ConfigCache.key(1, 1));
+        assertTrue(entry.isFile());
+
+        assertTrue(entry.delete());
+        ConfigLoaderTest.RecordingCallback second = load(loader);
+        assertEquals(1, second.snapshots.size());
+        assertTrue(second.snapshots.get(0).fromCache);
+        assertFalse("unchanged config was written again", entry.exists());
+
+        source.put(1, FakeConfigSource.bundle("a", 2));
+        ConfigLoaderTest.RecordingCallback third = load(loader);
+        assertEquals(2, third.snapshots.size());
+        assertTrue(entry.isFile());
+        assertEquals(2, new ConfigCache(dir).get(1, 1).getInt("a"));
+    }
+
+    @Test
+    public void configChangedBroadcastInvalidatesTheCache() throws Exception {
+        Context context = RuntimeEnvironment.getApplication();
+        ConfigCache shared = ConfigCache.get(context);
+        shared.put(5, 1, FakeConfigSource.bundle("a", 1));
+        TelephonyManager telephony = context.getSystemService(TelephonyManager.class);
+        shadowOf(telephony).setTelephonyManagerForSubscriptionId(5, telephony);
+
+        context.registerReceiver(new CarrierConfigReceiver(),
+                new IntentFilter(CarrierConfigManager.ACTION_CARRIER_CONFIG_CHANGED));
+        context.sendBroadcast(new Intent(CarrierConfigManager.ACTION_CARRIER_CONFIG_CHANGED)
+                .putExtra(CarrierConfigManager.EXTRA_SUBSCRIPTION_INDEX, 5));
+        shadowOf(Looper.getMainLooper()).idle();
+
+        // The receiver hands off to its own executor; wait for it.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (shared.get(5, 1) != null && System.nanoTime() < deadline) Thread.sleep(10);
+        assertNull(shared.get(5, 1));
+    }
+
+    private ConfigLoaderTest.RecordingCallback load(ConfigLoader loader) throws Exception {
+        ConfigLoaderTest.RecordingCallback callback = new ConfigLoaderTest.RecordingCallback();
+        loader.load(1, callback);
+        // Wait for the whole task, not just the first delivery.
+        worker.submit(() -> { }).get(5, TimeUnit.SECONDS);
+        return callback;
+    }
+
+}
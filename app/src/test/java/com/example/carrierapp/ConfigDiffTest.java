@@ -0,0 +1,133 @@
+package com.example.carrierapp;
+
+import android.os.PersistableBundle;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ConfigDiffTest {
+
+    private static PersistableBundle nested(Object... keyValues) {
+        return FakeConfigSource.bundle(keyValues);
+    }
+
+    /** key, old value, new value, expected detail lines. */
+    private static final Object[][] CHANGES = {
+            {"bool", true, false, Collections.emptyList()},
+            {"int", 1, 2, Collections.emptyList()},
+            {"long", 1L << 40, (1L << 40) + 1, Collections.emptyList()},
+            {"double", 0.5, 0.25, Collections.emptyList()},
+            {"string", "a", "b", Collections.emptyList()},
+            {"bools", new boolean[]{true}, new boolean[]{false, true},
+                    Arrays.asList("[0]: true -> false", "+[1]: true")},
+            {"ints", new int[]{1, 2, 3}, new int[]{1, 5}, Arrays.asList("[1]: 2 -> 5", "-[2]: 3")},
+            {"longs", new long[]{7}, new long[]{8}, Collections.singletonList("[0]: 7 -> 8")},
+            {"doubles", new double[]{1.0}, new double[]{1.5}, Collections.singletonList("[0]: 1.0 -> 1.5")},
+            {"strings", new String[]{"310260", "310410"}, new String[]{"310260", null},
+                    Collections.singletonList("[1]: 310410 -> null")},
+            {"bundle", nested("a", 1, "b", "x"), nested("a", 2, "c", true),
+                    Arrays.asList("a: 1 -> 2", "-b: x", "+c: true")},
+            {"deep", nested("inner", nested("x", new int[]{1})), nested("inner", nested("x", new int[]{2})),
+                    Collections.singletonList("inner.x[0]: 1 -> 2")},
+            {"retyped", 1, "1", Collections.singletonList("type int -> string")},
+            {"nulled", "set", null, Collections.singletonList("type string -> null")},
+    };
+
+    private static ConfigSnapshot snapshot(int column) {
+        PersistableBundle bundle = new PersistableBundle();
+        for (Object[] row : CHANGES) OverrideBatch.putValue(bundle, (String) row[0], row[column]);
+        return ConfigSnapshot.build(1, bundle);
+    }
+
+    @Test
+    public void everyTypeReportsItsChange() {
+        ConfigDiff diff = ConfigDiff.compute(snapshot(1), snapshot(2));
+
+        assertEquals(CHANGES.length, diff.entries.size());
+        for (ConfigDiff.Entry entry : diff.entries) {
+            Object[] row = row(entry.key);
+            assertEquals(entry.key, ConfigDiff.CHANGED, entry.kind);
+            assertEquals(entry.key, ConfigValues.summarize(row[1]), entry.oldValue);
+            assertEquals(entry.key, ConfigValues.summarize(row[2]), entry.newValue);
+            assertEquals(entry.key, row[3], entry.details);
+        }
+    }
+
+    @Test
+    public void equalValuesOfEveryTypeAreNotChanges() {
+        // Fresh arrays and bundles with equal content, not the same instances.
+        assertTrue(ConfigDiff.compute(snapshot(1), snapshot(1)).isEmpty());
+        assertTrue(ConfigDiff.compute(snapshot(2), snapshot(2)).isEmpty());
+        assertEquals("No changes.", ConfigDiff.compute(snapshot(1), snapshot(1)).toReport());
+    }
+
+    @Test
+    public void addedAndRemovedKeysInOneMergePass() {
+        ConfigSnapshot before = ConfigSnapshot.build(1, FakeConfigSource.bundle(
+                "a", 1, "c", new int[]{1}, "e", "gone"));
+        ConfigSnapshot after = ConfigSnapshot.build(1, FakeConfigSource.bundle(
+                "a", 1, "b", true, "c", new int[]{1}, "d", nested("k", 1)));
+        ConfigDiff diff = ConfigDiff.compute(before, after);
+
+        assertEquals(3, diff.entries.size());
+        assertEntry(diff.entries.get(0), "b", ConfigDiff.ADDED, null, "true");
+        assertEntry(diff.entries.get(1), "d", ConfigDiff.ADDED, null, "1 key: {k}");
+        assertEntry(diff.entries.get(2), "e", ConfigDiff.REMOVED, "gone", null);
+        assertEquals(Arrays.asList("b", "d"), diff.changedKeysInAfter());
+        assertEquals("+ b = true\n+ d = 1 key: {k}\n- e = gone\n", diff.toReport());
+    }
+
+    @Test
+    public void ofKeysMatchesCompute() {
+        ConfigSnapshot before = snapshot(1);
+        ConfigSnapshot after = snapshot(2);
+        ConfigDiff full = ConfigDiff.compute(before, after);
+        ConfigDiff keyed = ConfigDiff.ofKeys(after.keys, before.bundle, after.bundle);
+
+        assertEquals(full.entries.size(), keyed.entries.size());
+        for (int i = 0; i < full.entries.size(); i++) {
+            ConfigDiff.Entry a = full.entries.get(i);
+            ConfigDiff.Entry b = keyed.entries.get(i);
+            assertEquals(a.key, b.key);
+            assertEquals(a.kind, b.kind);
+            assertEquals(a.oldValue, b.oldValue);
+            assertEquals(a.newValue, b.newValue);
+            if (!a.details.isEmpty() && !a.details.get(0).startsWith("type ")) {
+                assertEquals(a.key, a.details, b.details);
+            }
+        }
+    }
+
+    @Test
+    public void reportIndentsDetails() {
+        ConfigSnapshot before = ConfigSnapshot.build(1, FakeConfigSource.bundle("ints", new int[]{1}));
+        ConfigSnapshot after = ConfigSnapshot.build(1, FakeConfigSource.bundle("ints", new int[]{2}));
+        assertEquals("~ ints: 1 item: [1] -> 1 item: [2]\n    [0]: 1 -> 2\n",
+                ConfigDiff.compute(before, after).toReport());
+    }
+
+    private static Object[] row(String key) {
+        for (Object[] row : CHANGES) {
+            if (row[0].equals(key)) return row;
+        }
+        throw new AssertionError("no row " + key);
+    }
+
+    private static void assertEntry(ConfigDiff.Entry entry, String key, int kind, String oldValue, String newValue) {
+        assertEquals(key, entry.key);
+        assertEquals(kind, entry.kind);
+        assertEquals(oldValue, entry.oldValue);
+        assertEquals(newValue, entry.newValue);
+        assertTrue(entry.details.isEmpty());
+    }
+}
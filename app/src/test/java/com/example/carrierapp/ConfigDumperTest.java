@@ -0,0 +1,124 @@
+package com.example.carrierapp;
+
+import android.os.PersistableBundle;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ConfigDumperTest {
+
+    private static final ConfigDumper.SinkFactory NEVER_OPENED = subId -> {
+        fail("disabled dumper opened its sink");
+        return null;
+    };
+
+    @Test
+    public void disabledPathNeverOpensTheSink() throws IOException {
+        ConfigSnapshot snapshot = snapshot(100);
+        ConfigDumper.DISABLED.dump(snapshot);
+        new ConfigDumper(ConfigDumper.LEVEL_OFF, 0, NEVER_OPENED).dump(snapshot);
+        assertFalse(ConfigDumper.DISABLED.isEnabled());
+    }
+
+    @Test
+    public void disabledPathAllocatesNothingPerKey() throws IOException {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        ConfigDumper dumper = new ConfigDumper(ConfigDumper.LEVEL_OFF, 0, NEVER_OPENED);
+        ConfigSnapshot small = snapshot(10);
+        ConfigSnapshot large = snapshot(10_000);
+        for (int i = 0; i < 1000; i++) {
+            dumper.dump(small);
+            dumper.dump(large);
+        }
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        dumper.dump(large);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        // Anything per key would be tens of kilobytes for 10,000 keys.
+        assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+    }
+
+    @Test
+    public void keysLevelLeavesValuesOut() throws IOException {
+        StringWriter out = new StringWriter();
+        new ConfigDumper(ConfigDumper.LEVEL_KEYS, 0, subId -> out).dump(snapshot(3));
+        String dump = out.toString();
+        assertTrue(dump, dump.contains("\nkey_0\nkey_1\nkey_2\n"));
+        assertFalse(dump, dump.contains(" = "));
+    }
+
+    @Test
+    public void valuesLevelRendersArraysAndBundlesByContent() throws IOException {
+        PersistableBundle nested = FakeConfigSource.bundle("n", 1);
+        PersistableBundle config = FakeConfigSource.bundle(
+                "a", new int[]{1, -2}, "b", new String[]{"x", null}, "c", nested, "d", Long.MIN_VALUE);
+        StringWriter out = new StringWriter();
+        new ConfigDumper(ConfigDumper.LEVEL_VALUES, 0, subId -> out).dump(ConfigSnapshot.build(1, config));
+        String dump = out.toString();
+        assertTrue(dump, dump.contains("a = [1, -2]\nb = [x, null]\nc = {n=1}\nd = -9223372036854775808\n"));
+        assertTrue(dump, dump.endsWith("--- END DUMP ---\n"));
+    }
+
+    @Test
+    public void budgetCountsUtf8BytesNotChars() throws IOException {
+        // 200 keys of 3-byte chars: 600 bytes of key text but only 200 chars.
+        PersistableBundle config = new PersistableBundle();
+        for (int i = 0; i < 100; i++) config.putString("k" + i, "€€");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        long budget = 300;
+        new ConfigDumper(ConfigDumper.LEVEL_VALUES, budget,
+                subId -> new OutputStreamWriter(bytes, StandardCharsets.UTF_8)).dump(ConfigSnapshot.build(1, config));
+
+        String dump = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        String truncated = "--- TRUNCATED (byte budget reached) ---\n";
+        assertTrue(dump, dump.endsWith(truncated));
+        int bodyBytes = dump.substring(0, dump.length() - truncated.length())
+                .getBytes(StandardCharsets.UTF_8).length;
+        assertTrue("wrote " + bodyBytes + " bytes", bodyBytes <= budget);
+        assertTrue("wrote " + bodyBytes + " bytes", bodyBytes > budget - 3);
+    }
+
+    @Test
+    public void budgetNeverSplitsASurrogatePair() throws IOException {
+        PersistableBundle config = FakeConfigSource.bundle("k", "📶📶📶");
+        ConfigSnapshot snapshot = ConfigSnapshot.build(1, config);
+        String header = "--- STARTING DUMP subId=1 keys=1 ---\nk = ";
+        for (int extra = 0; extra < 12; extra++) {
+            StringWriter out = new StringWriter();
+            new ConfigDumper(ConfigDumper.LEVEL_VALUES, header.length() + extra, subId -> out).dump(snapshot);
+            String dump = out.toString();
+            for (int i = 0; i < dump.length(); i++) {
+                if (Character.isHighSurrogate(dump.charAt(i))) {
+                    assertTrue(i + 1 < dump.length() && Character.isLowSurrogate(dump.charAt(i + 1)));
+                }
+            }
+            assertEquals(extra / 4, dump.codePoints().filter(c -> c > 0xFFFF).count());
+        }
+    }
+
+    private static ConfigSnapshot snapshot(int keys) {
+        PersistableBundle config = new PersistableBundle();
+        for (int i = 0; i < keys; i++) config.putBoolean("key_" + i, i % 2 == 0);
+        return ConfigSnapshot.build(1, config);
+    }
+}
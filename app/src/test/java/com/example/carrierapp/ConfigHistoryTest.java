@@ -0,0 +1,284 @@
+package com.example.carrierapp;
+
+import android.os.PersistableBundle;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ConfigHistoryTest {
+
+    private static final int SUB = 3;
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private File root;
+    private ConfigHistory history;
+    private final Random random = new Random(7);
+
+    @Before
+    public void setUp() {
+        root = tmp.getRoot();
+        history = new ConfigHistory(root, ConfigHistory.DEFAULT_MAX_BYTES);
+    }
+
+    @Test
+    public void everyRecordedStateIsReconstructed() throws IOException {
+        PersistableBundle config = SnapshotCodecTest.syntheticConfig(300);
+        List<PersistableBundle> states = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            if (i > 0) config = mutate(config, 1 + random.nextInt(6));
+            assertTrue(history.record(SUB, T0 + i * 1000L, config));
+            states.add(new PersistableBundle(config));
+        }
+
+        long[] times = history.timestamps(SUB);
+        assertEquals(60, times.length);
+        for (int i = 0; i < times.length; i++) {
+            assertEquals(T0 + i * 1000L, times[i]);
+            assertSameConfig("state " + i, states.get(i), history.at(SUB, times[i]));
+            // Between records the earlier state holds.
+            assertSameConfig("after state " + i, states.get(i), history.at(SUB, times[i] + 999));
+        }
+        assertNull(history.at(SUB, T0 - 1));
+        assertNull(history.at(SUB + 1, T0));
+        assertEquals(0, history.timestamps(SUB + 1).length);
+    }
+
+    @Test
+    public void unchangedConfigsAreNotRecorded() throws IOException {
+        PersistableBundle config = FakeConfigSource.bundle("carrier_volte_bool", true, "carrier_mtu_int", 1400);
+        assertTrue(history.record(SUB, T0, config));
+        assertFalse(history.record(SUB, T0 + 1, new PersistableBundle(config)));
+        assertFalse(history.record(SUB, T0 + 2, FakeConfigSource.bundle(
+                "carrier_mtu_int", 1400, "carrier_volte_bool", true)));
+        assertEquals(1, history.timestamps(SUB).length);
+
+        // A fresh instance rebuilds the head from disk rather than recording again.
+        ConfigHistory reopened = new ConfigHistory(root, ConfigHistory.DEFAULT_MAX_BYTES);
+        assertFalse(reopened.record(SUB, T0 + 3, config));
+        assertTrue(reopened.record(SUB, T0 + 4, FakeConfigSource.bundle("carrier_volte_bool", true)));
+        assertArrayEquals(new long[]{T0, T0 + 4}, reopened.timestamps(SUB));
+    }
+
+    @Test
+    public void timestampsThatDoNotAdvanceAreNudged() throws IOException {
+        history.record(SUB, T0, FakeConfigSource.bundle("carrier_mtu_int", 1));
+        history.record(SUB, T0, FakeConfigSource.bundle("carrier_mtu_int", 2));
+        history.record(SUB, T0 - 5_000, FakeConfigSource.bundle("carrier_mtu_int", 3));
+        assertArrayEquals(new long[]{T0, T0 + 1, T0 + 2}, history.timestamps(SUB));
+        assertEquals(2, history.at(SUB, T0 + 1).getInt("carrier_mtu_int"));
+        assertEquals(3, history.at(SUB, Long.MAX_VALUE).getInt("carrier_mtu_int"));
+    }
+
+    @Test
+    public void changesBetweenCoversOnlyTheWindow() throws IOException {
+        history.record(SUB, T0, FakeConfigSource.bundle(
+                "carrier_volte_bool", true, "carrier_mtu_int", 1400, "carrier_name_string", "A"));
+        history.record(SUB, T0 + 10, FakeConfigSource.bundle(
+                "carrier_volte_bool", false, "carrier_mtu_int", 1400, "carrier_name_string", "A"));
+        history.record(SUB, T0 + 20, FakeConfigSource.bundle(
+                "carrier_volte_bool", false, "carrier_mtu_int", 1500));
+        history.record(SUB, T0 + 30, FakeConfigSource.bundle(
+                "carrier_volte_bool", false, "carrier_mtu_int", 1500, "ims_new_int", 9));
+
+        ConfigDiff middle = history.changesBetween(SUB, T0 + 10, T0 + 20);
+        assertEquals(Arrays.asList("carrier_mtu_int", "carrier_name_string"), keys(middle));
+        assertEquals(ConfigDiff.CHANGED, middle.entries.get(0).kind);
+        assertEquals(ConfigDiff.REMOVED, middle.entries.get(1).kind);
+
+        ConfigDiff last = history.changesBetween(SUB, T0 + 20, T0 + 30);
+        assertEquals(Arrays.asList("ims_new_int"), keys(last));
+        assertEquals(ConfigDiff.ADDED, last.entries.get(0).kind);
+
+        // From before the base, every key the base holds counts as new.
+        ConfigDiff fromStart = history.changesBetween(SUB, T0 - 1, T0);
+        assertEquals(Arrays.asList("carrier_mtu_int", "carrier_name_string", "carrier_volte_bool"),
+                keys(fromStart));
+
+        assertTrue(history.changesBetween(SUB, T0 + 30, Long.MAX_VALUE).isEmpty());
+        assertTrue(history.changesBetween(SUB + 1, 0, Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    public void changesBetweenMatchesADiffOfReplayedStates() throws IOException {
+        PersistableBundle config = SnapshotCodecTest.syntheticConfig(300);
+        for (int i = 0; i < 40; i++) {
+            if (i > 0) config = mutate(config, 1 + random.nextInt(4));
+            history.record(SUB, T0 + i, config);
+        }
+        history.compact(SUB, T0 + 5);
+        long[] windows = {T0 + 4, T0 + 39, T0 + 5, T0 + 6, T0 + 5, T0 + 39, T0 + 17, T0 + 30, T0 + 38, T0 + 39};
+        for (int w = 0; w < windows.length; w += 2) {
+            long from = windows[w];
+            long to = windows[w + 1];
+            PersistableBundle before = history.at(SUB, from);
+            PersistableBundle after = history.at(SUB, to);
+            TreeSet<String> all = new TreeSet<>(before.keySet());
+            all.addAll(after.keySet());
+            ConfigDiff expected = ConfigDiff.ofKeys(new ArrayList<>(all), before, after);
+            assertEquals(from + ".." + to, expected.toReport(), history.changesBetween(SUB, from, to).toReport());
+        }
+    }
+
+    @Test
+    public void compactionKeepsLaterStatesAndDropsEarlierOnes() throws IOException {
+        PersistableBundle config = SnapshotCodecTest.syntheticConfig(200);
+        List<PersistableBundle> states = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            if (i > 0) config = mutate(config, 3);
+            history.record(SUB, T0 + i, config);
+            states.add(new PersistableBundle(config));
+        }
+        history.compact(SUB, T0 + 12);
+
+        long[] times = history.timestamps(SUB);
+        assertEquals(T0 + 11, times[0]);
+        assertEquals(9, times.length);
+        assertNull(history.at(SUB, T0 + 10));
+        for (int i = 11; i < 20; i++) assertSameConfig("state " + i, states.get(i), history.at(SUB, T0 + i));
+    }
+
+    @Test
+    public void interruptedCompactionIsFinishedOnNextRead() throws IOException {
+        for (int i = 0; i < 5; i++) history.record(SUB, T0 + i, FakeConfigSource.bundle("carrier_mtu_int", i));
+        File dir = new File(root, Integer.toString(SUB));
+        File[] before = dir.listFiles();
+        assertNotNull(before);
+        File stash = tmp.newFolder("stash");
+        for (File f : before) Files.copy(f.toPath(), new File(stash, f.getName()).toPath());
+
+        history.compact(SUB, T0 + 3);
+        // Put back the old base and the folded deltas, as if we died after writing the new base.
+        for (File f : stash.listFiles()) {
+            Files.copy(f.toPath(), new File(dir, f.getName()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        ConfigHistory reopened = new ConfigHistory(root, ConfigHistory.DEFAULT_MAX_BYTES);
+        assertArrayEquals(new long[]{T0 + 2, T0 + 3, T0 + 4}, reopened.timestamps(SUB));
+        assertEquals(3, dir.listFiles().length);
+        assertEquals(2, reopened.at(SUB, T0 + 2).getInt("carrier_mtu_int"));
+        assertEquals(4, reopened.at(SUB, T0 + 4).getInt("carrier_mtu_int"));
+    }
+
+    @Test
+    public void oldDeltasAreFoldedAfterTheRetentionAge() throws IOException {
+        history.record(SUB, T0, FakeConfigSource.bundle("carrier_mtu_int", 1));
+        history.record(SUB, T0 + 1, FakeConfigSource.bundle("carrier_mtu_int", 2));
+        history.record(SUB, T0 + 2, FakeConfigSource.bundle("carrier_mtu_int", 3));
+        long later = T0 + ConfigHistory.RETENTION_MS + 2;
+        history.record(SUB, later, FakeConfigSource.bundle("carrier_mtu_int", 4));
+        // Only what is younger than the retention age keeps its own entry.
+        assertArrayEquals(new long[]{T0 + 1, T0 + 2, later}, history.timestamps(SUB));
+        assertEquals(2, history.at(SUB, T0 + 1).getInt("carrier_mtu_int"));
+    }
+
+    @Test
+    public void sizeCapEvictsOldestDeltasAndKeepsTheLatestState() throws IOException {
+        long cap = 64 * 1024;
+        ConfigHistory small = new ConfigHistory(root, cap);
+        PersistableBundle config = SnapshotCodecTest.syntheticConfig(1_000);
+        for (int i = 0; i < 200; i++) {
+            if (i > 0) config = mutate(config, 40);
+            small.record(SUB, T0 + i, config);
+        }
+        assertTrue(directoryBytes(new File(root, Integer.toString(SUB))) <= cap);
+        long[] times = small.timestamps(SUB);
+        assertTrue(times.length < 200);
+        assertEquals(T0 + 199, times[times.length - 1]);
+        assertSameConfig("latest", config, small.at(SUB, T0 + 199));
+    }
+
+    /**
+     * Storage growth over 1,000 small changes to a 5,000-key config, against
+     * keeping a full snapshot per change. HistoryBenchmark times the same run.
+     */
+    @Test
+    public void thousandChangesStayWellUnderThreeFullSnapshots() throws IOException {
+        PersistableBundle config = SnapshotCodecTest.syntheticConfig(5_000);
+        File dir = new File(root, Integer.toString(SUB));
+        history.record(SUB, T0, config);
+        long baseBytes = directoryBytes(dir);
+
+        for (int i = 1; i <= 1_000; i++) {
+            config = mutate(config, 1 + random.nextInt(5));
+            history.record(SUB, T0 + i * 60_000L, config);
+        }
+        long historyBytes = directoryBytes(dir);
+
+        assertSameConfig("latest", config, history.at(SUB, Long.MAX_VALUE));
+        assertTrue(history.timestamps(SUB).length <= ConfigHistory.MAX_DELTAS + 1);
+        // The base plus every kept delta is well under even three full snapshots.
+        assertTrue(historyBytes + " B", historyBytes < baseBytes * 3);
+        assertTrue(historyBytes <= ConfigHistory.DEFAULT_MAX_BYTES);
+    }
+
+    /** A copy of {@code config} with {@code edits} keys changed, removed or added. */
+    private PersistableBundle mutate(PersistableBundle config, int edits) {
+        PersistableBundle next = new PersistableBundle(config);
+        List<String> keys = new ArrayList<>(next.keySet());
+        for (int e = 0; e < edits; e++) {
+            String key = keys.get(random.nextInt(keys.size()));
+            int roll = random.nextInt(10);
+            if (roll == 0) {
+                next.remove(key);
+            } else if (roll == 1) {
+                next.putInt("carrier_added_" + random.nextInt(1_000_000) + "_int", random.nextInt());
+            } else {
+                Object value = next.get(key);
+                if (value instanceof Boolean) next.putBoolean(key, !(Boolean) value);
+                else if (value instanceof Integer) next.putInt(key, (Integer) value + 1);
+                else if (value instanceof Long) next.putLong(key, (Long) value - 1);
+                else if (value instanceof String) next.putString(key, value + "x");
+                else next.putIntArray(key, new int[]{random.nextInt(), random.nextInt()});
+            }
+        }
+        return next;
+    }
+
+    private static void assertSameConfig(String what, PersistableBundle expected, PersistableBundle actual) {
+        assertNotNull(what, actual);
+        assertEquals(what, expected.keySet(), actual.keySet());
+        for (String key : expected.keySet()) {
+            assertTrue(what + " " + key, ConfigSnapshot.valuesEqual(expected.get(key), actual.get(key)));
+        }
+    }
+
+    private static List<String> keys(ConfigDiff diff) {
+        List<String> keys = new ArrayList<>();
+        for (ConfigDiff.Entry e : diff.entries) keys.add(e.key);
+        return keys;
+    }
+
+    private static long directoryBytes(File dir) {
+        long total = 0;
+        File[] files = dir.listFiles();
+        if (files != null) for (File f : files) total += f.length();
+        return total;
+    }
+}
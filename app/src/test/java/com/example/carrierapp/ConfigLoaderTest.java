@@ -0,0 +1,197 @@
+package com.example.carrierapp;
+
+import android.os.PersistableBundle;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ConfigLoaderTest {
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private final FakeConfigSource source = new FakeConfigSource();
+    private final ExecutorService worker = Executors.newFixedThreadPool(2);
+    private final RecordingCallback callback = new RecordingCallback();
+
+    @After
+    public void tearDown() {
+        worker.shutdownNow();
+    }
+
+    @Test
+    public void repeatedRefreshesNeverBlockTheCaller() throws Exception {
+        source.put(1, FakeConfigSource.bundle("a", 1));
+        source.gate = new CountDownLatch(1);
+        ConfigLoader loader = new ConfigLoader(source, null, worker, Runnable::run);
+
+        CountDownLatch returned = new CountDownLatch(1);
+        Thread caller = new Thread(() -> {
+            for (int i = 0; i < 20; i++) loader.load(1, callback);
+            returned.countDown();
+        });
+        caller.start();
+
+        // Every fetch is parked on the gate, so a blocking load would never return.
+        assertTrue(returned.await(5, TimeUnit.SECONDS));
+        assertEquals(1, callback.loaded.getCount());
+        source.gate.countDown();
+        assertTrue(callback.loaded.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void staleResultsAreDropped() throws Exception {
+        source.put(1, FakeConfigSource.bundle("old", 1));
+        source.gate = new CountDownLatch(1);
+        ConfigLoader loader = new ConfigLoader(source, null, worker, Runnable::run);
+
+        loader.load(1, callback);
+        // Swap the config and refresh while the first fetch is still parked.
+        source.put(1, FakeConfigSource.bundle("new", 2));
+        loader.load(1, callback);
+        source.gate.countDown();
+
+        assertTrue(callback.loaded.await(5, TimeUnit.SECONDS));
+        worker.shutdown();
+        assertTrue(worker.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, callback.snapshots.size());
+        assertEquals(1, callback.snapshots.get(0).size());
+        assertEquals("new", callback.snapshots.get(0).keys.get(0));
+    }
+
+    @Test
+    public void cancelDropsTheLoadInFlight() throws Exception {
+        source.put(1, FakeConfigSource.bundle("a", 1));
+        source.gate = new CountDownLatch(1);
+        ConfigLoader loader = new ConfigLoader(source, null, worker, Runnable::run);
+
+        loader.load(1, callback);
+        loader.cancel();
+        source.gate.countDown();
+        worker.shutdown();
+        assertTrue(worker.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertTrue(callback.snapshots.isEmpty());
+        assertTrue(callback.errors.isEmpty());
+    }
+
+    @Test
+    public void snapshotIsSortedAndPrivate() throws Exception {
+        source.put(1, FakeConfigSource.bundle("b", 2, "a", 1, "c", 3));
+        ConfigLoader loader = new ConfigLoader(source, null, worker, Runnable::run);
+
+        loader.load(1, callback);
+        assertTrue(callback.loaded.await(5, TimeUnit.SECONDS));
+        ConfigSnapshot snapshot = callback.snapshots.get(0);
+        assertEquals(java.util.Arrays.asList("a", "b", "c"), snapshot.keys);
+
+        source.configs.get(1).putInt("d", 4);
+        assertEquals(3, snapshot.bundle.size());
+    }
+
+    @Test
+    public void fourSubscriptionsLoadInParallelAndDumpToTheirOwnFiles() throws Exception {
+        File dir = tmp.newFolder("dumps");
+        ConfigDumper dumper = new ConfigDumper(ConfigDumper.LEVEL_VALUES, 1024 * 1024, ConfigDumper.fileSink(dir));
+        List<Integer> subIds = Arrays.asList(1, 2, 3, 4);
+        for (int subId : subIds) {
+            PersistableBundle config = new PersistableBundle();
+            for (int k = 0; k < 2000; k++) config.putInt("sub" + subId + "_key_" + k, k);
+            source.put(subId, config);
+        }
+        // Each fetch waits for the other three, so loading them in series fails.
+        source.rendezvous = new CountDownLatch(subIds.size());
+        CountDownLatch allLoaded = new CountDownLatch(subIds.size());
+        List<Exception> dumpErrors = new CopyOnWriteArrayList<>();
+        ConfigLoader loader = new ConfigLoader(source, null, Runnable::run);
+        try {
+            loader.load(subIds, new RecordingCallback() {
+                @Override
+                public void onSnapshotBuilt(ConfigSnapshot snapshot) {
+                    // Where MainActivity dumps: on the loader thread, all subscriptions at once.
+                    try {
+                        dumper.dump(snapshot);
+                    } catch (IOException e) {
+                        dumpErrors.add(e);
+                    }
+                }
+
+                @Override
+                public void onLoaded(ConfigSnapshot snapshot) {
+                    super.onLoaded(snapshot);
+                    allLoaded.countDown();
+                }
+            });
+            assertTrue(allLoaded.await(10, TimeUnit.SECONDS));
+        } finally {
+            loader.shutdown();
+        }
+
+        assertTrue(dumpErrors.isEmpty());
+        for (int subId : subIds) {
+            List<String> lines = readLines(ConfigDumper.dumpFile(dir, subId));
+            assertEquals("--- STARTING DUMP subId=" + subId + " keys=2000 ---", lines.get(0));
+            assertEquals(2002, lines.size());
+            for (String line : lines.subList(1, 2001)) assertTrue(line, line.startsWith("sub" + subId + "_"));
+            assertEquals("--- END DUMP ---", lines.get(2001));
+        }
+    }
+
+    private static List<String> readLines(File file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) lines.add(line);
+        }
+        return lines;
+    }
+
+    static class RecordingCallback implements ConfigLoader.Callback {
+        final List<ConfigSnapshot> snapshots = new CopyOnWriteArrayList<>();
+        final List<Exception> errors = new CopyOnWriteArrayList<>();
+        final List<Integer> noPrivileges = new CopyOnWriteArrayList<>();
+        final CountDownLatch loaded = new CountDownLatch(1);
+
+        @Override
+        public void onLoaded(ConfigSnapshot snapshot) {
+            snapshots.add(snapshot);
+            loaded.countDown();
+        }
+
+        @Override
+        public void onNoPrivileges(int subId) {
+            noPrivileges.add(subId);
+        }
+
+        @Override
+        public void onError(int subId, Exception e) {
+            errors.add(e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.carrierapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ConfigSearchIndexTest {
+
+    private static final List<String> KEYS = sorted(
+            "carrier_volte_available_bool",
+            "carrier_wfc_ims_available_bool",
+            "ims.enable_presence_publish_bool",
+            "ims_conference_size_limit_int",
+            "show_4g_for_lte_data_icon_bool",
+            "vvm_type_string",
+            "Mixed_Case_Key");
+
+    @Test
+    public void emptyQueryReturnsEveryKey() {
+        ConfigSearchIndex index = new ConfigSearchIndex(KEYS);
+        assertEquals(KEYS, index.search(""));
+        assertEquals(KEYS, index.search(null));
+    }
+
+    @Test
+    public void matchesSubstringsCaseInsensitively() {
+        ConfigSearchIndex index = new ConfigSearchIndex(KEYS);
+        assertEquals(Arrays.asList("carrier_volte_available_bool", "carrier_wfc_ims_available_bool"),
+                index.search("AVAILABLE"));
+        assertEquals(Collections.singletonList("Mixed_Case_Key"), index.search("case_k"));
+        assertEquals(Collections.singletonList("vvm_type_string"), index.search("vv"));
+    }
+
+    @Test
+    public void unknownTrigramShortCircuitsToNoMatch() {
+        ConfigSearchIndex index = new ConfigSearchIndex(KEYS);
+        assertTrue(index.search("zzzz").isEmpty());
+    }
+
+    @Test
+    public void narrowingMatchesAFreshSearch() {
+        ConfigSearchIndex typing = new ConfigSearchIndex(KEYS);
+        String query = "ims_conf";
+        for (int i = 1; i <= query.length(); i++) {
+            String prefix = query.substring(0, i);
+            assertEquals(prefix, new ConfigSearchIndex(KEYS).search(prefix), typing.search(prefix));
+        }
+        // Backspacing is not a narrowing step and must widen again.
+        assertEquals(Arrays.asList("carrier_wfc_ims_available_bool", "ims.enable_presence_publish_bool",
+                "ims_conference_size_limit_int"), typing.search("ims"));
+    }
+
+    @Test
+    public void repeatedQueryReusesTheLastResult() {
+        ConfigSearchIndex index = new ConfigSearchIndex(KEYS);
+        int[] first = index.searchIndices("bool");
+        assertSame(first, index.searchIndices("bool"));
+        assertArrayEquals(new int[]{1, 2, 3, 5}, first);
+    }
+
+    @Test
+    public void agreesWithALinearScanOnRandomKeys() {
+        Random random = new Random(7);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int len = 3 + random.nextInt(20);
+            for (int j = 0; j < len; j++) sb.append("abcde_".charAt(random.nextInt(6)));
+            keys.add(sb.toString() + i);
+        }
+        Collections.sort(keys);
+        ConfigSearchIndex index = new ConfigSearchIndex(keys);
+        for (int q = 0; q < 200; q++) {
+            String query = keys.get(random.nextInt(keys.size())).substring(0, 1 + random.nextInt(4));
+            List<String> expected = new ArrayList<>();
+            for (String key : keys) {
+                if (key.toLowerCase(Locale.ROOT).contains(query)) expected.add(key);
+            }
+            assertEquals(query, expected, index.search(query));
+        }
+    }
+
+    private static List<String> sorted(String... keys) {
+        List<String> list = new ArrayList<>(Arrays.asList(keys));
+        Collections.sort(list);
+        return list;
+    }
+}
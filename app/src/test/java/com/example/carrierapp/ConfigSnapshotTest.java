@@ -0,0 +1,132 @@
+package com.example.carrierapp;
+
+import android.os.PersistableBundle;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ConfigSnapshotTest {
+
+    private static PersistableBundle nested() {
+        PersistableBundle nested = new PersistableBundle();
+        nested.putInt("only", 1);
+        return nested;
+    }
+
+    /** key, value, type tag, row view type, row text. Keys are already in sorted order. */
+    private static final Object[][] TYPES = {
+            {"a_null", null, ConfigValues.TYPE_NULL, CarrierConfigAdapter.VIEW_TYPE_SCALAR, "null"},
+            {"b_bool", true, ConfigValues.TYPE_BOOLEAN, CarrierConfigAdapter.VIEW_TYPE_BOOLEAN, "true"},
+            {"c_int", -7, ConfigValues.TYPE_INT, CarrierConfigAdapter.VIEW_TYPE_SCALAR, "-7"},
+            {"d_long", Long.MAX_VALUE, ConfigValues.TYPE_LONG, CarrierConfigAdapter.VIEW_TYPE_SCALAR,
+                    "9223372036854775807"},
+            {"e_double", 2.5, ConfigValues.TYPE_DOUBLE, CarrierConfigAdapter.VIEW_TYPE_SCALAR, "2.5"},
+            {"f_string", "ims", ConfigValues.TYPE_STRING, CarrierConfigAdapter.VIEW_TYPE_SCALAR, "ims"},
+            {"g_bools", new boolean[]{true, false}, ConfigValues.TYPE_BOOLEAN_ARRAY,
+                    CarrierConfigAdapter.VIEW_TYPE_ARRAY, "2 items: [true, false]"},
+            {"h_ints", new int[]{1, 2, 3, 4}, ConfigValues.TYPE_INT_ARRAY,
+                    CarrierConfigAdapter.VIEW_TYPE_ARRAY, "4 items: [1, 2, 3, …]"},
+            {"i_longs", new long[]{5}, ConfigValues.TYPE_LONG_ARRAY,
+                    CarrierConfigAdapter.VIEW_TYPE_ARRAY, "1 item: [5]"},
+            {"j_doubles", new double[0], ConfigValues.TYPE_DOUBLE_ARRAY,
+                    CarrierConfigAdapter.VIEW_TYPE_ARRAY, "0 items"},
+            {"k_strings", new String[]{"310260", null}, ConfigValues.TYPE_STRING_ARRAY,
+                    CarrierConfigAdapter.VIEW_TYPE_ARRAY, "2 items: [310260, null]"},
+            {"l_bundle", nested(), ConfigValues.TYPE_BUNDLE,
+                    CarrierConfigAdapter.VIEW_TYPE_ARRAY, "1 key: {only}"},
+    };
+
+    private static ConfigSnapshot snapshotOfEveryType() {
+        PersistableBundle bundle = new PersistableBundle();
+        for (Object[] row : TYPES) OverrideBatch.putValue(bundle, (String) row[0], row[1]);
+        return ConfigSnapshot.build(1, bundle);
+    }
+
+    @Test
+    public void everyTypeFlattensToItsTagAndText() {
+        ConfigSnapshot snapshot = snapshotOfEveryType();
+        assertEquals(TYPES.length, snapshot.size());
+        for (int i = 0; i < TYPES.length; i++) {
+            Object[] row = TYPES[i];
+            String key = (String) row[0];
+            assertEquals(key, snapshot.keys.get(i));
+            assertEquals(key, (byte) row[2], snapshot.typeAt(i));
+            assertEquals(key, (int) row[3], CarrierConfigAdapter.viewTypeFor(snapshot.typeAt(i)));
+            assertEquals(key, row[4], snapshot.displayAt(i));
+            assertEquals(key, row[4], snapshot.valueTextAt(i).toString());
+            assertEquals(key, key, snapshot.keyTextAt(i).toString());
+            assertTrue(key, ConfigSnapshot.valuesEqual(row[1], snapshot.valueAt(i)));
+        }
+    }
+
+    @Test
+    public void scalarsArePackedWithoutBoxing() {
+        ConfigSnapshot snapshot = snapshotOfEveryType();
+        assertTrue(snapshot.booleanAt(snapshot.indexOf("b_bool")));
+        assertEquals(-7, snapshot.longAt(snapshot.indexOf("c_int")));
+        assertEquals(Long.MAX_VALUE, snapshot.longAt(snapshot.indexOf("d_long")));
+        assertEquals(2.5, snapshot.doubleAt(snapshot.indexOf("e_double")), 0);
+        assertTrue(snapshot.indexOf("missing") < 0);
+    }
+
+    @Test
+    public void renderShowsFullContent() {
+        assertEquals("[1, 2, 3, 4]", ConfigValues.render(new int[]{1, 2, 3, 4}));
+        assertEquals("[0.5]", ConfigValues.render(new double[]{0.5}));
+        assertEquals("{only=1}", ConfigValues.render(nested()));
+        assertEquals("other", ConfigValues.typeName(ConfigValues.typeOf(new Object())));
+    }
+
+    @Test
+    public void snapshotIsAPrivateCopy() {
+        PersistableBundle fetched = FakeConfigSource.bundle("a", 1);
+        ConfigSnapshot snapshot = ConfigSnapshot.build(1, fetched);
+        fetched.putInt("a", 2);
+        fetched.putInt("b", 3);
+        assertNotSame(fetched, snapshot.bundle);
+        assertEquals(Collections.singletonList("a"), snapshot.keys);
+        assertEquals("1", snapshot.displayAt(0));
+    }
+
+    @Test
+    public void contentEqualsComparesArraysByValue() {
+        ConfigSnapshot a = snapshotOfEveryType();
+        ConfigSnapshot b = snapshotOfEveryType();
+        assertTrue(a.contentEquals(b));
+        PersistableBundle changed = new PersistableBundle(b.bundle);
+        changed.putIntArray("h_ints", new int[]{1, 2, 3, 5});
+        assertFalse(a.contentEquals(ConfigSnapshot.build(1, changed)));
+    }
+
+    @Test
+    public void adapterListsSnapshotIndices() {
+        ConfigSnapshot snapshot = snapshotOfEveryType();
+        CarrierConfigAdapter adapter = new CarrierConfigAdapter(snapshot, (key, value) -> { });
+
+        assertEquals(Arrays.asList(4, 9), adapter.search("doubl"));
+        assertEquals(Collections.singletonList(snapshot.indexOf("c_int")), adapter.search("c_int"));
+        List<Integer> all = adapter.search("");
+        assertEquals(TYPES.length, all.size());
+        for (int i = 0; i < all.size(); i++) assertEquals(i, (int) all.get(i));
+
+        adapter.setVisibleKeys(Arrays.asList("d_long", "h_ints"));
+        assertEquals(Arrays.asList(3, 7), adapter.search(""));
+        assertEquals(Collections.singletonList(7), adapter.search("ints"));
+        assertEquals(Collections.singletonList(7), adapter.search("type:int[]"));
+        adapter.setVisibleKeys(null);
+        assertEquals(TYPES.length, adapter.search("").size());
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.carrierapp;
+
+import android.content.ContentProvider;
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.ContentUris;
+import android.content.ContentValues;
+import android.content.OperationApplicationException;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+import android.provider.Telephony;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory stand-in for the telephony carriers table. Counts every call that
+ * would be a binder round trip on a device, so tests can assert how many a
+ * bulk operation costs. Install with
+ * {@code Robolectric.setupContentProvider(FakeCarriersProvider.class, ApnBatch.AUTHORITY)}.
+ */
+public class FakeCarriersProvider extends ContentProvider {
+
+    static final String ID_SELECTION = Telephony.Carriers._ID + " = ?";
+
+    final List<ContentValues> rows = new ArrayList<>();
+    int batches;
+    int queries;
+    int inserts;
+    int updates;
+    private int batchedOperations;
+    private long nextId = 1;
+
+    @Override
+    public boolean onCreate() {
+        return true;
+    }
+
+    /** Adds {@code count} rows directly, without counting them as round trips. */
+    void seed(int count) {
+        for (int i = 0; i < count; i++) {
+            ContentValues values = new ContentValues();
+            values.put(Telephony.Carriers.NAME, "APN " + i);
+            values.put(Telephony.Carriers.APN, "apn" + i);
+            values.put(Telephony.Carriers.TYPE, i % 2 == 0 ? "default,supl" : "ims");
+            values.put(Telephony.Carriers.PROXY, "");
+            values.put(Telephony.Carriers.PORT, "");
+            addRow(values);
+        }
+    }
+
+    int roundTrips() {
+        // Operations inside a batch ride along with it.
+        return batches + queries + (inserts + updates - batchedOperations);
+    }
+
+    @Override
+    public ContentProviderResult[] applyBatch(ArrayList<ContentProviderOperation> operations)
+            throws OperationApplicationException {
+        batches++;
+        batchedOperations += operations.size();
+        return super.applyBatch(operations);
+    }
+
+    @Override
+    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs, String sortOrder) {
+        queries++;
+        String[] columns = projection != null ? projection : new String[]{
+                Telephony.Carriers._ID, Telephony.Carriers.NAME, Telephony.Carriers.APN, Telephony.Carriers.TYPE};
+        MatrixCursor cursor = new MatrixCursor(columns, rows.size());
+        for (ContentValues row : rows) {
+            if (!matches(row, selection, selectionArgs)) continue;
+            Object[] values = new Object[columns.length];
+            for (int i = 0; i < columns.length; i++) values[i] = row.get(columns[i]);
+            cursor.addRow(values);
+        }
+        return cursor;
+    }
+
+    @Override
+    public Uri insert(Uri uri, ContentValues values) {
+        inserts++;
+        return ContentUris.withAppendedId(uri, addRow(new ContentValues(values)));
+    }
+
+    @Override
+    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+        updates++;
+        int changed = 0;
+        for (ContentValues row : rows) {
+            if (matches(row, selection, selectionArgs)) {
+                row.putAll(values);
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public int delete(Uri uri, String selection, String[] selectionArgs) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getType(Uri uri) {
+        return null;
+    }
+
+    ContentValues row(String id) {
+        for (ContentValues row : rows) {
+            if (id.equals(row.getAsString(Telephony.Carriers._ID))) return row;
+        }
+        return null;
+    }
+
+    private long addRow(ContentValues values) {
+        long id = nextId++;
+        values.put(Telephony.Carriers._ID, id);
+        rows.add(values);
+        return id;
+    }
+
+    private static boolean matches(ContentValues row, String selection, String[] args) {
+        if (selection == null) return true;
+        if (!ID_SELECTION.equals(selection)) throw new IllegalArgumentException("Unsupported selection " + selection);
+        return args[0].equals(row.getAsString(Telephony.Carriers._ID));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.carrierapp;
+
+import android.os.PersistableBundle;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** In-memory {@link ConfigLoader.ConfigSource}, with optional per-sub latency and gates. */
+class FakeConfigSource implements ConfigLoader.ConfigSource {
+
+    final Map<Integer, PersistableBundle> configs = new ConcurrentHashMap<>();
+    final Map<Integer, Long> delaysMs = new HashMap<>();
+    final Map<Integer, Integer> carrierIds = new HashMap<>();
+    final AtomicInteger fetches = new AtomicInteger();
+    volatile boolean privileged = true;
+    /** When set, every fetch waits for it before returning. */
+    volatile CountDownLatch gate;
+    /**
+     * When set, every fetch counts it down and then waits for it to reach zero,
+     * so the fetches only complete if that many run at once.
+     */
+    volatile CountDownLatch rendezvous;
+
+    FakeConfigSource put(int subId, PersistableBundle config) {
+        configs.put(subId, config);
+        return this;
+    }
+
+    @Override
+    public PersistableBundle getConfigForSubId(int subId) {
+        fetches.incrementAndGet();
+        try {
+            CountDownLatch g = gate;
+            if (g != null) g.await();
+            CountDownLatch r = rendezvous;
+            if (r != null) {
+                r.countDown();
+                if (!r.await(5, TimeUnit.SECONDS)) throw new IllegalStateException("Fetches did not overlap");
+            }
+            Long delay = delaysMs.get(subId);
+            if (delay != null) Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        return configs.get(subId);
+    }
+
+    @Override
+    public boolean hasCarrierPrivileges(int subId) {
+        return privileged;
+    }
+
+    @Override
+    public int getCarrierId(int subId) {
+        Integer id = carrierIds.get(subId);
+        return id != null ? id : 1;
+    }
+
+    static PersistableBundle bundle(Object... keyValues) {
+        PersistableBundle b = new PersistableBundle();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            OverrideBatch.putValue(b, (String) keyValues[i], keyValues[i + 1]);
+        }
+        return b;
+    }
+}
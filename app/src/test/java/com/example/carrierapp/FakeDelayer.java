@@ -0,0 +1,59 @@
+package com.example.carrierapp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Virtual-clock {@link SearchScheduler.Delayer}: tasks run only when {@link #advance} passes their time. */
+class FakeDelayer implements SearchScheduler.Delayer {
+
+    private static final class Pending {
+        final Runnable task;
+        final long at;
+
+        Pending(Runnable task, long at) {
+            this.task = task;
+            this.at = at;
+        }
+    }
+
+    private final List<Pending> pending = new ArrayList<>();
+    private long now;
+
+    @Override
+    public synchronized void postDelayed(Runnable task, long delayMs) {
+        pending.add(new Pending(task, now + delayMs));
+    }
+
+    @Override
+    public synchronized void cancel(Runnable task) {
+        pending.removeIf(p -> p.task == task);
+    }
+
+    long now() {
+        return now;
+    }
+
+    synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    /** Moves the clock forward, running every task that falls due on the way, in time order. */
+    void advance(long ms) {
+        long target = now + ms;
+        while (true) {
+            Pending next = null;
+            synchronized (this) {
+                for (Pending p : pending) {
+                    if (p.at <= target && (next == null || p.at < next.at)) next = p;
+                }
+                if (next == null) {
+                    now = target;
+                    return;
+                }
+                pending.remove(next);
+                now = next.at;
+            }
+            next.task.run();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.carrierapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FuzzyMatcherTest {
+
+    private final int[][] scratch = new int[2][4];
+
+    @Test
+    public void substringHitsRankByPosition() {
+        String key = "carrier_volte_available_bool";
+        int atStart = score(key, "carrier");
+        int atSegment = score(key, "volte");
+        int inside = score(key, "olte");
+        assertTrue(atStart > atSegment && atSegment > inside);
+        assertEquals(120 - 2, atStart);
+        assertEquals(110 - 2, atSegment);
+        assertEquals(100 - 2, inside);
+        // Longer keys lose a little, never more than 9.
+        assertEquals(91, score("ims" + repeat('x', 200), "x"));
+    }
+
+    @Test
+    public void subsequencesScoreByGaps() {
+        assertEquals(1, FuzzyMatcher.subsequenceGaps("volte", "vol"));
+        assertEquals(2, FuzzyMatcher.subsequenceGaps("carrier_volte", "cvolte"));
+        assertEquals(4, FuzzyMatcher.subsequenceGaps("carrier_volte_bool", "crvb"));
+        assertEquals(-1, FuzzyMatcher.subsequenceGaps("carrier_volte", "vc"));
+        assertEquals(-1, FuzzyMatcher.subsequenceGaps("ims", "imsx"));
+
+        assertEquals(50 - 3 * 4, score("carrier_volte_bool", "crvb"));
+        assertTrue(score("carrier_volte_bool", "cvb") > score("carrier_volte_bool", "c_v_b_l"));
+        // Sixteen gaps bottom out at 11, still above a two-typo match.
+        assertEquals(11, score("a_b_c_d_e_f_g_h_i_j_k_l_m_n_o_p", "abcdefghijklmnop"));
+    }
+
+    @Test
+    public void boundedDistanceMatchesLevenshteinUpToTheBound() {
+        String[][] table = {
+                {"volte", "volte", "0"},
+                {"volte", "votle", "2"},
+                {"volte", "vilte", "1"},
+                {"volte", "volt", "1"},
+                {"volte", "xvolte", "1"},
+                {"enable", "enabel", "2"},
+                {"", "abc", "3"},
+                {"kitten", "sitting", "3"},
+        };
+        for (String[] row : table) {
+            int expected = Integer.parseInt(row[2]);
+            assertEquals(row[0] + "/" + row[1], expected, FuzzyMatcher.boundedDistance(row[0], row[1], 5, scratch));
+            // Past the bound the answer is only "more than max".
+            int bounded = FuzzyMatcher.boundedDistance(row[0], row[1], 1, scratch);
+            if (expected <= 1) assertEquals(expected, bounded);
+            else assertTrue(row[0] + "/" + row[1], bounded > 1);
+        }
+    }
+
+    @Test
+    public void typosMatchSegmentsWithinTheirBudget() {
+        String key = "carrier_volte_available_bool";
+        // Short terms get one edit, longer ones two.
+        assertEquals(20, score(key, "vilte"));
+        assertEquals(0, score(key, "vzlxe"));
+        assertEquals(10, score(key, "avaixabxe"));
+        assertEquals(0, score(key, "qqq"));
+        // A term longer than any segment by more than the budget is skipped cheaply.
+        assertEquals(0, score(key, "availablexyz"));
+    }
+
+    @Test
+    public void rankingPrefersSubstringThenSubsequenceThenTypo() {
+        List<String> keys = new ArrayList<>();
+        Collections.addAll(keys, "ims_voice_over_lte_bool", "volte_enabled_bool", "vowifi_bool", "vilte_int");
+        String term = "volte";
+        List<String> ranked = new ArrayList<>(keys);
+        ranked.removeIf(k -> score(k, term) == 0);
+        ranked.sort((a, b) -> score(b, term) - score(a, term));
+        assertEquals("volte_enabled_bool", ranked.get(0));
+        // "v...o...l...t...e" in order through voice_over_lte.
+        assertEquals("ims_voice_over_lte_bool", ranked.get(1));
+        assertEquals("vilte_int", ranked.get(2));
+        assertEquals(3, ranked.size());
+    }
+
+    @Test
+    public void segmentsSplitOnUnderscores() {
+        assertArrayEquals(new String[]{"carrier", "volte", "bool"}, FuzzyMatcher.segments("carrier_volte_bool"));
+        assertArrayEquals(new String[]{"ims.enable", "presence"}, FuzzyMatcher.segments("ims.enable_presence"));
+    }
+
+    private int score(String key, String term) {
+        return FuzzyMatcher.score(key, FuzzyMatcher.segments(key), term, scratch);
+    }
+
+    private static String repeat(char c, int n) {
+        char[] chars = new char[n];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
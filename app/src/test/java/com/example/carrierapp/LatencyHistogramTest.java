@@ -0,0 +1,98 @@
+package com.example.carrierapp;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void smallValuesAreExact() {
+        for (long v = 0; v < 128; v++) {
+            int i = LatencyHistogram.indexOf(v);
+            assertEquals(v, LatencyHistogram.lowestEquivalent(i));
+            assertEquals(v, LatencyHistogram.highestEquivalent(i));
+        }
+    }
+
+    @Test
+    public void everyValueLandsInABucketWithinTwoPercent() {
+        Random random = new Random(42);
+        for (int n = 0; n < 100_000; n++) {
+            long v = random.nextLong() & LatencyHistogram.MAX_VALUE;
+            v >>>= random.nextInt(40);
+            int i = LatencyHistogram.indexOf(v);
+            long low = LatencyHistogram.lowestEquivalent(i);
+            long high = LatencyHistogram.highestEquivalent(i);
+            assertTrue(v + " in [" + low + ", " + high + "]", low <= v && v <= high);
+            assertTrue(v + " bucket width " + (high - low), high - low <= Math.max(0, low / 64));
+        }
+    }
+
+    @Test
+    public void bucketsTileTheRangeWithoutGaps() {
+        int last = LatencyHistogram.indexOf(LatencyHistogram.MAX_VALUE);
+        assertEquals(LatencyHistogram.MAX_VALUE, LatencyHistogram.highestEquivalent(last));
+        for (int i = 0; i < last; i++) {
+            assertEquals("after bucket " + i,
+                    LatencyHistogram.highestEquivalent(i) + 1, LatencyHistogram.lowestEquivalent(i + 1));
+        }
+    }
+
+    @Test
+    public void percentilesFollowRanks() {
+        LatencyHistogram h = new LatencyHistogram("t");
+        assertEquals(0, h.getValueAtPercentile(50));
+        // 1..1000 microseconds, in nanoseconds.
+        for (long us = 1; us <= 1000; us++) h.record(us * 1000);
+        assertEquals(1000, h.getCount());
+        assertEquals(1_000_000, h.getMax());
+        assertEquals(500_500, h.getMean(), 1e-6);
+        assertNear(500_000, h.getValueAtPercentile(50));
+        assertNear(900_000, h.getValueAtPercentile(90));
+        assertNear(990_000, h.getValueAtPercentile(99));
+        assertEquals(1_000_000, h.getValueAtPercentile(100));
+        assertNear(1_000, h.getValueAtPercentile(0));
+    }
+
+    @Test
+    public void outOfRangeValuesAreClampedAndResetEmpties() {
+        LatencyHistogram h = new LatencyHistogram("t");
+        h.record(-5);
+        h.record(Long.MAX_VALUE);
+        assertEquals(2, h.getCount());
+        assertEquals(0, h.getValueAtPercentile(50));
+        assertEquals(LatencyHistogram.MAX_VALUE, h.getMax());
+        assertEquals(LatencyHistogram.MAX_VALUE, h.getValueAtPercentile(100));
+
+        h.reset();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getMax());
+        assertEquals(0, h.getMean(), 0);
+    }
+
+    @Test
+    public void concurrentRecordingLosesNothing() throws InterruptedException {
+        LatencyHistogram h = new LatencyHistogram("t");
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long base = t;
+            threads[t] = new Thread(() -> {
+                for (long v = 0; v < 50_000; v++) h.record(v * threads.length + base);
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+        assertEquals(200_000, h.getCount());
+        assertEquals(199_999, h.getMax());
+        assertEquals(199_999 / 2.0, h.getMean(), 1e-6);
+    }
+
+    /** Within the histogram's stated 1.6% resolution. */
+    private static void assertNear(long expected, long actual) {
+        assertTrue(expected + " ~ " + actual, Math.abs(actual - expected) <= expected * 16 / 1000);
+    }
+}
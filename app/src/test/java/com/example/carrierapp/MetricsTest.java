@@ -0,0 +1,104 @@
+package com.example.carrierapp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsTest {
+
+    /** Starts away from zero, which {@link Metrics#start()} reserves for "disabled". */
+    private long now = 1_000_000;
+
+    @Before
+    public void setUp() {
+        Metrics.setClock(() -> now);
+        Metrics.reset();
+        Metrics.setEnabled(true);
+    }
+
+    @After
+    public void tearDown() {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+        Metrics.setClock(null);
+    }
+
+    @Test
+    public void timersRecordTheClockDeltaBetweenStartAndStop() {
+        long[] durations = {5_000, 250_000, 3_000_000};
+        for (long d : durations) {
+            long t = Metrics.start();
+            now += d;
+            Metrics.CONFIG_FETCH.stop(t);
+        }
+        LatencyHistogram h = Metrics.CONFIG_FETCH.getHistogram();
+        assertEquals(3, h.getCount());
+        assertEquals(3_000_000, h.getMax());
+        assertEquals((5_000 + 250_000 + 3_000_000) / 3.0, h.getMean(), 1e-9);
+        assertEquals(0, Metrics.BIND.getHistogram().getCount());
+    }
+
+    @Test
+    public void disabledMetricsNeitherReadTheClockNorRecord() {
+        Metrics.setEnabled(false);
+        int[] reads = {0};
+        Metrics.setClock(() -> {
+            reads[0]++;
+            return now;
+        });
+        long t = Metrics.start();
+        assertEquals(0, t);
+        Metrics.APN_QUERY.stop(t);
+        Metrics.APN_ROWS.add(7);
+        assertEquals(0, reads[0]);
+        assertEquals(0, Metrics.APN_QUERY.getHistogram().getCount());
+        assertEquals(0, Metrics.APN_ROWS.get());
+    }
+
+    @Test
+    public void timingStartedBeforeDisablingIsDropped() {
+        long t = Metrics.start();
+        now += 1_000;
+        Metrics.setEnabled(false);
+        Metrics.FILTER.stop(t);
+        assertEquals(0, Metrics.FILTER.getHistogram().getCount());
+    }
+
+    @Test
+    public void resetClearsTimersAndCounters() {
+        long t = Metrics.start();
+        now += 10;
+        Metrics.BIND.stop(t);
+        Metrics.OVERRIDE_KEYS.add(40);
+        Metrics.OVERRIDE_KEYS.increment();
+        assertEquals(41, Metrics.OVERRIDE_KEYS.get());
+
+        Metrics.reset();
+        assertEquals(0, Metrics.BIND.getHistogram().getCount());
+        assertEquals(0, Metrics.OVERRIDE_KEYS.get());
+    }
+
+    @Test
+    public void dumpListsEveryTimerInMillisecondsAndEveryCounter() throws IOException {
+        long t = Metrics.start();
+        now += 2_000_000;
+        Metrics.CONFIG_OVERRIDE.stop(t);
+        Metrics.APN_ROWS.add(12);
+
+        StringWriter out = new StringWriter();
+        Metrics.dump(out);
+        String text = out.toString();
+        assertTrue(text, text.startsWith("timer (ms)"));
+        assertTrue(text, text.contains(String.format(Locale.ROOT, "%-20s %8d %9.3f", "overrideConfig", 1, 2.0)));
+        assertTrue(text, text.contains(String.format(Locale.ROOT, "%-20s %8d%n", "APN rows read", 12)));
+        assertTrue(text, text.contains("getConfigForSubId"));
+        assertTrue(text, text.contains("override keys sent"));
+    }
+}
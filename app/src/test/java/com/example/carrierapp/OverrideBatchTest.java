@@ -0,0 +1,176 @@
+package com.example.carrierapp;
+
+import android.os.PersistableBundle;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class OverrideBatchTest {
+
+    /** Records every overrideConfig call; subscriptions in {@code denied} throw like an unprivileged caller. */
+    static final class RecordingOverrider implements OverrideBatch.Overrider {
+        final List<Integer> subIds = new ArrayList<>();
+        final List<PersistableBundle> calls = new ArrayList<>();
+        final List<Integer> denied = new ArrayList<>();
+
+        @Override
+        public void overrideConfig(int subId, PersistableBundle overrides) {
+            if (denied.contains(subId)) throw new SecurityException("No carrier privileges for " + subId);
+            subIds.add(subId);
+            calls.add(new PersistableBundle(overrides));
+        }
+    }
+
+    static final class RecordingListener implements OverrideBatch.Listener {
+        int lastPending = -1;
+        final List<Integer> flushedSubs = new ArrayList<>();
+        final List<RuntimeException> failures = new ArrayList<>();
+
+        @Override
+        public void onPendingChanged(int pendingCount) {
+            lastPending = pendingCount;
+        }
+
+        @Override
+        public void onFlushed(int subId, PersistableBundle applied) {
+            flushedSubs.add(subId);
+        }
+
+        @Override
+        public void onFlushFailed(RuntimeException e) {
+            failures.add(e);
+        }
+    }
+
+    private final RecordingOverrider overrider = new RecordingOverrider();
+    private final RecordingListener listener = new RecordingListener();
+    private final FakeDelayer delayer = new FakeDelayer();
+    private OverrideBatch batch;
+
+    @Before
+    public void setUp() {
+        batch = new OverrideBatch(overrider, delayer, listener);
+    }
+
+    @Test
+    public void manyEditsCostOneOverrideCall() {
+        for (int i = 0; i < 25; i++) batch.stage(1, "key_" + i, i);
+        batch.stage(1, "key_0", 100);
+        assertEquals(25, listener.lastPending);
+        assertTrue(overrider.calls.isEmpty());
+
+        assertEquals(25, batch.flush());
+        assertEquals(1, overrider.calls.size());
+        assertEquals(100, overrider.calls.get(0).getInt("key_0"));
+        assertEquals(24, overrider.calls.get(0).getInt("key_24"));
+        assertEquals(0, listener.lastPending);
+        assertEquals(0, batch.flush());
+        assertEquals(1, overrider.calls.size());
+    }
+
+    @Test
+    public void editsForAnotherSubscriptionDoNotFlush() {
+        batch.stage(1, "a", true);
+        batch.stage(2, "b", 5);
+        batch.stage(1, "c", "x");
+        assertTrue(overrider.calls.isEmpty());
+        assertArrayEquals(new int[]{1, 2}, batch.pendingSubIds());
+        assertEquals(3, batch.pendingCount());
+        assertEquals(2, batch.pendingCopy(1).size());
+
+        assertEquals(1, batch.flush(2));
+        assertEquals(1, overrider.calls.size());
+        assertEquals(Integer.valueOf(2), overrider.subIds.get(0));
+        assertArrayEquals(new int[]{1}, batch.pendingSubIds());
+
+        assertEquals(2, batch.flush());
+        assertEquals(Integer.valueOf(1), overrider.subIds.get(1));
+        assertTrue(overrider.calls.get(1).getBoolean("a"));
+    }
+
+    @Test
+    public void deniedSubscriptionKeepsItsEditsWithoutBlockingOthers() {
+        overrider.denied.add(1);
+        batch.stage(1, "a", 1);
+        batch.stage(2, "b", 2);
+        try {
+            batch.flush();
+            fail("expected SecurityException");
+        } catch (SecurityException expected) {
+        }
+        assertEquals(1, overrider.calls.size());
+        assertEquals(Integer.valueOf(2), overrider.subIds.get(0));
+        assertArrayEquals(new int[]{1}, batch.pendingSubIds());
+
+        batch.stage(1, "a", 7);
+        overrider.denied.clear();
+        assertEquals(1, batch.flush());
+        assertEquals(7, overrider.calls.get(1).getInt("a"));
+    }
+
+    @Test
+    public void autoFlushWaitsForQuietPeriod() {
+        batch.setQuietPeriodMs(2000);
+        batch.stage(1, "a", 1);
+        delayer.advance(1500);
+        batch.stage(2, "b", 2);
+        delayer.advance(1500);
+        assertTrue(overrider.calls.isEmpty());
+
+        delayer.advance(500);
+        assertEquals(2, overrider.calls.size());
+        assertEquals(0, batch.pendingCount());
+        assertEquals(0, delayer.pendingCount());
+    }
+
+    @Test
+    public void autoFlushReportsFailureInsteadOfThrowing() {
+        overrider.denied.add(1);
+        batch.setQuietPeriodMs(100);
+        batch.stage(1, "a", 1);
+        delayer.advance(100);
+        assertEquals(1, listener.failures.size());
+        assertTrue(listener.failures.get(0) instanceof SecurityException);
+        assertEquals(1, batch.pendingCount());
+    }
+
+    @Test
+    public void stageAllAndDiscardArePerSubscription() {
+        batch.stageAll(3, FakeConfigSource.bundle("a", 1, "b", "two"));
+        batch.stage(4, "c", 3L);
+        assertEquals(3, listener.lastPending);
+
+        batch.discard(3);
+        assertArrayEquals(new int[]{4}, batch.pendingSubIds());
+        assertEquals(1, listener.lastPending);
+
+        batch.discard();
+        assertEquals(0, batch.pendingCount());
+        assertEquals(0, batch.flush());
+        assertTrue(overrider.calls.isEmpty());
+    }
+
+    @Test
+    public void pendingCopyIsDetached() {
+        batch.stage(1, "a", 1);
+        PersistableBundle copy = batch.pendingCopy(1);
+        copy.putInt("b", 2);
+        assertEquals(1, batch.pendingCount());
+        assertTrue(batch.pendingCopy(9).isEmpty());
+        batch.flush();
+        assertEquals(1, overrider.calls.get(0).size());
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.carrierapp;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Looper;
+import android.os.PersistableBundle;
+import android.telephony.CarrierConfigManager;
+import android.telephony.TelephonyManager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadows.ShadowCarrierConfigManager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33, shadows = OverrideProfileStoreTest.SlowCarrierConfigManager.class)
+public class OverrideProfileStoreTest {
+
+    private static final int SUB = 3;
+    private static final long NOW = 1_000_000;
+
+    private final FakeConfigSource source = new FakeConfigSource();
+    private final List<PersistableBundle> sent = new ArrayList<>();
+    private final OverrideBatch.Overrider recorder = (subId, overrides) -> sent.add(overrides);
+    private Context context;
+    private OverrideProfileStore store;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        store = new OverrideProfileStore(context);
+        SlowCarrierConfigManager.reset();
+    }
+
+    @After
+    public void tearDown() {
+        SlowCarrierConfigManager.reset();
+    }
+
+    @Test
+    public void pendingEditsAreKeptOnceAndNeverListedAsAProfile() throws IOException {
+        assertNull(store.takePending());
+        PersistableBundle pending = new PersistableBundle();
+        pending.putPersistableBundle(Integer.toString(SUB), FakeConfigSource.bundle("carrier_mtu_int", 1400));
+        pending.putPersistableBundle("4", FakeConfigSource.bundle("carrier_volte_bool", true));
+        store.savePending(pending);
+        assertTrue(store.list().isEmpty());
+
+        PersistableBundle kept = new OverrideProfileStore(context).takePending();
+        assertEquals(1400, kept.getPersistableBundle(Integer.toString(SUB)).getInt("carrier_mtu_int"));
+        assertTrue(kept.getPersistableBundle("4").getBoolean("carrier_volte_bool"));
+        assertNull(store.takePending());
+
+        store.savePending(pending);
+        store.savePending(new PersistableBundle());
+        assertNull(store.takePending());
+    }
+
+    @Test
+    public void reapplyIsSkippedWhenTheLiveConfigAlreadyMatches() {
+        source.put(SUB, FakeConfigSource.bundle("carrier_volte_bool", true, "carrier_mtu_int", 1400));
+        PersistableBundle profile = FakeConfigSource.bundle("carrier_volte_bool", true);
+
+        assertFalse(store.reapplyIfNeeded(source, recorder, SUB, profile, NOW));
+        assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    public void reapplySendsOnlyKeysWhoseTypeFitsTheLiveConfig() {
+        source.put(SUB, FakeConfigSource.bundle("carrier_mtu_int", 1400, "carrier_volte_bool", false));
+        PersistableBundle profile = FakeConfigSource.bundle(
+                "carrier_mtu_int", "1500",
+                "carrier_volte_bool", true,
+                "carrier_new_key_string", "x");
+
+        assertTrue(store.reapplyIfNeeded(source, recorder, SUB, profile, NOW));
+        assertEquals(1, sent.size());
+        PersistableBundle override = sent.get(0);
+        assertEquals(2, override.size());
+        assertTrue(override.getBoolean("carrier_volte_bool"));
+        assertEquals("x", override.getString("carrier_new_key_string"));
+        assertFalse("a string sent over an int key never reads back", override.containsKey("carrier_mtu_int"));
+
+        // Nothing left that fits: no empty override goes out.
+        source.put(4, FakeConfigSource.bundle("carrier_mtu_int", 1400));
+        assertFalse(store.reapplyIfNeeded(source, recorder, 4, FakeConfigSource.bundle("carrier_mtu_int", "1500"),
+                NOW));
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    public void valuesThatReadBackDifferentlyAreNotResentOnEveryChange() {
+        source.put(SUB, FakeConfigSource.bundle("carrier_mtu_int", 1400));
+        PersistableBundle profile = FakeConfigSource.bundle("carrier_mtu_int", 9000);
+        // The platform clamps the value, so the live config never matches the profile.
+        OverrideBatch.Overrider clamping = (subId, overrides) -> {
+            sent.add(overrides);
+            source.put(subId, FakeConfigSource.bundle("carrier_mtu_int", 1500));
+        };
+
+        assertTrue(store.reapplyIfNeeded(source, clamping, SUB, profile, NOW));
+        // The change broadcast that override causes, and a few more after it.
+        for (long t = NOW + 100; t < NOW + OverrideProfileStore.REAPPLY_BACKOFF_MS; t += 10_000) {
+            assertFalse(store.reapplyIfNeeded(source, clamping, SUB, profile, t));
+        }
+        assertEquals(1, sent.size());
+
+        // Another subscription, a new profile version, or the backoff running out all send again.
+        source.put(4, FakeConfigSource.bundle("carrier_mtu_int", 1400));
+        assertTrue(store.reapplyIfNeeded(source, clamping, 4, profile, NOW + 100));
+        PersistableBundle edited = FakeConfigSource.bundle("carrier_mtu_int", 8000);
+        assertTrue(store.reapplyIfNeeded(source, clamping, SUB, edited, NOW + 200));
+        assertTrue(store.reapplyIfNeeded(source, clamping, SUB, edited,
+                NOW + 200 + OverrideProfileStore.REAPPLY_BACKOFF_MS));
+        assertEquals(4, sent.size());
+
+        // Elapsed time restarts at boot, which clears the log.
+        store.clearReapplyLog();
+        assertTrue(store.reapplyIfNeeded(source, clamping, SUB, edited, 500));
+    }
+
+    @Test
+    public void versionFollowsContentNotInsertionOrder() {
+        PersistableBundle a = FakeConfigSource.bundle("x", 1, "y", "two", "z", new int[]{3});
+        PersistableBundle b = FakeConfigSource.bundle("z", new int[]{3}, "y", "two", "x", 1);
+        assertEquals(OverrideProfileStore.version(a), OverrideProfileStore.version(b));
+        assertNotEquals(OverrideProfileStore.version(a),
+                OverrideProfileStore.version(FakeConfigSource.bundle("x", 1, "y", "two", "z", new int[]{4})));
+    }
+
+    @Test
+    public void receiverReturnsAtOnceAndItsOwnEchoDoesNotReapply() throws IOException, InterruptedException {
+        store.save("lab", FakeConfigSource.bundle("carrier_mtu_int", 9000));
+        store.setActive("lab");
+        store.clearReapplyLog();
+        TelephonyManager telephony = context.getSystemService(TelephonyManager.class);
+        shadowOf(telephony).setTelephonyManagerForSubscriptionId(SUB, telephony);
+        shadowOf(telephony).setHasCarrierPrivileges(true);
+        CarrierConfigManager ccm = context.getSystemService(CarrierConfigManager.class);
+        shadowOf(ccm).setConfigForSubId(SUB, FakeConfigSource.bundle("carrier_mtu_int", 1400));
+        // Fetches park until released, so a receiver that fetched on the main thread would stall here.
+        SlowCarrierConfigManager.gate = new CountDownLatch(1);
+
+        context.registerReceiver(new CarrierConfigReceiver(),
+                new IntentFilter(CarrierConfigManager.ACTION_CARRIER_CONFIG_CHANGED));
+        broadcastConfigChanged();
+        assertEquals("onReceive waited for the config fetch", 0, SlowCarrierConfigManager.overrides.get());
+        SlowCarrierConfigManager.gate.countDown();
+        awaitTrue(() -> SlowCarrierConfigManager.overrides.get() == 1);
+
+        // The platform sends CARRIER_CONFIG_CHANGED for the override it just took.
+        // It reads back clamped, and the receiver must leave it there.
+        ConfigCache cache = ConfigCache.get(context);
+        cache.invalidate(SUB);
+        broadcastConfigChanged();
+        // With no re-apply the receiver pre-warms the cache instead; that marks it done.
+        awaitTrue(() -> cache.get(SUB, telephony.getSimCarrierId()) != null);
+        assertEquals(1, SlowCarrierConfigManager.overrides.get());
+    }
+
+    /** Sends the broadcast and runs onReceive on the main looper. */
+    private void broadcastConfigChanged() {
+        context.sendBroadcast(new Intent(CarrierConfigManager.ACTION_CARRIER_CONFIG_CHANGED)
+                .putExtra(CarrierConfigManager.EXTRA_SUBSCRIPTION_INDEX, SUB));
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    private interface Condition {
+        boolean holds();
+    }
+
+    private static void awaitTrue(Condition condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.holds()) {
+            if (System.nanoTime() > deadline) throw new AssertionError("timed out");
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * A carrier config manager that is slow to answer and clamps
+     * {@code carrier_mtu_int} to 1500, so an override of 9000 never reads back.
+     */
+    @Implements(CarrierConfigManager.class)
+    public static class SlowCarrierConfigManager extends ShadowCarrierConfigManager {
+
+        /** When set, fetches wait for it, for up to five seconds. */
+        static volatile CountDownLatch gate;
+        static final AtomicInteger overrides = new AtomicInteger();
+
+        static void reset() {
+            gate = null;
+            overrides.set(0);
+        }
+
+        @Implementation
+        @Override
+        public PersistableBundle getConfigForSubId(int subId) {
+            try {
+                CountDownLatch g = gate;
+                if (g != null) g.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.getConfigForSubId(subId);
+        }
+
+        @Implementation
+        @Override
+        protected void overrideConfig(int subId, PersistableBundle overrides) {
+            SlowCarrierConfigManager.overrides.incrementAndGet();
+            PersistableBundle taken = new PersistableBundle(overrides);
+            if (taken.containsKey("carrier_mtu_int")) {
+                taken.putInt("carrier_mtu_int", Math.min(1500, taken.getInt("carrier_mtu_int")));
+            }
+            super.overrideConfig(subId, taken);
+        }
+    }
+}
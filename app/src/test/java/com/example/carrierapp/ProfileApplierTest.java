@@ -0,0 +1,240 @@
+package com.example.carrierapp;
+
+import android.content.ContentProviderResult;
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.os.PersistableBundle;
+import android.provider.Telephony;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ProfileApplierTest {
+
+    private static final int SUB = 2;
+    /** Bounds the polling for keys that never read back; no test waits on it to pass. */
+    private static final long VERIFY_TIMEOUT_MS = 50;
+
+    /** Records every step as "step done/total" and every timed operation by name. */
+    static final class RecordingListener implements ProfileApplier.Listener {
+        final List<String> progress = new ArrayList<>();
+        final List<String> timings = new ArrayList<>();
+
+        @Override
+        public void onProgress(String step, int done, int total) {
+            progress.add(step + " " + done + "/" + total);
+        }
+
+        @Override
+        public void onTiming(String operation, long elapsedNanos) {
+            assertTrue(operation, elapsedNanos >= 0);
+            timings.add(operation);
+        }
+    }
+
+    private final FakeConfigSource source = new FakeConfigSource();
+    private final OverrideBatchTest.RecordingOverrider overrider = new OverrideBatchTest.RecordingOverrider();
+    private final RecordingListener listener = new RecordingListener();
+    private FakeCarriersProvider provider;
+    private ProfileApplier applier;
+
+    @Before
+    public void setUp() {
+        provider = Robolectric.setupContentProvider(FakeCarriersProvider.class, ApnBatch.AUTHORITY);
+        ContentResolver resolver = RuntimeEnvironment.getApplication().getContentResolver();
+        source.put(SUB, FakeConfigSource.bundle(
+                "carrier_volte_available_bool", false,
+                "carrier_mtu_int", 1500,
+                "carrier_name_string", "Lab",
+                "carrier_plmns_string_array", new String[]{"310260"},
+                "carrier_unset_string", null));
+        // The platform merges the override into the config it serves; the MTU is clamped.
+        OverrideBatch.Overrider merging = (subId, overrides) -> {
+            overrider.overrideConfig(subId, overrides);
+            PersistableBundle merged = new PersistableBundle(source.configs.get(subId));
+            merged.putAll(overrides);
+            if (merged.getInt("carrier_mtu_int") > 1500) merged.putInt("carrier_mtu_int", 1500);
+            source.put(subId, merged);
+        };
+        applier = new ProfileApplier(source, merging, ApnBatch.target(resolver), listener, VERIFY_TIMEOUT_MS, 1);
+    }
+
+    @Test
+    public void sendsTheKeysThatFitAsOneOverrideAndCountsWhatTookEffect() throws Exception {
+        PersistableBundle profile = FakeConfigSource.bundle(
+                "carrier_volte_available_bool", true,
+                "carrier_mtu_int", 9000,
+                "carrier_name_string", 7,
+                "carrier_plmns_string_array", "310260",
+                "carrier_unset_string", "now set",
+                "carrier_new_key_int", 4);
+
+        ProfileApplier.Result result = applier.apply(SUB, profile, null, false);
+
+        assertEquals(1, overrider.calls.size());
+        PersistableBundle sent = overrider.calls.get(0);
+        assertEquals(new HashSet<>(Arrays.asList("carrier_volte_available_bool", "carrier_mtu_int",
+                "carrier_unset_string", "carrier_new_key_int")), sent.keySet());
+        assertEquals(4, result.keysApplied);
+        // The clamped MTU did not take effect.
+        assertEquals(3, result.keysVerified);
+        assertEquals(Arrays.asList(
+                "carrier_name_string is string, not int",
+                "carrier_plmns_string_array is string[], not string"), result.rejected);
+        assertEquals(0, result.apnsWritten);
+        assertEquals(Arrays.asList("getConfigForSubId", "validate", "overrideConfig", "verify"), listener.timings);
+        assertEquals(Arrays.asList("validate 6/6", "override 4/4", "verify 3/4"), listener.progress);
+    }
+
+    @Test
+    public void verifyPollsUntilTheOverrideIsServed() throws Exception {
+        // The override lands only on the third read after it is sent, as when the
+        // platform applies it asynchronously.
+        PendingOverrides pending = new PendingOverrides(3);
+        ProfileApplier deferred = new ProfileApplier(pending, pending, ApnBatch.target(
+                RuntimeEnvironment.getApplication().getContentResolver()), listener, 60_000, 1);
+        ProfileApplier.Result result = deferred.apply(SUB,
+                FakeConfigSource.bundle("carrier_volte_available_bool", true, "carrier_mtu_int", 1400), null, false);
+
+        assertEquals(2, result.keysVerified);
+        assertEquals(3, pending.readsSinceOverride);
+        assertEquals(Arrays.asList("validate 2/2", "override 2/2", "verify 2/2"), listener.progress);
+    }
+
+    @Test
+    public void verifyGivesUpAtTheTimeoutWithWhatReadBack() throws Exception {
+        PendingOverrides pending = new PendingOverrides(Integer.MAX_VALUE);
+        ProfileApplier deferred = new ProfileApplier(pending, pending, ApnBatch.target(
+                RuntimeEnvironment.getApplication().getContentResolver()), listener, VERIFY_TIMEOUT_MS, 1);
+        ProfileApplier.Result result = deferred.apply(SUB,
+                FakeConfigSource.bundle("carrier_volte_available_bool", true), null, false);
+
+        assertEquals(1, result.keysApplied);
+        assertEquals(0, result.keysVerified);
+        assertTrue(pending.readsSinceOverride > 1);
+        assertEquals("verify 0/1", listener.progress.get(listener.progress.size() - 1));
+    }
+
+    @Test
+    public void dryRunOnlyReadsAndValidates() throws Exception {
+        PersistableBundle profile = FakeConfigSource.bundle("carrier_mtu_int", "1400", "carrier_volte_available_bool", true);
+        ProfileApplier.Result result = applier.apply(SUB, profile, apns(3), true);
+
+        assertEquals(0, overrider.calls.size());
+        assertEquals(0, provider.roundTrips());
+        assertEquals(1, source.fetches.get());
+        assertEquals(0, result.keysApplied);
+        assertEquals(Collections.singletonList("carrier_mtu_int is int, not string"), result.rejected);
+    }
+
+    @Test
+    public void apnsGoOutAsOneBatchForTheSubscription() throws Exception {
+        ProfileApplier.Result result = applier.apply(SUB, new PersistableBundle(), apns(20), false);
+
+        assertEquals(20, result.apnsWritten);
+        assertEquals(1, provider.roundTrips());
+        assertEquals(20, provider.rows.size());
+        assertEquals("lab19", provider.rows.get(19).getAsString(Telephony.Carriers.APN));
+        // Nothing to override, so no override and no verify read.
+        assertEquals(0, overrider.calls.size());
+        assertEquals(1, source.fetches.get());
+        assertTrue(listener.progress.contains("apn 20/20"));
+    }
+
+    @Test
+    public void apnBatchTargetsTheCarriersAuthority() throws Exception {
+        List<String> authorities = new ArrayList<>();
+        ApnBatch.BatchTarget recording = (authority, operations) -> {
+            authorities.add(authority);
+            assertEquals(2, operations.size());
+            assertEquals(ApnBatch.carriersUri(SUB), operations.get(0).getUri());
+            return new ContentProviderResult[operations.size()];
+        };
+        ProfileApplier direct = new ProfileApplier(source, overrider, recording, listener);
+        assertEquals(2, direct.apply(SUB, new PersistableBundle(), apns(2), false).apnsWritten);
+        assertEquals(Collections.singletonList(ApnBatch.AUTHORITY), authorities);
+    }
+
+    @Test
+    public void missingLiveConfigAcceptsEveryKey() throws Exception {
+        source.configs.remove(SUB);
+        ProfileApplier.Result result = applier.apply(SUB, FakeConfigSource.bundle("carrier_mtu_int", "text"), null, true);
+        assertTrue(result.rejected.isEmpty());
+    }
+
+    @Test
+    public void validationReportsProgressInSteps() throws Exception {
+        PersistableBundle profile = new PersistableBundle();
+        for (int i = 0; i < 120; i++) profile.putInt("carrier_key_" + i + "_int", i);
+        applier.apply(SUB, profile, null, true);
+        assertEquals(Arrays.asList("validate 50/120", "validate 100/120", "validate 120/120"), listener.progress);
+    }
+
+    @Test
+    public void unprivilegedSubscriptionIsRefusedBeforeAnyCall() throws Exception {
+        source.privileged = false;
+        try {
+            applier.apply(SUB, FakeConfigSource.bundle("carrier_mtu_int", 1400), apns(1), false);
+            fail();
+        } catch (SecurityException expected) {
+            assertEquals(0, source.fetches.get());
+            assertEquals(0, overrider.calls.size());
+            assertEquals(0, provider.roundTrips());
+        }
+    }
+
+    /** Serves {@link #source}'s config, and merges an override in only after {@code lag} reads. */
+    private final class PendingOverrides implements ConfigLoader.ConfigSource, OverrideBatch.Overrider {
+        final int lag;
+        PersistableBundle pending;
+        int readsSinceOverride;
+
+        PendingOverrides(int lag) {
+            this.lag = lag;
+        }
+
+        @Override
+        public PersistableBundle getConfigForSubId(int subId) {
+            if (pending != null && ++readsSinceOverride == lag) {
+                PersistableBundle merged = new PersistableBundle(source.configs.get(subId));
+                merged.putAll(pending);
+                source.put(subId, merged);
+            }
+            return source.getConfigForSubId(subId);
+        }
+
+        @Override
+        public void overrideConfig(int subId, PersistableBundle overrides) {
+            pending = overrides;
+        }
+    }
+
+    private static List<ContentValues> apns(int count) {
+        List<ContentValues> out = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ContentValues values = new ContentValues();
+            values.put(Telephony.Carriers.NAME, "Lab " + i);
+            values.put(Telephony.Carriers.APN, "lab" + i);
+            values.put(Telephony.Carriers.TYPE, "default");
+            out.add(values);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.carrierapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class QuerySyntaxTest {
+
+    @Test
+    public void tokenizesOnWhitespaceAndKeepsQuotedRuns() {
+        String[][] table = {
+                {"", ""},
+                {"   ", ""},
+                {"ims", "ims"},
+                {"  type:bool\tvalue:false \n ims ", "type:bool|value:false|ims"},
+                {"value:\"T-Mobile US\" key:name", "value:T-Mobile US|key:name"},
+                {"\"two words\"", "two words"},
+                {"a\"b c\"d", "ab cd"},
+                {"\"\"", ""},
+                {"\"unclosed quote runs on", "unclosed quote runs on"},
+        };
+        for (String[] row : table) {
+            assertEquals(row[0], row[1], String.join("|", QuerySyntax.tokenize(row[0])));
+        }
+    }
+
+    @Test
+    public void parsesFieldsAliasesAndNegation() {
+        String[][] table = {
+                {"ims", "ims"},
+                {"IMS", "ims"},
+                {"key:VoLTE", "key:volte"},
+                {"k:volte", "key:volte"},
+                {"TYPE:Bool", "type:bool"},
+                {"t:int", "type:int"},
+                {"v:>=3000", "value:>=3000"},
+                {"value:", "value:"},
+                {"-type:string", "-type:string"},
+                {"-ims", "-key:ims"},
+                {"-", "-"},
+                {"--x", "-key:-x"},
+                {"foo:bar", "foo:bar"},
+                {"-foo:bar", "-key:foo:bar"},
+                {":volte", ":volte"},
+                {"key:a:b", "key:a:b"},
+                {"type:bool value:false ims", "type:bool|value:false|ims"},
+        };
+        for (String[] row : table) {
+            List<String> clauses = new ArrayList<>();
+            for (QuerySyntax.Clause c : QuerySyntax.parse(row[0])) clauses.add(c.toString());
+            assertEquals(row[0], row[1], String.join("|", clauses));
+        }
+    }
+
+    @Test
+    public void bareTermsHaveNoField() {
+        List<QuerySyntax.Clause> clauses = QuerySyntax.parse("volte -wfc key:ims");
+        assertEquals(3, clauses.size());
+        assertNull(clauses.get(0).field);
+        assertFalse(clauses.get(0).negate);
+        assertEquals(QuerySyntax.FIELD_KEY, clauses.get(1).field);
+        assertTrue(clauses.get(1).negate);
+        assertEquals("wfc", clauses.get(1).arg);
+        assertEquals(Collections.emptyList(), QuerySyntax.parse(" "));
+    }
+
+    @Test
+    public void resolvesTypeAliases() {
+        List<String> in = Arrays.asList("boolean", "bool", "str", "string", "num", "number", "array", "int[]");
+        List<String> out = Arrays.asList("bool", "bool", "string", "string", "number", "number", "array", "int[]");
+        for (int i = 0; i < in.size(); i++) assertEquals(in.get(i), out.get(i), QuerySyntax.typeName(in.get(i)));
+    }
+
+    @Test
+    public void parsesValueComparisons() {
+        assertNull(QuerySyntax.comparison("3000"));
+        assertNull(QuerySyntax.comparison("true"));
+
+        Object[][] table = {
+                // arg, op, numeric, target, {values that pass}, {values that fail}
+                {">3000", ">", true, 3000.0, new double[]{3000.5, 1e9}, new double[]{3000, -1}},
+                {">=3000", ">=", true, 3000.0, new double[]{3000, 3001}, new double[]{2999.9}},
+                {"<-5", "<", true, -5.0, new double[]{-6}, new double[]{-5, 0}},
+                {"<=0.5", "<=", true, 0.5, new double[]{0.5, -1}, new double[]{0.51}},
+                {"=42", "=", true, 42.0, new double[]{42}, new double[]{41, 43}},
+                {"=1e3", "=", true, 1000.0, new double[]{1000}, new double[]{1}},
+        };
+        for (Object[] row : table) {
+            String arg = (String) row[0];
+            QuerySyntax.Comparison c = QuerySyntax.comparison(arg);
+            assertEquals(arg, row[1], c.op);
+            assertEquals(arg, row[2], c.numeric);
+            assertEquals(arg, (Double) row[3], c.target, 0);
+            for (double v : (double[]) row[4]) assertTrue(arg + " passes " + v, c.test(v));
+            for (double v : (double[]) row[5]) assertFalse(arg + " fails " + v, c.test(v));
+        }
+
+        QuerySyntax.Comparison text = QuerySyntax.comparison("=t-mobile");
+        assertFalse(text.numeric);
+        assertEquals("t-mobile", text.operand);
+        QuerySyntax.Comparison empty = QuerySyntax.comparison(">=");
+        assertFalse(empty.numeric);
+        assertEquals("", empty.operand);
+    }
+}
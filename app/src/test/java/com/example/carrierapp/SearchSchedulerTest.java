@@ -0,0 +1,118 @@
+package com.example.carrierapp;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SearchSchedulerTest {
+
+    private static final long DEBOUNCE_MS = 150;
+
+    private final FakeDelayer clock = new FakeDelayer();
+    private final QueueExecutor worker = new QueueExecutor();
+    private final List<String> searched = new ArrayList<>();
+    private final List<String> delivered = new ArrayList<>();
+    private final SearchScheduler<String> scheduler =
+            new SearchScheduler<>(clock, worker, Runnable::run, DEBOUNCE_MS);
+
+    private void type(String query) {
+        scheduler.submit(query, q -> {
+            searched.add(q);
+            return "result:" + q;
+        }, (q, result) -> delivered.add(result));
+    }
+
+    @Test
+    public void nothingRunsBeforeTheDebounceWindow() {
+        type("ims");
+        clock.advance(DEBOUNCE_MS - 1);
+        assertEquals(0, worker.size());
+        clock.advance(1);
+        worker.runAll();
+        assertEquals(Collections.singletonList("ims"), searched);
+        assertEquals(Collections.singletonList("result:ims"), delivered);
+    }
+
+    @Test
+    public void burstOfKeystrokesRunsOnlyTheLatestQuery() {
+        for (String q : new String[]{"i", "im", "ims", "ims_", "ims_e"}) {
+            type(q);
+            clock.advance(DEBOUNCE_MS / 3);
+        }
+        clock.advance(DEBOUNCE_MS);
+        worker.runAll();
+        assertEquals(Collections.singletonList("ims_e"), searched);
+        assertEquals(Collections.singletonList("result:ims_e"), delivered);
+    }
+
+    @Test
+    public void clearingTheQueryIsNotDebounced() {
+        type("ims");
+        type("");
+        clock.advance(0);
+        worker.runAll();
+        assertEquals(Collections.singletonList(""), searched);
+    }
+
+    @Test
+    public void slowerEarlierResultNeverOverwritesANewerOne() {
+        type("old");
+        clock.advance(DEBOUNCE_MS);
+        // "old" is queued on the worker but has not run; a newer query arrives.
+        type("new");
+        clock.advance(DEBOUNCE_MS);
+        worker.runAll();
+        assertEquals(Collections.singletonList("result:new"), delivered);
+        assertTrue(searched.contains("new"));
+    }
+
+    @Test
+    public void resultFinishingAfterANewerSubmitIsDropped() {
+        QueueExecutor results = new QueueExecutor();
+        SearchScheduler<String> s = new SearchScheduler<>(clock, worker, results, DEBOUNCE_MS);
+        s.submit("old", q -> q, (q, r) -> delivered.add(r));
+        clock.advance(DEBOUNCE_MS);
+        worker.runAll();
+        // The result is on its way to the UI thread when the user types again.
+        s.submit("new", q -> q, (q, r) -> delivered.add(r));
+        results.runAll();
+        assertTrue(delivered.isEmpty());
+    }
+
+    @Test
+    public void cancelDropsThePendingQuery() {
+        type("ims");
+        scheduler.cancel();
+        clock.advance(DEBOUNCE_MS * 2);
+        worker.runAll();
+        assertTrue(searched.isEmpty());
+        assertEquals(0, clock.pendingCount());
+    }
+
+    /** Runs tasks only when told to, so tests control interleaving. */
+    static final class QueueExecutor implements Executor {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        int size() {
+            return tasks.size();
+        }
+
+        void runAll() {
+            Runnable r;
+            while ((r = tasks.poll()) != null) r.run();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.carrierapp;
+
+import android.os.PersistableBundle;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class SnapshotCodecTest {
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void everyValueTypeRoundTrips() throws IOException {
+        PersistableBundle nested = FakeConfigSource.bundle(
+                "ims_inner_int", 7,
+                "ims_inner_strings", new String[]{"a"});
+        PersistableBundle original = FakeConfigSource.bundle(
+                "carrier_null_string", null,
+                "carrier_bool", true,
+                "carrier_int", -140,
+                "carrier_long", Long.MIN_VALUE,
+                "carrier_double", -0.5,
+                "carrier_string", "Ünïcødé ☃",
+                "carrier_bool_array", new boolean[]{true, false},
+                "carrier_int_array", new int[]{Integer.MIN_VALUE, 0, Integer.MAX_VALUE},
+                "carrier_long_array", new long[]{-1, Long.MAX_VALUE},
+                "carrier_double_array", new double[]{Double.NaN, Double.NEGATIVE_INFINITY, 1e300},
+                "carrier_string_array", new String[]{"310260", null, ""},
+                "carrier_empty_ints", new int[0],
+                "carrier_bundle", nested,
+                "nounderscore", 1,
+                "trailing_", 2);
+        original.putPersistableBundle("carrier_empty_bundle", new PersistableBundle());
+
+        PersistableBundle copy = decode(encode(original));
+        assertEquals(original.keySet(), copy.keySet());
+        for (String key : original.keySet()) {
+            assertTrue(key, ConfigSnapshot.valuesEqual(original.get(key), copy.get(key)));
+        }
+        assertTrue(copy.containsKey("carrier_null_string"));
+        assertNull(copy.get("carrier_null_string"));
+        assertEquals(7, copy.getPersistableBundle("carrier_bundle").getInt("ims_inner_int"));
+    }
+
+    @Test
+    public void sharedPrefixesAreStoredOnce() throws IOException {
+        PersistableBundle config = new PersistableBundle();
+        for (int i = 0; i < 100; i++) config.putBoolean("carrier_volte_key_" + i, true);
+        byte[] data = encode(config);
+        // "carrier_" spelled out once in the table, not once per key.
+        String text = new String(data, StandardCharsets.ISO_8859_1);
+        assertEquals(text.indexOf("carrier_"), text.lastIndexOf("carrier_"));
+        assertEquals(100, decode(data).size());
+    }
+
+    @Test
+    public void rejectsForeignAndTruncatedFiles() throws IOException {
+        expectFailure("JSON export", "{\"a\":1}".getBytes(StandardCharsets.UTF_8), "Not a config snapshot");
+        byte[] future = encode(FakeConfigSource.bundle("a", 1));
+        future[4] = (byte) (SnapshotCodec.VERSION + 1);
+        expectFailure("newer version", future, "Unsupported snapshot version");
+
+        byte[] whole = encode(FakeConfigSource.bundle("carrier_a", new int[]{1, 2, 3}, "carrier_b", "x"));
+        for (int cut = 5; cut < whole.length; cut++) {
+            byte[] truncated = java.util.Arrays.copyOf(whole, cut);
+            try {
+                decode(truncated);
+                fail("decoded a file cut at " + cut + " of " + whole.length);
+            } catch (IOException expected) {
+                // Every cut must fail cleanly.
+            }
+        }
+    }
+
+    @Test
+    public void hostileLengthsFailWithoutAllocating() throws IOException {
+        // A header, then one key whose int[] claims 2^24 entries with nothing after it.
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        SnapshotStreams.Out out = new SnapshotStreams.Out(Channels.newChannel(sink));
+        out.bytes(new byte[]{'C', 'C', 'S', 'N'});
+        out.u8(SnapshotCodec.VERSION);
+        out.varint(0);
+        out.varint(1);
+        out.varint(0);
+        out.string("k");
+        out.u8(ConfigValues.TYPE_INT_ARRAY);
+        out.varint(SnapshotStreams.MAX_LENGTH);
+        out.flush();
+        File file = tmp.newFile();
+        try (FileOutputStream stream = new FileOutputStream(file)) {
+            stream.write(sink.toByteArray());
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            SnapshotCodec.read(channel);
+            fail("accepted a length past the end of the file");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("runs past the end"));
+        }
+        // A 64 MB int[] would show up here; the check runs before the allocation.
+        assertTrue(runtime.totalMemory() - runtime.freeMemory() - before < 32L << 20);
+    }
+
+    @Test
+    public void interruptedCacheReadKeepsTheEntry() {
+        File dir = new File(tmp.getRoot(), "cache");
+        new ConfigCache(dir).put(1, 1, FakeConfigSource.bundle("a", 1));
+        File entry = new File(dir, ConfigCache.key(1, 1));
+        assertTrue(entry.isFile());
+
+        // What ConfigLoader's cancel(true) does to a worker mid-read.
+        Thread.currentThread().interrupt();
+        assertNull(new ConfigCache(dir).get(1, 1));
+        assertTrue("interrupt was swallowed", Thread.interrupted());
+        assertTrue("interrupted read deleted a good entry", entry.isFile());
+
+        PersistableBundle hit = new ConfigCache(dir).get(1, 1);
+        assertNotNull(hit);
+        assertEquals(1, hit.getInt("a"));
+    }
+
+    @Test
+    public void smallerThanJson() throws Exception {
+        PersistableBundle config = syntheticConfig(5_000);
+        byte[] binary = encode(config);
+        byte[] json = toJson(config).toString().getBytes(StandardCharsets.UTF_8);
+        assertEquals(config.size(), decode(binary).size());
+        assertEquals(config.size(), fromJson(new JSONObject(new String(json, StandardCharsets.UTF_8))).size());
+        // Keys dominate both encodings; the prefix table and varints still save over a tenth.
+        assertTrue("binary " + binary.length + " B vs JSON " + json.length + " B",
+                binary.length * 10L < json.length * 9L);
+    }
+
+    private static byte[] encode(PersistableBundle bundle) throws IOException {
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        SnapshotCodec.write(bundle, Channels.newChannel(sink));
+        return sink.toByteArray();
+    }
+
+    private static PersistableBundle decode(byte[] data) throws IOException {
+        return SnapshotCodec.read(Channels.newChannel(new ByteArrayInputStream(data)));
+    }
+
+    private static void expectFailure(String what, byte[] data, String message) {
+        try {
+            decode(data);
+            fail("decoded " + what);
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().startsWith(message));
+        }
+    }
+
+    /** Key shapes and value mix of a device config, as in bench/SyntheticConfig. */
+    static PersistableBundle syntheticConfig(int size) {
+        String[] prefixes = {"carrier_", "ims_", "volte_", "mms_", "wfc_", "nr_", "sms_", "data_"};
+        String[] words = {"enable", "supported", "timer", "threshold", "rsrp", "plmn", "allow", "mode",
+                "prefer", "wifi", "lte", "voice", "video", "display", "signal"};
+        Random random = new Random(42);
+        PersistableBundle config = new PersistableBundle();
+        while (config.size() < size) {
+            StringBuilder key = new StringBuilder(prefixes[random.nextInt(prefixes.length)]);
+            for (int w = 2 + random.nextInt(4); w > 0; w--) {
+                key.append(words[random.nextInt(words.length)]).append('_');
+            }
+            key.append(config.size());
+            int roll = random.nextInt(100);
+            String k = key.toString();
+            if (roll < 45) config.putBoolean(k, random.nextBoolean());
+            else if (roll < 65) config.putInt(k, random.nextInt(100_000) - 1_000);
+            else if (roll < 72) config.putLong(k, random.nextLong());
+            else if (roll < 87) config.putString(k, "value_" + Integer.toHexString(random.nextInt()));
+            else if (roll < 94) config.putIntArray(k, new int[]{-140, -110, -90, -44});
+            else config.putStringArray(k, new String[]{"310260", "310410", "311480"});
+        }
+        return config;
+    }
+
+    /** The plain JSON export a profile would otherwise use: values untagged, arrays as arrays. */
+    private static JSONObject toJson(PersistableBundle bundle) throws JSONException {
+        JSONObject json = new JSONObject();
+        for (String key : bundle.keySet()) {
+            Object value = bundle.get(key);
+            if (value instanceof PersistableBundle) json.put(key, toJson((PersistableBundle) value));
+            else if (value != null && value.getClass().isArray()) json.put(key, new JSONArray(value));
+            else json.put(key, value != null ? value : JSONObject.NULL);
+        }
+        return json;
+    }
+
+    private static PersistableBundle fromJson(JSONObject json) throws JSONException {
+        PersistableBundle bundle = new PersistableBundle();
+        for (Iterator<String> it = json.keys(); it.hasNext(); ) {
+            String key = it.next();
+            Object value = json.get(key);
+            if (value instanceof JSONArray) {
+                JSONArray array = (JSONArray) value;
+                if (array.length() > 0 && array.get(0) instanceof String) {
+                    String[] strings = new String[array.length()];
+                    for (int i = 0; i < strings.length; i++) strings[i] = array.getString(i);
+                    bundle.putStringArray(key, strings);
+                } else {
+                    int[] ints = new int[array.length()];
+                    for (int i = 0; i < ints.length; i++) ints[i] = array.getInt(i);
+                    bundle.putIntArray(key, ints);
+                }
+            } else if (value instanceof Boolean) {
+                bundle.putBoolean(key, (Boolean) value);
+            } else if (value instanceof Integer) {
+                bundle.putInt(key, (Integer) value);
+            } else if (value instanceof Long) {
+                bundle.putLong(key, (Long) value);
+            } else {
+                bundle.putString(key, String.valueOf(value));
+            }
+        }
+        return bundle;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.carrierapp;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SnapshotStreamsTest {
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private interface Writes {
+        void to(SnapshotStreams.Out out) throws IOException;
+    }
+
+    @Test
+    public void zigzagMapsSmallMagnitudesToSmallCodes() {
+        long[][] table = {
+                {0, 0}, {-1, 1}, {1, 2}, {-2, 3}, {2, 4},
+                {Integer.MAX_VALUE, 4294967294L}, {Integer.MIN_VALUE, 4294967295L},
+                {Long.MAX_VALUE, -2}, {Long.MIN_VALUE, -1},
+        };
+        for (long[] row : table) {
+            assertEquals("encode " + row[0], row[1], SnapshotStreams.zigzagEncode(row[0]));
+            assertEquals("decode " + row[1], row[0], SnapshotStreams.zigzagDecode(row[1]));
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            long v = random.nextLong();
+            assertEquals(v, SnapshotStreams.zigzagDecode(SnapshotStreams.zigzagEncode(v)));
+        }
+    }
+
+    @Test
+    public void varintsUseSevenBitGroupsLowFirst() throws IOException {
+        assertArrayEquals(new byte[]{0}, bytes(out -> out.varint(0)));
+        assertArrayEquals(new byte[]{0x7F}, bytes(out -> out.varint(127)));
+        assertArrayEquals(new byte[]{(byte) 0x80, 0x01}, bytes(out -> out.varint(128)));
+        assertArrayEquals(new byte[]{(byte) 0xAC, 0x02}, bytes(out -> out.varint(300)));
+        assertEquals(10, bytes(out -> out.varint(-1)).length);
+        // -1 as a zigzag int costs one byte, not the ten a raw varint would.
+        assertArrayEquals(new byte[]{0x01}, bytes(out -> out.zigzag(-1)));
+    }
+
+    @Test
+    public void primitivesRoundTrip() throws IOException {
+        long[] values = {0, 1, -1, 63, -64, 64, 300, -300, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                Long.MAX_VALUE, Long.MIN_VALUE};
+        SnapshotStreams.In in = reader(bytes(out -> {
+            for (long v : values) {
+                out.varint(v);
+                out.zigzag(v);
+                out.fixed64(v);
+            }
+            out.string("");
+            out.string("ims_été ☃");
+            out.nullableString(null);
+            out.nullableString("");
+            out.u8(0xFE);
+        }));
+        for (long v : values) {
+            assertEquals(v, in.varint());
+            assertEquals(v, in.zigzag());
+            assertEquals(v, in.fixed64());
+        }
+        assertEquals("", in.string());
+        assertEquals("ims_été ☃", in.string());
+        assertNull(in.nullableString());
+        assertEquals("", in.nullableString());
+        assertEquals(0xFE, in.u8());
+    }
+
+    @Test
+    public void valuesSpanningTheBufferEdgeRoundTrip() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < SnapshotStreams.BUFFER_SIZE * 2 + 17) sb.append("carrier_config_");
+        String big = sb.toString();
+        byte[] data = bytes(out -> {
+            // Offsets chosen so later varints and words straddle the 64 KB boundary.
+            for (int i = 0; i < SnapshotStreams.BUFFER_SIZE - 3; i++) out.u8(i);
+            out.fixed64(0x0102030405060708L);
+            out.varint(Long.MAX_VALUE);
+            out.string(big);
+            out.varint(1);
+        });
+        File file = write(data);
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            SnapshotStreams.In in = new SnapshotStreams.In(channel);
+            for (int i = 0; i < SnapshotStreams.BUFFER_SIZE - 3; i++) assertEquals(i & 0xff, in.u8());
+            assertEquals(0x0102030405060708L, in.fixed64());
+            assertEquals(Long.MAX_VALUE, in.varint());
+            assertEquals(big, in.string());
+            assertEquals(1, in.varint());
+        }
+    }
+
+    @Test
+    public void lengthsPastTheEndOfAFileFailBeforeAllocating() throws IOException {
+        // Claims 10 million doubles with 3 bytes behind it.
+        File file = write(bytes(out -> {
+            out.varint(10_000_000);
+            out.u8(1);
+            out.u8(2);
+            out.u8(3);
+        }));
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            new SnapshotStreams.In(channel).length(8);
+            fail("oversized length accepted");
+        } catch (EOFException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("10000000"));
+        }
+
+        // A string that ends exactly at the end of the file is fine.
+        file = write(bytes(out -> out.nullableString("last")));
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            assertEquals("last", new SnapshotStreams.In(channel).nullableString());
+        }
+    }
+
+    @Test
+    public void lengthsFromUnsizedStreamsAreCapped() throws IOException {
+        SnapshotStreams.In in = reader(bytes(out -> out.varint(SnapshotStreams.MAX_LENGTH + 1L)));
+        try {
+            in.length(1);
+            fail("length over the cap accepted");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().startsWith("Bad length"));
+        }
+        assertEquals(SnapshotStreams.MAX_LENGTH,
+                reader(bytes(out -> out.varint(SnapshotStreams.MAX_LENGTH))).length(1));
+    }
+
+    @Test
+    public void malformedAndTruncatedInputFailsWithIOException() throws IOException {
+        byte[] endless = new byte[11];
+        java.util.Arrays.fill(endless, (byte) 0x80);
+        try {
+            reader(endless).varint();
+            fail("eleven continuation bytes accepted");
+        } catch (IOException expected) {
+            assertEquals("Malformed varint", expected.getMessage());
+        }
+        try {
+            reader(new byte[]{1, 2, 3}).fixed64();
+            fail("short fixed64 accepted");
+        } catch (EOFException expected) {
+            // Truncated.
+        }
+        try {
+            reader(bytes(out -> out.varint(5))).string();
+            fail("string with no bytes accepted");
+        } catch (EOFException expected) {
+            // Truncated.
+        }
+    }
+
+    private static byte[] bytes(Writes writes) throws IOException {
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        SnapshotStreams.Out out = new SnapshotStreams.Out(Channels.newChannel(sink));
+        writes.to(out);
+        out.flush();
+        return sink.toByteArray();
+    }
+
+    /** An unsized stream, the way a content URI is read. */
+    private static SnapshotStreams.In reader(byte[] data) {
+        return new SnapshotStreams.In(Channels.newChannel(new ByteArrayInputStream(data)));
+    }
+
+    private File write(byte[] data) throws IOException {
+        File file = tmp.newFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(data);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.carrierapp;
+
+import android.os.PersistableBundle;
+
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ValueCodecsTest {
+
+    @Test
+    public void everyTypeRoundTripsThroughItsText() {
+        PersistableBundle nested = FakeConfigSource.bundle(
+                "inner_int", 5,
+                "inner_null", null,
+                "inner_strings", new String[]{"a", null});
+        Object[] values = {
+                true, false,
+                0, Integer.MIN_VALUE, Integer.MAX_VALUE,
+                Long.MIN_VALUE, 1L,
+                0.0, -1.5, 1e300, Double.NaN, Double.POSITIVE_INFINITY,
+                "", "plain", "with, comma", "[looks like an array]", "Ünïcødé",
+                new boolean[]{true, false}, new boolean[0],
+                new int[]{-140, 0, 44}, new int[0],
+                new long[]{Long.MAX_VALUE, -1},
+                new double[]{0.5, -2.0, Double.NEGATIVE_INFINITY},
+                new String[]{"310260", null, "", "a, b", "\"quoted\""}, new String[0],
+                nested, new PersistableBundle(),
+        };
+        for (Object value : values) {
+            byte type = ConfigValues.typeOf(value);
+            String text = ValueCodecs.format(value);
+            Object parsed = ValueCodecs.parse(type, text);
+            String what = ConfigValues.typeName(type) + " " + text;
+            assertEquals(what, type, ConfigValues.typeOf(parsed));
+            assertTrue(what, ConfigSnapshot.valuesEqual(value, parsed));
+        }
+    }
+
+    @Test
+    public void acceptsHandWrittenText() {
+        Object[][] table = {
+                // type, text, expected
+                {ConfigValues.TYPE_BOOLEAN, " True ", true},
+                {ConfigValues.TYPE_INT, " 1400 ", 1400},
+                {ConfigValues.TYPE_LONG, "-5", -5L},
+                {ConfigValues.TYPE_DOUBLE, "1e3", 1000.0},
+                {ConfigValues.TYPE_STRING, "  spaces kept  ", "  spaces kept  "},
+                {ConfigValues.TYPE_BOOLEAN_ARRAY, "true,false", new boolean[]{true, false}},
+                {ConfigValues.TYPE_INT_ARRAY, "[ -140 , -110 ]", new int[]{-140, -110}},
+                {ConfigValues.TYPE_LONG_ARRAY, "[]", new long[0]},
+                {ConfigValues.TYPE_DOUBLE_ARRAY, "[.5, 2]", new double[]{0.5, 2.0}},
+                {ConfigValues.TYPE_STRING_ARRAY, " [\"a\", null] ", new String[]{"a", null}},
+                {ConfigValues.TYPE_BUNDLE, "{\"k\": {\"type\": \"int[]\", \"value\": \"[1, 2]\"}}",
+                        FakeConfigSource.bundle("k", new int[]{1, 2})},
+        };
+        for (Object[] row : table) {
+            byte type = (Byte) row[0];
+            Object parsed = ValueCodecs.parse(type, (String) row[1]);
+            assertTrue(ConfigValues.typeName(type) + " " + row[1], ConfigSnapshot.valuesEqual(row[2], parsed));
+        }
+    }
+
+    @Test
+    public void nestedBundlesAreNestedObjects() throws Exception {
+        PersistableBundle inner = FakeConfigSource.bundle("inner_int", 5, "inner_bool", true);
+        PersistableBundle outer = FakeConfigSource.bundle("plain_string", "x", "nested_bundle", inner);
+        JSONObject json = new JSONObject(ValueCodecs.format(outer));
+        JSONObject nested = json.getJSONObject("nested_bundle");
+        assertEquals("bundle", nested.getString("type"));
+        assertEquals("5", nested.getJSONObject("value").getJSONObject("inner_int").getString("value"));
+        assertTrue(ConfigSnapshot.valuesEqual(outer, ValueCodecs.parse(ConfigValues.TYPE_BUNDLE, json.toString())));
+
+        // Text saved before nesting, with the inner bundle as an escaped string, still reads.
+        String legacy = "{\"b\": {\"type\": \"bundle\", "
+                + "\"value\": \"{\\\"inner_int\\\": {\\\"type\\\": \\\"int\\\", \\\"value\\\": \\\"5\\\"}}\"}}";
+        Object parsed = ValueCodecs.parse(ConfigValues.TYPE_BUNDLE, legacy);
+        assertTrue(legacy, ConfigSnapshot.valuesEqual(FakeConfigSource.bundle("b",
+                FakeConfigSource.bundle("inner_int", 5)), parsed));
+    }
+
+    @Test
+    public void rejectsBadTextForEveryType() {
+        Object[][] table = {
+                {ConfigValues.TYPE_BOOLEAN, "1"},
+                {ConfigValues.TYPE_INT, "1.5"},
+                {ConfigValues.TYPE_INT, "99999999999"},
+                {ConfigValues.TYPE_LONG, "ten"},
+                {ConfigValues.TYPE_DOUBLE, "1f"},
+                {ConfigValues.TYPE_DOUBLE, "0x1p3"},
+                {ConfigValues.TYPE_BOOLEAN_ARRAY, "[true, maybe]"},
+                {ConfigValues.TYPE_INT_ARRAY, "[1, , 2]"},
+                {ConfigValues.TYPE_LONG_ARRAY, "[1.0]"},
+                {ConfigValues.TYPE_DOUBLE_ARRAY, "[1d]"},
+                {ConfigValues.TYPE_STRING_ARRAY, "[\"a\", 1]"},
+                {ConfigValues.TYPE_STRING_ARRAY, "a, b"},
+                {ConfigValues.TYPE_BUNDLE, "{\"k\": {\"type\": \"float\", \"value\": \"1\"}}"},
+                {ConfigValues.TYPE_BUNDLE, "{\"k\": {\"type\": \"int\", \"value\": \"x\"}}"},
+                {ConfigValues.TYPE_BUNDLE, "not json"},
+                {ConfigValues.TYPE_BUNDLE, "{\"b\": {\"type\": \"bundle\", \"value\": 5}}"},
+                {ConfigValues.TYPE_NULL, "null"},
+                {ConfigValues.TYPE_OTHER, "x"},
+        };
+        for (Object[] row : table) {
+            byte type = (Byte) row[0];
+            try {
+                ValueCodecs.parse(type, (String) row[1]);
+                fail(ConfigValues.typeName(type) + " accepted " + row[1]);
+            } catch (IllegalArgumentException expected) {
+                // Rejected before staging.
+            }
+        }
+    }
+
+    @Test
+    public void typeMismatchNamesBothTypes() {
+        PersistableBundle live = FakeConfigSource.bundle(
+                "carrier_mtu_int", 1500,
+                "carrier_plmns_string_array", new String[]{"310260"},
+                "carrier_unset_string", null);
+        Object[][] table = {
+                // key, value, reason or null
+                {"carrier_mtu_int", 1400, null},
+                {"carrier_mtu_int", 1400L, "carrier_mtu_int is int, not long"},
+                {"carrier_mtu_int", "1400", "carrier_mtu_int is int, not string"},
+                {"carrier_mtu_int", null, null},
+                {"carrier_plmns_string_array", new String[0], null},
+                {"carrier_plmns_string_array", "310260", "carrier_plmns_string_array is string[], not string"},
+                {"carrier_unset_string", 5, null},
+                {"carrier_absent_bool", "anything", null},
+        };
+        for (Object[] row : table) {
+            String key = (String) row[0];
+            assertEquals(key + " " + row[1], row[2], ValueCodecs.typeMismatch(live, key, row[1]));
+        }
+        assertEquals("k is bool, not int", ValueCodecs.typeMismatch("k", ConfigValues.TYPE_BOOLEAN, 1));
+        assertNull(ValueCodecs.typeMismatch("k", ConfigValues.TYPE_NULL, 1));
+    }
+
+    @Test
+    public void typeNamesResolveBackToTags() {
+        for (byte type = ConfigValues.TYPE_BOOLEAN; type <= ConfigValues.TYPE_BUNDLE; type++) {
+            assertEquals(type, ValueCodecs.typeForName(ConfigValues.typeName(type)));
+        }
+        assertEquals(-1, ValueCodecs.typeForName("float"));
+        assertNull(ValueCodecs.forValue(null));
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.carrierapp;
+
+import org.junit.Test;
+
+import java.lang.reflect.Array;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class ValueParsersTest {
+
+    @Test
+    public void parsesElementsOfEveryComponentType() {
+        Object[][] table = {
+                {boolean.class, "true", true},
+                {boolean.class, " FALSE ", false},
+                {int.class, "42", 42},
+                {int.class, " -2147483648 ", Integer.MIN_VALUE},
+                {int.class, "+7", 7},
+                {long.class, "9223372036854775807", Long.MAX_VALUE},
+                {long.class, "-1", -1L},
+                {double.class, "1.5", 1.5},
+                {double.class, " -.25e2 ", -25.0},
+                {double.class, "3.", 3.0},
+                {double.class, "NaN", Double.NaN},
+                {double.class, "-Infinity", Double.NEGATIVE_INFINITY},
+                {String.class, " kept as typed ", " kept as typed "},
+                {String.class, "", ""},
+        };
+        for (Object[] row : table) {
+            assertEquals(row[0] + " " + row[1], row[2], ValueParsers.parseElement((Class<?>) row[0], (String) row[1]));
+        }
+    }
+
+    @Test
+    public void rejectsWhatTheCodecsReject() {
+        Object[][] table = {
+                {boolean.class, "yes"},
+                {boolean.class, "1"},
+                {boolean.class, ""},
+                {int.class, "1.0"},
+                {int.class, "2147483648"},
+                {int.class, "0x10"},
+                {int.class, ""},
+                {long.class, "1L"},
+                {long.class, "9223372036854775808"},
+                {double.class, "1f"},
+                {double.class, "1d"},
+                {double.class, "0x1p3"},
+                {double.class, "1e"},
+                {double.class, "."},
+                {double.class, ""},
+                {float.class, "1"},
+        };
+        for (Object[] row : table) {
+            try {
+                ValueParsers.parseElement((Class<?>) row[0], (String) row[1]);
+                fail(row[0] + " accepted \"" + row[1] + "\"");
+            } catch (IllegalArgumentException expected) {
+                // NumberFormatException included.
+            }
+        }
+    }
+
+    @Test
+    public void parsesWholeArrays() {
+        assertArrayEquals(new int[]{1, -2, 3}, (int[]) ValueParsers.parseArray(int.class, "[1, -2,3]"));
+        assertArrayEquals(new int[]{1, 2}, (int[]) ValueParsers.parseArray(int.class, " 1 , 2 "));
+        assertArrayEquals(new long[0], (long[]) ValueParsers.parseArray(long.class, "[ ]"));
+        assertArrayEquals(new double[]{0.5, 1e3}, (double[]) ValueParsers.parseArray(double.class, "[0.5, 1e3]"), 0);
+        assertArrayEquals(new boolean[]{true, false},
+                (boolean[]) ValueParsers.parseArray(boolean.class, "[true, False]"));
+        String[] bad = {"[1, 2", "[1,,2]", "[1, 2,]", "[1f]"};
+        for (String text : bad) {
+            try {
+                ValueParsers.parseArray(double.class, text);
+                fail("accepted " + text);
+            } catch (IllegalArgumentException expected) {
+                // Rejected before staging.
+            }
+        }
+    }
+
+    @Test
+    public void elementEditsSetAppendAndRemove() {
+        int[] ints = {1, 2, 3};
+        assertArrayEquals(new int[]{1, 9, 3}, (int[]) ValueParsers.withElement(ints, 1, " 9 "));
+        assertArrayEquals(new int[]{1, 2, 3, 4}, (int[]) ValueParsers.withElement(ints, 3, "4"));
+        assertArrayEquals(new int[]{1, 3}, (int[]) ValueParsers.withoutElement(ints, 1));
+        assertArrayEquals(new int[]{1, 2, 3}, ints);
+
+        assertArrayEquals(new double[]{2.5}, (double[]) ValueParsers.withElement(new double[0], 0, "2.5"), 0);
+        assertArrayEquals(new boolean[]{false}, (boolean[]) ValueParsers.withElement(new boolean[]{true}, 0, "false"));
+        assertArrayEquals(new long[]{5}, (long[]) ValueParsers.withoutElement(new long[]{4, 5}, 0));
+        assertArrayEquals(new String[]{"a", " b"}, (String[]) ValueParsers.withElement(new String[]{"a"}, 1, " b"));
+        assertArrayEquals(new String[]{"b"}, (String[]) ValueParsers.withoutElement(new String[]{"a", "b"}, 0));
+    }
+
+    @Test
+    public void everyElementSurvivesAnUnchangedEdit() {
+        Object[] arrays = {
+                new boolean[]{true, false},
+                new int[]{Integer.MIN_VALUE, -140, 0, Integer.MAX_VALUE},
+                new long[]{Long.MIN_VALUE, 7, Long.MAX_VALUE},
+                new double[]{-0.0, 1e-300, 2.5, 1e21, Double.NaN, Double.NEGATIVE_INFINITY},
+                new String[]{"", " padded ", "a, b", null, "null"},
+        };
+        for (Object array : arrays) {
+            for (int i = 0; i < Array.getLength(array); i++) {
+                Object edited = ValueParsers.withElement(array, i, ValueParsers.formatElement(array, i));
+                assertEquals(array.getClass().getSimpleName() + "[" + i + "]",
+                        ValueParsers.formatElement(array, i), ValueParsers.formatElement(edited, i));
+            }
+        }
+        // A null string element is not the text "null".
+        assertNull(ValueParsers.formatElement(new String[]{null}, 0));
+        assertEquals("null", ValueParsers.formatElement(new String[]{"null"}, 0));
+    }
+
+    @Test
+    public void appendedElementsReadBackAsTyped() {
+        Object ints = ValueParsers.withElement(new int[]{1}, 1, " -7 ");
+        assertEquals("-7", ValueParsers.formatElement(ints, 1));
+        Object doubles = ValueParsers.withElement(new double[0], 0, "1e3");
+        assertEquals("1000.0", ValueParsers.formatElement(doubles, 0));
+        Object strings = ValueParsers.withElement(new String[]{null}, 1, "310260");
+        assertArrayEquals(new String[]{null, "310260"}, (String[]) strings);
+        Object booleans = ValueParsers.withElement(new boolean[0], 0, "TRUE");
+        assertEquals("true", ValueParsers.formatElement(booleans, 0));
+    }
+
+    @Test
+    public void elementEditsUseTheCodecRulesAndLeaveTheArrayAlone() {
+        double[] doubles = {1.0};
+        String[] rejected = {"1f", "0x1p3", "one"};
+        for (String text : rejected) {
+            try {
+                ValueParsers.withElement(doubles, 0, text);
+                fail("accepted " + text);
+            } catch (IllegalArgumentException expected) {
+                assertArrayEquals(new double[]{1.0}, doubles, 0);
+            }
+        }
+        try {
+            ValueParsers.withElement("not an array", 0, "1");
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // Only arrays have elements.
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.carrierapp.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading the whole carriers table for the APN editor: every column with
+ * indices looked up per row, as loadApns used to, against ApnRepository's
+ * six-column projection with indices resolved once. Both include filling the
+ * window, since a provider copies every projected column.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApnReadBenchmark {
+
+    @Param({"200", "2000"})
+    public int rows;
+
+    private ApnRows table;
+
+    @Setup
+    public void setUp() {
+        table = new ApnRows(rows);
+    }
+
+    @Benchmark
+    public List<ApnRows.Apn> allColumns() {
+        return ApnRows.baselineRead(table.query(null));
+    }
+
+    @Benchmark
+    public List<ApnRows.Apn> projected() {
+        return ApnRows.read(table.query(ApnRows.BASE_PROJECTION));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.carrierapp.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What CarrierConfigAdapter does per bound row, reported per row over a
+ * scattered set of rows, as after a search. {@code bindBoxed} is the original
+ * bundle lookup and {@code String.valueOf}; {@code bindByKey} reads the flat
+ * arrays after a binary search for the key; {@code bindByIndex} is the current
+ * path, where the list item already is the array index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BindBenchmark {
+
+    static final int ROWS = 64;
+
+    private FlatConfig flat;
+    private final int[] indices = new int[ROWS];
+    private final String[] keys = new String[ROWS];
+
+    @Setup
+    public void setUp(ConfigState state) {
+        flat = new FlatConfig(state.config, state.sortedKeys);
+        Random random = new Random(7);
+        for (int i = 0; i < ROWS; i++) indices[i] = random.nextInt(state.keys);
+        Arrays.sort(indices);
+        for (int i = 0; i < ROWS; i++) keys[i] = state.sortedKeys.get(indices[i]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void bindBoxed(ConfigState state, Blackhole bh) {
+        for (String key : keys) {
+            Object value = state.config.get(key);
+            if (value instanceof Boolean) bh.consume(((Boolean) value).booleanValue());
+            else bh.consume(String.valueOf(value));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void bindByKey(Blackhole bh) {
+        for (String key : keys) bind(flat.indexOf(key), bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void bindByIndex(Blackhole bh) {
+        for (int index : indices) bind(index, bh);
+    }
+
+    private void bind(int index, Blackhole bh) {
+        bh.consume(flat.keys.get(index));
+        if (flat.typeAt(index) == FlatConfig.TYPE_BOOLEAN) bh.consume(flat.booleanAt(index));
+        else bh.consume(flat.displayAt(index));
+    }
+}
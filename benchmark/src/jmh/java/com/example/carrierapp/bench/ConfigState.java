@@ -0,0 +1,26 @@
+package com.example.carrierapp.bench;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Map;
+
+/** A synthetic config of {@code keys} entries, shared by every benchmark that takes one. */
+@State(Scope.Benchmark)
+public class ConfigState {
+
+    @Param({"500", "5000", "50000"})
+    public int keys;
+
+    public Map<String, Object> config;
+    public List<String> sortedKeys;
+
+    @Setup
+    public void setUp() {
+        config = SyntheticConfig.generate(keys);
+        sortedKeys = ConfigPaths.sortedKeys(config);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.carrierapp.bench;
+
+import java.io.Writer;
+
+/** Discards output but counts it, so the JIT cannot drop the writes. */
+final class CountingWriter extends Writer {
+
+    long chars;
+
+    @Override
+    public void write(int c) {
+        chars++;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        chars += len;
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+        chars += len;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
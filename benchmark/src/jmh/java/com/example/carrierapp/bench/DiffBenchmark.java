@@ -0,0 +1,52 @@
+package com.example.carrierapp.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Diffing a config against its update: 1% of keys changed, and 10 keys
+ * (5 at 500 keys) swapped out. Both snapshots are built up front, as the app's are by the
+ * loader, so only the diff is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DiffBenchmark {
+
+    private Map<String, Object> updated;
+    private FlatConfig before;
+    private FlatConfig after;
+
+    @Setup
+    public void setUp(ConfigState state) {
+        updated = DiffPaths.updated(state.config, state.sortedKeys, 100,
+                Math.min(10, state.keys / 100));
+        before = new FlatConfig(state.config, state.sortedKeys);
+        after = new FlatConfig(updated, ConfigPaths.sortedKeys(updated));
+    }
+
+    @Benchmark
+    public List<DiffPaths.Change> diffBaseline(ConfigState state) {
+        return DiffPaths.baselineDiff(state.config, updated);
+    }
+
+    @Benchmark
+    public List<DiffPaths.Change> diffMerge() {
+        return DiffPaths.mergeDiff(before, after);
+    }
+}
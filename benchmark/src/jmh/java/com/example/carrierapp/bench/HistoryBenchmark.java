@@ -0,0 +1,73 @@
+package com.example.carrierapp.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The config history after 1,000 small changes: recording one more change
+ * as a delta against writing a full snapshot for it, and replaying the
+ * latest state from the base. Setup prints the bytes kept against a full
+ * snapshot per change.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HistoryBenchmark {
+
+    private static final int CHANGES = 1_000;
+
+    private HistoryPaths history;
+    private Map<String, Object>[] states;
+    private int next;
+    private long time;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp(ConfigState state) throws IOException {
+        Random random = new Random(7);
+        states = new Map[CHANGES + 1];
+        states[0] = state.config;
+        for (int i = 1; i <= CHANGES; i++) {
+            states[i] = HistoryPaths.mutate(states[i - 1], 1 + random.nextInt(5), random);
+        }
+        history = new HistoryPaths();
+        for (Map<String, Object> s : states) history.record(time++, s);
+        long full = SnapshotPaths.encode(state.config).length;
+        System.out.printf(Locale.ROOT, "%n%d keys after %d changes: history %d B in %d deltas, full snapshots %d B%n",
+                state.keys, CHANGES, history.totalBytes(), history.deltaCount(), full * (CHANGES + 1));
+    }
+
+    /** Walks the changes back and forth, so each record is one small delta. */
+    @Benchmark
+    public boolean recordDelta() throws IOException {
+        int i = next++ % (2 * CHANGES);
+        return history.record(time++, states[i < CHANGES ? CHANGES - 1 - i : i - CHANGES + 1]);
+    }
+
+    @Benchmark
+    public byte[] recordFullSnapshot() throws IOException {
+        return SnapshotPaths.encode(states[next++ % states.length]);
+    }
+
+    @Benchmark
+    public Map<String, Object> replayLatest() throws IOException {
+        return history.at(Long.MAX_VALUE);
+    }
+}
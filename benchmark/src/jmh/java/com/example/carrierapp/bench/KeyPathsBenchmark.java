@@ -0,0 +1,66 @@
+package com.example.carrierapp.bench;
+
+import com.example.carrierapp.ConfigSearchIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorting the keys of a freshly fetched config, and filtering them as the user
+ * types. The filter benchmarks replay one query a keystroke at a time and
+ * report the cost per keystroke.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KeyPathsBenchmark {
+
+    static final String QUERY = "ims_enable";
+    static final int KEYSTROKES = 10;
+
+    private ConfigSearchIndex index;
+
+    @Setup
+    public void setUp(ConfigState state) {
+        index = new ConfigSearchIndex(state.sortedKeys);
+    }
+
+    @Benchmark
+    public List<String> sortKeys(ConfigState state) {
+        return ConfigPaths.sortedKeys(state.config);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYSTROKES)
+    public void filterBaseline(ConfigState state, Blackhole bh) {
+        for (int i = 1; i <= KEYSTROKES; i++) {
+            bh.consume(ConfigPaths.baselineFilter(state.sortedKeys, QUERY.substring(0, i)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYSTROKES)
+    public void filterIndexed(Blackhole bh) {
+        // Start each replay from an empty box, as a new search does.
+        index.searchIndices("");
+        for (int i = 1; i <= KEYSTROKES; i++) {
+            bh.consume(index.searchIndices(QUERY.substring(0, i)));
+        }
+    }
+}
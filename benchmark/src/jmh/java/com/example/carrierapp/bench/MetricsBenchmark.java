@@ -0,0 +1,106 @@
+package com.example.carrierapp.bench;
+
+import com.example.carrierapp.LatencyHistogram;
+import com.example.carrierapp.Metrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What instrumenting a call site costs: a start/stop pair with recording off,
+ * which is what every user pays, and with it on, against the bare clock reads
+ * it wraps. {@code record} and {@code recordContended} isolate the histogram
+ * update, the latter with four threads on one histogram as the loader pool does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Off {
+        @Setup
+        public void setUp() {
+            Metrics.setEnabled(false);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class On {
+        @Setup
+        public void setUp() {
+            Metrics.reset();
+            Metrics.setEnabled(true);
+        }
+
+        @TearDown
+        public void tearDown() {
+            Metrics.setEnabled(false);
+            Metrics.reset();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        final LatencyHistogram histogram = new LatencyHistogram("bench");
+    }
+
+    @State(Scope.Thread)
+    public static class Values {
+        long next = 1;
+
+        /** Cycles through values from a few ns to about a second, hitting many buckets. */
+        long next() {
+            next = next * 6364136223846793005L + 1442695040888963407L;
+            return (next >>> 24) & ((1L << 30) - 1);
+        }
+    }
+
+    @Benchmark
+    public long clockBaseline() {
+        long t = System.nanoTime();
+        return System.nanoTime() - t;
+    }
+
+    @Benchmark
+    public void timerDisabled(Off off) {
+        long t = Metrics.start();
+        Metrics.CONFIG_FETCH.stop(t);
+    }
+
+    @Benchmark
+    public void timerEnabled(On on) {
+        long t = Metrics.start();
+        Metrics.CONFIG_FETCH.stop(t);
+    }
+
+    @Benchmark
+    public void counterEnabled(On on) {
+        Metrics.APN_ROWS.increment();
+    }
+
+    @Benchmark
+    public void record(Shared shared, Values values) {
+        shared.histogram.record(values.next());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordContended(Shared shared, Values values) {
+        shared.histogram.record(values.next());
+    }
+}
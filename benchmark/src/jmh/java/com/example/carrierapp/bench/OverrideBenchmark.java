@@ -0,0 +1,36 @@
+package com.example.carrierapp.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the override for a profile that touches every key: one single-key
+ * bundle per edit as applyOverride used to, against staging all edits into
+ * the one merged bundle that OverrideBatch sends.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OverrideBenchmark {
+
+    @Benchmark
+    public List<Map<String, Object>> overridePerEdit(ConfigState state) {
+        return ConfigPaths.baselineOverrides(state.sortedKeys, state.config);
+    }
+
+    @Benchmark
+    public Map<String, Object> overrideMerged(ConfigState state) {
+        return ConfigPaths.mergedOverride(state.sortedKeys, state.config);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.carrierapp.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One structured query against a prebuilt index, as CarrierConfigAdapter runs
+ * it once the debounce fires. The shapes cover a plain fuzzy term, predicates
+ * narrowing before a term, a numeric comparison, and misspelt words that fall
+ * through to the edit-distance pass for most keys. {@code buildIndex} is the
+ * one-off cost paid per loaded snapshot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QueryBenchmark {
+
+    /** Its own state, so buildIndex is not repeated once per query. */
+    @State(Scope.Thread)
+    public static class Query {
+        @Param({"volte", "type:bool value:false ims", "value:>=3000 type:int -key:timer", "enabel timr"})
+        public String text;
+    }
+
+    private FlatConfig flat;
+    private QueryPaths.Index index;
+
+    @Setup
+    public void setUp(ConfigState state) {
+        flat = new FlatConfig(state.config, state.sortedKeys);
+        index = new QueryPaths.Index(flat);
+    }
+
+    @Benchmark
+    public int[] query(Query query) {
+        return QueryPaths.run(index, query.text);
+    }
+
+    @Benchmark
+    public QueryPaths.Index buildIndex() {
+        return new QueryPaths.Index(flat);
+    }
+}
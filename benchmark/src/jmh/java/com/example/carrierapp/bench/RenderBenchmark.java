@@ -0,0 +1,44 @@
+package com.example.carrierapp.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering every value of a config as text, as the debug dump does: the
+ * original concatenate-per-key loop against the streaming writer. The sink
+ * discards output so only rendering is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderBenchmark {
+
+    private final char[] scratch = new char[20];
+
+    @Benchmark
+    public long dumpBaseline(ConfigState state) throws IOException {
+        CountingWriter out = new CountingWriter();
+        ConfigPaths.baselineDump(state.config, state.sortedKeys, out);
+        return out.chars;
+    }
+
+    @Benchmark
+    public long dumpStreaming(ConfigState state) throws IOException {
+        CountingWriter out = new CountingWriter();
+        ConfigPaths.dump(state.config, state.sortedKeys, out, scratch);
+        return out.chars;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.carrierapp.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exporting and importing a whole config: the SnapshotCodec binary form
+ * against a plain JSON export. Setup prints the encoded size of each.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SnapshotBenchmark {
+
+    private byte[] binary;
+    private byte[] json;
+
+    @Setup
+    public void setUp(ConfigState state) throws IOException {
+        binary = SnapshotPaths.encode(state.config);
+        json = SnapshotPaths.baselineJsonEncode(state.config);
+        System.out.printf(Locale.ROOT, "%n%d keys: binary %d B, JSON %d B%n", state.keys, binary.length, json.length);
+    }
+
+    @Benchmark
+    public byte[] encodeJson(ConfigState state) {
+        return SnapshotPaths.baselineJsonEncode(state.config);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary(ConfigState state) throws IOException {
+        return SnapshotPaths.encode(state.config);
+    }
+
+    @Benchmark
+    public Map<String, Object> decodeJson() {
+        return SnapshotPaths.baselineJsonDecode(json);
+    }
+
+    @Benchmark
+    public Map<String, Object> decodeBinary() throws IOException {
+        return SnapshotPaths.decode(binary);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.carrierapp.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The APN read path over an in-memory table, mirroring what ApnRepository
+ * does with a provider cursor. A query copies the projected columns of every
+ * row into a window, as the provider fills a CursorWindow, and
+ * {@link Window#getColumnIndex} scans the column names the way AbstractCursor
+ * does. Change with ApnRepository.
+ */
+public final class ApnRows {
+
+    /** Roughly the carriers table's width on a current device. */
+    public static final String[] ALL_COLUMNS = {
+            "_id", "name", "numeric", "mcc", "mnc", "carrier_id", "apn", "user", "server", "password",
+            "proxy", "port", "mmsproxy", "mmsport", "mmsc", "authtype", "type", "current", "protocol",
+            "roaming_protocol", "carrier_enabled", "bearer", "bearer_bitmask", "network_type_bitmask",
+            "mvno_type", "mvno_match_data", "sub_id", "profile_id", "modem_cognitive", "max_conns",
+            "wait_time", "max_conns_time", "mtu", "edited", "user_visible", "user_editable",
+            "owned_by", "apn_set_id", "skip_464xlat", "always_on",
+    };
+
+    /** ApnRepository.BASE_PROJECTION. */
+    public static final String[] BASE_PROJECTION = {"_id", "name", "apn", "type", "proxy", "port"};
+
+    /** ApnEditorActivity.ApnData, without the fields derived for display. */
+    public static final class Apn {
+        public final String id, name, apn, type;
+        public String proxy, port;
+
+        Apn(String id, String name, String apn, String type) {
+            this.id = id;
+            this.name = name;
+            this.apn = apn;
+            this.type = type;
+        }
+    }
+
+    /** The projected rows of one query. */
+    public static final class Window {
+        final String[] columns;
+        final String[][] rows;
+
+        Window(String[] columns, String[][] rows) {
+            this.columns = columns;
+            this.rows = rows;
+        }
+
+        /** AbstractCursor.getColumnIndex: strips a table qualifier, then a case-insensitive scan. */
+        public int getColumnIndex(String name) {
+            int dot = name.lastIndexOf('.');
+            if (dot != -1) name = name.substring(dot + 1);
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i].equalsIgnoreCase(name)) return i;
+            }
+            return -1;
+        }
+
+        int getColumnIndexOrThrow(String name) {
+            int index = getColumnIndex(name);
+            if (index < 0) throw new IllegalArgumentException("column '" + name + "' does not exist");
+            return index;
+        }
+    }
+
+    private final String[][] table;
+
+    /** A table of {@code rowCount} rows over {@link #ALL_COLUMNS}. */
+    public ApnRows(int rowCount) {
+        table = new String[rowCount][ALL_COLUMNS.length];
+        for (int r = 0; r < rowCount; r++) {
+            for (int c = 0; c < ALL_COLUMNS.length; c++) {
+                table[r][c] = c == 0 ? Integer.toString(r + 1) : ALL_COLUMNS[c] + "_" + r;
+            }
+        }
+    }
+
+    /** The rows with only {@code projection}'s columns, or every column for null. */
+    public Window query(String[] projection) {
+        String[] columns = projection != null ? projection : ALL_COLUMNS;
+        int[] source = new int[columns.length];
+        for (int c = 0; c < columns.length; c++) source[c] = indexIn(ALL_COLUMNS, columns[c]);
+        String[][] rows = new String[table.length][columns.length];
+        for (int r = 0; r < table.length; r++) {
+            for (int c = 0; c < columns.length; c++) rows[r][c] = table[r][source[c]];
+        }
+        return new Window(columns, rows);
+    }
+
+    /** The loadApns read loop from before ApnRepository: every column, indices looked up per row. */
+    public static List<Apn> baselineRead(Window window) {
+        List<Apn> list = new ArrayList<>();
+        for (String[] row : window.rows) {
+            Apn data = new Apn(
+                    row[window.getColumnIndexOrThrow("_id")],
+                    row[window.getColumnIndexOrThrow("name")],
+                    row[window.getColumnIndexOrThrow("apn")],
+                    row[window.getColumnIndexOrThrow("type")]);
+            int proxy = window.getColumnIndex("proxy");
+            if (proxy != -1) data.proxy = row[proxy];
+            int port = window.getColumnIndex("port");
+            if (port != -1) data.port = row[port];
+            list.add(data);
+        }
+        return list;
+    }
+
+    /** ApnRepository's loop: the base projection, indices resolved once per query. */
+    public static List<Apn> read(Window window) {
+        int id = window.getColumnIndexOrThrow("_id");
+        int name = window.getColumnIndexOrThrow("name");
+        int apn = window.getColumnIndexOrThrow("apn");
+        int type = window.getColumnIndexOrThrow("type");
+        int proxy = window.getColumnIndex("proxy");
+        int port = window.getColumnIndex("port");
+        List<Apn> list = new ArrayList<>(window.rows.length);
+        for (String[] row : window.rows) {
+            Apn data = new Apn(row[id], row[name], row[apn], row[type]);
+            if (proxy != -1) data.proxy = row[proxy];
+            if (port != -1) data.port = row[port];
+            list.add(data);
+        }
+        return list;
+    }
+
+    private static int indexIn(String[] columns, String name) {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].equals(name)) return i;
+        }
+        throw new IllegalArgumentException("No column " + name);
+    }
+}
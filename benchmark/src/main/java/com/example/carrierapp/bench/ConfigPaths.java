@@ -0,0 +1,200 @@
+package com.example.carrierapp.bench;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The app's config data paths with {@code PersistableBundle} replaced by
+ * {@code Map<String, Object>}, so they run on a plain JVM. Each method names
+ * the app code it mirrors; change both together. The {@code baseline} methods
+ * keep the original per-key implementations for comparison.
+ */
+public final class ConfigPaths {
+
+    private ConfigPaths() {}
+
+    /** ConfigSnapshot.build: private copy of the bundle, keys sorted once. */
+    public static List<String> sortedKeys(Map<String, Object> config) {
+        List<String> sorted = new ArrayList<>(config.keySet());
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    /** The original CarrierConfigAdapter.filter: lowercases every key on every keystroke. */
+    public static List<String> baselineFilter(List<String> sortedKeys, String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            out.addAll(sortedKeys);
+            return out;
+        }
+        String query = text.toLowerCase(Locale.ROOT);
+        for (String key : sortedKeys) {
+            if (key.toLowerCase(Locale.ROOT).contains(query)) out.add(key);
+        }
+        return out;
+    }
+
+    /** The original loadCarrierConfig dump: one concatenated line per key. */
+    public static void baselineDump(Map<String, Object> config, List<String> sortedKeys, Writer out)
+            throws IOException {
+        out.write("--- STARTING DUMP ---\n");
+        for (String key : sortedKeys) {
+            Object value = config.get(key);
+            String printValue;
+            if (value instanceof String[]) printValue = Arrays.toString((String[]) value);
+            else if (value instanceof int[]) printValue = Arrays.toString((int[]) value);
+            else if (value instanceof long[]) printValue = Arrays.toString((long[]) value);
+            else if (value instanceof boolean[]) printValue = Arrays.toString((boolean[]) value);
+            else printValue = String.valueOf(value);
+            out.write(key + " = " + printValue + "\n");
+        }
+        out.write("--- END DUMP ---\n");
+    }
+
+    /** ConfigDumper.dump at LEVEL_VALUES, without the byte budget. */
+    public static void dump(Map<String, Object> config, List<String> sortedKeys, Writer out, char[] scratch)
+            throws IOException {
+        out.write("--- STARTING DUMP keys=");
+        writeLong(out, sortedKeys.size(), scratch);
+        out.write(" ---\n");
+        for (String key : sortedKeys) {
+            out.write(key);
+            out.write(" = ");
+            writeValue(out, config.get(key), scratch);
+            out.write('\n');
+        }
+        out.write("--- END DUMP ---\n");
+    }
+
+    /** ConfigDumper.writeValue; nested bundles are maps here. */
+    @SuppressWarnings("unchecked")
+    public static void writeValue(Writer out, Object value, char[] scratch) throws IOException {
+        if (value == null) {
+            out.write("null");
+        } else if (value instanceof String) {
+            out.write((String) value);
+        } else if (value instanceof Boolean) {
+            out.write((Boolean) value ? "true" : "false");
+        } else if (value instanceof Integer) {
+            writeLong(out, (Integer) value, scratch);
+        } else if (value instanceof Long) {
+            writeLong(out, (Long) value, scratch);
+        } else if (value instanceof int[]) {
+            int[] arr = (int[]) value;
+            out.write('[');
+            for (int i = 0; i < arr.length; i++) {
+                if (i > 0) out.write(", ");
+                writeLong(out, arr[i], scratch);
+            }
+            out.write(']');
+        } else if (value instanceof long[]) {
+            long[] arr = (long[]) value;
+            out.write('[');
+            for (int i = 0; i < arr.length; i++) {
+                if (i > 0) out.write(", ");
+                writeLong(out, arr[i], scratch);
+            }
+            out.write(']');
+        } else if (value instanceof boolean[]) {
+            boolean[] arr = (boolean[]) value;
+            out.write('[');
+            for (int i = 0; i < arr.length; i++) {
+                if (i > 0) out.write(", ");
+                out.write(arr[i] ? "true" : "false");
+            }
+            out.write(']');
+        } else if (value instanceof double[]) {
+            double[] arr = (double[]) value;
+            out.write('[');
+            for (int i = 0; i < arr.length; i++) {
+                if (i > 0) out.write(", ");
+                out.write(Double.toString(arr[i]));
+            }
+            out.write(']');
+        } else if (value instanceof String[]) {
+            String[] arr = (String[]) value;
+            out.write('[');
+            for (int i = 0; i < arr.length; i++) {
+                if (i > 0) out.write(", ");
+                out.write(String.valueOf(arr[i]));
+            }
+            out.write(']');
+        } else if (value instanceof Map) {
+            Map<String, Object> nested = (Map<String, Object>) value;
+            out.write('{');
+            boolean first = true;
+            for (Map.Entry<String, Object> e : nested.entrySet()) {
+                if (!first) out.write(", ");
+                first = false;
+                out.write(e.getKey());
+                out.write('=');
+                writeValue(out, e.getValue(), scratch);
+            }
+            out.write('}');
+        } else {
+            out.write(String.valueOf(value));
+        }
+    }
+
+    /** ConfigDumper.writeLong: digits into a reused buffer instead of a new String. */
+    public static void writeLong(Writer out, long v, char[] scratch) throws IOException {
+        if (v == Long.MIN_VALUE) {
+            out.write("-9223372036854775808");
+            return;
+        }
+        boolean negative = v < 0;
+        if (negative) v = -v;
+        int pos = scratch.length;
+        do {
+            scratch[--pos] = (char) ('0' + (v % 10));
+            v /= 10;
+        } while (v != 0);
+        if (negative) scratch[--pos] = '-';
+        out.write(scratch, pos, scratch.length - pos);
+    }
+
+    /**
+     * The original applyOverride: a fresh single-key bundle per edit, and
+     * anything that is not a boolean, int or long sent as its string form.
+     */
+    public static List<Map<String, Object>> baselineOverrides(List<String> keys, Map<String, Object> edits) {
+        List<Map<String, Object>> calls = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            Object value = edits.get(key);
+            Map<String, Object> overrideBundle = new HashMap<>();
+            if (value instanceof Boolean || value instanceof Integer || value instanceof Long) {
+                overrideBundle.put(key, value);
+            } else {
+                overrideBundle.put(key, String.valueOf(value));
+            }
+            calls.add(overrideBundle);
+        }
+        return calls;
+    }
+
+    /** OverrideBatch.stage for every edit, then the one merged bundle flush() sends. */
+    public static Map<String, Object> mergedOverride(List<String> keys, Map<String, Object> edits) {
+        Map<String, Object> pending = new HashMap<>(keys.size() * 2);
+        for (String key : keys) putValue(pending, key, edits.get(key));
+        return pending;
+    }
+
+    /** OverrideBatch.putValue: typed put, unknown types rejected rather than stringified. */
+    public static void putValue(Map<String, Object> bundle, String key, Object value) {
+        if (value == null || value instanceof Boolean || value instanceof Integer || value instanceof Long
+                || value instanceof Double || value instanceof String || value instanceof int[]
+                || value instanceof long[] || value instanceof double[] || value instanceof boolean[]
+                || value instanceof String[] || value instanceof Map) {
+            bundle.put(key, value);
+        } else {
+            throw new IllegalArgumentException("Unsupported value type for " + key + ": " + value.getClass());
+        }
+    }
+}
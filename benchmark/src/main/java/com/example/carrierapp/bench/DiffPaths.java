@@ -0,0 +1,153 @@
+package com.example.carrierapp.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * ConfigDiff over {@link FlatConfig}, next to the obvious per-key lookup it
+ * replaced. Element-level detail for arrays and bundles is left out of both,
+ * so the comparison is of finding the changed keys.
+ */
+public final class DiffPaths {
+
+    public static final int ADDED = 1;
+    public static final int REMOVED = 2;
+    public static final int CHANGED = 3;
+
+    public static final class Change {
+        public final String key;
+        public final int kind;
+        public final String oldValue;
+        public final String newValue;
+
+        Change(String key, int kind, String oldValue, String newValue) {
+            this.key = key;
+            this.kind = kind;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+    }
+
+    private DiffPaths() {}
+
+    /** Looks every key of each side up in the other, then sorts the result. */
+    public static List<Change> baselineDiff(Map<String, Object> before, Map<String, Object> after) {
+        List<Change> out = new ArrayList<>();
+        for (Map.Entry<String, Object> e : before.entrySet()) {
+            String key = e.getKey();
+            if (!after.containsKey(key)) {
+                out.add(new Change(key, REMOVED, String.valueOf(e.getValue()), null));
+            } else if (!valuesEqual(e.getValue(), after.get(key))) {
+                out.add(new Change(key, CHANGED, String.valueOf(e.getValue()), String.valueOf(after.get(key))));
+            }
+        }
+        for (Map.Entry<String, Object> e : after.entrySet()) {
+            if (!before.containsKey(e.getKey())) {
+                out.add(new Change(e.getKey(), ADDED, null, String.valueOf(e.getValue())));
+            }
+        }
+        Collections.sort(out, (a, b) -> a.key.compareTo(b.key));
+        return out;
+    }
+
+    /** ConfigDiff.compute: one merge pass over both sorted key lists. */
+    public static List<Change> mergeDiff(FlatConfig before, FlatConfig after) {
+        List<String> a = before.keys;
+        List<String> b = after.keys;
+        List<Change> out = new ArrayList<>();
+        int i = 0, j = 0;
+        while (i < a.size() || j < b.size()) {
+            int cmp = i == a.size() ? 1 : j == b.size() ? -1 : a.get(i).compareTo(b.get(j));
+            if (cmp < 0) {
+                out.add(new Change(a.get(i), REMOVED, before.displayAt(i), null));
+                i++;
+            } else if (cmp > 0) {
+                out.add(new Change(b.get(j), ADDED, null, after.displayAt(j)));
+                j++;
+            } else {
+                if (changedAt(before, i, after, j)) {
+                    out.add(new Change(a.get(i), CHANGED, before.displayAt(i), after.displayAt(j)));
+                }
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    /** ConfigDiff.compareAt without the detail lines. */
+    private static boolean changedAt(FlatConfig before, int i, FlatConfig after, int j) {
+        byte type = before.typeAt(i);
+        if (type != after.typeAt(j)) return true;
+        switch (type) {
+            case FlatConfig.TYPE_NULL:
+                return false;
+            case FlatConfig.TYPE_BOOLEAN:
+            case FlatConfig.TYPE_INT:
+            case FlatConfig.TYPE_LONG:
+            case FlatConfig.TYPE_DOUBLE:
+                return before.longAt(i) != after.longAt(j);
+            default:
+                return !valuesEqual(before.valueAt(i), after.valueAt(j));
+        }
+    }
+
+    /** ConfigSnapshot.valuesEqual. */
+    @SuppressWarnings("unchecked")
+    public static boolean valuesEqual(Object a, Object b) {
+        if (a == b) return true;
+        if (a == null || b == null) return false;
+        if (a instanceof int[] && b instanceof int[]) return Arrays.equals((int[]) a, (int[]) b);
+        if (a instanceof long[] && b instanceof long[]) return Arrays.equals((long[]) a, (long[]) b);
+        if (a instanceof double[] && b instanceof double[]) return Arrays.equals((double[]) a, (double[]) b);
+        if (a instanceof boolean[] && b instanceof boolean[]) return Arrays.equals((boolean[]) a, (boolean[]) b);
+        if (a instanceof String[] && b instanceof String[]) return Arrays.equals((String[]) a, (String[]) b);
+        if (a instanceof Map && b instanceof Map) {
+            Map<String, Object> ma = (Map<String, Object>) a;
+            Map<String, Object> mb = (Map<String, Object>) b;
+            if (!ma.keySet().equals(mb.keySet())) return false;
+            for (Map.Entry<String, Object> e : ma.entrySet()) {
+                if (!valuesEqual(e.getValue(), mb.get(e.getKey()))) return false;
+            }
+            return true;
+        }
+        return Objects.equals(a, b);
+    }
+
+    /**
+     * A copy of {@code config} as after a carrier update: every
+     * {@code changeEvery}-th key changed, and {@code churn} keys removed and
+     * {@code churn} added. {@code churn} must be at most {@code size / changeEvery}.
+     */
+    public static Map<String, Object> updated(Map<String, Object> config, List<String> sortedKeys,
+                                              int changeEvery, int churn) {
+        Map<String, Object> out = new HashMap<>(config);
+        for (int i = 0; i < sortedKeys.size(); i += changeEvery) {
+            String key = sortedKeys.get(i);
+            out.put(key, changed(config.get(key)));
+        }
+        for (int i = 0; i < churn; i++) {
+            out.remove(sortedKeys.get(changeEvery / 2 + i * changeEvery));
+            out.put("zz_added_" + i + "_" + sortedKeys.get(i), i);
+        }
+        return out;
+    }
+
+    static Object changed(Object value) {
+        if (value instanceof Boolean) return !(Boolean) value;
+        if (value instanceof Integer) return (Integer) value + 1;
+        if (value instanceof Long) return (Long) value + 1;
+        if (value instanceof Double) return (Double) value + 1;
+        if (value instanceof int[]) {
+            int[] copy = Arrays.copyOf((int[]) value, ((int[]) value).length + 1);
+            copy[copy.length - 1] = 1;
+            return copy;
+        }
+        return "changed_" + value;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.carrierapp.bench;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ConfigSnapshot's parallel arrays over a {@code Map}: a type tag, packed
+ * primitive bits and display text per sorted key, filled once. The tags and
+ * packing are ConfigValues'; a nested {@code Map} stands in for a bundle.
+ */
+public final class FlatConfig {
+
+    public static final byte TYPE_NULL = 0;
+    public static final byte TYPE_BOOLEAN = 1;
+    public static final byte TYPE_INT = 2;
+    public static final byte TYPE_LONG = 3;
+    public static final byte TYPE_DOUBLE = 4;
+    public static final byte TYPE_STRING = 5;
+    public static final byte TYPE_BOOLEAN_ARRAY = 6;
+    public static final byte TYPE_INT_ARRAY = 7;
+    public static final byte TYPE_LONG_ARRAY = 8;
+    public static final byte TYPE_DOUBLE_ARRAY = 9;
+    public static final byte TYPE_STRING_ARRAY = 10;
+    public static final byte TYPE_BUNDLE = 11;
+    public static final byte TYPE_OTHER = 12;
+
+    public final Map<String, Object> config;
+    public final List<String> keys;
+    private final byte[] types;
+    private final long[] primitives;
+    private final String[] display;
+
+    public FlatConfig(Map<String, Object> config, List<String> sortedKeys) {
+        this.config = config;
+        keys = sortedKeys;
+        int n = sortedKeys.size();
+        types = new byte[n];
+        primitives = new long[n];
+        display = new String[n];
+        char[] scratch = new char[20];
+        for (int i = 0; i < n; i++) {
+            Object value = config.get(sortedKeys.get(i));
+            types[i] = typeOf(value);
+            primitives[i] = primitiveBits(value);
+            display[i] = render(value, scratch);
+        }
+    }
+
+    /** ConfigValues.typeOf. */
+    public static byte typeOf(Object value) {
+        if (value == null) return TYPE_NULL;
+        if (value instanceof Boolean) return TYPE_BOOLEAN;
+        if (value instanceof Integer) return TYPE_INT;
+        if (value instanceof Long) return TYPE_LONG;
+        if (value instanceof Double) return TYPE_DOUBLE;
+        if (value instanceof String) return TYPE_STRING;
+        if (value instanceof boolean[]) return TYPE_BOOLEAN_ARRAY;
+        if (value instanceof int[]) return TYPE_INT_ARRAY;
+        if (value instanceof long[]) return TYPE_LONG_ARRAY;
+        if (value instanceof double[]) return TYPE_DOUBLE_ARRAY;
+        if (value instanceof String[]) return TYPE_STRING_ARRAY;
+        if (value instanceof Map) return TYPE_BUNDLE;
+        return TYPE_OTHER;
+    }
+
+    /** ConfigValues.primitiveBits. */
+    public static long primitiveBits(Object value) {
+        if (value instanceof Boolean) return (Boolean) value ? 1 : 0;
+        if (value instanceof Integer) return (Integer) value;
+        if (value instanceof Long) return (Long) value;
+        if (value instanceof Double) return Double.doubleToRawLongBits((Double) value);
+        return 0;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    /** ConfigSnapshot.indexOf: what CarrierConfigAdapter did per bind before it held indices. */
+    public int indexOf(String key) {
+        return Collections.binarySearch(keys, key);
+    }
+
+    public byte typeAt(int index) {
+        return types[index];
+    }
+
+    public boolean booleanAt(int index) {
+        return primitives[index] != 0;
+    }
+
+    public long longAt(int index) {
+        return primitives[index];
+    }
+
+    public String displayAt(int index) {
+        return display[index];
+    }
+
+    public Object valueAt(int index) {
+        return config.get(keys.get(index));
+    }
+
+    private static String render(Object value, char[] scratch) {
+        if (value instanceof String) return (String) value;
+        StringWriter out = new StringWriter();
+        try {
+            ConfigPaths.writeValue(out, value, scratch);
+        } catch (IOException e) {
+            // StringWriter does not throw.
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.carrierapp.bench;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * ConfigHistory over a {@code Map}, with encoded files held in memory: one
+ * full base snapshot plus a {set, removed} delta per change, folded into the
+ * base past {@link #MAX_DELTAS} or the size cap. Change with ConfigHistory.
+ */
+public final class HistoryPaths {
+
+    /** ConfigHistory.MAX_DELTAS. */
+    public static final int MAX_DELTAS = 512;
+    /** ConfigHistory.DEFAULT_MAX_BYTES. */
+    public static final long DEFAULT_MAX_BYTES = 2L << 20;
+
+    private static final String KEY_SET = "set";
+    private static final String KEY_REMOVED = "removed";
+
+    private byte[] base;
+    private long baseTime;
+    private final List<Long> deltaTimes = new ArrayList<>();
+    private final List<byte[]> deltas = new ArrayList<>();
+    private Map<String, Object> head;
+
+    /** ConfigHistory.record. */
+    public boolean record(long timestamp, Map<String, Object> config) throws IOException {
+        if (base == null) {
+            base = SnapshotPaths.encode(config);
+            baseTime = timestamp;
+            head = new HashMap<>(config);
+            return true;
+        }
+        Map<String, Object> delta = delta(head, config);
+        if (delta == null) return false;
+        long last = deltaTimes.isEmpty() ? baseTime : deltaTimes.get(deltaTimes.size() - 1);
+        deltaTimes.add(Math.max(timestamp, last + 1));
+        deltas.add(SnapshotPaths.encode(delta));
+        head = new HashMap<>(config);
+        enforceLimits();
+        return true;
+    }
+
+    /** ConfigHistory.at. */
+    public Map<String, Object> at(long timestamp) throws IOException {
+        if (base == null || timestamp < baseTime) return null;
+        return replay(timestamp);
+    }
+
+    /** Bytes the base and every kept delta take. */
+    public long totalBytes() {
+        long total = base == null ? 0 : base.length;
+        for (byte[] d : deltas) total += d.length;
+        return total;
+    }
+
+    public int deltaCount() {
+        return deltas.size();
+    }
+
+    /**
+     * A copy of {@code config} with {@code edits} keys changed, removed or
+     * added, as a carrier update or an override would.
+     */
+    public static Map<String, Object> mutate(Map<String, Object> config, int edits, Random random) {
+        Map<String, Object> next = new HashMap<>(config);
+        List<String> keys = new ArrayList<>(next.keySet());
+        for (int e = 0; e < edits; e++) {
+            String key = keys.get(random.nextInt(keys.size()));
+            int roll = random.nextInt(10);
+            if (roll == 0) next.remove(key);
+            else if (roll == 1) next.put("carrier_added_" + random.nextInt(1_000_000) + "_int", random.nextInt());
+            else if (next.containsKey(key)) next.put(key, DiffPaths.changed(next.get(key)));
+        }
+        return next;
+    }
+
+    private void enforceLimits() throws IOException {
+        if (deltas.size() > MAX_DELTAS) compact(deltas.size() / 2);
+        while (!deltas.isEmpty() && totalBytes() > DEFAULT_MAX_BYTES) compact(Math.max(1, deltas.size() / 2));
+    }
+
+    /** ConfigHistory.compact: folds the oldest {@code fold} deltas into the base. */
+    private void compact(int fold) throws IOException {
+        long newBaseTime = deltaTimes.get(fold - 1);
+        base = SnapshotPaths.encode(replay(newBaseTime));
+        baseTime = newBaseTime;
+        deltaTimes.subList(0, fold).clear();
+        deltas.subList(0, fold).clear();
+    }
+
+    private Map<String, Object> replay(long until) throws IOException {
+        Map<String, Object> state = SnapshotPaths.decode(base);
+        for (int i = 0; i < deltas.size() && deltaTimes.get(i) <= until; i++) {
+            apply(SnapshotPaths.decode(deltas.get(i)), state);
+        }
+        return state;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void apply(Map<String, Object> delta, Map<String, Object> state) {
+        for (String key : (String[]) delta.get(KEY_REMOVED)) state.remove(key);
+        state.putAll((Map<String, Object>) delta.get(KEY_SET));
+    }
+
+    /** ConfigHistory.delta. */
+    static Map<String, Object> delta(Map<String, Object> head, Map<String, Object> config) {
+        Map<String, Object> set = new HashMap<>();
+        List<String> removed = new ArrayList<>();
+        for (Map.Entry<String, Object> e : config.entrySet()) {
+            String key = e.getKey();
+            if (head.containsKey(key) && DiffPaths.valuesEqual(head.get(key), e.getValue())) continue;
+            set.put(key, e.getValue());
+        }
+        for (String key : head.keySet()) {
+            if (!config.containsKey(key)) removed.add(key);
+        }
+        if (set.isEmpty() && removed.isEmpty()) return null;
+        Map<String, Object> delta = new HashMap<>();
+        delta.put(KEY_SET, set);
+        delta.put(KEY_REMOVED, removed.toArray(new String[0]));
+        return delta;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.carrierapp.bench;
+
+import com.example.carrierapp.FuzzyMatcher;
+import com.example.carrierapp.QuerySyntax;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * ConfigQuery over {@link FlatConfig}, on the app's own {@link QuerySyntax}
+ * and {@link FuzzyMatcher}; only the predicates that read the snapshot are
+ * mirrored here. Change with ConfigQuery.
+ */
+public final class QueryPaths {
+
+    /** ConfigValues.typeName, by tag. */
+    private static final String[] TYPE_NAMES = {
+            "null", "bool", "int", "long", "double", "string",
+            "bool[]", "int[]", "long[]", "double[]", "string[]", "bundle", "other",
+    };
+
+    private interface Predicate {
+        boolean test(Index index, int i);
+    }
+
+    private QueryPaths() {}
+
+    /** ConfigQuery.Index: lowercased keys, their segments and lowercased values, built once. */
+    public static final class Index {
+        final FlatConfig flat;
+        final String[] lowerKeys;
+        final String[][] segments;
+        final String[] lowerDisplay;
+
+        public Index(FlatConfig flat) {
+            this.flat = flat;
+            int n = flat.size();
+            lowerKeys = new String[n];
+            segments = new String[n][];
+            lowerDisplay = new String[n];
+            for (int i = 0; i < n; i++) {
+                lowerKeys[i] = flat.keys.get(i).toLowerCase(Locale.ROOT);
+                segments[i] = FuzzyMatcher.segments(lowerKeys[i]);
+                lowerDisplay[i] = flat.displayAt(i).toLowerCase(Locale.ROOT);
+            }
+        }
+    }
+
+    /** ConfigQuery.parse(text).runIndices(index). */
+    public static int[] run(Index index, String text) {
+        List<Predicate> predicates = new ArrayList<>();
+        List<String> terms = new ArrayList<>();
+        for (QuerySyntax.Clause clause : QuerySyntax.parse(text)) {
+            if (clause.field == null) {
+                terms.add(clause.arg);
+                continue;
+            }
+            Predicate p = predicate(clause.field, clause.arg);
+            if (clause.negate) {
+                Predicate inner = p;
+                p = (idx, i) -> !inner.test(idx, i);
+            }
+            predicates.add(p);
+        }
+
+        int n = index.lowerKeys.length;
+        int[] matched = new int[n];
+        int[] scores = new int[n];
+        int count = 0;
+        int[][] scratch = new int[2][64];
+        outer:
+        for (int i = 0; i < n; i++) {
+            for (Predicate p : predicates) {
+                if (!p.test(index, i)) continue outer;
+            }
+            int score = 0;
+            for (String term : terms) {
+                int s = FuzzyMatcher.score(index.lowerKeys[i], index.segments[i], term, scratch);
+                if (s == 0) continue outer;
+                score += s;
+            }
+            matched[count] = i;
+            scores[count] = score;
+            count++;
+        }
+
+        Integer[] order = new Integer[count];
+        for (int k = 0; k < count; k++) order[k] = k;
+        Arrays.sort(order, (a, b) -> scores[b] - scores[a]);
+        int[] result = new int[count];
+        for (int k = 0; k < count; k++) result[k] = matched[order[k]];
+        return result;
+    }
+
+    private static Predicate predicate(String field, String arg) {
+        switch (field) {
+            case QuerySyntax.FIELD_KEY:
+                return (index, i) -> index.lowerKeys[i].contains(arg);
+            case QuerySyntax.FIELD_TYPE:
+                String type = QuerySyntax.typeName(arg);
+                if (type.equals("array")) {
+                    return (index, i) -> index.flat.typeAt(i) >= FlatConfig.TYPE_BOOLEAN_ARRAY
+                            && index.flat.typeAt(i) <= FlatConfig.TYPE_STRING_ARRAY;
+                }
+                if (type.equals("number")) return (index, i) -> isNumeric(index.flat.typeAt(i));
+                return (index, i) -> TYPE_NAMES[index.flat.typeAt(i)].equals(type);
+            default:
+                return valuePredicate(arg);
+        }
+    }
+
+    private static Predicate valuePredicate(String arg) {
+        QuerySyntax.Comparison comparison = QuerySyntax.comparison(arg);
+        if (comparison != null) {
+            if (!comparison.numeric) return (index, i) -> index.lowerDisplay[i].equals(comparison.operand);
+            return (index, i) -> {
+                byte type = index.flat.typeAt(i);
+                if (!isNumeric(type)) return false;
+                long bits = index.flat.longAt(i);
+                return comparison.test(type == FlatConfig.TYPE_DOUBLE ? Double.longBitsToDouble(bits) : bits);
+            };
+        }
+        if (arg.equals("true") || arg.equals("false")) {
+            boolean wanted = arg.equals("true");
+            return (index, i) -> index.flat.typeAt(i) == FlatConfig.TYPE_BOOLEAN
+                    && index.flat.booleanAt(i) == wanted;
+        }
+        return (index, i) -> index.lowerDisplay[i].contains(arg);
+    }
+
+    private static boolean isNumeric(byte type) {
+        return type == FlatConfig.TYPE_INT || type == FlatConfig.TYPE_LONG || type == FlatConfig.TYPE_DOUBLE;
+    }
+}
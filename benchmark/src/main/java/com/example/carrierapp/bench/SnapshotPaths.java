@@ -0,0 +1,275 @@
+package com.example.carrierapp.bench;
+
+import com.example.carrierapp.SnapshotStreams;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SnapshotCodec over a {@code Map}, on the app's own {@link SnapshotStreams},
+ * and the JSON export it replaced as the baseline. Change with SnapshotCodec.
+ */
+public final class SnapshotPaths {
+
+    private static final byte[] MAGIC = {'C', 'C', 'S', 'N'};
+    private static final int VERSION = 1;
+
+    /** SnapshotCodec.KEY_ORDER. */
+    private static final Comparator<String> KEY_ORDER = (a, b) -> {
+        int byHash = Integer.compare(a.hashCode(), b.hashCode());
+        return byHash != 0 ? byHash : a.compareTo(b);
+    };
+
+    private SnapshotPaths() {}
+
+    /** SnapshotCodec.write. */
+    public static byte[] encode(Map<String, Object> config) throws IOException {
+        List<String> prefixes = collectPrefixes(config);
+        Map<String, Integer> prefixIds = new HashMap<>(prefixes.size() * 2);
+        for (int i = 0; i < prefixes.size(); i++) prefixIds.put(prefixes.get(i), i + 1);
+
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        SnapshotStreams.Out out = new SnapshotStreams.Out(Channels.newChannel(sink));
+        out.bytes(MAGIC);
+        out.u8(VERSION);
+        out.varint(prefixes.size());
+        for (String prefix : prefixes) out.string(prefix);
+        writeBundle(out, config, prefixIds);
+        out.flush();
+        return sink.toByteArray();
+    }
+
+    /** SnapshotCodec.read. */
+    public static Map<String, Object> decode(byte[] data) throws IOException {
+        SnapshotStreams.In in = new SnapshotStreams.In(Channels.newChannel(new ByteArrayInputStream(data)));
+        for (byte b : MAGIC) {
+            if (in.u8() != (b & 0xff)) throw new IOException("Not a config snapshot");
+        }
+        int version = in.u8();
+        if (version != VERSION) throw new IOException("Unsupported snapshot version " + version);
+        int prefixCount = in.length(1);
+        String[] prefixes = new String[prefixCount + 1];
+        prefixes[0] = "";
+        for (int i = 1; i <= prefixCount; i++) prefixes[i] = in.string();
+        return readBundle(in, prefixes);
+    }
+
+    /** A plain JSON export: values untagged, arrays as arrays, bundles as objects. */
+    public static byte[] baselineJsonEncode(Map<String, Object> config) {
+        return toJson(config).toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static Map<String, Object> baselineJsonDecode(byte[] data) {
+        return fromJson(new JSONObject(new String(data, StandardCharsets.UTF_8)));
+    }
+
+    private static List<String> collectPrefixes(Map<String, Object> config) {
+        Map<String, Integer> counts = new HashMap<>();
+        countPrefixes(config, counts);
+        List<String> shared = new ArrayList<>();
+        for (Map.Entry<String, Integer> e : counts.entrySet()) {
+            if (e.getValue() > 1) shared.add(e.getKey());
+        }
+        Collections.sort(shared);
+        return shared;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void countPrefixes(Map<String, Object> config, Map<String, Integer> counts) {
+        for (Map.Entry<String, Object> e : config.entrySet()) {
+            String prefix = prefixOf(e.getKey());
+            if (prefix != null) counts.merge(prefix, 1, Integer::sum);
+            if (e.getValue() instanceof Map) countPrefixes((Map<String, Object>) e.getValue(), counts);
+        }
+    }
+
+    private static String prefixOf(String key) {
+        int underscore = key.indexOf('_');
+        return underscore > 0 && underscore < key.length() - 1 ? key.substring(0, underscore + 1) : null;
+    }
+
+    private static void writeBundle(SnapshotStreams.Out out, Map<String, Object> config,
+                                    Map<String, Integer> prefixIds) throws IOException {
+        List<String> keys = new ArrayList<>(config.keySet());
+        Collections.sort(keys, KEY_ORDER);
+        out.varint(keys.size());
+        for (String key : keys) {
+            String prefix = prefixOf(key);
+            Integer id = prefix != null ? prefixIds.get(prefix) : null;
+            if (id != null) {
+                out.varint(id);
+                out.string(key.substring(prefix.length()));
+            } else {
+                out.varint(0);
+                out.string(key);
+            }
+            writeValue(out, config.get(key), prefixIds);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeValue(SnapshotStreams.Out out, Object value, Map<String, Integer> prefixIds)
+            throws IOException {
+        byte type = FlatConfig.typeOf(value);
+        out.u8(type);
+        switch (type) {
+            case FlatConfig.TYPE_NULL:
+                break;
+            case FlatConfig.TYPE_BOOLEAN:
+                out.u8((Boolean) value ? 1 : 0);
+                break;
+            case FlatConfig.TYPE_INT:
+                out.zigzag((Integer) value);
+                break;
+            case FlatConfig.TYPE_LONG:
+                out.zigzag((Long) value);
+                break;
+            case FlatConfig.TYPE_DOUBLE:
+                out.fixed64(Double.doubleToRawLongBits((Double) value));
+                break;
+            case FlatConfig.TYPE_STRING:
+                out.string((String) value);
+                break;
+            case FlatConfig.TYPE_BOOLEAN_ARRAY: {
+                boolean[] arr = (boolean[]) value;
+                out.varint(arr.length);
+                for (boolean v : arr) out.u8(v ? 1 : 0);
+                break;
+            }
+            case FlatConfig.TYPE_INT_ARRAY: {
+                int[] arr = (int[]) value;
+                out.varint(arr.length);
+                for (int v : arr) out.zigzag(v);
+                break;
+            }
+            case FlatConfig.TYPE_LONG_ARRAY: {
+                long[] arr = (long[]) value;
+                out.varint(arr.length);
+                for (long v : arr) out.zigzag(v);
+                break;
+            }
+            case FlatConfig.TYPE_DOUBLE_ARRAY: {
+                double[] arr = (double[]) value;
+                out.varint(arr.length);
+                for (double v : arr) out.fixed64(Double.doubleToRawLongBits(v));
+                break;
+            }
+            case FlatConfig.TYPE_STRING_ARRAY: {
+                String[] arr = (String[]) value;
+                out.varint(arr.length);
+                for (String v : arr) out.nullableString(v);
+                break;
+            }
+            case FlatConfig.TYPE_BUNDLE:
+                writeBundle(out, (Map<String, Object>) value, prefixIds);
+                break;
+            default:
+                throw new IOException("Unsupported value type " + value.getClass().getName());
+        }
+    }
+
+    private static Map<String, Object> readBundle(SnapshotStreams.In in, String[] prefixes) throws IOException {
+        int count = in.length(3);
+        Map<String, Object> config = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            int ref = in.index();
+            if (ref >= prefixes.length) throw new IOException("Bad prefix reference " + ref);
+            String key = prefixes[ref] + in.string();
+            config.put(key, readValue(in, prefixes));
+        }
+        return config;
+    }
+
+    private static Object readValue(SnapshotStreams.In in, String[] prefixes) throws IOException {
+        int type = in.u8();
+        switch (type) {
+            case FlatConfig.TYPE_NULL:
+                return null;
+            case FlatConfig.TYPE_BOOLEAN:
+                return in.u8() != 0;
+            case FlatConfig.TYPE_INT:
+                return (int) in.zigzag();
+            case FlatConfig.TYPE_LONG:
+                return in.zigzag();
+            case FlatConfig.TYPE_DOUBLE:
+                return Double.longBitsToDouble(in.fixed64());
+            case FlatConfig.TYPE_STRING:
+                return in.string();
+            case FlatConfig.TYPE_BOOLEAN_ARRAY: {
+                boolean[] arr = new boolean[in.length(1)];
+                for (int i = 0; i < arr.length; i++) arr[i] = in.u8() != 0;
+                return arr;
+            }
+            case FlatConfig.TYPE_INT_ARRAY: {
+                int[] arr = new int[in.length(1)];
+                for (int i = 0; i < arr.length; i++) arr[i] = (int) in.zigzag();
+                return arr;
+            }
+            case FlatConfig.TYPE_LONG_ARRAY: {
+                long[] arr = new long[in.length(1)];
+                for (int i = 0; i < arr.length; i++) arr[i] = in.zigzag();
+                return arr;
+            }
+            case FlatConfig.TYPE_DOUBLE_ARRAY: {
+                double[] arr = new double[in.length(8)];
+                for (int i = 0; i < arr.length; i++) arr[i] = Double.longBitsToDouble(in.fixed64());
+                return arr;
+            }
+            case FlatConfig.TYPE_STRING_ARRAY: {
+                String[] arr = new String[in.length(1)];
+                for (int i = 0; i < arr.length; i++) arr[i] = in.nullableString();
+                return arr;
+            }
+            case FlatConfig.TYPE_BUNDLE:
+                return readBundle(in, prefixes);
+            default:
+                throw new IOException("Unknown value type " + type);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JSONObject toJson(Map<String, Object> config) {
+        JSONObject json = new JSONObject();
+        for (Map.Entry<String, Object> e : config.entrySet()) {
+            Object value = e.getValue();
+            if (value instanceof Map) json.put(e.getKey(), toJson((Map<String, Object>) value));
+            else if (value != null && value.getClass().isArray()) json.put(e.getKey(), new JSONArray(value));
+            else json.put(e.getKey(), value != null ? value : JSONObject.NULL);
+        }
+        return json;
+    }
+
+    /** Arrays come back as their JSON element types; the untagged format cannot say more. */
+    private static Map<String, Object> fromJson(JSONObject json) {
+        Map<String, Object> config = new HashMap<>(json.length() * 2);
+        for (Iterator<String> it = json.keys(); it.hasNext(); ) {
+            String key = it.next();
+            Object value = json.get(key);
+            if (value instanceof JSONObject) {
+                value = fromJson((JSONObject) value);
+            } else if (value instanceof JSONArray) {
+                JSONArray array = (JSONArray) value;
+                Object[] elements = new Object[array.length()];
+                for (int i = 0; i < elements.length; i++) elements[i] = array.get(i);
+                value = elements;
+            } else if (value == JSONObject.NULL) {
+                value = null;
+            }
+            config.put(key, value);
+        }
+        return config;
+    }
+}
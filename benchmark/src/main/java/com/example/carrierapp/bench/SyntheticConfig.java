@@ -0,0 +1,106 @@
+package com.example.carrierapp.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic stand-in for a carrier config bundle. Key names use the same
+ * prefixes and word shapes as real CarrierConfigManager keys, and the value
+ * types follow the mix seen on devices: mostly booleans, then ints and
+ * strings, with a tail of arrays and the odd nested bundle.
+ */
+public final class SyntheticConfig {
+
+    private static final String[] PREFIXES = {
+            "carrier_", "ims_", "ims.", "volte_", "vvm_", "mms_", "apn_", "wfc_", "5g_", "nr_",
+            "sms_", "call_", "data_", "roaming_", "emergency_", "network_", "sim_", "esim_",
+    };
+
+    private static final String[] WORDS = {
+            "enable", "supported", "bool", "int", "string", "array", "timer", "timeout", "ms", "sec",
+            "threshold", "rsrp", "rssnr", "sinr", "plmn", "mcc", "mnc", "allow", "disable", "show",
+            "hide", "default", "override", "config", "mode", "prefer", "over", "ut", "wifi", "lte",
+            "nr", "sa", "nsa", "cdma", "gsm", "wcdma", "voice", "video", "conference", "rtt",
+            "ussd", "ss", "cf", "cw", "clir", "display", "name", "icon", "signal", "bar",
+    };
+
+    private SyntheticConfig() {}
+
+    /** {@code size} keys with a fixed seed, so every run benchmarks the same config. */
+    public static Map<String, Object> generate(int size) {
+        return generate(size, 42L);
+    }
+
+    public static Map<String, Object> generate(int size, long seed) {
+        Random random = new Random(seed);
+        Map<String, Object> config = new HashMap<>(size * 2);
+        StringBuilder sb = new StringBuilder(64);
+        int i = 0;
+        while (config.size() < size) {
+            sb.setLength(0);
+            sb.append(PREFIXES[random.nextInt(PREFIXES.length)]);
+            int words = 2 + random.nextInt(4);
+            for (int w = 0; w < words; w++) {
+                if (w > 0) sb.append('_');
+                sb.append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            String key = sb.toString();
+            // Real keys are unique by construction; make synthetic ones unique by suffix.
+            if (config.containsKey(key)) key = key + '_' + i;
+            config.put(key, value(random, 0));
+            i++;
+        }
+        return config;
+    }
+
+    private static Object value(Random random, int depth) {
+        int roll = random.nextInt(100);
+        if (roll < 45) return random.nextBoolean();
+        if (roll < 65) return random.nextInt(100_000) - 1_000;
+        if (roll < 72) return random.nextLong();
+        if (roll < 74) return random.nextDouble() * 100;
+        if (roll < 87) return random.nextInt(10) == 0 ? null : "value_" + Integer.toHexString(random.nextInt());
+        if (roll < 92) return ints(random);
+        if (roll < 96) return strings(random);
+        if (roll < 98) return longs(random);
+        if (roll < 99 || depth > 0) return booleans(random);
+        return bundle(random, depth + 1);
+    }
+
+    private static int[] ints(Random random) {
+        int[] out = new int[random.nextInt(12)];
+        for (int i = 0; i < out.length; i++) out[i] = random.nextInt(200) - 140;
+        return out;
+    }
+
+    private static long[] longs(Random random) {
+        long[] out = new long[random.nextInt(6)];
+        for (int i = 0; i < out.length; i++) out[i] = random.nextLong();
+        return out;
+    }
+
+    private static boolean[] booleans(Random random) {
+        boolean[] out = new boolean[random.nextInt(6)];
+        for (int i = 0; i < out.length; i++) out[i] = random.nextBoolean();
+        return out;
+    }
+
+    private static String[] strings(Random random) {
+        // PLMN lists dominate the long string arrays on real devices.
+        String[] out = new String[random.nextInt(random.nextInt(10) == 0 ? 200 : 8)];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = String.valueOf(310_000 + random.nextInt(90_000));
+        }
+        return out;
+    }
+
+    private static Map<String, Object> bundle(Random random, int depth) {
+        Map<String, Object> nested = new HashMap<>();
+        int size = 1 + random.nextInt(8);
+        for (int i = 0; i < size; i++) {
+            nested.put(WORDS[random.nextInt(WORDS.length)] + "_" + i, value(random, depth));
+        }
+        return nested;
+    }
+}
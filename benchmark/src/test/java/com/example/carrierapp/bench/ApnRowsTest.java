@@ -0,0 +1,39 @@
+package com.example.carrierapp.bench;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ApnRowsTest {
+
+    @Test
+    public void bothReadPathsProduceTheSameRows() {
+        ApnRows table = new ApnRows(250);
+        List<ApnRows.Apn> baseline = ApnRows.baselineRead(table.query(null));
+        List<ApnRows.Apn> projected = ApnRows.read(table.query(ApnRows.BASE_PROJECTION));
+        assertEquals(250, baseline.size());
+        assertEquals(250, projected.size());
+        for (int i = 0; i < baseline.size(); i++) {
+            ApnRows.Apn a = baseline.get(i);
+            ApnRows.Apn b = projected.get(i);
+            assertEquals(Integer.toString(i + 1), b.id);
+            assertEquals(a.id, b.id);
+            assertEquals(a.name, b.name);
+            assertEquals(a.apn, b.apn);
+            assertEquals(a.type, b.type);
+            assertEquals(a.proxy, b.proxy);
+            assertEquals(a.port, b.port);
+        }
+        assertEquals("proxy_7", projected.get(7).proxy);
+    }
+
+    @Test
+    public void columnLookupFollowsTheCursorRules() {
+        ApnRows.Window window = new ApnRows(1).query(ApnRows.BASE_PROJECTION);
+        assertEquals(2, window.getColumnIndex("apn"));
+        assertEquals(2, window.getColumnIndex("carriers.APN"));
+        assertEquals(-1, window.getColumnIndex("mtu"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.carrierapp.bench;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ConfigPathsTest {
+
+    @Test
+    public void syntheticConfigIsDeterministicAndExactSize() {
+        for (int size : new int[]{500, 5000}) {
+            Map<String, Object> a = SyntheticConfig.generate(size);
+            assertEquals(size, a.size());
+            assertEquals(a.keySet(), SyntheticConfig.generate(size).keySet());
+        }
+    }
+
+    @Test
+    public void streamingDumpMatchesBaselineWhereBaselineRendersContent() throws IOException {
+        Map<String, Object> config = new HashMap<>();
+        config.put("a_bool", true);
+        config.put("b_int", -42);
+        config.put("c_long", Long.MIN_VALUE);
+        config.put("d_string", "hello");
+        config.put("e_null", null);
+        config.put("f_ints", new int[]{1, -2, 3});
+        config.put("g_longs", new long[]{});
+        config.put("h_bools", new boolean[]{true, false});
+        config.put("i_strings", new String[]{"x", null});
+        config.put("j_bundle", Collections.singletonMap("k", 7));
+        List<String> keys = ConfigPaths.sortedKeys(config);
+
+        StringWriter baseline = new StringWriter();
+        ConfigPaths.baselineDump(config, keys, baseline);
+        StringWriter streaming = new StringWriter();
+        ConfigPaths.dump(config, keys, streaming, new char[20]);
+
+        assertEquals(body(baseline.toString()), body(streaming.toString()));
+    }
+
+    @Test
+    public void streamingDumpRendersWhatBaselinePrintedAsIdentityHash() throws IOException {
+        Map<String, Object> config = Collections.singletonMap("doubles", new double[]{0.5, 2});
+        StringWriter out = new StringWriter();
+        ConfigPaths.dump(config, ConfigPaths.sortedKeys(config), out, new char[20]);
+        assertTrue(out.toString(), out.toString().contains("doubles = [0.5, 2.0]\n"));
+    }
+
+    @Test
+    public void mergedOverrideKeepsTypesThatBaselineStringified() {
+        Map<String, Object> edits = new HashMap<>();
+        edits.put("ints", new int[]{1, 2});
+        edits.put("flag", false);
+        List<String> keys = Arrays.asList("flag", "ints");
+
+        Map<String, Object> merged = ConfigPaths.mergedOverride(keys, edits);
+        assertArrayEquals(new int[]{1, 2}, (int[]) merged.get("ints"));
+        assertEquals(false, merged.get("flag"));
+
+        List<Map<String, Object>> perEdit = ConfigPaths.baselineOverrides(keys, edits);
+        assertEquals(2, perEdit.size());
+        assertTrue(perEdit.get(1).get("ints") instanceof String);
+    }
+
+    @Test
+    public void mergedOverrideRejectsUnsupportedTypes() {
+        try {
+            ConfigPaths.mergedOverride(Collections.singletonList("k"),
+                    Collections.singletonMap("k", new Object()));
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    /** Dump lines without the header and footer, which differ between the two. */
+    private static String body(String dump) {
+        return dump.substring(dump.indexOf('\n') + 1, dump.lastIndexOf("--- END"));
+    }
+}
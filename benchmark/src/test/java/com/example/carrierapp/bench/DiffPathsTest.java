@@ -0,0 +1,44 @@
+package com.example.carrierapp.bench;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class DiffPathsTest {
+
+    @Test
+    public void mergeDiffAgreesWithBaseline() {
+        Map<String, Object> before = SyntheticConfig.generate(5000);
+        List<String> sorted = ConfigPaths.sortedKeys(before);
+        Map<String, Object> after = DiffPaths.updated(before, sorted, 100, 10);
+
+        List<DiffPaths.Change> baseline = DiffPaths.baselineDiff(before, after);
+        List<DiffPaths.Change> merged = DiffPaths.mergeDiff(
+                new FlatConfig(before, sorted), new FlatConfig(after, ConfigPaths.sortedKeys(after)));
+
+        assertEquals(baseline.size(), merged.size());
+        for (int i = 0; i < merged.size(); i++) {
+            assertEquals(baseline.get(i).key, merged.get(i).key);
+            assertEquals(baseline.get(i).kind, merged.get(i).kind);
+        }
+        int added = 0, removed = 0;
+        for (DiffPaths.Change c : merged) {
+            if (c.kind == DiffPaths.ADDED) added++;
+            if (c.kind == DiffPaths.REMOVED) removed++;
+        }
+        assertEquals(10, added);
+        assertEquals(10, removed);
+    }
+
+    @Test
+    public void identicalConfigsHaveNoChanges() {
+        Map<String, Object> config = SyntheticConfig.generate(500);
+        List<String> sorted = ConfigPaths.sortedKeys(config);
+        FlatConfig flat = new FlatConfig(config, sorted);
+        assertEquals(0, DiffPaths.mergeDiff(flat, new FlatConfig(config, sorted)).size());
+        assertEquals(0, DiffPaths.baselineDiff(config, config).size());
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.carrierapp.bench;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FlatConfigTest {
+
+    @Test
+    public void flattensEveryKeyInSortedOrder() {
+        Map<String, Object> config = new HashMap<>();
+        config.put("c_ints", new int[]{1, 2});
+        config.put("a_bool", true);
+        config.put("b_int", 7);
+        config.put("d_null", null);
+        List<String> sorted = ConfigPaths.sortedKeys(config);
+        FlatConfig flat = new FlatConfig(config, sorted);
+
+        assertEquals(FlatConfig.TYPE_BOOLEAN, flat.typeAt(0));
+        assertTrue(flat.booleanAt(0));
+        assertEquals(FlatConfig.TYPE_INT, flat.typeAt(1));
+        assertEquals(7, flat.longAt(1));
+        assertEquals("7", flat.displayAt(1));
+        assertEquals(FlatConfig.TYPE_INT_ARRAY, flat.typeAt(2));
+        assertEquals("[1, 2]", flat.displayAt(2));
+        assertEquals(FlatConfig.TYPE_NULL, flat.typeAt(3));
+        assertEquals("null", flat.displayAt(3));
+    }
+
+    @Test
+    public void indexOfFindsEverySyntheticKey() {
+        Map<String, Object> config = SyntheticConfig.generate(500);
+        List<String> sorted = ConfigPaths.sortedKeys(config);
+        FlatConfig flat = new FlatConfig(config, sorted);
+        for (int i = 0; i < sorted.size(); i++) assertEquals(i, flat.indexOf(sorted.get(i)));
+    }
+}
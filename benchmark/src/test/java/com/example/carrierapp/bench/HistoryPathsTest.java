@@ -0,0 +1,53 @@
+package com.example.carrierapp.bench;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HistoryPathsTest {
+
+    @Test
+    public void replaysEachRecordedState() throws IOException {
+        Random random = new Random(7);
+        Map<String, Object> first = SyntheticConfig.generate(500);
+        Map<String, Object> second = HistoryPaths.mutate(first, 5, random);
+        HistoryPaths history = new HistoryPaths();
+        assertTrue(history.record(1_000, first));
+        assertTrue(history.record(2_000, second));
+        assertFalse(history.record(3_000, second));
+
+        assertNull(history.at(999));
+        assertSame(first, history.at(1_500));
+        assertSame(second, history.at(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void thousandChangesStayWellUnderThreeFullSnapshots() throws IOException {
+        Random random = new Random(7);
+        Map<String, Object> config = SyntheticConfig.generate(5000);
+        HistoryPaths history = new HistoryPaths();
+        history.record(0, config);
+        long baseBytes = history.totalBytes();
+        for (int i = 1; i <= 1_000; i++) {
+            config = HistoryPaths.mutate(config, 1 + random.nextInt(5), random);
+            history.record(i * 60_000L, config);
+        }
+        assertSame(config, history.at(Long.MAX_VALUE));
+        assertTrue(history.deltaCount() <= HistoryPaths.MAX_DELTAS);
+        assertTrue(history.totalBytes() + " B", history.totalBytes() < baseBytes * 3);
+    }
+
+    private static void assertSame(Map<String, Object> expected, Map<String, Object> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<String, Object> e : expected.entrySet()) {
+            assertTrue(e.getKey(), DiffPaths.valuesEqual(e.getValue(), actual.get(e.getKey())));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.carrierapp.bench;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class QueryPathsTest {
+
+    private final Map<String, Object> config = SyntheticConfig.generate(5000);
+    private final FlatConfig flat = new FlatConfig(config, ConfigPaths.sortedKeys(config));
+    private final QueryPaths.Index index = new QueryPaths.Index(flat);
+
+    @Test
+    public void predicatesSelectWhatTheyName() {
+        int[] falseImsBools = QueryPaths.run(index, "type:bool value:false ims");
+        assertTrue(falseImsBools.length > 0);
+        for (int i : falseImsBools) {
+            assertEquals(FlatConfig.TYPE_BOOLEAN, flat.typeAt(i));
+            assertFalse(flat.booleanAt(i));
+        }
+
+        int[] bigInts = QueryPaths.run(index, "value:>=3000 type:int -key:timer");
+        assertTrue(bigInts.length > 0);
+        for (int i : bigInts) {
+            assertEquals(FlatConfig.TYPE_INT, flat.typeAt(i));
+            assertTrue(flat.longAt(i) >= 3000);
+            assertFalse(flat.keys.get(i).contains("timer"));
+        }
+    }
+
+    @Test
+    public void termsRankSubstringHitsFirst() {
+        int[] ranked = QueryPaths.run(index, "enable");
+        assertTrue(ranked.length > 0);
+        assertTrue(flat.keys.get(ranked[0]).toLowerCase(Locale.ROOT).contains("enable"));
+        // A misspelling still finds every key with an "enable" segment, through the typo pass.
+        Set<Integer> misspelt = new HashSet<>();
+        for (int i : QueryPaths.run(index, "enabel")) misspelt.add(i);
+        for (int i : ranked) {
+            if (Arrays.asList(flat.keys.get(i).split("_")).contains("enable")) {
+                assertTrue(flat.keys.get(i), misspelt.contains(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.carrierapp.bench;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotPathsTest {
+
+    @Test
+    public void binaryRoundTripsTheSyntheticConfig() throws IOException {
+        Map<String, Object> config = SyntheticConfig.generate(5000);
+        byte[] data = SnapshotPaths.encode(config);
+        Map<String, Object> copy = SnapshotPaths.decode(data);
+        assertEquals(config.keySet(), copy.keySet());
+        for (Map.Entry<String, Object> e : config.entrySet()) {
+            assertTrue(e.getKey(), DiffPaths.valuesEqual(e.getValue(), copy.get(e.getKey())));
+        }
+        // Same content, same bytes, whatever order the map iterates in.
+        assertArrayEquals(data, SnapshotPaths.encode(copy));
+    }
+
+    @Test
+    public void binaryIsSmallerThanTheJsonBaseline() throws IOException {
+        Map<String, Object> config = SyntheticConfig.generate(5000);
+        byte[] json = SnapshotPaths.baselineJsonEncode(config);
+        assertEquals(config.size(), SnapshotPaths.baselineJsonDecode(json).size());
+        int binary = SnapshotPaths.encode(config).length;
+        assertTrue("binary " + binary + " B vs JSON " + json.length + " B", binary < json.length);
+    }
+}